@@ -0,0 +1,65 @@
+package ast;
+
+import harness.Bench;
+import harness.Corpus;
+import java.util.ArrayList;
+import java.util.List;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * Memoria retenida y tiempo de recorrido del AST como objetos (Parser.parse()) y como
+ * AstArena (Parser.parseArena()), sobre el mismo programa sintetico.
+ *
+ *   java -Xmx2g -cp out ast.AstArenaBench [caracteres]
+ */
+public class AstArenaBench {
+    public static void main(String[] args) throws Exception {
+        int chars = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        String source = Corpus.functions(chars / 2000, 30);
+        System.out.printf("Entrada: %,d caracteres%n", source.length());
+
+        long before = Bench.usedAfterGc();
+        ProgramNode program = new Parser(new Lexer(source)).parse();
+        long objects = Bench.usedAfterGc() - before;
+        AstArena arena = new Parser(new Lexer(source)).parseArena();
+        long flat = Bench.usedAfterGc() - before - objects;
+        System.out.printf("Retenido: objetos %,d KB, arena %,d KB (footprint %,d KB), %,d nodos%n",
+            objects >> 10, flat >> 10, arena.footprint() >> 10, arena.size());
+
+        Bench.Result walkObjects = Bench.time(5, 10, () -> walk(program));
+        Bench.Result walkArena = Bench.time(5, 10, () -> walk(arena));
+        System.out.printf("Recorrido objetos: %s%n", walkObjects);
+        System.out.printf("Recorrido arena:   %s%n", walkArena);
+
+        Bench.Result parseObjects = Bench.time(2, 5, () -> new Parser(new Lexer(source)).parse());
+        Bench.Result parseArena = Bench.time(2, 5, () -> new Parser(new Lexer(source)).parseArena());
+        System.out.printf("parse():      %s%nparseArena(): %s%n", parseObjects, parseArena);
+    }
+
+    // Suma de lineas en preorden con una pila explicita
+    private static Object walk(ProgramNode program) {
+        long sum = 0;
+        List<ASTNode> pending = new ArrayList<>();
+        pending.add(program);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.remove(pending.size() - 1);
+            if (node == null) continue;
+            sum += node.getLineNumber();
+            node.addChildren(pending);
+        }
+        return sum;
+    }
+
+    private static Object walk(AstArena arena) {
+        long sum = 0;
+        AstArena.Cursor cursor = arena.cursor(arena.root());
+        while (true) {
+            sum += cursor.line();
+            if (cursor.gotoFirstChild()) continue;
+            while (!cursor.gotoNextSibling()) {
+                if (!cursor.gotoParent()) return sum;
+            }
+        }
+    }
+}
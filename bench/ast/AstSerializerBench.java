@@ -0,0 +1,29 @@
+package ast;
+
+import harness.Bench;
+import harness.Corpus;
+import lexer.Lexer;
+import parser.Parser;
+import util.Interner;
+
+/**
+ * Cargar un programa ya parseado con AstSerializer frente a volver a pasar el fuente
+ * por Lexer y Parser, mas el tamaño del formato binario frente al fuente.
+ *
+ *   java -Xmx2g -cp out ast.AstSerializerBench [caracteres]
+ */
+public class AstSerializerBench {
+    public static void main(String[] args) throws Exception {
+        int chars = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String source = Corpus.functions(chars / 650, 10);
+        byte[] data = AstSerializer.serialize(new Parser(new Lexer(source)).parse());
+        System.out.printf("Fuente %,d caracteres, serializado %,d bytes%n", source.length(), data.length);
+
+        Bench.Result parse = Bench.time(3, 7, () -> new Parser(new Lexer(source)).parse());
+        Bench.Result load = Bench.time(3, 7, () -> AstSerializer.deserialize(data, new Interner()));
+        Bench.Result store = Bench.time(3, 7, () -> AstSerializer.serialize(new Parser(new Lexer(source)).parse()));
+        System.out.printf("lexer + parser:      %s%n", parse);
+        System.out.printf("deserialize:         %s (%.2fx)%n", load, parse.minMillis() / load.minMillis());
+        System.out.printf("parse + serialize:   %s%n", store);
+    }
+}
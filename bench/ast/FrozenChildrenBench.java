@@ -0,0 +1,49 @@
+package ast;
+
+import harness.Bench;
+import java.util.List;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * Acceso a las listas de hijos en el camino de un ciclo: bytes asignados y tiempo por
+ * iteracion con el AST congelado (lo que devuelve Parser.parse()) y sin congelar (los
+ * getters devuelven una copia en cada llamada).
+ *
+ *   java -cp out ast.FrozenChildrenBench
+ */
+public class FrozenChildrenBench {
+    private static final int ITERATIONS = 1_000_000;
+    private static final String SOURCE =
+        "var i: int = 0; while (i < 10) { a = 1; b = 2; c = f(1, 2); i = i + 1; }";
+
+    public static void main(String[] args) throws Exception {
+        ProgramNode frozen = new Parser(new Lexer(SOURCE)).parse();
+        AstArena arena = new Parser(new Lexer(SOURCE)).parseArena();
+        // node() decodifica sin congelar, como quedaba el arbol antes
+        ProgramNode mutable = (ProgramNode) arena.node(arena.root());
+
+        report("congelado", frozen);
+        report("sin congelar", mutable);
+    }
+
+    private static void report(String name, ProgramNode program) throws Exception {
+        long bytes = Bench.allocated(() -> walk(program));
+        Bench.Result time = Bench.time(5, 10, () -> walk(program));
+        System.out.printf("%-13s %6.1f bytes por iteracion, %s%n", name, bytes / (double) ITERATIONS, time);
+    }
+
+    // Lo que hace el interprete por cada vuelta del while: recorrer el cuerpo y los argumentos
+    private static Object walk(ProgramNode program) {
+        WhileNode loop = (WhileNode) program.getDeclarations().get(1);
+        long sum = 0;
+        for (int it = 0; it < ITERATIONS; it++) {
+            List<ASTNode> statements = loop.getBody().getStatements();
+            for (int i = 0; i < statements.size(); i++) {
+                ASTNode value = ((AssignmentNode) statements.get(i)).getValue();
+                if (value instanceof CallNode) sum += ((CallNode) value).getArguments().size();
+            }
+        }
+        return sum;
+    }
+}
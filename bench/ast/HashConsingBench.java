@@ -0,0 +1,44 @@
+package ast;
+
+import harness.Bench;
+import harness.Corpus;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * Memoria retenida y tiempo de parseo con y sin HashConsTable sobre un programa con
+ * muchas expresiones repetidas (las funciones de Corpus comparten casi todo el cuerpo).
+ *
+ *   java -Xmx2g -cp out ast.HashConsingBench [caracteres]
+ */
+public class HashConsingBench {
+    public static void main(String[] args) throws Exception {
+        int chars = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        String source = Corpus.functions(chars / 2000, 30);
+        System.out.printf("Entrada: %,d caracteres%n", source.length());
+
+        long before = Bench.usedAfterGc();
+        ProgramNode plain = new Parser(new Lexer(source)).parse();
+        long plainBytes = Bench.usedAfterGc() - before;
+        HashConsTable table = new HashConsTable();
+        ProgramNode consed = parse(source, table);
+        long consedBytes = Bench.usedAfterGc() - before - plainBytes;
+        System.out.printf("Retenido: sin compartir %,d KB, con HashConsTable %,d KB (%.0f%% menos)%n",
+            plainBytes >> 10, consedBytes >> 10, 100.0 - 100.0 * consedBytes / plainBytes);
+        System.out.printf("Nodos unicos %,d, reutilizados %,d, mismo hash estructural: %b%n",
+            table.size(), table.getReused(), plain.structuralHash() == consed.structuralHash());
+        Bench.keep(plain);
+        Bench.keep(consed);
+
+        Bench.Result parsePlain = Bench.time(2, 5, () -> new Parser(new Lexer(source)).parse());
+        Bench.Result parseConsed = Bench.time(2, 5, () -> parse(source, new HashConsTable()));
+        System.out.printf("parse():                 %s%n", parsePlain);
+        System.out.printf("parse() + HashConsTable: %s%n", parseConsed);
+    }
+
+    private static ProgramNode parse(String source, HashConsTable table) {
+        Parser parser = new Parser(new Lexer(source));
+        parser.setHashConsing(table);
+        return parser.parse();
+    }
+}
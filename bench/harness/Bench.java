@@ -0,0 +1,88 @@
+package harness;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Utilidades de medicion para los benchmarks de bench/. No hay JMH en el proyecto:
+ * cada benchmark es una clase con main que calienta, repite y reporta el minimo y la
+ * mediana. Se compilan junto con src/ usando solo javac:
+ *
+ *   javac -encoding UTF-8 -d out $(find src bench -name '*.java')
+ *   java -cp out lexer.StreamingLexerBench
+ *
+ * Los numeros de una maquina con un solo nucleo tienen bastante ruido; conviene repetir.
+ */
+public final class Bench {
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Evita que el JIT elimine el trabajo medido
+    private static volatile Object sink;
+
+    private Bench() {
+    }
+
+    public interface Task {
+        Object run() throws Exception;
+    }
+
+    /** Resultado de una medicion: tiempos en nanosegundos por repeticion. */
+    public static final class Result {
+        public final long min;
+        public final long median;
+
+        Result(long[] times) {
+            long[] sorted = times.clone();
+            Arrays.sort(sorted);
+            this.min = sorted[0];
+            this.median = sorted[sorted.length / 2];
+        }
+
+        public double minMillis() {
+            return min / 1e6;
+        }
+
+        public double medianMillis() {
+            return median / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("min %.3f ms, mediana %.3f ms", minMillis(), medianMillis());
+        }
+    }
+
+    public static Result time(int warmup, int rounds, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) sink = task.run();
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            // Cada repeticion empieza sin la basura de la anterior
+            sink = null;
+            System.gc();
+            long start = System.nanoTime();
+            sink = task.run();
+            times[i] = System.nanoTime() - start;
+        }
+        return new Result(times);
+    }
+
+    // Bytes asignados por el hilo actual durante una ejecucion de 'task' (ya calentada)
+    public static long allocated(Task task) throws Exception {
+        sink = task.run();
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        sink = task.run();
+        return THREADS.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    // Memoria del heap en uso despues de forzar un GC, en bytes
+    public static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void keep(Object value) {
+        sink = value;
+    }
+}
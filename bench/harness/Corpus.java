@@ -0,0 +1,38 @@
+package harness;
+
+/**
+ * Programas SimpleLang sinteticos para los benchmarks. Todos son deterministas:
+ * el mismo tamaño produce siempre el mismo texto.
+ */
+public final class Corpus {
+    private Corpus() {
+    }
+
+    // Declaraciones globales con expresiones y comentarios, hasta aproximadamente 'chars'
+    // caracteres; los nombres se repiten cada 10000 lineas como en un programa real
+    public static String declarations(int chars) {
+        StringBuilder text = new StringBuilder(chars + 64);
+        for (int i = 0; text.length() < chars; i++) {
+            text.append("var x").append(i % 10000).append(": int = ").append(i % 1000)
+                .append(" + y * 2; // comentario\n");
+        }
+        return text.toString();
+    }
+
+    // 'count' funciones independientes (sin parametros, como en SimpleLang) con un cuerpo
+    // de 'statements' sentencias cada una
+    public static String functions(int count, int statements) {
+        StringBuilder text = new StringBuilder();
+        text.append("var total: float = 0;\n");
+        for (int f = 0; f < count; f++) {
+            text.append("function f").append(f).append("() {\n");
+            text.append("    var s: float = ").append(f % 100).append(" * 2 + total;\n");
+            for (int s = 0; s < statements; s++) {
+                text.append("    if (s > ").append(s).append(") { s = s - ").append(s % 7 + 1)
+                    .append("; } else { s = s + total / 2; }\n");
+            }
+            text.append("    return s;\n}\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,152 @@
+package interpreter;
+
+import ast.*;
+import harness.Bench;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import lexer.Lexer;
+import parser.Parser;
+import semantic.SemanticAnalyzer;
+
+/**
+ * Ejecucion con las direcciones (profundidad, slot) del analisis semantico frente a la
+ * misma ejecucion con todos los identificadores en DYNAMIC_SLOT, que el Interpreter
+ * busca por id subiendo por los marcos (y sin el camino rapido numerico, que necesita
+ * el slot). El programa hace casi solo lecturas de variables de scopes externos.
+ *
+ *   java -cp out interpreter.LexicalAddressingBench [sentencias]
+ */
+public class LexicalAddressingBench {
+    public static void main(String[] args) throws Exception {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String source = program(statements);
+        ProgramNode addressed = analyzed(source);
+        ProgramNode dynamic = analyzed(source);
+        dynamic.accept(new Dynamic());
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Bench.Result slots;
+        Bench.Result names;
+        try {
+            slots = Bench.time(5, 10, () -> run(addressed));
+            names = Bench.time(5, 10, () -> run(dynamic));
+        } finally {
+            System.setOut(out);
+        }
+        long reads = 1000L * statements * 4;
+        System.out.printf("Direcciones:  %s (%.1f ns por lectura)%n", slots, slots.min / (double) reads);
+        System.out.printf("DYNAMIC_SLOT: %s (%.1f ns por lectura, %.2fx)%n",
+            names, names.min / (double) reads, names.minMillis() / slots.minMillis());
+    }
+
+    // 1000 llamadas (el maximo de vueltas de while) a una funcion que lee globales y
+    // variables de tres bloques hacia afuera
+    private static String program(int statements) {
+        StringBuilder text = new StringBuilder();
+        text.append("var g: float = 1;\nfunction f() {\n  var a: float = 2;\n  {\n    var b: float = 3;\n");
+        text.append("    {\n      var s: float = 0;\n");
+        for (int i = 0; i < statements; i++) {
+            text.append("      s = s + a * b - g;\n");
+        }
+        text.append("      return s;\n    }\n  }\n}\n");
+        text.append("var i: int = 0;\nwhile (i < 1000) { i = i + 1; f(); }\nprint(f());\n");
+        return text.toString();
+    }
+
+    private static ProgramNode analyzed(String source) {
+        ProgramNode program = new Parser(new Lexer(source)).parse();
+        new SemanticAnalyzer().analyze(program);
+        return program;
+    }
+
+    private static Object run(ProgramNode program) {
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(program);
+        return interpreter;
+    }
+
+    // Pasa todos los identificadores a DYNAMIC_SLOT
+    private static final class Dynamic implements ASTVisitor {
+        private void visitChild(ASTNode node) {
+            if (node != null) node.accept(this);
+        }
+
+        @Override
+        public void visit(AssignmentNode node) {
+            visitChild(node.getValue());
+        }
+
+        @Override
+        public void visit(BinaryExpression node) {
+            visitChild(node.getLeft());
+            visitChild(node.getRight());
+        }
+
+        @Override
+        public void visit(BlockNode node) {
+            for (ASTNode statement : node.getStatements()) visitChild(statement);
+        }
+
+        @Override
+        public void visit(CallNode node) {
+            for (ASTNode argument : node.getArguments()) visitChild(argument);
+        }
+
+        @Override
+        public void visit(ExpressionStatementNode node) {
+            visitChild(node.getExpression());
+        }
+
+        @Override
+        public void visit(FunctionNode node) {
+            visitChild(node.getBody());
+        }
+
+        @Override
+        public void visit(IdentifierNode node) {
+            node.setAddress(0, IdentifierNode.DYNAMIC_SLOT);
+        }
+
+        @Override
+        public void visit(IfNode node) {
+            visitChild(node.getCondition());
+            visitChild(node.getThenBlock());
+            visitChild(node.getElseBlock());
+        }
+
+        @Override
+        public void visit(LiteralNode node) {
+        }
+
+        @Override
+        public void visit(PrintNode node) {
+            visitChild(node.getValue());
+        }
+
+        @Override
+        public void visit(ProgramNode node) {
+            for (ASTNode declaration : node.getDeclarations()) visitChild(declaration);
+        }
+
+        @Override
+        public void visit(ReturnNode node) {
+            visitChild(node.getValue());
+        }
+
+        @Override
+        public void visit(TypeNode node) {
+        }
+
+        @Override
+        public void visit(VariableDeclNode node) {
+            visitChild(node.getInitialValue());
+        }
+
+        @Override
+        public void visit(WhileNode node) {
+            visitChild(node.getCondition());
+            visitChild(node.getBody());
+        }
+    }
+}
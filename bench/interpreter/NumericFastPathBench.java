@@ -0,0 +1,102 @@
+package interpreter;
+
+import ast.*;
+import harness.Bench;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import lexer.Lexer;
+import parser.Parser;
+import semantic.SemanticAnalyzer;
+
+/**
+ * Ejecucion de un programa de aritmetica con las operaciones que el analisis de tipos
+ * marco como numericas (camino rapido, sin un Double por resultado intermedio) frente
+ * al mismo arbol con esas marcas apagadas (instanceof Number en cada operacion).
+ *
+ *   java -cp out interpreter.NumericFastPathBench [sentencias]
+ */
+public class NumericFastPathBench {
+    public static void main(String[] args) throws Exception {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String source = program(statements);
+        ProgramNode typed = analyzed(source);
+        ProgramNode untyped = analyzed(source);
+        int numeric = withoutFastPath(untyped);
+        System.out.printf("%,d operaciones marcadas como numericas%n", numeric);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Bench.Result fast;
+        Bench.Result slow;
+        long fastBytes;
+        long slowBytes;
+        try {
+            fast = Bench.time(5, 10, () -> run(typed));
+            slow = Bench.time(5, 10, () -> run(untyped));
+            fastBytes = Bench.allocated(() -> run(typed));
+            slowBytes = Bench.allocated(() -> run(untyped));
+        } finally {
+            System.setOut(out);
+        }
+        System.out.printf("Camino rapido:  %s, %,d KB asignados%n", fast, fastBytes >> 10);
+        System.out.printf("Camino normal:  %s, %,d KB asignados (%.2fx)%n", slow, slowBytes >> 10,
+            slow.minMillis() / fast.minMillis());
+    }
+
+    // 1000 llamadas (el maximo de vueltas de while) a una funcion con expresiones anidadas
+    private static String program(int statements) {
+        StringBuilder text = new StringBuilder();
+        text.append("function f() {\n  var a: float = 1.5;\n  var b: int = 3;\n  var s: float = 0;\n");
+        for (int i = 0; i < statements; i++) {
+            text.append("  s = (s + a * b - ").append(i % 7).append(") / 2;\n");
+            text.append("  if (s * 2 > a + b) { s = s - 1; }\n");
+        }
+        text.append("  return s;\n}\n");
+        text.append("var i: int = 0;\nwhile (i < 1000) { i = i + 1; f(); }\nprint(f());\n");
+        return text.toString();
+    }
+
+    private static ProgramNode analyzed(String source) {
+        ProgramNode program = new Parser(new Lexer(source)).parse();
+        new SemanticAnalyzer().analyze(program);
+        return program;
+    }
+
+    private static Object run(ProgramNode program) {
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(program);
+        return interpreter;
+    }
+
+    // Apaga las marcas de todo el arbol; devuelve cuantas habia
+    private static int withoutFastPath(ASTNode node) {
+        if (node == null) return 0;
+        int count = 0;
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            if (binary.isNumeric()) count++;
+            binary.setNumeric(false);
+            return count + withoutFastPath(binary.getLeft()) + withoutFastPath(binary.getRight());
+        }
+        List<ASTNode> children = new ArrayList<>();
+        if (node instanceof ProgramNode) children.addAll(((ProgramNode) node).getDeclarations());
+        if (node instanceof FunctionNode) children.add(((FunctionNode) node).getBody());
+        if (node instanceof BlockNode) children.addAll(((BlockNode) node).getStatements());
+        if (node instanceof VariableDeclNode) children.add(((VariableDeclNode) node).getInitialValue());
+        if (node instanceof AssignmentNode) children.add(((AssignmentNode) node).getValue());
+        if (node instanceof ReturnNode) children.add(((ReturnNode) node).getValue());
+        if (node instanceof IfNode) {
+            children.add(((IfNode) node).getCondition());
+            children.add(((IfNode) node).getThenBlock());
+            children.add(((IfNode) node).getElseBlock());
+        }
+        if (node instanceof WhileNode) {
+            children.add(((WhileNode) node).getCondition());
+            children.add(((WhileNode) node).getBody());
+        }
+        for (ASTNode child : children) count += withoutFastPath(child);
+        return count;
+    }
+}
@@ -0,0 +1,57 @@
+package lexer;
+
+import harness.Bench;
+import util.Interner;
+
+/**
+ * Lexer normal frente a Lexer con ScalarCharScanner y con CharScanner.best() sobre dos
+ * corpus donde las rachas dominan: declaraciones separadas por rachas largas de
+ * espacios y saltos de linea, y declaraciones con identificadores largos. Para medir
+ * VectorCharScanner hay que compilar src-vector (ver harness.RunAll) y correr con el
+ * modulo incubadora; sin el, best() es el escalar:
+ *
+ *   java --add-modules jdk.incubator.vector -cp out lexer.CharScannerBench [largo de racha]
+ */
+public class CharScannerBench {
+    public static void main(String[] args) throws Exception {
+        int run = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        CharScanner best = CharScanner.best();
+        System.out.printf("best(): %s, rachas de %d caracteres%n", best.getClass().getSimpleName(), run);
+        String blanks = " ".repeat(run - 1) + "\n";
+        String word = "abcdefghij0123456789".repeat(run / 20 + 1).substring(0, run);
+        report("rachas de espacios", corpus(8 << 20, blanks, "x"), best);
+        report("identificadores largos", corpus(8 << 20, " ", "x" + word), best);
+    }
+
+    // Declaraciones 'var <nombre>N: int = N;' separadas por 'blank'
+    private static String corpus(int chars, String blank, String name) {
+        StringBuilder text = new StringBuilder(chars + 256);
+        for (int i = 0; text.length() < chars; i++) {
+            text.append("var ").append(name).append(i % 1000).append(": int = ").append(i % 100).append(";")
+                .append(blank);
+        }
+        return text.toString();
+    }
+
+    private static void report(String name, String text, CharScanner best) throws Exception {
+        long expected = count(new Lexer(text));
+        System.out.printf("%s: %.1f MB, %,d tokens%n", name, text.length() / 1e6, expected);
+        line("normal", text, () -> count(new Lexer(text)), expected);
+        line("ScalarCharScanner", text, () -> count(new Lexer(text, new Interner(), new ScalarCharScanner())), expected);
+        line("best()", text, () -> count(new Lexer(text, new Interner(), best)), expected);
+    }
+
+    private static void line(String name, String text, Bench.Task task, long expected) throws Exception {
+        long tokens = (Long) task.run();
+        if (tokens != expected) throw new AssertionError(name + ": " + tokens + " tokens, se esperaban " + expected);
+        Bench.Result result = Bench.time(3, 7, task);
+        System.out.printf("  %-18s %7.1f MB/s (%s)%n", name, text.length() / 1e3 / result.minMillis(), result);
+    }
+
+    private static long count(TokenSource lexer) {
+        long tokens = 0;
+        Token token;
+        while ((token = lexer.nextToken()) == null || token.getType() != TokenType.EOF) tokens++;
+        return tokens;
+    }
+}
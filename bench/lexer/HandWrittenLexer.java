@@ -0,0 +1,192 @@
+package lexer;
+
+import java.util.HashMap;
+import java.util.Map;
+import util.Interner;
+
+/**
+ * Copia del lexer escrito a mano que se uso antes del generado por LexerSpec (switch
+ * por caracter, Character.isLetter/isDigit y busqueda de palabras reservadas). Solo se
+ * conserva como referencia para LexerThroughputBench; no es parte del proyecto.
+ */
+public class HandWrittenLexer implements TokenSource {
+    private final String source;
+    private final Interner interner = new Interner();
+    private int start = 0;
+    private int current = 0;
+    private int line = 1;
+    
+    private static final Map<String, TokenType> keywords;
+    private static final String[] keywordTexts;
+    private static final TokenType[] keywordTypes;
+
+
+    static {
+        keywords = new HashMap<>();
+        // Palabras reservadas
+        keywords.put("function", TokenType.FUNCTION);
+        keywords.put("var", TokenType.VAR);
+        keywords.put("if", TokenType.IF);
+        keywords.put("else", TokenType.ELSE);
+        keywords.put("while", TokenType.WHILE);
+        keywords.put("return", TokenType.RETURN);
+        //keywords.put("print", TokenType.PRINT);
+        
+        // Tipos de datos (agregados)
+        keywords.put("int", TokenType.INT);
+        keywords.put("float", TokenType.FLOAT);
+        keywords.put("string", TokenType.STRING);
+        keywords.put("boolean", TokenType.BOOLEAN);
+        keywords.put("void", TokenType.VOID);
+        
+        // Valores booleanos
+        keywords.put("true", TokenType.TRUE);
+        keywords.put("false", TokenType.FALSE);
+        
+        keywordTexts = keywords.keySet().toArray(new String[0]);
+        keywordTypes = new TokenType[keywordTexts.length];
+        for (int i = 0; i < keywordTexts.length; i++) {
+            keywordTypes[i] = keywords.get(keywordTexts[i]);
+        }
+    }
+
+    public HandWrittenLexer(String source) {
+        this.source = source;
+    }
+
+    @Override
+    public Interner getInterner() {
+        return interner;
+    }
+
+    @Override
+    public Token nextToken() {
+        TokenType type = scan();
+        if (type == null) return null;
+
+        String lexeme = source.substring(start, current);
+        int symbolId = type == TokenType.IDENTIFIER ? interner.intern(lexeme) : -1;
+        return new Token(type, lexeme, Lexer.literal(type, lexeme), line, symbolId, start);
+    }
+
+    // Devuelve null para '&' o '|' sueltos
+    private TokenType scan() {
+        skipWhitespace();
+        start = current;
+
+        if (isAtEnd()) return TokenType.EOF;
+
+        char c = advance();
+
+        if (Character.isDigit(c)) return number();
+        if (Character.isLetter(c)) return identifier();
+        if (c == '"') return string();
+
+        switch (c) {
+            case '(': return TokenType.LEFT_PAREN;
+            case ')': return TokenType.RIGHT_PAREN;
+            case '{': return TokenType.LEFT_BRACE;
+            case '}': return TokenType.RIGHT_BRACE;
+            case ',': return TokenType.COMMA;
+            case ';': return TokenType.SEMICOLON;
+            case ':': return TokenType.COLON;
+            
+            case '+': return TokenType.PLUS;
+            case '-': return TokenType.MINUS;
+            case '*': return TokenType.MULTIPLY;
+            case '/': return TokenType.DIVIDE;
+            
+            case '=': return match('=') ? TokenType.EQUALS : TokenType.ASSIGN;
+            case '!': return match('=') ? TokenType.NOT_EQUALS : TokenType.NOT;
+            case '<': return match('=') ? TokenType.LESS_EQUAL : TokenType.LESS;
+            case '>': return match('=') ? TokenType.GREATER_EQUAL : TokenType.GREATER;
+            
+            case '&': return match('&') ? TokenType.AND : null;
+            case '|': return match('|') ? TokenType.OR : null;
+        }
+
+        return TokenType.EOF;
+    }
+
+    private TokenType number() {
+        while (Character.isDigit(peek())) advance();
+
+        if (peek() == '.' && Character.isDigit(peekNext())) {
+            advance();
+            while (Character.isDigit(peek())) advance();
+        }
+
+        return TokenType.NUMBER;
+    }
+
+    private TokenType identifier() {
+        while (Character.isLetterOrDigit(peek())) advance();
+
+        TokenType type = keywordAt(start, current);
+        return type != null ? type : TokenType.IDENTIFIER;
+    }
+
+    private TokenType string() {
+        while (peek() != '"' && !isAtEnd()) {
+            if (peek() == '\n') line++;
+            advance();
+        }
+
+        if (isAtEnd()) return TokenType.EOF;
+
+        advance(); // Consume the closing "
+        return TokenType.STRING_LITERAL;
+    }
+
+    // Compara contra las palabras reservadas sin extraer el substring
+    private TokenType keywordAt(int from, int to) {
+        int length = to - from;
+        for (int i = 0; i < keywordTexts.length; i++) {
+            String keyword = keywordTexts[i];
+            if (keyword.length() == length && source.regionMatches(from, keyword, 0, length)) {
+                return keywordTypes[i];
+            }
+        }
+        return null;
+    }
+
+    private char advance() {
+        return source.charAt(current++);
+    }
+
+    private char peek() {
+        return isAtEnd() ? '\0' : source.charAt(current);
+    }
+
+    private char peekNext() {
+        return current + 1 >= source.length() ? '\0' : source.charAt(current + 1);
+    }
+
+    private boolean match(char expected) {
+        if (isAtEnd() || source.charAt(current) != expected) return false;
+        current++;
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (!isAtEnd()) {
+            char c = peek();
+            switch (c) {
+                case ' ': case '\r': case '\t': advance(); break;
+                case '\n': line++; advance(); break;
+                case '/': 
+                    if (peekNext() == '/') {
+                        while (peek() != '\n' && !isAtEnd()) advance();
+                    } else {
+                        return;
+                    }
+                    break;
+                default: return;
+            }
+        }
+    }
+
+    private boolean isAtEnd() {
+        return current >= source.length();
+    }
+}
\ No newline at end of file
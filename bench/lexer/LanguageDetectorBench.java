@@ -0,0 +1,82 @@
+package lexer;
+
+import harness.Bench;
+import java.util.regex.Pattern;
+
+/**
+ * isJavaCode y isSimpleLangCode sobre 1 MB de codigo que no coincide con ningun patron
+ * (el peor caso: hay que recorrer todo): LanguageDetector frente a la implementacion
+ * anterior, que armaba y ejecutaba code.matches(".*" + p + ".*") por patron en cada
+ * llamada, y frente a los mismos patrones precompilados con Pattern.find(). Se mide
+ * con el texto en varias lineas y en una sola. Con varias lineas matches() falla en
+ * el primer salto de linea (por eso respondia mal), asi que su tiempo solo se puede
+ * comparar en el texto de una linea.
+ *
+ *   java -cp out lexer.LanguageDetectorBench [KB]
+ */
+public class LanguageDetectorBench {
+    private static final String[] JAVA = {
+        "public\\s+class", "private\\s+", "protected\\s+", "import\\s+java", "System\\.out\\.print",
+        "void\\s+main", "new\\s+\\w+\\(", "package\\s+", "class\\s+\\w+\\s*\\{", "this\\.",
+        "extends\\s+", "implements\\s+"
+    };
+    private static final String[] SIMPLE_LANG = {
+        "var\\s+\\w+\\s*:", "function\\s+\\w+\\s*\\(", "print\\s*\\(", ":\\s*int\\b", ":\\s*float\\b",
+        ":\\s*string\\b", ":\\s*boolean\\b"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int kb = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        String lines = corpus(kb << 10);
+        run("varias lineas", lines);
+        run("una linea", lines.replace('\n', ' '));
+    }
+
+    private static void run(String name, String code) throws Exception {
+        Pattern[] java = compile(JAVA);
+        Pattern[] simpleLang = compile(SIMPLE_LANG);
+        boolean expected = LanguageDetector.isJavaCode(code) || LanguageDetector.isSimpleLangCode(code);
+        if (expected || find(java, code) || find(simpleLang, code)) throw new AssertionError("el texto coincide");
+
+        Bench.Result matches = Bench.time(1, 3, () -> matches(JAVA, code) || matches(SIMPLE_LANG, code));
+        Bench.Result find = Bench.time(3, 7, () -> find(java, code) || find(simpleLang, code));
+        Bench.Result detector = Bench.time(5, 10,
+            () -> LanguageDetector.isJavaCode(code) || LanguageDetector.isSimpleLangCode(code));
+        System.out.printf("%s (%,d caracteres):%n", name, code.length());
+        System.out.printf("  matches() por llamada (anterior): %s%n", matches);
+        System.out.printf("  Pattern.find() precompilado:      %s%n", find);
+        System.out.printf("  LanguageDetector:                 %s (%.1fx contra matches, %.1fx contra find)%n",
+            detector, matches.minMillis() / detector.minMillis(), find.minMillis() / detector.minMillis());
+    }
+
+    // Codigo de otro lenguaje cualquiera, sin ninguno de los patrones
+    private static String corpus(int chars) {
+        StringBuilder text = new StringBuilder(chars + 128);
+        for (int i = 0; text.length() < chars; i++) {
+            text.append("    total").append(i % 97).append(" := suma(valor").append(i % 13)
+                .append(", 3) * 2; -- nota ").append(i).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static Pattern[] compile(String[] patterns) {
+        Pattern[] compiled = new Pattern[patterns.length];
+        for (int i = 0; i < patterns.length; i++) compiled[i] = Pattern.compile(patterns[i]);
+        return compiled;
+    }
+
+    private static boolean find(Pattern[] patterns, String code) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(code).find()) return true;
+        }
+        return false;
+    }
+
+    // La implementacion anterior: compila y ejecuta cada patron en cada llamada
+    private static boolean matches(String[] patterns, String code) {
+        for (String pattern : patterns) {
+            if (code.matches(".*" + pattern + ".*")) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package lexer;
+
+import harness.Bench;
+import harness.Corpus;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import util.Interner;
+
+/**
+ * Throughput en MB/s del lexer generado (Lexer y los front-ends que usan sus tablas)
+ * frente al lexer escrito a mano que reemplazo, sobre dos corpus sinteticos.
+ */
+public class LexerThroughputBench {
+    public static void main(String[] args) throws Exception {
+        run("declaraciones", Corpus.declarations(16 << 20));
+        run("funciones", Corpus.functions(20_000, 20));
+    }
+
+    private static void run(String name, String text) throws Exception {
+        ByteBuffer utf8 = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        long expected = count(new HandWrittenLexer(text));
+        System.out.printf("%s: %.1f MB, %d tokens%n", name, text.length() / 1e6, expected);
+
+        report("a mano (anterior)", text, () -> count(new HandWrittenLexer(text)), expected);
+        report("Lexer (tablas)", text, () -> count(new Lexer(text)), expected);
+        report("Lexer + CharScanner", text, () -> count(new Lexer(text, new Interner(), CharScanner.best())), expected);
+        report("StreamingLexer", text, () -> count(new StreamingLexer(new StringReader(text))), expected);
+        report("MappedLexer", text, () -> count(new MappedLexer(utf8.duplicate())), expected);
+    }
+
+    private static void report(String name, String text, Bench.Task task, long expected) throws Exception {
+        long tokens = (Long) task.run();
+        if (tokens != expected) throw new AssertionError(name + ": " + tokens + " tokens, se esperaban " + expected);
+        Bench.Result result = Bench.time(3, 7, task);
+        System.out.printf("  %-20s %7.1f MB/s (%s)%n", name, text.length() / 1e3 / result.minMillis(), result);
+    }
+
+    private static long count(TokenSource lexer) {
+        long tokens = 0;
+        Token token;
+        while ((token = lexer.nextToken()) == null || token.getType() != TokenType.EOF) tokens++;
+        return tokens;
+    }
+}
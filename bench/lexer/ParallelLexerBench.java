@@ -0,0 +1,46 @@
+package lexer;
+
+import harness.Bench;
+import harness.Corpus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import util.Interner;
+
+/**
+ * Escalado de ParallelLexer de 1 a N hilos frente a Lexer secuencial. N es el primer
+ * argumento (por defecto, los nucleos disponibles). En una maquina de un nucleo solo
+ * se ve el costo extra de partir y unir.
+ */
+public class ParallelLexerBench {
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String text = Corpus.declarations(8 << 20);
+        System.out.printf("%.1f MB, %d nucleos disponibles%n", text.length() / 1e6, Runtime.getRuntime().availableProcessors());
+
+        // ParallelLexer entrega la lista completa, asi que el secuencial tambien la arma
+        Bench.Result sequential = Bench.time(2, 5, () -> {
+            Lexer lexer = new Lexer(text);
+            List<Token> tokens = new ArrayList<>();
+            Token token;
+            do {
+                token = lexer.nextToken();
+                tokens.add(token);
+            } while (token == null || token.getType() != TokenType.EOF);
+            return tokens;
+        });
+        System.out.printf("secuencial   %8.1f ms%n", sequential.minMillis());
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                Bench.Result parallel = Bench.time(2, 5, () -> new ParallelLexer(text, pool, new Interner()).getTokens());
+                System.out.printf("%2d hilo(s)   %8.1f ms  (%.2fx)%n",
+                    threads, parallel.minMillis(), sequential.minMillis() / parallel.minMillis());
+            } finally {
+                pool.shutdown();
+            }
+            if (threads >= maxThreads) break;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package lexer;
+
+import harness.Bench;
+import harness.Corpus;
+import parser.Parser;
+
+/**
+ * Latencia de Lexer + Parser en el mismo hilo frente al modo con PipelinedTokenSource,
+ * donde el lexer corre en otro hilo. La ganancia solo aparece con mas de un nucleo:
+ * en uno solo los dos hilos se turnan y se ve el costo del anillo.
+ */
+public class PipelinedParseBench {
+    public static void main(String[] args) throws Exception {
+        String text = Corpus.functions(20_000, 10);
+        System.out.printf("%.1f MB, %d nucleos disponibles%n", text.length() / 1e6, Runtime.getRuntime().availableProcessors());
+
+        Bench.Result sequential = Bench.time(3, 7, () -> new Parser(new Lexer(text)).parse());
+        Bench.Result pipelined = Bench.time(3, 7, () -> {
+            try (PipelinedTokenSource tokens = new PipelinedTokenSource(new Lexer(text))) {
+                return new Parser(tokens).parse();
+            }
+        });
+        System.out.println("secuencial: " + sequential);
+        System.out.println("pipeline:   " + pipelined);
+        System.out.printf("pipeline / secuencial (minimos): %.2f%n", pipelined.minMillis() / sequential.minMillis());
+    }
+}
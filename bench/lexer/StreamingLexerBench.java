@@ -0,0 +1,63 @@
+package lexer;
+
+import harness.Bench;
+import harness.Corpus;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Maximo de memoria viva del heap contra el tamaño del archivo: StreamingLexer sobre
+ * un FileChannel frente a leer el archivo a un String y usar Lexer. Con el streaming
+ * el maximo no deberia crecer con el archivo. El Interner si guarda cada identificador
+ * distinto, asi que crece con el vocabulario del programa y no con su tamaño.
+ */
+public class StreamingLexerBench {
+    private static final int SAMPLE = 500_000;
+    private static long highWater;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizesMb = {4, 16, 64};
+        Path dir = Files.createTempDirectory("streaming-bench");
+        try {
+            System.out.println("archivo   streaming (max MB)    String+Lexer (max MB)    tokens");
+            for (int mb : sizesMb) {
+                Path file = dir.resolve("corpus" + mb + ".sl");
+                Files.writeString(file, Corpus.declarations(mb << 20));
+
+                long[] streaming = measure(() -> {
+                    try (FileChannel channel = FileChannel.open(file);
+                         StreamingLexer lexer = new StreamingLexer(channel)) {
+                        return count(lexer);
+                    }
+                });
+                long[] whole = measure(() -> count(new Lexer(Files.readString(file))));
+
+                System.out.printf("%4d MB   %19.1f   %22.1f   %d%n",
+                    mb, streaming[0] / 1e6, whole[0] / 1e6, streaming[1]);
+                if (streaming[1] != whole[1]) throw new AssertionError("distinta cantidad de tokens");
+                Files.delete(file);
+            }
+        } finally {
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // {maximo de heap vivo por encima de lo usado antes, tokens}
+    private static long[] measure(Bench.Task task) throws Exception {
+        long base = Bench.usedAfterGc();
+        highWater = 0;
+        long tokens = (Long) task.run();
+        return new long[] {Math.max(0, highWater - base), tokens};
+    }
+
+    // Cada SAMPLE tokens se fuerza un GC y se anota el heap vivo: es el maximo que el lexer retiene
+    private static long count(TokenSource lexer) {
+        long tokens = 0;
+        Token token;
+        while ((token = lexer.nextToken()) == null || token.getType() != TokenType.EOF) {
+            if (++tokens % SAMPLE == 0) highWater = Math.max(highWater, Bench.usedAfterGc());
+        }
+        return tokens;
+    }
+}
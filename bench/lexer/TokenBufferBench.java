@@ -0,0 +1,33 @@
+package lexer;
+
+import harness.Bench;
+import harness.Corpus;
+
+/**
+ * Asignacion de memoria y tiempo para tokenizar el mismo texto con Lexer (un Token,
+ * un substring y un Double por token) y con TokenBuffer (arreglos primitivos).
+ */
+public class TokenBufferBench {
+    public static void main(String[] args) throws Exception {
+        String text = Corpus.declarations(8 << 20);
+        long tokens = TokenBuffer.tokenize(text).size();
+
+        long lexerBytes = Bench.allocated(() -> lexAll(text));
+        long bufferBytes = Bench.allocated(() -> TokenBuffer.tokenize(text));
+        System.out.printf("%d tokens sobre %d caracteres%n", tokens, text.length());
+        System.out.printf("Lexer:       %8.1f MB asignados, %5.1f bytes/token%n", lexerBytes / 1e6, (double) lexerBytes / tokens);
+        System.out.printf("TokenBuffer: %8.1f MB asignados, %5.1f bytes/token (%.1fx menos)%n",
+            bufferBytes / 1e6, (double) bufferBytes / tokens, (double) lexerBytes / bufferBytes);
+
+        System.out.println("Lexer:       " + Bench.time(3, 7, () -> lexAll(text)));
+        System.out.println("TokenBuffer: " + Bench.time(3, 7, () -> TokenBuffer.tokenize(text)));
+    }
+
+    private static long lexAll(String text) {
+        Lexer lexer = new Lexer(text);
+        long count = 0;
+        Token token;
+        while ((token = lexer.nextToken()) == null || token.getType() != TokenType.EOF) count++;
+        return count;
+    }
+}
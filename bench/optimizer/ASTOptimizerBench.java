@@ -0,0 +1,64 @@
+package optimizer;
+
+import ast.ProgramNode;
+import harness.Bench;
+import interpreter.Interpreter;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import lexer.Lexer;
+import parser.Parser;
+import semantic.SemanticAnalyzer;
+
+/**
+ * Ejecucion con Interpreter del programa original y del optimizado, mas lo que cuesta
+ * optimizar. El programa llama 1000 veces (el maximo de vueltas de while) a una funcion
+ * con operaciones entre literales, constantes, ramas que no se ejecutan y codigo
+ * despues de return.
+ *
+ *   java -cp out optimizer.ASTOptimizerBench [sentencias]
+ */
+public class ASTOptimizerBench {
+    public static void main(String[] args) throws Exception {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String source = program(statements);
+        ProgramNode original = new Parser(new Lexer(source)).parse();
+        new SemanticAnalyzer().analyze(original);
+        ASTOptimizer optimizer = new ASTOptimizer();
+        ProgramNode optimized = optimizer.optimize(original);
+        System.out.printf("Plegadas %,d, propagadas %,d, quitadas %,d%n",
+            optimizer.getFoldedCount(), optimizer.getPropagatedCount(), optimizer.getRemovedCount());
+
+        Bench.Result optimize = Bench.time(5, 10, () -> new ASTOptimizer().optimize(original));
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Bench.Result before;
+        Bench.Result after;
+        try {
+            before = Bench.time(5, 10, () -> run(original));
+            after = Bench.time(5, 10, () -> run(optimized));
+        } finally {
+            System.setOut(out);
+        }
+        System.out.printf("optimize:               %s%n", optimize);
+        System.out.printf("Interpreter original:   %s%n", before);
+        System.out.printf("Interpreter optimizado: %s (%.2fx)%n", after, before.minMillis() / after.minMillis());
+    }
+
+    private static String program(int statements) {
+        StringBuilder text = new StringBuilder();
+        text.append("function f() {\n  var escala: float = 2.5;\n  var limite: int = 10 * 10;\n  var s: float = 0;\n");
+        for (int i = 0; i < statements; i++) {
+            text.append("  s = s + escala * ").append(i % 9).append(" - (3 * 4 + 1) / limite;\n");
+            text.append("  if (limite < 50) { s = s * 2; }\n");
+        }
+        text.append("  return s;\n  print(\"nunca\");\n}\n");
+        text.append("var i: int = 0;\nwhile (i < 1000) { i = i + 1; f(); }\nprint(f());\n");
+        return text.toString();
+    }
+
+    private static Object run(ProgramNode program) {
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(program);
+        return interpreter;
+    }
+}
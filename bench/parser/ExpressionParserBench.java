@@ -0,0 +1,43 @@
+package parser;
+
+import harness.Bench;
+import lexer.Lexer;
+
+/**
+ * Analisis de expresiones: muchas asignaciones cortas (el caso comun) y una sola
+ * expresion anidada a gran profundidad, que con el analizador recursivo anterior
+ * agotaba la pila. Las asignaciones cortas se miden tambien con un ParseListener
+ * vacio y con ParseProfiler, para ver lo que cuesta la instrumentacion.
+ *
+ *   java -Xmx2g -cp out parser.ExpressionParserBench
+ */
+public class ExpressionParserBench {
+    public static void main(String[] args) throws Exception {
+        StringBuilder shallow = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            shallow.append("x").append(i % 100).append(" = a + b * c - d / e || f && g == h;\n");
+        }
+        String shallowSource = shallow.toString();
+        Bench.Result flat = Bench.time(5, 10, () -> parse(shallowSource, null));
+        Bench.Result empty = Bench.time(5, 10, () -> parse(shallowSource, new ParseListener() {}));
+        Bench.Result profiled = Bench.time(5, 10, () -> parse(shallowSource, new ParseProfiler()));
+        System.out.printf("100k asignaciones cortas: %s%n", flat);
+        System.out.printf("  con listener vacio:     %s (%.2fx)%n", empty, empty.minMillis() / flat.minMillis());
+        System.out.printf("  con ParseProfiler:      %s (%.2fx)%n", profiled, profiled.minMillis() / flat.minMillis());
+
+        for (int depth : new int[] {10_000, 100_000, 1_000_000}) {
+            String deep = "z = " + "(1 + ".repeat(depth) + "1" + ")".repeat(depth) + ";";
+            Bench.Result nested = Bench.time(2, 5, () -> parse(deep, null));
+            System.out.printf("anidamiento %,d: %s (%.1f ns por nivel)%n",
+                depth, nested, nested.min / (double) depth);
+        }
+    }
+
+    private static Object parse(String source, ParseListener listener) {
+        Parser parser = new Parser(new Lexer(source));
+        parser.setParseListener(listener);
+        Object program = parser.parse();
+        if (!parser.getErrors().isEmpty()) throw new IllegalStateException(parser.getErrors().toString());
+        return program;
+    }
+}
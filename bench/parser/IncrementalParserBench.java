@@ -0,0 +1,54 @@
+package parser;
+
+import harness.Bench;
+import harness.Corpus;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Escribir una sentencia, tecla por tecla, en una funcion de la mitad de un archivo
+ * de 50k lineas: un reparse por tecla frente a parsear todo el texto en cada tecla.
+ * La sentencia termina en un salto de linea, asi que la mitad de las declaraciones
+ * cambian de linea; al reutilizarlas solo se mueve su base. Los errores de parsing
+ * de las teclas intermedias no se imprimen.
+ *
+ *   java -Xmx2g -cp out parser.IncrementalParserBench [lineas]
+ */
+public class IncrementalParserBench {
+    private static final String TYPED = "    s = s * 2 + total;\n";
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        // Cada funcion ocupa 20 lineas
+        int functions = Math.max(2, lines / 20);
+        String source = Corpus.functions(functions, 17);
+        int offset = source.indexOf("{\n", source.indexOf("function f" + functions / 2 + "(")) + 2;
+        System.out.printf("Entrada: %,d lineas, %,d caracteres; %d teclas en la linea %,d%n",
+            source.split("\n", -1).length, source.length(), TYPED.length(),
+            source.substring(0, offset).split("\n", -1).length);
+
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        IncrementalParser.Snapshot first = IncrementalParser.parse(source);
+        Bench.Result incremental = Bench.time(3, 7, () -> {
+            IncrementalParser.Snapshot snapshot = first;
+            for (int k = 0; k < TYPED.length(); k++) {
+                snapshot = IncrementalParser.reparse(snapshot, offset + k, 0, TYPED.substring(k, k + 1));
+            }
+            return snapshot;
+        });
+        Bench.Result full = Bench.time(1, 2, () -> {
+            IncrementalParser.Snapshot snapshot = first;
+            for (int k = 0; k < TYPED.length(); k++) {
+                snapshot = IncrementalParser.parse(source.substring(0, offset) + TYPED.substring(0, k + 1)
+                    + source.substring(offset));
+            }
+            return snapshot;
+        });
+        System.setErr(err);
+        System.out.printf("reparse por tecla: %s (%.3f ms por tecla)%n", incremental,
+            incremental.minMillis() / TYPED.length());
+        System.out.printf("parse por tecla:   %s (%.3f ms por tecla, %.0fx)%n", full,
+            full.minMillis() / TYPED.length(), full.minMillis() / incremental.minMillis());
+    }
+}
@@ -0,0 +1,37 @@
+package parser;
+
+import harness.Bench;
+import harness.Corpus;
+import java.util.concurrent.ForkJoinPool;
+import lexer.Lexer;
+import util.Interner;
+
+/**
+ * Escalado de ParallelParser de 1 a N hilos frente a Parser secuencial. N es el primer
+ * argumento (por defecto, los nucleos disponibles). En una maquina de un nucleo solo
+ * se ve el costo extra de partir y unir.
+ *
+ *   java -Xmx2g -cp out parser.ParallelParserBench [hilos]
+ */
+public class ParallelParserBench {
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String text = Corpus.functions(20_000, 10);
+        System.out.printf("%.1f MB, %d nucleos disponibles%n", text.length() / 1e6, Runtime.getRuntime().availableProcessors());
+
+        Bench.Result sequential = Bench.time(2, 5, () -> new Parser(new Lexer(text)).parse());
+        System.out.printf("secuencial   %8.1f ms%n", sequential.minMillis());
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                Bench.Result parallel = Bench.time(2, 5, () -> ParallelParser.parse(text, pool, new Interner()));
+                System.out.printf("%2d hilo(s)   %8.1f ms  (%.2fx)%n",
+                    threads, parallel.minMillis(), sequential.minMillis() / parallel.minMillis());
+            } finally {
+                pool.shutdown();
+            }
+            if (threads >= maxThreads) break;
+        }
+    }
+}
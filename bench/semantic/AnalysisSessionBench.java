@@ -0,0 +1,42 @@
+package semantic;
+
+import ast.ProgramNode;
+import harness.Bench;
+import harness.Corpus;
+import parser.IncrementalParser;
+
+/**
+ * Latencia de volver a analizar despues de editar una funcion en un programa grande:
+ * AnalysisSession (solo reanaliza lo afectado) frente a un SemanticAnalyzer nuevo sobre
+ * el mismo arbol. La sesion alterna entre dos versiones del programa (la segunda sale
+ * de IncrementalParser.reparse) que difieren en un literal de la funcion del medio,
+ * asi que en cada repeticion hay un cambio.
+ *
+ *   java -Xmx2g -cp out semantic.AnalysisSessionBench [funciones]
+ */
+public class AnalysisSessionBench {
+    public static void main(String[] args) throws Exception {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String before = Corpus.functions(functions, 10);
+        String marker = "function f" + functions / 2 + "() {\n    var s: float = ";
+        int at = before.indexOf(marker) + marker.length();
+        String after = before.substring(0, at) + "7" + before.substring(at);
+        System.out.printf("Entrada: %,d funciones, %,d caracteres%n", functions, before.length());
+
+        IncrementalParser.Snapshot first = IncrementalParser.parse(before);
+        ProgramNode[] versions = {first.getProgram(), IncrementalParser.reparse(first, after).getProgram()};
+        AnalysisSession session = new AnalysisSession();
+        session.analyze(versions[0]);
+        int[] turn = {0};
+
+        Bench.Result incremental = Bench.time(5, 10, () -> session.analyze(versions[++turn[0] % 2]));
+        Bench.Result full = Bench.time(3, 7, () -> {
+            SemanticAnalyzer analyzer = new SemanticAnalyzer();
+            analyzer.analyze(versions[0]);
+            return analyzer;
+        });
+        System.out.printf("AnalysisSession:   %s (%d reanalizadas, %d reutilizadas)%n",
+            incremental, session.getReanalyzedCount(), session.getReusedCount());
+        System.out.printf("analisis completo: %s (%.1fx)%n", full, full.minMillis() / incremental.minMillis());
+    }
+}
@@ -0,0 +1,46 @@
+package semantic;
+
+import ast.ProgramNode;
+import harness.Bench;
+import harness.Corpus;
+import java.util.concurrent.ForkJoinPool;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * analyze frente a analyzeParallel con 1, 2, 4... hilos, hasta los nucleos de la
+ * maquina, sobre un programa de miles de funciones. Se analiza siempre el mismo
+ * arbol: cada analisis vuelve a escribir todas las anotaciones.
+ *
+ *   java -Xmx2g -cp out semantic.ParallelAnalysisBench [funciones]
+ */
+public class ParallelAnalysisBench {
+    public static void main(String[] args) throws Exception {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String source = Corpus.functions(functions, 20);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Entrada: %,d funciones, %,d caracteres, %d nucleos%n", functions, source.length(), cores);
+
+        ProgramNode program = new Parser(new Lexer(source)).parse();
+
+        Bench.Result sequential = Bench.time(3, 7, () -> analyze(program));
+        System.out.printf("analyze:                  %s%n", sequential);
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Bench.Result parallel = Bench.time(3, 7, () -> {
+                SemanticAnalyzer analyzer = new SemanticAnalyzer();
+                analyzer.analyzeParallel(program, pool);
+                return analyzer;
+            });
+            pool.shutdown();
+            System.out.printf("analyzeParallel %2d hilos: %s (%.2fx)%n", threads, parallel,
+                sequential.minMillis() / parallel.minMillis());
+        }
+    }
+
+    private static Object analyze(ProgramNode program) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        analyzer.analyze(program);
+        return analyzer;
+    }
+}
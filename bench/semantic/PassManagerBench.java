@@ -0,0 +1,42 @@
+package semantic;
+
+import ast.ProgramNode;
+import harness.Bench;
+import harness.Corpus;
+import lexer.Lexer;
+import parser.AnalizadorSemanticoAvanzado;
+import parser.Parser;
+
+/**
+ * SemanticAnalyzer y AnalizadorSemanticoAvanzado corridos uno despues del otro (dos
+ * recorridos del AST) frente a los dos en un solo PassManager (un recorrido). Se
+ * analiza siempre el mismo arbol; cada ronda usa analizadores nuevos.
+ *
+ *   java -Xmx2g -cp out semantic.PassManagerBench [funciones]
+ */
+public class PassManagerBench {
+    public static void main(String[] args) throws Exception {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String source = Corpus.functions(functions, 20);
+        System.out.printf("Entrada: %,d funciones, %,d caracteres%n", functions, source.length());
+
+        ProgramNode program = new Parser(new Lexer(source)).parse();
+
+        Bench.Result separate = Bench.time(3, 7, () -> {
+            SemanticAnalyzer semantic = new SemanticAnalyzer();
+            semantic.analyze(program);
+            AnalizadorSemanticoAvanzado advanced = new AnalizadorSemanticoAvanzado();
+            advanced.analyze(program);
+            return advanced;
+        });
+        Bench.Result fused = Bench.time(3, 7, () -> {
+            PassManager manager = new PassManager();
+            manager.add(new SemanticAnalyzer());
+            manager.add(new AnalizadorSemanticoAvanzado());
+            manager.run(program);
+            return manager;
+        });
+        System.out.printf("por separado: %s%n", separate);
+        System.out.printf("un recorrido: %s (%.2fx)%n", fused, separate.minMillis() / fused.minMillis());
+    }
+}
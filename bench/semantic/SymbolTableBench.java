@@ -0,0 +1,62 @@
+package semantic;
+
+import harness.Bench;
+import util.Interner;
+
+/**
+ * ScopeManager (cadena de Scope) frente a UndoLogScopeManager en las tres formas de
+ * tabla del cambio original: bloques muy anidados con pocos nombres, pocos bloques
+ * con miles de nombres cada uno, y un caso intermedio. Los nombres se reparten entre
+ * los niveles; cada ciclo abre un bloque, declara una variable, resuelve un nombre
+ * (y su profundidad) y cierra el bloque.
+ *
+ *   java -cp out semantic.SymbolTableBench [ciclos]
+ */
+public class SymbolTableBench {
+    public static void main(String[] args) throws Exception {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        System.out.printf("%,d ciclos enterScope/declare/resolve/depthOf/exitScope%n", cycles);
+        run("2000 bloques anidados, 4 nombres", 2000, 4, cycles);
+        run("8 bloques, 5000 nombres", 8, 5000, cycles);
+        run("500 bloques anidados, 2000 nombres", 500, 2000, cycles);
+    }
+
+    private static void run(String name, int depth, int names, int cycles) throws Exception {
+        Interner interner = new Interner();
+        int[] ids = new int[names];
+        for (int i = 0; i < names; i++) ids[i] = interner.intern("v" + i);
+        int local = interner.intern("local");
+
+        SymbolTable chain = filled(new ScopeManager(interner), depth, ids);
+        SymbolTable undoLog = filled(new UndoLogScopeManager(interner), depth, ids);
+        Bench.Result chainTime = Bench.time(2, 5, () -> cycles(chain, ids, local, cycles));
+        Bench.Result undoLogTime = Bench.time(2, 5, () -> cycles(undoLog, ids, local, cycles));
+        System.out.printf("%s:%n", name);
+        System.out.printf("  ScopeManager:        %s%n", chainTime);
+        System.out.printf("  UndoLogScopeManager: %s (%.1fx)%n", undoLogTime,
+            chainTime.minMillis() / undoLogTime.minMillis());
+    }
+
+    // Abre depth - 1 bloques dentro del global y declara el nombre i en el nivel i % depth
+    private static SymbolTable filled(SymbolTable table, int depth, int[] ids) {
+        for (int level = 0; level < depth; level++) {
+            if (level > 0) table.enterScope();
+            for (int i = level; i < ids.length; i += depth) {
+                table.declareSymbol(ids[i], new Symbol("v" + i, Tipo.INT, null, false));
+            }
+        }
+        return table;
+    }
+
+    private static long cycles(SymbolTable table, int[] ids, int local, int cycles) {
+        long sum = 0;
+        for (int i = 0; i < cycles; i++) {
+            table.enterScope();
+            table.declareSymbol(local, new Symbol("local", Tipo.INT, null, false));
+            int id = ids[(int) ((i * 7919L) % ids.length)];
+            sum += table.resolve(id).getSlot() + table.depthOf(id);
+            table.exitScope();
+        }
+        return sum;
+    }
+}
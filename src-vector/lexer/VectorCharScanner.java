@@ -0,0 +1,106 @@
+package lexer;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * CharScanner que clasifica 16-64 caracteres por paso con jdk.incubator.vector.
+ * Se compila aparte del resto del codigo porque necesita el modulo incubadora:
+ *
+ *   javac --add-modules jdk.incubator.vector -cp <clases> -d <clases> src-vector/lexer/VectorCharScanner.java
+ *   java --add-modules jdk.incubator.vector ...
+ *
+ * Si la clase o el modulo no estan, CharScanner.best() usa ScalarCharScanner.
+ */
+public class VectorCharScanner extends ScalarCharScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public int skipWhitespace(char[] chars, int from, int to) {
+        int i = from;
+        int bound = to - LANES;
+        while (i <= bound) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            VectorMask<Short> blank = v.eq((short) ' ')
+                .or(v.eq((short) '\t'))
+                .or(v.eq((short) '\r'))
+                .or(v.eq((short) '\n'));
+            if (!blank.allTrue()) return i + blank.not().firstTrue();
+            i += LANES;
+        }
+        return super.skipWhitespace(chars, i, to);
+    }
+
+    @Override
+    public int skipIdentifierChars(char[] chars, int from, int to) {
+        int i = from;
+        int bound = to - LANES;
+        while (i <= bound) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            // Convertir a minuscula con |0x20 deja las letras en [a-z] y los digitos en [0-9]
+            ShortVector lower = v.or((short) 0x20);
+            VectorMask<Short> word = inRange(lower, 'a', 'z').or(inRange(v, '0', '9'));
+            if (!word.allTrue()) return i + word.not().firstTrue();
+            i += LANES;
+        }
+        return super.skipIdentifierChars(chars, i, to);
+    }
+
+    @Override
+    public int skipDigits(char[] chars, int from, int to) {
+        int i = from;
+        int bound = to - LANES;
+        while (i <= bound) {
+            VectorMask<Short> digit = inRange(ShortVector.fromCharArray(SPECIES, chars, i), '0', '9');
+            if (!digit.allTrue()) return i + digit.not().firstTrue();
+            i += LANES;
+        }
+        return super.skipDigits(chars, i, to);
+    }
+
+    @Override
+    public int findQuoteOrNewline(char[] chars, int from, int to) {
+        int i = from;
+        int bound = to - LANES;
+        while (i <= bound) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            VectorMask<Short> stop = v.eq((short) '"').or(v.eq((short) '\n'));
+            if (stop.anyTrue()) return i + stop.firstTrue();
+            i += LANES;
+        }
+        return super.findQuoteOrNewline(chars, i, to);
+    }
+
+    @Override
+    public int findNewline(char[] chars, int from, int to) {
+        int i = from;
+        int bound = to - LANES;
+        while (i <= bound) {
+            VectorMask<Short> newline = ShortVector.fromCharArray(SPECIES, chars, i).eq((short) '\n');
+            if (newline.anyTrue()) return i + newline.firstTrue();
+            i += LANES;
+        }
+        return super.findNewline(chars, i, to);
+    }
+
+    @Override
+    public int countNewlines(char[] chars, int from, int to) {
+        int count = 0;
+        int i = from;
+        int bound = to - LANES;
+        while (i <= bound) {
+            count += ShortVector.fromCharArray(SPECIES, chars, i).eq((short) '\n').trueCount();
+            i += LANES;
+        }
+        return count + super.countNewlines(chars, i, to);
+    }
+
+    // Comparacion sin signo: los caracteres >= 0x8000 quedan fuera de cualquier rango ASCII
+    private static VectorMask<Short> inRange(ShortVector v, char low, char high) {
+        return v.compare(VectorOperators.UNSIGNED_GE, (short) low)
+            .and(v.compare(VectorOperators.UNSIGNED_LE, (short) high));
+    }
+}
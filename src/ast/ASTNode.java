@@ -1,7 +1,25 @@
 package ast;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public abstract class ASTNode {
+    // Slot de una variable que el analisis semantico no pudo resolver
+    public static final int NO_SLOT = -1;
+    // Tipo estatico de una expresion cuyo tipo no se sabe
+    public static final byte NO_TYPE = -1;
+
     private int lineNumber;
+    private boolean frozen;
+    // Hash estructural; solo es definitivo cuando el nodo esta congelado
+    private long structuralHash;
+    // Nodo compartido por varios padres (HashConsTable)
+    private boolean shared;
+    // Tipo de la expresion segun el analisis semantico, como el ordinal de semantic.Tipo
+    // (asi ast no depende de semantic); NO_TYPE si no se sabe
+    private byte staticType = NO_TYPE;
 
     public ASTNode(int lineNumber) {
         this.lineNumber = lineNumber;
@@ -11,6 +29,153 @@ public abstract class ASTNode {
         return lineNumber;
     }
 
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    void markShared() {
+        shared = true;
+    }
+
+    public byte getStaticType() {
+        return staticType;
+    }
+
+    // Como las direcciones, es una anotacion del analisis: se permite en nodos congelados
+    public void setStaticType(byte staticType) {
+        this.staticType = staticType;
+    }
+
+    /**
+     * Hash de 64 bits de la estructura del subarbol: tipo de cada nodo, nombres,
+     * operadores, literales y el orden de los hijos, sin numeros de linea ni ids de
+     * simbolo. Dos subarboles iguales tienen el mismo hash en cualquier ejecucion,
+     * asi que sirve como clave de cache para resultados de analisis por subarbol.
+     * Se calcula de abajo hacia arriba al congelar; en nodos sin congelar se recalcula
+     * en cada llamada.
+     */
+    public long structuralHash() {
+        if (frozen) return structuralHash;
+        hashInOrder(postOrder(this, false));
+        return structuralHash;
+    }
+
+    /**
+     * Congela este nodo y todos sus descendientes: las listas de hijos pasan a ser
+     * arreglos inmutables que los getters devuelven sin copiar, y cualquier
+     * modificacion posterior lanza IllegalStateException. Tambien fija el hash
+     * estructural de cada nodo. Se recorre sin recursion.
+     */
+    public void freeze() {
+        hashInOrder(postOrder(this, true));
+    }
+
+    /**
+     * Nodos no congelados del subarbol con cada hijo antes que su padre. Con 'freeze'
+     * los congela al visitarlos, asi que un nodo compartido se visita una sola vez.
+     */
+    private static List<ASTNode> postOrder(ASTNode root, boolean freeze) {
+        List<ASTNode> order = new ArrayList<>();
+        List<ASTNode> pending = new ArrayList<>();
+        // Para cada nodo pendiente: true si sus hijos ya se agregaron a la pila
+        List<Boolean> expanded = new ArrayList<>();
+        List<ASTNode> children = new ArrayList<>();
+        pending.add(root);
+        expanded.add(false);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.remove(pending.size() - 1);
+            boolean done = expanded.remove(expanded.size() - 1);
+            if (node == null) continue;
+            if (done) {
+                order.add(node);
+                continue;
+            }
+            if (node.frozen) continue;
+            if (freeze) {
+                node.frozen = true;
+                node.freezeChildren();
+            }
+            pending.add(node);
+            expanded.add(true);
+            children.clear();
+            node.addChildren(children);
+            for (ASTNode child : children) {
+                pending.add(child);
+                expanded.add(false);
+            }
+        }
+        return order;
+    }
+
+    // Los hijos que no estan en 'order' ya tienen su hash
+    private static void hashInOrder(List<ASTNode> order) {
+        List<ASTNode> children = new ArrayList<>();
+        for (ASTNode node : order) {
+            children.clear();
+            node.addChildren(children);
+            long hash = mix(node.getClass().getSimpleName().hashCode(), node.localHash());
+            hash = mix(hash, children.size());
+            for (ASTNode child : children) {
+                hash = mix(hash, child == null ? NULL_HASH : child.structuralHash);
+            }
+            node.structuralHash = hash;
+        }
+    }
+
+    private static final long NULL_HASH = 0x6A09E667F3BCC909L;
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Suma 'delta' al numero de linea de este nodo y sus descendientes. La usa el
+     * parseo incremental para que las lineas de una declaracion recien leida queden
+     * relativas a su base (ProgramNode.addDeclaration); solo antes de congelarla.
+     */
+    public void shiftLineNumbers(int delta) {
+        if (delta == 0) return;
+        List<ASTNode> pending = new ArrayList<>();
+        pending.add(this);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.remove(pending.size() - 1);
+            // Un nodo compartido conserva la linea de su primera aparicion
+            if (node == null || node.shared) continue;
+            node.checkMutable();
+            node.lineNumber += delta;
+            node.addChildren(pending);
+        }
+    }
+
+    // Agrega a 'out' los hijos directos del nodo (pueden ser null)
+    void addChildren(List<ASTNode> out) {
+    }
+
+    // Los nodos con listas de hijos las reemplazan por listas inmutables
+    void freezeChildren() {
+    }
+
+    // Hash de los datos propios del nodo (nombre, operador, valor); los hijos no cuentan
+    long localHash() {
+        return 0;
+    }
+
+    protected void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("El AST está congelado: no se puede modificar después del parsing");
+        }
+    }
+
+    // Copia inmutable respaldada por un arreglo, para las listas de hijos congeladas
+    static List<ASTNode> frozenList(List<ASTNode> children) {
+        return Collections.unmodifiableList(Arrays.asList(children.toArray(new ASTNode[0])));
+    }
+
     public abstract void accept(ASTVisitor visitor);
     
     // Nuevo método para expression visitor
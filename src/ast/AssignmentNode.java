@@ -1,18 +1,49 @@
 package ast;
 
+import java.util.List;
+import java.util.Objects;
+
 public class AssignmentNode extends ASTNode {
     private String variableName;
     private ASTNode value;
+    private int symbolId;
+    private int depth = 0;
+    private int slot = NO_SLOT;
 
     public AssignmentNode(int lineNumber, String variableName, ASTNode value) {
+        this(lineNumber, variableName, value, -1);
+    }
+
+    public AssignmentNode(int lineNumber, String variableName, ASTNode value, int symbolId) {
         super(lineNumber);
         this.variableName = variableName;
         this.value = value;
+        this.symbolId = symbolId;
     }
 
     public String getVariableName() { return variableName; }
+    public int getSymbolId() { return symbolId; }
     public ASTNode getValue() { return value; }
 
+    // Variable que se modifica, resuelta por el analisis semantico
+    public void setAddress(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    public int getDepth() { return depth; }
+    public int getSlot() { return slot; }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(value);
+    }
+
+    @Override
+    long localHash() {
+        return Objects.hashCode(variableName);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
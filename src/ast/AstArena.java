@@ -0,0 +1,494 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import util.Interner;
+
+/**
+ * Representacion compacta del AST: cada nodo es un indice en arreglos int paralelos
+ * (tipo, linea, primer hijo, siguiente hermano y dos operandos), los textos van en un
+ * pool de cadenas y los numeros en un pool de double, sin objetos por nodo.
+ *
+ * Los nodos se guardan en postorden, asi que el subarbol de un nodo ocupa un rango
+ * contiguo de indices que termina en el propio nodo; codificar y decodificar no usan
+ * recursion. Los hijos opcionales ausentes se guardan como NONE para que cada tipo
+ * tenga sus hijos en posiciones fijas:
+ *
+ *   PROGRAM      declaraciones...
+ *   FUNCTION     TYPE(retorno), cuerpo, parametros...        op1 = nombre, op2 = simbolo
+ *   VARIABLE_DECL TYPE, valor inicial                         op1 = nombre, op2 = simbolo
+ *   BLOCK        sentencias...
+ *   IF           condicion, then, else
+ *   WHILE        condicion, cuerpo
+ *   RETURN / EXPRESSION_STATEMENT / PRINT   valor
+ *   ASSIGNMENT   valor                                        op1 = nombre, op2 = simbolo
+ *   BINARY       izquierdo, derecho                           op1 = operador
+ *   CALL         argumentos...                                op1 = nombre, op2 = simbolo
+ *   IDENTIFIER                                                op1 = nombre, op2 = simbolo
+ *   LITERAL                                                   op1 = tipo de literal, op2 = valor
+ *   TYPE                                                      op1 = nombre del tipo
+ */
+public class AstArena {
+    public static final int NO_NODE = -1;
+
+    // Tipos de literal (op1 de LITERAL)
+    private static final int LIT_NULL = 0;
+    private static final int LIT_NUMBER = 1;    // op2 = indice en numbers
+    private static final int LIT_STRING = 2;    // op2 = indice en strings
+    private static final int LIT_BOOLEAN = 3;   // op2 = 0 o 1
+    private static final int LIT_INT = 4;       // op2 = el valor
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+
+    private final Interner interner;
+    private byte[] kinds = new byte[64];
+    private int[] lines = new int[64];
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private int[] op1 = new int[64];
+    private int[] op2 = new int[64];
+    private int size = 0;
+
+    private double[] numbers = new double[16];
+    private int numberCount = 0;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+
+    private int root = NO_NODE;
+    private int[] declarations = new int[16];
+    private int declarationCount = 0;
+    // Nodos ya decodificados por node(i), para devolver siempre la misma instancia
+    private ASTNode[] decoded;
+
+    public AstArena() {
+        this(new Interner());
+    }
+
+    public AstArena(Interner interner) {
+        this.interner = interner;
+    }
+
+    // Codifica un programa completo
+    public static AstArena of(ProgramNode program) {
+        AstArena arena = new AstArena(program.getInterner());
+        for (ASTNode declaration : program.getDeclarations()) {
+            arena.appendDeclaration(declaration);
+        }
+        arena.appendProgram(program.getLineNumber());
+        return arena;
+    }
+
+    /**
+     * Codifica el subarbol de 'node' al final de la arena y devuelve el indice de su raiz.
+     * Se recorre con una pila explicita, asi que admite arboles de cualquier profundidad.
+     */
+    public int append(ASTNode node) {
+        if (node == null) return add(NodeKind.NONE, 0, 0, 0, null, 0);
+
+        List<Frame> stack = new ArrayList<>();
+        stack.add(new Frame(node));
+        int result = NO_NODE;
+        while (!stack.isEmpty()) {
+            Frame frame = stack.get(stack.size() - 1);
+            if (frame.next < frame.children.length) {
+                ASTNode child = frame.children[frame.next];
+                if (child == null) {
+                    frame.encoded[frame.next++] = add(NodeKind.NONE, 0, 0, 0, null, 0);
+                } else {
+                    stack.add(new Frame(child));
+                }
+                continue;
+            }
+            stack.remove(stack.size() - 1);
+            int index = emit(frame.node, frame.encoded);
+            if (stack.isEmpty()) {
+                result = index;
+            } else {
+                Frame parent = stack.get(stack.size() - 1);
+                parent.encoded[parent.next++] = index;
+            }
+        }
+        return result;
+    }
+
+    // Codifica una declaracion de primer nivel del programa
+    public int appendDeclaration(ASTNode declaration) {
+        int index = append(declaration);
+        if (declarationCount == declarations.length) {
+            declarations = Arrays.copyOf(declarations, declarationCount * 2);
+        }
+        declarations[declarationCount++] = index;
+        return index;
+    }
+
+    // Agrega el nodo PROGRAM con las declaraciones agregadas hasta ahora; queda como raiz
+    public int appendProgram(int line) {
+        root = add(NodeKind.PROGRAM, line, 0, 0, declarations, declarationCount);
+        declarationCount = 0;
+        return root;
+    }
+
+    private static final class Frame {
+        final ASTNode node;
+        final ASTNode[] children;
+        final int[] encoded;
+        int next = 0;
+
+        Frame(ASTNode node) {
+            this.node = node;
+            this.children = children(node);
+            this.encoded = new int[children.length];
+        }
+    }
+
+    // Hijos de cada tipo de nodo en el orden de la arena (null = NONE)
+    private static ASTNode[] children(ASTNode node) {
+        if (node instanceof FunctionNode) {
+            FunctionNode function = (FunctionNode) node;
+            List<ASTNode> parameters = function.getParameters();
+            ASTNode[] children = new ASTNode[2 + parameters.size()];
+            children[0] = new TypeNode(function.getLineNumber(), function.getReturnType());
+            children[1] = function.getBody();
+            for (int i = 0; i < parameters.size(); i++) children[2 + i] = parameters.get(i);
+            return children;
+        }
+        if (node instanceof VariableDeclNode) {
+            VariableDeclNode decl = (VariableDeclNode) node;
+            return new ASTNode[] { new TypeNode(decl.getLineNumber(), decl.getType()), decl.getInitialValue() };
+        }
+        if (node instanceof BlockNode) return ((BlockNode) node).getStatements().toArray(new ASTNode[0]);
+        if (node instanceof ProgramNode) return ((ProgramNode) node).getDeclarations().toArray(new ASTNode[0]);
+        if (node instanceof CallNode) return ((CallNode) node).getArguments().toArray(new ASTNode[0]);
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            return new ASTNode[] { ifNode.getCondition(), ifNode.getThenBlock(), ifNode.getElseBlock() };
+        }
+        if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+            return new ASTNode[] { whileNode.getCondition(), whileNode.getBody() };
+        }
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            return new ASTNode[] { binary.getLeft(), binary.getRight() };
+        }
+        if (node instanceof ReturnNode) return new ASTNode[] { ((ReturnNode) node).getValue() };
+        if (node instanceof AssignmentNode) return new ASTNode[] { ((AssignmentNode) node).getValue() };
+        if (node instanceof ExpressionStatementNode) return new ASTNode[] { ((ExpressionStatementNode) node).getExpression() };
+        if (node instanceof PrintNode) return new ASTNode[] { ((PrintNode) node).getValue() };
+        return new ASTNode[0];
+    }
+
+    private int emit(ASTNode node, int[] children) {
+        int line = node.getLineNumber();
+        int count = children.length;
+        if (node instanceof FunctionNode) {
+            FunctionNode n = (FunctionNode) node;
+            return add(NodeKind.FUNCTION, line, string(n.getFunctionName()), n.getSymbolId(), children, count);
+        }
+        if (node instanceof VariableDeclNode) {
+            VariableDeclNode n = (VariableDeclNode) node;
+            return add(NodeKind.VARIABLE_DECL, line, string(n.getVariableName()), n.getSymbolId(), children, count);
+        }
+        if (node instanceof AssignmentNode) {
+            AssignmentNode n = (AssignmentNode) node;
+            return add(NodeKind.ASSIGNMENT, line, string(n.getVariableName()), n.getSymbolId(), children, count);
+        }
+        if (node instanceof CallNode) {
+            CallNode n = (CallNode) node;
+            return add(NodeKind.CALL, line, string(n.getFunctionName()), n.getSymbolId(), children, count);
+        }
+        if (node instanceof IdentifierNode) {
+            IdentifierNode n = (IdentifierNode) node;
+            return add(NodeKind.IDENTIFIER, line, string(n.getName()), n.getSymbolId(), children, count);
+        }
+        if (node instanceof BinaryExpression) {
+            return add(NodeKind.BINARY, line, string(((BinaryExpression) node).getOperator()), 0, children, count);
+        }
+        if (node instanceof TypeNode) {
+            return add(NodeKind.TYPE, line, string(((TypeNode) node).getTypeName()), 0, children, count);
+        }
+        if (node instanceof LiteralNode) {
+            Object value = ((LiteralNode) node).getValue();
+            if (value == null) return add(NodeKind.LITERAL, line, LIT_NULL, 0, children, count);
+            if (value instanceof Double) return add(NodeKind.LITERAL, line, LIT_NUMBER, number((Double) value), children, count);
+            if (value instanceof String) return add(NodeKind.LITERAL, line, LIT_STRING, string((String) value), children, count);
+            if (value instanceof Boolean) return add(NodeKind.LITERAL, line, LIT_BOOLEAN, (Boolean) value ? 1 : 0, children, count);
+            if (value instanceof Integer) return add(NodeKind.LITERAL, line, LIT_INT, (Integer) value, children, count);
+            throw new IllegalArgumentException("Literal no soportado en la arena: " + value.getClass().getSimpleName());
+        }
+        if (node instanceof ProgramNode) return add(NodeKind.PROGRAM, line, 0, 0, children, count);
+        if (node instanceof BlockNode) return add(NodeKind.BLOCK, line, 0, 0, children, count);
+        if (node instanceof IfNode) return add(NodeKind.IF, line, 0, 0, children, count);
+        if (node instanceof WhileNode) return add(NodeKind.WHILE, line, 0, 0, children, count);
+        if (node instanceof ReturnNode) return add(NodeKind.RETURN, line, 0, 0, children, count);
+        if (node instanceof ExpressionStatementNode) return add(NodeKind.EXPRESSION_STATEMENT, line, 0, 0, children, count);
+        if (node instanceof PrintNode) return add(NodeKind.PRINT, line, 0, 0, children, count);
+        throw new IllegalArgumentException("Nodo no soportado en la arena: " + node.getClass().getSimpleName());
+    }
+
+    private int add(NodeKind kind, int line, int a, int b, int[] children, int count) {
+        if (size == kinds.length) grow();
+        int index = size++;
+        kinds[index] = (byte) kind.ordinal();
+        lines[index] = line;
+        op1[index] = a;
+        op2[index] = b;
+        firstChild[index] = count > 0 ? children[0] : NO_NODE;
+        nextSibling[index] = NO_NODE;
+        for (int i = 0; i + 1 < count; i++) {
+            nextSibling[children[i]] = children[i + 1];
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        op1 = Arrays.copyOf(op1, capacity);
+        op2 = Arrays.copyOf(op2, capacity);
+    }
+
+    private int string(String text) {
+        if (text == null) return NO_NODE;
+        Integer index = stringIndex.get(text);
+        if (index == null) {
+            index = strings.size();
+            strings.add(text);
+            stringIndex.put(text, index);
+        }
+        return index;
+    }
+
+    private int number(double value) {
+        if (numberCount == numbers.length) numbers = Arrays.copyOf(numbers, numberCount * 2);
+        numbers[numberCount] = value;
+        return numberCount++;
+    }
+
+    // ---- Acceso por indice ----
+
+    public int size() {
+        return size;
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public Interner getInterner() {
+        return interner;
+    }
+
+    public NodeKind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    public int line(int node) {
+        return lines[node];
+    }
+
+    public int firstChild(int node) {
+        return firstChild[node];
+    }
+
+    public int nextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    // Hijo numero 'n' (desde 0), o NO_NODE
+    public int child(int node, int n) {
+        int child = firstChild[node];
+        for (int i = 0; i < n && child != NO_NODE; i++) child = nextSibling[child];
+        return child;
+    }
+
+    public int childCount(int node) {
+        int count = 0;
+        for (int child = firstChild[node]; child != NO_NODE; child = nextSibling[child]) count++;
+        return count;
+    }
+
+    // Nombre de variable/funcion, operador de BINARY o nombre de TYPE
+    public String name(int node) {
+        int index = op1[node];
+        return index == NO_NODE ? null : strings.get(index);
+    }
+
+    public int symbolId(int node) {
+        return op2[node];
+    }
+
+    public boolean isNumber(int node) {
+        return kinds[node] == NodeKind.LITERAL.ordinal() && op1[node] == LIT_NUMBER;
+    }
+
+    // Valor de un literal numerico sin crear objetos
+    public double number(int node) {
+        return numbers[op2[node]];
+    }
+
+    public Object literal(int node) {
+        switch (op1[node]) {
+            case LIT_NUMBER: return numbers[op2[node]];
+            case LIT_STRING: return strings.get(op2[node]);
+            case LIT_BOOLEAN: return op2[node] != 0;
+            case LIT_INT: return op2[node];
+            default: return null;
+        }
+    }
+
+    // Bytes aproximados que ocupan los pools de la arena
+    public long footprint() {
+        long bytes = (long) kinds.length * (1 + 5 * 4) + (long) numbers.length * 8;
+        for (String text : strings) bytes += 40 + 2L * text.length();
+        return bytes;
+    }
+
+    public Cursor cursor(int node) {
+        return new Cursor(node);
+    }
+
+    /**
+     * Recorrido del arbol sin objetos por nodo: se mueve al primer hijo, al siguiente
+     * hermano o al padre guardando solo la ruta de indices.
+     */
+    public final class Cursor {
+        private int[] path = new int[16];
+        private int depth = 0;
+        private int node;
+
+        private Cursor(int node) {
+            this.node = node;
+        }
+
+        public int node() {
+            return node;
+        }
+
+        public NodeKind kind() {
+            return AstArena.this.kind(node);
+        }
+
+        public int line() {
+            return lines[node];
+        }
+
+        public int depth() {
+            return depth;
+        }
+
+        public boolean gotoFirstChild() {
+            int child = firstChild[node];
+            if (child == NO_NODE) return false;
+            if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+            path[depth++] = node;
+            node = child;
+            return true;
+        }
+
+        public boolean gotoNextSibling() {
+            if (depth == 0 || nextSibling[node] == NO_NODE) return false;
+            node = nextSibling[node];
+            return true;
+        }
+
+        public boolean gotoParent() {
+            if (depth == 0) return false;
+            node = path[--depth];
+            return true;
+        }
+    }
+
+    // ---- Adaptador a los nodos ASTNode ----
+
+    // Programa completo como ProgramNode congelado, para los visitantes existentes
+    public ProgramNode toProgram() {
+        if (root == NO_NODE) throw new IllegalStateException("La arena no tiene nodo PROGRAM");
+        ProgramNode program = (ProgramNode) node(root);
+        program.freeze();
+        return program;
+    }
+
+    /**
+     * Decodifica bajo demanda el subarbol de 'index' como objetos ASTNode. Los nodos ya
+     * decodificados se reutilizan, asi que solo se crea lo que se pide.
+     */
+    public ASTNode node(int index) {
+        if (decoded == null || decoded.length < size) {
+            decoded = decoded == null ? new ASTNode[size] : Arrays.copyOf(decoded, size);
+        }
+        if (decoded[index] != null || kinds[index] == NodeKind.NONE.ordinal()) return decoded[index];
+
+        // El subarbol ocupa [descendiente mas a la izquierda, index] y los hijos van antes que el padre
+        int first = index;
+        while (firstChild[first] != NO_NODE) first = firstChild[first];
+        for (int i = first; i <= index; i++) {
+            if (decoded[i] == null && kinds[i] != NodeKind.NONE.ordinal()) decoded[i] = build(i);
+        }
+        return decoded[index];
+    }
+
+    private ASTNode build(int index) {
+        int line = lines[index];
+        int first = firstChild[index];
+        switch (kind(index)) {
+            case PROGRAM: {
+                ProgramNode program = new ProgramNode(interner);
+                for (int c = first; c != NO_NODE; c = nextSibling[c]) program.addDeclaration(decoded[c]);
+                return program;
+            }
+            case FUNCTION: {
+                int body = nextSibling[first];
+                FunctionNode function = new FunctionNode(line, name(index), name(first), op2[index]);
+                for (int c = nextSibling[body]; c != NO_NODE; c = nextSibling[c]) function.addParameter(decoded[c]);
+                function.setBody((BlockNode) decoded[body]);
+                return function;
+            }
+            case VARIABLE_DECL:
+                return new VariableDeclNode(line, name(index), name(first), decoded[nextSibling[first]], op2[index]);
+            case BLOCK: {
+                BlockNode block = new BlockNode(line);
+                for (int c = first; c != NO_NODE; c = nextSibling[c]) block.addStatement(decoded[c]);
+                return block;
+            }
+            case IF: {
+                int then = nextSibling[first];
+                IfNode ifNode = new IfNode(line, decoded[first], (BlockNode) decoded[then]);
+                BlockNode elseBlock = (BlockNode) decoded[nextSibling[then]];
+                if (elseBlock != null) ifNode.setElseBlock(elseBlock);
+                return ifNode;
+            }
+            case WHILE:
+                return new WhileNode(line, decoded[first], (BlockNode) decoded[nextSibling[first]]);
+            case RETURN:
+                return new ReturnNode(line, decoded[first]);
+            case ASSIGNMENT:
+                return new AssignmentNode(line, name(index), decoded[first], op2[index]);
+            case EXPRESSION_STATEMENT:
+                return new ExpressionStatementNode(line, decoded[first]);
+            case PRINT:
+                return new PrintNode(line, decoded[first]);
+            case BINARY:
+                return new BinaryExpression(line, decoded[first], name(index), decoded[nextSibling[first]]);
+            case CALL: {
+                CallNode call = new CallNode(line, name(index), op2[index]);
+                for (int c = first; c != NO_NODE; c = nextSibling[c]) call.addArgument(decoded[c]);
+                return call;
+            }
+            case IDENTIFIER:
+                return new IdentifierNode(line, name(index), op2[index]);
+            case LITERAL:
+                return new LiteralNode(line, literal(index));
+            case TYPE:
+                return new TypeNode(line, name(index));
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package ast;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import util.Interner;
+
+/**
+ * Formato binario compacto del AST, para guardar programas ya parseados y
+ * cargarlos sin pasar por Lexer y Parser. Se escribe a partir de una AstArena,
+ * con los nodos en el mismo postorden y los mismos hijos (NONE para los ausentes):
+ *
+ *   "SLAS" version
+ *   tabla de cadenas: cantidad, y por cada una largo + bytes UTF-8
+ *   cantidad de nodos, y por cada nodo:
+ *     tipo (NodeKind), diferencia de linea con el nodo anterior, cantidad de hijos
+ *     y los datos propios del tipo (nombre, operador, literal)
+ *   indice del nodo raiz + 1 (0 si no hay)
+ *
+ * Los enteros van como varint (los que pueden ser negativos en zigzag). Los ids de
+ * simbolo no se guardan: al leer se vuelven a internar los nombres en el Interner
+ * de destino. Cada nodo toma como hijos los ultimos subarboles leidos.
+ */
+public final class AstSerializer {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = { 'S', 'L', 'A', 'S' };
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final int NO_SYMBOL = -2;
+
+    // Literales
+    private static final int LIT_NULL = 0;
+    private static final int LIT_NUMBER = 1;
+    private static final int LIT_STRING = 2;
+    private static final int LIT_FALSE = 3;
+    private static final int LIT_TRUE = 4;
+    private static final int LIT_INT = 5;
+    private static final int LIT_WHOLE_NUMBER = 6;  // double con valor entero, como varint
+
+    private AstSerializer() {}
+
+    public static byte[] serialize(ProgramNode program) {
+        return serialize(AstArena.of(program));
+    }
+
+    public static byte[] serialize(AstArena arena) {
+        StringTable strings = new StringTable();
+        Output nodes = new Output(arena.size() * 4 + 16);
+
+        nodes.varint(arena.size());
+        int previousLine = 0;
+        for (int i = 0; i < arena.size(); i++) {
+            NodeKind kind = arena.kind(i);
+            nodes.varint(kind.ordinal());
+            if (kind == NodeKind.NONE) continue;
+
+            int line = arena.line(i);
+            nodes.zigzag(line - previousLine);
+            previousLine = line;
+            nodes.varint(arena.childCount(i));
+            switch (kind) {
+                case FUNCTION: case VARIABLE_DECL: case ASSIGNMENT: case CALL: case IDENTIFIER: {
+                    int name = strings.ref(arena.name(i));
+                    nodes.varint(name << 1 | (arena.symbolId(i) >= 0 ? 1 : 0));
+                    break;
+                }
+                case BINARY: case TYPE:
+                    nodes.varint(strings.ref(arena.name(i)));
+                    break;
+                case LITERAL:
+                    writeLiteral(nodes, arena.literal(i), strings);
+                    break;
+                default:
+                    break;
+            }
+        }
+        nodes.varint(arena.root() + 1);
+
+        Output out = new Output(nodes.size + strings.count * 8 + 16);
+        out.bytes(MAGIC, MAGIC.length);
+        out.varint(VERSION);
+        out.varint(strings.count);
+        for (int i = 0; i < strings.count; i++) {
+            byte[] utf8 = strings.values[i].getBytes(StandardCharsets.UTF_8);
+            out.varint(utf8.length);
+            out.bytes(utf8, utf8.length);
+        }
+        out.bytes(nodes.data, nodes.size);
+        return Arrays.copyOf(out.data, out.size);
+    }
+
+    /**
+     * Lee un programa guardado con serialize y lo devuelve congelado. Los nodos se
+     * construyen directamente en postorden con una pila de subarboles pendientes.
+     */
+    public static ProgramNode deserialize(byte[] data, Interner interner) throws IOException {
+        try {
+            Input in = new Input(data);
+            for (byte b : MAGIC) {
+                if (in.data[in.position++] != b) throw new IOException("Formato de AST no reconocido");
+            }
+            int version = in.varint();
+            if (version != VERSION) throw new IOException("Version de AST no soportada: " + version);
+
+            String[] strings = new String[in.varint()];
+            for (int i = 0; i < strings.length; i++) {
+                int length = in.varint();
+                strings[i] = new String(data, in.position, length, StandardCharsets.UTF_8);
+                in.position += length;
+            }
+            // Id de simbolo de cada cadena, se interna una sola vez
+            int[] symbols = new int[strings.length];
+            Arrays.fill(symbols, NO_SYMBOL);
+
+            int count = in.varint();
+            // Subarboles ya leidos que todavia no tienen padre
+            ASTNode[] pending = new ASTNode[64];
+            int[] indexes = new int[64];
+            int top = 0;
+            int line = 0;
+            for (int i = 0; i < count; i++) {
+                NodeKind kind = KINDS[in.varint()];
+                ASTNode node = null;
+                if (kind != NodeKind.NONE) {
+                    line += in.zigzag();
+                    int childCount = in.varint();
+                    if (childCount > top) throw new IOException("AST guardado inconsistente");
+                    top -= childCount;
+                    node = readNode(in, kind, line, pending, top, childCount, strings, symbols, interner);
+                }
+                if (top == pending.length) {
+                    pending = Arrays.copyOf(pending, top * 2);
+                    indexes = Arrays.copyOf(indexes, top * 2);
+                }
+                indexes[top] = i;
+                pending[top++] = node;
+            }
+
+            int root = in.varint() - 1;
+            ASTNode program = null;
+            for (int i = 0; i < top; i++) {
+                if (indexes[i] == root) program = pending[i];
+            }
+            if (!(program instanceof ProgramNode)) throw new IOException("El AST guardado no es un programa");
+            program.freeze();
+            return (ProgramNode) program;
+        } catch (RuntimeException e) {
+            throw new IOException("AST guardado truncado o corrupto", e);
+        }
+    }
+
+    // Construye un nodo con sus hijos en children[from, from + count); los ausentes son null
+    private static ASTNode readNode(Input in, NodeKind kind, int line, ASTNode[] children, int from, int count,
+                                    String[] strings, int[] symbols, Interner interner) {
+        if (!validChildCount(kind, count)) throw new IllegalStateException(kind + " con " + count + " hijos");
+        switch (kind) {
+            case PROGRAM: {
+                ProgramNode program = new ProgramNode(interner);
+                for (int i = 0; i < count; i++) program.addDeclaration(children[from + i]);
+                return program;
+            }
+            case FUNCTION: {
+                int reference = in.varint();
+                FunctionNode function = new FunctionNode(line, string(strings, reference >>> 1),
+                    typeName(children[from]), symbol(reference, strings, symbols, interner));
+                for (int i = 2; i < count; i++) function.addParameter(children[from + i]);
+                function.setBody((BlockNode) children[from + 1]);
+                return function;
+            }
+            case VARIABLE_DECL: {
+                int reference = in.varint();
+                return new VariableDeclNode(line, string(strings, reference >>> 1), typeName(children[from]),
+                    children[from + 1], symbol(reference, strings, symbols, interner));
+            }
+            case BLOCK: {
+                BlockNode block = new BlockNode(line);
+                for (int i = 0; i < count; i++) block.addStatement(children[from + i]);
+                return block;
+            }
+            case IF: {
+                IfNode ifNode = new IfNode(line, children[from], (BlockNode) children[from + 1]);
+                if (children[from + 2] != null) ifNode.setElseBlock((BlockNode) children[from + 2]);
+                return ifNode;
+            }
+            case WHILE:
+                return new WhileNode(line, children[from], (BlockNode) children[from + 1]);
+            case RETURN:
+                return new ReturnNode(line, children[from]);
+            case ASSIGNMENT: {
+                int reference = in.varint();
+                return new AssignmentNode(line, string(strings, reference >>> 1), children[from],
+                    symbol(reference, strings, symbols, interner));
+            }
+            case EXPRESSION_STATEMENT:
+                return new ExpressionStatementNode(line, children[from]);
+            case PRINT:
+                return new PrintNode(line, children[from]);
+            case BINARY:
+                return new BinaryExpression(line, children[from], string(strings, in.varint()), children[from + 1]);
+            case CALL: {
+                int reference = in.varint();
+                CallNode call = new CallNode(line, string(strings, reference >>> 1),
+                    symbol(reference, strings, symbols, interner));
+                for (int i = 0; i < count; i++) call.addArgument(children[from + i]);
+                return call;
+            }
+            case IDENTIFIER: {
+                int reference = in.varint();
+                return new IdentifierNode(line, string(strings, reference >>> 1),
+                    symbol(reference, strings, symbols, interner));
+            }
+            case LITERAL:
+                return new LiteralNode(line, readLiteral(in, strings));
+            case TYPE:
+                return new TypeNode(line, string(strings, in.varint()));
+            default:
+                throw new IllegalStateException("Tipo de nodo inesperado: " + kind);
+        }
+    }
+
+    private static boolean validChildCount(NodeKind kind, int count) {
+        switch (kind) {
+            case PROGRAM: case BLOCK: case CALL: return true;
+            case FUNCTION: return count >= 2;
+            case IF: return count == 3;
+            case VARIABLE_DECL: case WHILE: case BINARY: return count == 2;
+            case RETURN: case ASSIGNMENT: case EXPRESSION_STATEMENT: case PRINT: return count == 1;
+            default: return count == 0;
+        }
+    }
+
+    private static String typeName(ASTNode type) {
+        return type == null ? null : ((TypeNode) type).getTypeName();
+    }
+
+    // El bit bajo de la referencia indica si el nombre tenia id de simbolo
+    private static int symbol(int reference, String[] strings, int[] symbols, Interner interner) {
+        if ((reference & 1) == 0) return -1;
+        int index = (reference >>> 1) - 1;
+        if (symbols[index] == NO_SYMBOL) symbols[index] = interner.intern(strings[index]);
+        return symbols[index];
+    }
+
+    private static String string(String[] strings, int reference) {
+        return reference == 0 ? null : strings[reference - 1];
+    }
+
+    private static void writeLiteral(Output out, Object value, StringTable strings) {
+        if (value == null) {
+            out.varint(LIT_NULL);
+        } else if (value instanceof Double) {
+            double number = (Double) value;
+            int whole = (int) number;
+            if (whole == number && (whole != 0 || Double.doubleToRawLongBits(number) == 0)) {
+                out.varint(LIT_WHOLE_NUMBER);
+                out.zigzag(whole);
+            } else {
+                out.varint(LIT_NUMBER);
+                out.fixed64(Double.doubleToRawLongBits(number));
+            }
+        } else if (value instanceof String) {
+            out.varint(LIT_STRING);
+            out.varint(strings.ref((String) value));
+        } else if (value instanceof Boolean) {
+            out.varint((Boolean) value ? LIT_TRUE : LIT_FALSE);
+        } else {
+            out.varint(LIT_INT);
+            out.zigzag((Integer) value);
+        }
+    }
+
+    private static Object readLiteral(Input in, String[] strings) {
+        switch (in.varint()) {
+            case LIT_NUMBER: return Double.longBitsToDouble(in.fixed64());
+            case LIT_WHOLE_NUMBER: return (double) in.zigzag();
+            case LIT_STRING: return string(strings, in.varint());
+            case LIT_FALSE: return Boolean.FALSE;
+            case LIT_TRUE: return Boolean.TRUE;
+            case LIT_INT: return in.zigzag();
+            default: return null;
+        }
+    }
+
+    // Cadenas en orden de primera aparicion
+    private static final class StringTable {
+        final Map<String, Integer> index = new HashMap<>();
+        String[] values = new String[16];
+        int count = 0;
+
+        // Referencia a la tabla: 0 para null, indice + 1 en otro caso
+        int ref(String text) {
+            if (text == null) return 0;
+            Integer found = index.get(text);
+            if (found == null) {
+                found = count;
+                if (count == values.length) values = Arrays.copyOf(values, count * 2);
+                values[count++] = text;
+                index.put(text, found);
+            }
+            return found + 1;
+        }
+    }
+
+    private static final class Output {
+        byte[] data;
+        int size = 0;
+
+        Output(int capacity) {
+            data = new byte[Math.max(capacity, 16)];
+        }
+
+        void varint(int value) {
+            if (size + 5 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        void zigzag(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void fixed64(long value) {
+            if (size + 8 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            for (int i = 0; i < 8; i++) {
+                data[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        void bytes(byte[] bytes, int length) {
+            if (size + length > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+            System.arraycopy(bytes, 0, data, size, length);
+            size += length;
+        }
+    }
+
+    private static final class Input {
+        final byte[] data;
+        int position = 0;
+
+        Input(byte[] data) {
+            this.data = data;
+        }
+
+        int varint() {
+            int b = data[position++];
+            if (b >= 0) return b;
+            int value = b & 0x7F;
+            for (int shift = 7; ; shift += 7) {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0 || shift == 28) return value;
+            }
+        }
+
+        int zigzag() {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long fixed64() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (data[position++] & 0xFFL) << (8 * i);
+            }
+            return value;
+        }
+    }
+}
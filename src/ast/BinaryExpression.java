@@ -1,9 +1,14 @@
 package ast;
 
+import java.util.List;
+import java.util.Objects;
+
 public class BinaryExpression extends ASTNode {
     private ASTNode left;
     private String operator;
     private ASTNode right;
+    // Los dos lados son numeros y no tienen llamadas: el interprete la calcula con double
+    private boolean numeric;
 
     public BinaryExpression(int lineNumber, ASTNode left, String operator, ASTNode right) {
         super(lineNumber);
@@ -16,6 +21,20 @@ public class BinaryExpression extends ASTNode {
     public String getOperator() { return operator; }
     public ASTNode getRight() { return right; }
 
+    public boolean isNumeric() { return numeric; }
+    public void setNumeric(boolean numeric) { this.numeric = numeric; }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(left);
+        out.add(right);
+    }
+
+    @Override
+    long localHash() {
+        return Objects.hashCode(operator);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
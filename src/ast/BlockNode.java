@@ -5,6 +5,7 @@ import java.util.List;
 
 public class BlockNode extends ASTNode {
     private List<ASTNode> statements;
+    private int[] frameSymbols;
 
     public BlockNode(int lineNumber) {
         super(lineNumber);
@@ -12,11 +13,30 @@ public class BlockNode extends ASTNode {
     }
 
     public void addStatement(ASTNode statement) {
+        checkMutable();
         statements.add(statement);
     }
 
+    // Congelado devuelve la lista inmutable sin copiarla
     public List<ASTNode> getStatements() {
-        return new ArrayList<>(statements);
+        return isFrozen() ? statements : new ArrayList<>(statements);
+    }
+
+    // Ids de las variables de cada slot del marco del scope, asignados por el analisis semantico
+    public void setFrameSymbols(int[] frameSymbols) {
+        this.frameSymbols = frameSymbols;
+    }
+
+    public int[] getFrameSymbols() { return frameSymbols; }
+
+    @Override
+    void freezeChildren() {
+        statements = frozenList(statements);
+    }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.addAll(statements);
     }
 
     @Override
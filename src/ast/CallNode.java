@@ -2,23 +2,47 @@ package ast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class CallNode extends ASTNode {
     private String functionName;
     private List<ASTNode> arguments;
+    private int symbolId;
 
     public CallNode(int lineNumber, String functionName) {
+        this(lineNumber, functionName, -1);
+    }
+
+    public CallNode(int lineNumber, String functionName, int symbolId) {
         super(lineNumber);
         this.functionName = functionName;
         this.arguments = new ArrayList<>();
+        this.symbolId = symbolId;
     }
 
     public void addArgument(ASTNode argument) {
+        checkMutable();
         arguments.add(argument);
     }
 
     public String getFunctionName() { return functionName; }
-    public List<ASTNode> getArguments() { return new ArrayList<>(arguments); }
+    public int getSymbolId() { return symbolId; }
+    public List<ASTNode> getArguments() { return isFrozen() ? arguments : new ArrayList<>(arguments); }
+
+    @Override
+    void freezeChildren() {
+        arguments = frozenList(arguments);
+    }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.addAll(arguments);
+    }
+
+    @Override
+    long localHash() {
+        return Objects.hashCode(functionName);
+    }
 
     @Override
     public void accept(ASTVisitor visitor) {
@@ -1,5 +1,7 @@
 package ast;
 
+import java.util.List;
+
 public class ExpressionStatementNode extends ASTNode {
     private ASTNode expression;
 
@@ -10,6 +12,11 @@ public class ExpressionStatementNode extends ASTNode {
 
     public ASTNode getExpression() { return expression; }
 
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(expression);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
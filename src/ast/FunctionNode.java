@@ -2,33 +2,67 @@ package ast;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class FunctionNode extends ASTNode {
     private String functionName;
     private String returnType;
     private List<ASTNode> parameters;
     private BlockNode body;
+    private int symbolId;
+    private int[] frameSymbols;
 
     public FunctionNode(int lineNumber, String functionName, String returnType) {
+        this(lineNumber, functionName, returnType, -1);
+    }
+
+    public FunctionNode(int lineNumber, String functionName, String returnType, int symbolId) {
         super(lineNumber);
         this.functionName = functionName;
         this.returnType = returnType;
         this.parameters = new ArrayList<>();
+        this.symbolId = symbolId;
     }
 
     public void addParameter(ASTNode parameter) {
+        checkMutable();
         parameters.add(parameter);
     }
 
     public void setBody(BlockNode body) {
+        checkMutable();
         this.body = body;
     }
 
     public String getFunctionName() { return functionName; }
+    public int getSymbolId() { return symbolId; }
     public String getReturnType() { return returnType; }
-    public List<ASTNode> getParameters() { return new ArrayList<>(parameters); }
+    public List<ASTNode> getParameters() { return isFrozen() ? parameters : new ArrayList<>(parameters); }
     public BlockNode getBody() { return body; }
 
+    // Marco del scope de los parametros; el cuerpo tiene el suyo
+    public void setFrameSymbols(int[] frameSymbols) {
+        this.frameSymbols = frameSymbols;
+    }
+
+    public int[] getFrameSymbols() { return frameSymbols; }
+
+    @Override
+    void freezeChildren() {
+        parameters = frozenList(parameters);
+    }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.addAll(parameters);
+        out.add(body);
+    }
+
+    @Override
+    long localHash() {
+        return 31L * Objects.hashCode(functionName) + Objects.hashCode(returnType);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
@@ -0,0 +1,92 @@
+package ast;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Hash-consing de expresiones sin efectos: literales, identificadores y
+ * expresiones binarias cuyos dos lados tambien son compartidos. Cada expresion
+ * estructuralmente igual se crea una sola vez y se reutiliza en todos los lugares
+ * donde aparece. Como los hijos ya son unicos, dos expresiones binarias son iguales
+ * si tienen el mismo operador y los mismos hijos (por identidad).
+ *
+ * Un nodo compartido conserva el numero de linea de su primera aparicion.
+ * Se activa con Parser.setHashConsing; una misma tabla puede usarse para varios
+ * programas que compartan el mismo Interner.
+ */
+public class HashConsTable {
+    private final Map<Key, ASTNode> nodes = new HashMap<>();
+    private long requests = 0;
+
+    public LiteralNode literal(int line, Object value) {
+        Key key = new Key(LiteralNode.class, value, null, null);
+        ASTNode node = find(key);
+        return node != null ? (LiteralNode) node : add(key, new LiteralNode(line, value));
+    }
+
+    public IdentifierNode identifier(int line, String name, int symbolId) {
+        Key key = new Key(IdentifierNode.class, name, null, null);
+        ASTNode node = find(key);
+        return node != null ? (IdentifierNode) node : add(key, new IdentifierNode(line, name, symbolId));
+    }
+
+    // Si algun lado no es compartido (por ejemplo una llamada) se crea un nodo nuevo
+    public BinaryExpression binary(int line, ASTNode left, String operator, ASTNode right) {
+        if (left == null || right == null || !left.isShared() || !right.isShared()) {
+            return new BinaryExpression(line, left, operator, right);
+        }
+        Key key = new Key(BinaryExpression.class, operator, left, right);
+        ASTNode node = find(key);
+        return node != null ? (BinaryExpression) node : add(key, new BinaryExpression(line, left, operator, right));
+    }
+
+    // Nodos distintos creados por la tabla
+    public int size() {
+        return nodes.size();
+    }
+
+    // Pedidos que se resolvieron con un nodo ya existente
+    public long getReused() {
+        return requests - nodes.size();
+    }
+
+    private ASTNode find(Key key) {
+        requests++;
+        return nodes.get(key);
+    }
+
+    private <T extends ASTNode> T add(Key key, T node) {
+        node.markShared();
+        nodes.put(key, node);
+        return node;
+    }
+
+    private static final class Key {
+        final Class<?> type;
+        final Object data;
+        final ASTNode left;
+        final ASTNode right;
+        final int hash;
+
+        Key(Class<?> type, Object data, ASTNode left, ASTNode right) {
+            this.type = type;
+            this.data = data;
+            this.left = left;
+            this.right = right;
+            this.hash = Objects.hash(type, data, System.identityHashCode(left), System.identityHashCode(right));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return type == key.type && left == key.left && right == key.right && Objects.equals(data, key.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
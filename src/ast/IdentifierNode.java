@@ -1,14 +1,42 @@
 package ast;
 
+import java.util.Objects;
+
 public class IdentifierNode extends ASTNode {
+    // Slot de un identificador compartido (HashConsTable): se busca por id en los marcos
+    public static final int DYNAMIC_SLOT = -2;
+
     private String name;
+    private int symbolId;
+    private int depth = 0;
+    private int slot = NO_SLOT;
 
     public IdentifierNode(int lineNumber, String name) {
+        this(lineNumber, name, -1);
+    }
+
+    public IdentifierNode(int lineNumber, String name, int symbolId) {
         super(lineNumber);
         this.name = name;
+        this.symbolId = symbolId;
     }
 
     public String getName() { return name; }
+    public int getSymbolId() { return symbolId; }
+
+    // Direccion lexica asignada por el analisis semantico: scopes hacia afuera y slot en ese marco
+    public void setAddress(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    public int getDepth() { return depth; }
+    public int getSlot() { return slot; }
+
+    @Override
+    long localHash() {
+        return Objects.hashCode(name);
+    }
 
     @Override
     public void accept(ASTVisitor visitor) {
@@ -1,5 +1,7 @@
 package ast;
 
+import java.util.List;
+
 public class IfNode extends ASTNode {
     private ASTNode condition;
     private BlockNode thenBlock;
@@ -12,6 +14,7 @@ public class IfNode extends ASTNode {
     }
 
     public void setElseBlock(BlockNode elseBlock) {
+        checkMutable();
         this.elseBlock = elseBlock;
     }
 
@@ -19,6 +22,13 @@ public class IfNode extends ASTNode {
     public BlockNode getThenBlock() { return thenBlock; }
     public BlockNode getElseBlock() { return elseBlock; }
 
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(condition);
+        out.add(thenBlock);
+        out.add(elseBlock);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
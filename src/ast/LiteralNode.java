@@ -10,6 +10,11 @@ public class LiteralNode extends ASTNode {
 
     public Object getValue() { return value; }
 
+    @Override
+    long localHash() {
+        return value == null ? 0 : 31L * value.getClass().getSimpleName().hashCode() + value.hashCode();
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
@@ -0,0 +1,21 @@
+package ast;
+
+// Tipo de cada nodo en AstArena
+public enum NodeKind {
+    NONE,               // hijo opcional ausente (else, valor de return, etc.)
+    PROGRAM,
+    FUNCTION,
+    VARIABLE_DECL,
+    BLOCK,
+    IF,
+    WHILE,
+    RETURN,
+    ASSIGNMENT,
+    EXPRESSION_STATEMENT,
+    PRINT,
+    BINARY,
+    CALL,
+    IDENTIFIER,
+    LITERAL,
+    TYPE
+}
@@ -1,5 +1,7 @@
 package ast;
 
+import java.util.List;
+
 public class PrintNode extends ASTNode {
     private ASTNode value;
 
@@ -12,6 +14,11 @@ public class PrintNode extends ASTNode {
         return value;
     }
 
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(value);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
@@ -1,22 +1,72 @@
 package ast;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import util.Interner;
 
 public class ProgramNode extends ASTNode {
     private List<ASTNode> declarations;
+    // Base de las lineas de cada declaracion (ver addDeclaration(ASTNode, int))
+    private int[] lineBases = new int[8];
+    private Interner interner;
+    private int[] frameSymbols;
 
     public ProgramNode() {
+        this(new Interner());
+    }
+
+    // El interner con el que se generaron los ids de los identificadores del programa
+    public ProgramNode(Interner interner) {
         super(0);
         this.declarations = new ArrayList<>();
+        this.interner = interner;
     }
 
     public void addDeclaration(ASTNode declaration) {
+        addDeclaration(declaration, 0);
+    }
+
+    /**
+     * Las lineas de los nodos de 'declaration' se cuentan desde 'lineBase': la linea en
+     * el texto es lineBase + getLineNumber(). El IncrementalParser guarda asi sus
+     * declaraciones, para moverlas de linea cambiando solo la base; las demas usan 0.
+     */
+    public void addDeclaration(ASTNode declaration, int lineBase) {
+        checkMutable();
+        if (declarations.size() == lineBases.length) lineBases = Arrays.copyOf(lineBases, lineBases.length * 2);
+        lineBases[declarations.size()] = lineBase;
         declarations.add(declaration);
     }
 
+    public int getLineBase(int declaration) {
+        return lineBases[declaration];
+    }
+
+    public Interner getInterner() {
+        return interner;
+    }
+
+    // Congelado devuelve la lista inmutable sin copiarla
     public List<ASTNode> getDeclarations() {
-        return new ArrayList<>(declarations);
+        return isFrozen() ? declarations : new ArrayList<>(declarations);
+    }
+
+    // Marco de las variables globales: id de la variable de cada slot
+    public void setFrameSymbols(int[] frameSymbols) {
+        this.frameSymbols = frameSymbols;
+    }
+
+    public int[] getFrameSymbols() { return frameSymbols; }
+
+    @Override
+    void freezeChildren() {
+        declarations = frozenList(declarations);
+    }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.addAll(declarations);
     }
 
     @Override
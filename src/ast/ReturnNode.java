@@ -1,5 +1,7 @@
 package ast;
 
+import java.util.List;
+
 public class ReturnNode extends ASTNode {
     private ASTNode value;
 
@@ -10,6 +12,11 @@ public class ReturnNode extends ASTNode {
 
     public ASTNode getValue() { return value; }
 
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(value);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
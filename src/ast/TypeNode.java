@@ -1,5 +1,7 @@
 package ast;
 
+import java.util.Objects;
+
 public class TypeNode extends ASTNode {
     private String typeName;
 
@@ -10,6 +12,11 @@ public class TypeNode extends ASTNode {
 
     public String getTypeName() { return typeName; }
 
+    @Override
+    long localHash() {
+        return Objects.hashCode(typeName);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
@@ -1,21 +1,52 @@
 package ast;
 
+import java.util.List;
+import java.util.Objects;
+
 public class VariableDeclNode extends ASTNode {
     private String variableName;
     private String type;
     private ASTNode initialValue;
+    private int symbolId;
+    private int depth = 0;
+    private int slot = NO_SLOT;
 
     public VariableDeclNode(int lineNumber, String variableName, String type, ASTNode initialValue) {
+        this(lineNumber, variableName, type, initialValue, -1);
+    }
+
+    public VariableDeclNode(int lineNumber, String variableName, String type, ASTNode initialValue, int symbolId) {
         super(lineNumber);
         this.variableName = variableName;
         this.type = type;
         this.initialValue = initialValue;
+        this.symbolId = symbolId;
     }
 
     public String getVariableName() { return variableName; }
+    public int getSymbolId() { return symbolId; }
     public String getType() { return type; }
     public ASTNode getInitialValue() { return initialValue; }
 
+    // Slot que ocupa la variable en el marco de su scope
+    public void setAddress(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    public int getDepth() { return depth; }
+    public int getSlot() { return slot; }
+
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(initialValue);
+    }
+
+    @Override
+    long localHash() {
+        return 31L * Objects.hashCode(variableName) + Objects.hashCode(type);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
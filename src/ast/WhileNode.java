@@ -1,5 +1,7 @@
 package ast;
 
+import java.util.List;
+
 public class WhileNode extends ASTNode {
     private ASTNode condition;
     private BlockNode body;
@@ -13,6 +15,12 @@ public class WhileNode extends ASTNode {
     public ASTNode getCondition() { return condition; }
     public BlockNode getBody() { return body; }
 
+    @Override
+    void addChildren(List<ASTNode> out) {
+        out.add(condition);
+        out.add(body);
+    }
+
     @Override
     public void accept(ASTVisitor visitor) {
         visitor.visit(this);
@@ -3,11 +3,11 @@ package gui;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import lexer.Lexer;
-import parser.Parser;
+import parser.IncrementalParser;
 import ast.ProgramNode;
-import semantic.SemanticAnalyzer;
+import semantic.AnalysisSession;
 import interpreter.Interpreter; // Importar el intérprete
+import optimizer.ASTOptimizer;
 import util.ManejadorErrores;
 import util.ErrorSemantico;
 import java.io.ByteArrayOutputStream;
@@ -22,12 +22,16 @@ public class AnalizadorGUI1 extends JFrame {
     private JButton runButton;
     private JLabel statusLabel;
     private ProgramNode currentProgram; // Guardar el programa analizado
+    private IncrementalParser.Snapshot lastParse; // Para reutilizar declaraciones sin cambios
+    private final AnalysisSession analysisSession = new AnalysisSession(); // Reanaliza solo las funciones afectadas
+    private static final int MAX_ERRORES = 200; // Mas errores no se leen en el area de resultados
 
     public AnalizadorGUI1() {
         setTitle("Analizador de Código - Compilador");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(900, 700);
         setLocationRelativeTo(null);
+        analysisSession.setMaxErrores(MAX_ERRORES);
         
         initComponents();
         layoutComponents();
@@ -107,6 +111,7 @@ public class AnalizadorGUI1 extends JFrame {
             statusLabel.setText("Áreas limpiadas");
             runButton.setEnabled(false);
             currentProgram = null;
+            lastParse = null;
         });
         
         // Ejemplo de código por defectoo
@@ -126,33 +131,34 @@ public class AnalizadorGUI1 extends JFrame {
             
             long startTime = System.currentTimeMillis();
             
-            // 1. Análisis Léxico
-            setStatus("Realizando análisis léxico...", Color.BLUE);
-            Lexer lexer = new Lexer(sourceCode);
+            // 1-2. Análisis Léxico y Sintáctico: solo se vuelve a analizar lo que cambió
+            setStatus("Realizando análisis léxico y sintáctico...", Color.BLUE);
+            lastParse = lastParse == null
+                ? IncrementalParser.parse(sourceCode)
+                : IncrementalParser.reparse(lastParse, sourceCode);
+            currentProgram = lastParse.getProgram();
             resultArea.setText("✓ Análisis léxico completado\n");
-            
-            // 2. Análisis Sintáctico
-            setStatus("Realizando análisis sintáctico...", Color.BLUE);
-            Parser parser = new Parser(lexer);
-            currentProgram = parser.parse();
             resultArea.append("✓ Análisis sintáctico completado\n");
             
             long parseTime = System.currentTimeMillis();
             
             // 3. Análisis Semántico
             setStatus("Realizando análisis semántico...", Color.BLUE);
-            SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer();
-            semanticAnalyzer.analyze(currentProgram);
-            
-            ManejadorErrores errores = semanticAnalyzer.getManejadorErrores();
-            
+            ManejadorErrores errores = analysisSession.analyze(currentProgram);
             long semanticTime = System.currentTimeMillis();
+            // La copia de los errores en la consola se escribe en otro hilo
+            ManejadorErrores.esperarEscritura();
             
             if (errores.hayErrores()) {
                 resultArea.append("\n✗ Se encontraron " + errores.getCantidadErrores() + " errores semánticos:\n");
+                StringBuilder lista = new StringBuilder();
                 for (ErrorSemantico error : errores.getErrores()) {
-                    resultArea.append("• Línea " + error.getLinea() + ": " + error.getMensaje() + "\n");
+                    lista.append("• Línea ").append(error.getLinea()).append(": ").append(error.getMensaje()).append("\n");
+                }
+                if (errores.isLimiteAlcanzado()) {
+                    lista.append("• ... el análisis se detuvo al llegar a ").append(MAX_ERRORES).append(" errores\n");
                 }
+                resultArea.append(lista.toString());
                 resultArea.append("\n❌ No se puede ejecutar debido a errores");
                 runButton.setEnabled(false);
                 setStatus("Análisis completado con errores", Color.RED);
@@ -169,6 +175,7 @@ public class AnalizadorGUI1 extends JFrame {
             ex.printStackTrace();
             runButton.setEnabled(false);
             currentProgram = null;
+            lastParse = null;
         }
     }
 
@@ -191,11 +198,13 @@ public class AnalizadorGUI1 extends JFrame {
             
             long startTime = System.currentTimeMillis();
             
-            // Ejecutar el código con el intérprete
+            // Ejecutar el código con el intérprete; se optimiza una copia, currentProgram
+            // se sigue usando para el análisis incremental
             Interpreter interpreter = new Interpreter();
-            interpreter.interpret(currentProgram);
+            interpreter.interpret(new ASTOptimizer().optimize(currentProgram));
             
             long executionTime = System.currentTimeMillis();
+            ManejadorErrores.esperarEscritura();
             
             // Restaurar la salida estándar
             System.out.flush();
@@ -0,0 +1,50 @@
+package interpreter;
+
+/**
+ * Marco de ejecucion de un scope: un slot por variable, en el orden que asigno el
+ * analisis semantico. 'parent' es el marco del scope que lo contiene en el texto
+ * (para el cuerpo de una funcion, el global), no el de quien la llamo.
+ */
+final class Frame {
+    private static final int[] NO_SYMBOLS = new int[0];
+
+    final Object[] slots;
+    final Frame parent;
+    // Ids de las variables por slot y cuantos slots ya se declararon al ejecutar
+    final int[] symbols;
+    int declared = 0;
+
+    Frame(int[] symbols, Frame parent) {
+        this.symbols = symbols != null ? symbols : NO_SYMBOLS;
+        this.slots = new Object[this.symbols.length];
+        this.parent = parent;
+    }
+
+    Frame up(int depth) {
+        Frame frame = this;
+        for (int i = 0; i < depth; i++) frame = frame.parent;
+        return frame;
+    }
+
+    void declare(int slot, Object value) {
+        slots[slot] = value;
+        if (slot >= declared) declared = slot + 1;
+    }
+
+    /**
+     * Busca la variable 'id' declarada mas cerca de este marco, igual que el analisis
+     * semantico: solo cuentan las declaraciones ya ejecutadas. Devuelve el marco y deja
+     * el slot en slotOut[0], o null si no existe.
+     */
+    Frame find(int id, int[] slotOut) {
+        for (Frame frame = this; frame != null; frame = frame.parent) {
+            for (int slot = frame.declared - 1; slot >= 0; slot--) {
+                if (frame.symbols[slot] == id) {
+                    slotOut[0] = slot;
+                    return frame;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -2,35 +2,67 @@ package interpreter;
 
 import ast.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import semantic.SemanticAnalyzer;
+import util.IntHashMap;
+import util.Interner;
 
 public class Interpreter implements Evaluator {
     private Map<String, Object> variables;
-    private Map<String, FunctionNode> functions;
-    private Stack<Map<String, Object>> scopeStack;
+    private IntHashMap<FunctionNode> functions;
+    // Marco global y marco del scope que se esta ejecutando
+    private Frame globals;
+    private Frame frame;
+    private final int[] foundSlot = new int[1];
     private int executionDepth;
     private static final int MAX_EXECUTION_DEPTH = 1000;
+    private Interner interner;
+    private int printId;
 
     public Interpreter() {
         this.variables = new HashMap<>();
-        this.functions = new HashMap<>();
-        this.scopeStack = new Stack<>();
-        this.scopeStack.push(new HashMap<>()); // Scope global
+        this.functions = new IntHashMap<>();
         this.executionDepth = 0;
+        useInterner(new Interner());
+    }
+
+    // Variables y funciones se indexan por los ids del Interner del programa
+    private void useInterner(Interner programInterner) {
+        this.interner = programInterner;
+        this.printId = programInterner.intern("print");
+    }
+
+    private int idOf(int symbolId, String name) {
+        return symbolId >= 0 ? symbolId : interner.intern(name);
     }
 
     public void interpret(ProgramNode program) {
+        if (program.getInterner() != null && program.getInterner() != interner) {
+            useInterner(program.getInterner());
+        }
+
+        // Las variables se leen por la direccion (profundidad, slot) que asigna el analisis semantico
+        if (program.getFrameSymbols() == null) {
+            new SemanticAnalyzer().analyze(program);
+        }
+        globals = new Frame(program.getFrameSymbols(), null);
+        frame = globals;
+
+        List<ASTNode> declarations = program.getDeclarations();
+
         // Registrar funciones primero
-        for (ASTNode node : program.getDeclarations()) {
+        for (int i = 0; i < declarations.size(); i++) {
+            ASTNode node = declarations.get(i);
             if (node instanceof FunctionNode) {
                 FunctionNode func = (FunctionNode) node;
-                functions.put(func.getFunctionName(), func);
+                functions.put(idOf(func.getSymbolId(), func.getFunctionName()), func);
             }
         }
 
         // Ejecutar código global
-        for (ASTNode node : program.getDeclarations()) {
+        for (int i = 0; i < declarations.size(); i++) {
+            ASTNode node = declarations.get(i);
             if (!(node instanceof FunctionNode)) {
                 evaluate(node);
             }
@@ -62,7 +94,8 @@ public class Interpreter implements Evaluator {
         }
     }
 
-    private boolean isTruthy(Object value) {
+    // Valor de verdad de una condicion de if o while; el optimizador la usa para las condiciones constantes
+    public static boolean isTruthy(Object value) {
         if (value instanceof Boolean) return (Boolean) value;
         if (value instanceof Number) return ((Number) value).doubleValue() != 0;
         if (value instanceof String) return !((String) value).isEmpty();
@@ -72,12 +105,24 @@ public class Interpreter implements Evaluator {
     @Override
     public Object evaluate(AssignmentNode node) {
         Object value = evaluate(node.getValue());
-        scopeStack.peek().put(node.getVariableName(), value);
+        if (node.getSlot() == ASTNode.NO_SLOT) {
+            throw new RuntimeException("Variable no definida: " + node.getVariableName());
+        }
+        // Se modifica la variable en el scope que la declaro, aunque sea uno externo
+        frame.up(node.getDepth()).slots[node.getSlot()] = value;
         return value;
     }
 
     @Override
     public Object evaluate(BinaryExpression node) {
+        if (node.isNumeric()) {
+            try {
+                return evaluateNumeric(node);
+            } catch (NotANumber e) {
+                // Alguna variable no tenia un numero (por ejemplo, sin valor inicial): como no hay
+                // llamadas, se puede evaluar de nuevo por el camino normal para dar el mismo error
+            }
+        }
         Object left = evaluate(node.getLeft());
         Object right = evaluate(node.getRight());
 
@@ -107,50 +152,109 @@ public class Interpreter implements Evaluator {
         }
     }
 
+    /**
+     * Camino rapido para las operaciones que el analisis semantico marco como numericas:
+     * los operandos se calculan como double, sin crear un Double por cada resultado
+     * intermedio ni pasar por evaluate. El resultado es el mismo que el del camino normal.
+     */
+    private Object evaluateNumeric(BinaryExpression node) {
+        double left = number(node.getLeft());
+        double right = number(node.getRight());
+        String operator = node.getOperator();
+        // Solo llegan los operadores numericos, asi que alcanza con el primer caracter y el largo
+        boolean orEqual = operator.length() == 2;
+        switch (operator.charAt(0)) {
+            case '<': return orEqual ? left <= right : left < right;
+            case '>': return orEqual ? left >= right : left > right;
+            // Igual que Double.equals
+            case '=': return Double.doubleToLongBits(left) == Double.doubleToLongBits(right);
+            case '!': return Double.doubleToLongBits(left) != Double.doubleToLongBits(right);
+            default: return arithmetic(operator, left, right);
+        }
+    }
+
+    private double number(ASTNode node) {
+        if (node instanceof BinaryExpression) {
+            BinaryExpression operation = (BinaryExpression) node;
+            return arithmetic(operation.getOperator(), number(operation.getLeft()), number(operation.getRight()));
+        }
+        Object value = null;
+        if (node instanceof IdentifierNode) {
+            IdentifierNode identifier = (IdentifierNode) node;
+            if (identifier.getSlot() >= 0) value = frame.up(identifier.getDepth()).slots[identifier.getSlot()];
+        } else if (node instanceof LiteralNode) {
+            value = ((LiteralNode) node).getValue();
+        }
+        if (value instanceof Double) return (Double) value;
+        throw NotANumber.INSTANCE;
+    }
+
+    private static double arithmetic(String operator, double left, double right) {
+        if (operator.length() != 1) throw NotANumber.INSTANCE;
+        switch (operator.charAt(0)) {
+            case '+': return left + right;
+            case '-': return left - right;
+            case '*': return left * right;
+            case '/':
+                if (right == 0) throw new RuntimeException("División por cero");
+                return left / right;
+            default:
+                throw NotANumber.INSTANCE;
+        }
+    }
+
     @Override
     public Object evaluate(BlockNode node) {
-        scopeStack.push(new HashMap<>());
-        Object result = null;
-        for (ASTNode stmt : node.getStatements()) {
-            result = evaluate(stmt);
+        frame = new Frame(node.getFrameSymbols(), frame);
+        try {
+            Object result = null;
+            // Con el AST congelado getStatements() no copia la lista
+            List<ASTNode> statements = node.getStatements();
+            for (int i = 0; i < statements.size(); i++) {
+                result = evaluate(statements.get(i));
+            }
+            return result;
+        } finally {
+            frame = frame.parent;
         }
-        scopeStack.pop();
-        return result;
     }
 
     @Override
     public Object evaluate(CallNode node) {
+        int functionId = idOf(node.getSymbolId(), node.getFunctionName());
         // Si la función es 'print', ejecuta como PrintNode
-            if (node.getFunctionName().equals("print")) {
-                if (node.getArguments().size() > 0) {
-                    Object value = evaluate(node.getArguments().get(0));
+            if (functionId == printId) {
+                List<ASTNode> arguments = node.getArguments();
+                if (arguments.size() > 0) {
+                    Object value = evaluate(arguments.get(0));
                     System.out.println(value);
                     return value;
                 }
                 return null;
             }
         
-        FunctionNode function = functions.get(node.getFunctionName());
+        FunctionNode function = functions.get(functionId);
         if (function == null) {
             throw new RuntimeException("Función no encontrada: " + node.getFunctionName());
         }
 
-        // Guardar scope actual
-        Map<String, Object> currentScope = scopeStack.peek();
-        
-        // Crear nuevo scope para la función
-        scopeStack.push(new HashMap<>());
+        // El marco de la función cuelga del global: el cuerpo no ve las variables de quien llama
+        Frame caller = frame;
+        frame = new Frame(function.getFrameSymbols(), globals);
         
         // Ejecutar cuerpo de la función
         Object result = null;
-        if (function.getBody() != null) {
-            result = evaluate(function.getBody());
+        try {
+            if (function.getBody() != null) {
+                result = evaluate(function.getBody());
+            }
+        } catch (ReturnException e) {
+            result = e.getValue();
+        } finally {
+            // Restaurar scope
+            frame = caller;
         }
         
-        // Restaurar scope
-        scopeStack.pop();
-        scopeStack.push(currentScope);
-        
         return result;
     }
 
@@ -162,23 +266,20 @@ public class Interpreter implements Evaluator {
     @Override
     public Object evaluate(FunctionNode node) {
         // Las funciones se registran pero no se ejecutan directamente
-        functions.put(node.getFunctionName(), node);
+        functions.put(idOf(node.getSymbolId(), node.getFunctionName()), node);
         return null;
     }
 
     @Override
     public Object evaluate(IdentifierNode node) {
-        String name = node.getName();
-        // Ignorar operadores y delimitadores
-        if (name.equals("+") || name.equals("-") || name.equals("*") || name.equals("/") || name.equals(";")) {
-            return null;
+        int slot = node.getSlot();
+        if (slot >= 0) {
+            return frame.up(node.getDepth()).slots[slot];
         }
-        // Buscar en scopes desde el más interno al más externo
-        for (int i = scopeStack.size() - 1; i >= 0; i--) {
-            Map<String, Object> scope = scopeStack.get(i);
-            if (scope.containsKey(name)) {
-                return scope.get(name);
-            }
+        String name = node.getName();
+        if (slot == IdentifierNode.DYNAMIC_SLOT) {
+            Frame owner = frame.find(idOf(node.getSymbolId(), name), foundSlot);
+            if (owner != null) return owner.slots[foundSlot[0]];
         }
         throw new RuntimeException("Variable no definida: " + name);
     }
@@ -209,8 +310,9 @@ public class Interpreter implements Evaluator {
     @Override
     public Object evaluate(ProgramNode node) {
         Object result = null;
-        for (ASTNode declaration : node.getDeclarations()) {
-            result = evaluate(declaration);
+        List<ASTNode> declarations = node.getDeclarations();
+        for (int i = 0; i < declarations.size(); i++) {
+            result = evaluate(declarations.get(i));
         }
         return result;
     }
@@ -232,7 +334,10 @@ public class Interpreter implements Evaluator {
         if (node.getInitialValue() != null) {
             value = evaluate(node.getInitialValue());
         }
-        scopeStack.peek().put(node.getVariableName(), value);
+        if (node.getSlot() == ASTNode.NO_SLOT) {
+            throw new RuntimeException("Variable no definida: " + node.getVariableName());
+        }
+        frame.declare(node.getSlot(), value);
         return value;
     }
 
@@ -252,6 +357,16 @@ public class Interpreter implements Evaluator {
         return result;
     }
 
+    // Sale del camino rapido cuando un operando no es un numero; sin traza porque se usa como control de flujo
+    @SuppressWarnings("serial")
+    private static final class NotANumber extends RuntimeException {
+        static final NotANumber INSTANCE = new NotANumber();
+
+        private NotANumber() {
+            super(null, null, false, false);
+        }
+    }
+
     // Clase interna para manejar returns
     private static class ReturnException extends RuntimeException {
         private final Object value;
@@ -0,0 +1,36 @@
+package lexer;
+
+/**
+ * Busqueda de rachas de caracteres sobre un char[] para acelerar el Lexer:
+ * cada metodo devuelve el primer indice en [from, to) que ya no pertenece a la racha
+ * (o 'to' si la racha llega al final).
+ */
+public interface CharScanner {
+    // Espacios, tabuladores y saltos de linea
+    int skipWhitespace(char[] chars, int from, int to);
+
+    // Letras y digitos ASCII; se detiene en cualquier caracter no ASCII
+    int skipIdentifierChars(char[] chars, int from, int to);
+
+    int skipDigits(char[] chars, int from, int to);
+
+    // Siguiente '"' o '\n'
+    int findQuoteOrNewline(char[] chars, int from, int to);
+
+    int findNewline(char[] chars, int from, int to);
+
+    int countNewlines(char[] chars, int from, int to);
+
+    /**
+     * Implementacion vectorial (jdk.incubator.vector) si esta compilada y el modulo
+     * esta disponible en tiempo de ejecucion; si no, la escalar.
+     */
+    static CharScanner best() {
+        try {
+            Class<?> vector = Class.forName("lexer.VectorCharScanner");
+            return (CharScanner) vector.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarCharScanner();
+        }
+    }
+}
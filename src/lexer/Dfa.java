@@ -0,0 +1,268 @@
+package lexer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Automata finito determinista minimizado, obtenido de un Nfa por construccion de
+ * subconjuntos y refinamiento de particiones. Las transiciones se guardan en una
+ * tabla plana indexada por estado y clase de caracter; el estado 0 es el estado muerto.
+ * Cada estado guarda como mascara de bits los patrones (maximo 64) que acepta.
+ */
+final class Dfa {
+    static final int DEAD = 0;
+    static final int MAX_PATTERNS = 64;
+
+    final int start;
+    final int stateCount;
+    final int classCount;
+    final int[] next;
+    final long[] accept;
+    final byte[] asciiClass;
+    final int letterClass;
+    final int digitClass;
+    final int otherClass;
+
+    private Dfa(int start, int stateCount, int classCount, int[] next, long[] accept,
+                byte[] asciiClass, int letterClass, int digitClass, int otherClass) {
+        this.start = start;
+        this.stateCount = stateCount;
+        this.classCount = classCount;
+        this.next = next;
+        this.accept = accept;
+        this.asciiClass = asciiClass;
+        this.letterClass = letterClass;
+        this.digitClass = digitClass;
+        this.otherClass = otherClass;
+    }
+
+    int classOf(char c) {
+        if (c < 128) return asciiClass[c];
+        if (Character.isLetter(c)) return letterClass;
+        if (Character.isDigit(c)) return digitClass;
+        return otherClass;
+    }
+
+    int step(int state, char c) {
+        return next[state * classCount + classOf(c)];
+    }
+
+    /**
+     * Compila los patrones en un unico automata. Con 'unanchored' el automata busca
+     * los patrones en cualquier posicion de la entrada en lugar de solo al inicio.
+     */
+    static Dfa compile(List<String> patterns, boolean unanchored) {
+        if (patterns.size() > MAX_PATTERNS) {
+            throw new IllegalArgumentException("Máximo " + MAX_PATTERNS + " patrones por autómata");
+        }
+        Nfa nfa = new Nfa();
+        for (int i = 0; i < patterns.size(); i++) {
+            nfa.addPattern(patterns.get(i), i);
+        }
+        if (unanchored) {
+            BitSet any = new BitSet(Nfa.ALPHABET_SIZE);
+            any.set(0, Nfa.ALPHABET_SIZE);
+            nfa.transition(nfa.start, any, nfa.start);
+        }
+        return determinize(nfa);
+    }
+
+    private static Dfa determinize(Nfa nfa) {
+        // 1. Clases de simbolos: simbolos que pertenecen exactamente a los mismos conjuntos
+        List<BitSet> sets = new ArrayList<>();
+        for (Nfa.State state : nfa.states) sets.addAll(state.symbols);
+
+        int[] symbolClass = new int[Nfa.ALPHABET_SIZE];
+        List<Integer> representatives = new ArrayList<>();
+        Map<BitSet, Integer> signatures = new HashMap<>();
+        for (int symbol = 0; symbol < Nfa.ALPHABET_SIZE; symbol++) {
+            BitSet signature = new BitSet(sets.size());
+            for (int i = 0; i < sets.size(); i++) {
+                if (sets.get(i).get(symbol)) signature.set(i);
+            }
+            Integer cls = signatures.get(signature);
+            if (cls == null) {
+                cls = representatives.size();
+                signatures.put(signature, cls);
+                representatives.add(symbol);
+            }
+            symbolClass[symbol] = cls;
+        }
+        int classes = representatives.size();
+
+        // 2. Construccion de subconjuntos; el conjunto vacio es el estado muerto
+        List<BitSet> subsets = new ArrayList<>();
+        Map<BitSet, Integer> ids = new HashMap<>();
+        BitSet dead = new BitSet();
+        subsets.add(dead);
+        ids.put(dead, DEAD);
+
+        BitSet initial = new BitSet();
+        initial.set(nfa.start);
+        closure(nfa, initial);
+        ids.put(initial, 1);
+        subsets.add(initial);
+
+        List<int[]> rows = new ArrayList<>();
+        rows.add(new int[classes]);
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        pending.add(1);
+        while (!pending.isEmpty()) {
+            int id = pending.poll();
+            BitSet current = subsets.get(id);
+            int[] row = new int[classes];
+            for (int cls = 0; cls < classes; cls++) {
+                int symbol = representatives.get(cls);
+                BitSet target = new BitSet();
+                for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+                    Nfa.State state = nfa.states.get(s);
+                    for (int t = 0; t < state.symbols.size(); t++) {
+                        if (state.symbols.get(t).get(symbol)) target.set(state.targets.get(t));
+                    }
+                }
+                closure(nfa, target);
+                Integer targetId = ids.get(target);
+                if (targetId == null) {
+                    targetId = subsets.size();
+                    subsets.add(target);
+                    ids.put(target, targetId);
+                    pending.add(targetId);
+                }
+                row[cls] = targetId;
+            }
+            while (rows.size() <= id) rows.add(null);
+            rows.set(id, row);
+        }
+
+        int count = subsets.size();
+        int[] next = new int[count * classes];
+        long[] accept = new long[count];
+        for (int id = 0; id < count; id++) {
+            int[] row = rows.get(id);
+            System.arraycopy(row, 0, next, id * classes, classes);
+            BitSet subset = subsets.get(id);
+            for (int s = subset.nextSetBit(0); s >= 0; s = subset.nextSetBit(s + 1)) {
+                int rule = nfa.states.get(s).accept;
+                if (rule >= 0) accept[id] |= 1L << rule;
+            }
+        }
+
+        return minimize(next, accept, count, classes, symbolClass);
+    }
+
+    private static void closure(Nfa nfa, BitSet set) {
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) stack.push(s);
+        while (!stack.isEmpty()) {
+            for (int target : nfa.states.get(stack.pop()).epsilon) {
+                if (!set.get(target)) {
+                    set.set(target);
+                    stack.push(target);
+                }
+            }
+        }
+    }
+
+    // Refinamiento de Moore: separa estados hasta que aceptacion y transiciones coinciden por bloque
+    private static Dfa minimize(int[] next, long[] accept, int count, int classes, int[] symbolClass) {
+        int[] block = new int[count];
+        Map<Long, Integer> initial = new HashMap<>();
+        for (int s = 0; s < count; s++) {
+            Integer b = initial.get(accept[s]);
+            if (b == null) {
+                b = initial.size();
+                initial.put(accept[s], b);
+            }
+            block[s] = b;
+        }
+        int blocks = initial.size();
+
+        while (true) {
+            Map<List<Integer>, Integer> keys = new HashMap<>();
+            int[] refined = new int[count];
+            for (int s = 0; s < count; s++) {
+                List<Integer> key = new ArrayList<>(classes + 1);
+                key.add(block[s]);
+                for (int c = 0; c < classes; c++) key.add(block[next[s * classes + c]]);
+                Integer b = keys.get(key);
+                if (b == null) {
+                    b = keys.size();
+                    keys.put(key, b);
+                }
+                refined[s] = b;
+            }
+            block = refined;
+            if (keys.size() == blocks) break;
+            blocks = keys.size();
+        }
+
+        // Renumerar: el bloque del estado muerto queda como 0
+        int[] renumber = new int[blocks];
+        Arrays.fill(renumber, -1);
+        renumber[block[DEAD]] = DEAD;
+        int assigned = 1;
+        for (int s = 0; s < count; s++) {
+            if (renumber[block[s]] < 0) renumber[block[s]] = assigned++;
+        }
+
+        int[] minNext = new int[blocks * classes];
+        long[] minAccept = new long[blocks];
+        for (int s = 0; s < count; s++) {
+            int b = renumber[block[s]];
+            minAccept[b] = accept[s];
+            for (int c = 0; c < classes; c++) {
+                minNext[b * classes + c] = renumber[block[next[s * classes + c]]];
+            }
+        }
+
+        return compressClasses(renumber[block[1]], blocks, classes, minNext, minAccept, symbolClass);
+    }
+
+    // Une clases de caracteres cuyas columnas quedaron identicas tras minimizar
+    private static Dfa compressClasses(int start, int states, int classes, int[] next, long[] accept,
+                                       int[] symbolClass) {
+        int[] merged = new int[classes];
+        List<Integer> kept = new ArrayList<>();
+        for (int c = 0; c < classes; c++) {
+            merged[c] = -1;
+            for (int k = 0; k < kept.size(); k++) {
+                int other = kept.get(k);
+                boolean same = true;
+                for (int s = 0; s < states && same; s++) {
+                    same = next[s * classes + c] == next[s * classes + other];
+                }
+                if (same) {
+                    merged[c] = k;
+                    break;
+                }
+            }
+            if (merged[c] < 0) {
+                merged[c] = kept.size();
+                kept.add(c);
+            }
+        }
+
+        int newClasses = kept.size();
+        if (newClasses > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Demasiadas clases de caracteres: " + newClasses);
+        }
+        int[] compact = new int[states * newClasses];
+        for (int s = 0; s < states; s++) {
+            for (int k = 0; k < newClasses; k++) {
+                compact[s * newClasses + k] = next[s * classes + kept.get(k)];
+            }
+        }
+
+        byte[] ascii = new byte[128];
+        for (int c = 0; c < 128; c++) ascii[c] = (byte) merged[symbolClass[c]];
+        return new Dfa(start, states, newClasses, compact, accept, ascii,
+                merged[symbolClass[Nfa.UNICODE_LETTER]],
+                merged[symbolClass[Nfa.UNICODE_DIGIT]],
+                merged[symbolClass[Nfa.UNICODE_OTHER]]);
+    }
+}
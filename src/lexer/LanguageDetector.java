@@ -1,48 +1,157 @@
 package lexer;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detecta si un texto parece codigo Java o SimpleLang. Todos los patrones de los
+ * dos lenguajes se compilan una sola vez en un automata de busqueda, que recorre
+ * el texto en una sola pasada y se detiene en cuanto la respuesta ya es segura.
+ */
 public class LanguageDetector {
-    public static boolean isJavaCode(String code) {
-        String[] javaPatterns = {
-            "public\\s+class", 
-            "private\\s+", 
-            "protected\\s+", 
-            "import\\s+java", 
-            "System\\.out\\.print", 
-            "void\\s+main", 
-            "new\\s+\\w+\\(",
-            "package\\s+",
-            "class\\s+\\w+\\s*\\{",
-            "this\\.",
-            "extends\\s+",
-            "implements\\s+"
-        };
-        
-        for (String pattern : javaPatterns) {
-            if (code.matches(".*" + pattern + ".*")) {
-                return true;
+    private static final String[] JAVA_PATTERNS = {
+        "public\\s+class",
+        "private\\s+",
+        "protected\\s+",
+        "import\\s+java",
+        "System\\.out\\.print",
+        "void\\s+main",
+        "new\\s+\\w+\\(",
+        "package\\s+",
+        "class\\s+\\w+\\s*\\{",
+        "this\\.",
+        "extends\\s+",
+        "implements\\s+"
+    };
+
+    private static final String[] SIMPLE_LANG_PATTERNS = {
+        "var\\s+\\w+\\s*:",
+        "function\\s+\\w+\\s*\\(",
+        "print\\s*\\(",
+        ":\\s*int\\b",
+        ":\\s*float\\b",
+        ":\\s*string\\b",
+        ":\\s*boolean\\b"
+    };
+
+    private static final Dfa DFA;
+    private static final long JAVA_MASK;
+    private static final long SIMPLE_LANG_MASK;
+    // Patrones que terminan en \b; el automata los compila sin el \b y scan lo comprueba aparte
+    private static final long BOUNDARY_MASK;
+
+    static {
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : JAVA_PATTERNS) patterns.add(pattern);
+        long boundary = 0;
+        for (String pattern : SIMPLE_LANG_PATTERNS) {
+            if (pattern.endsWith("\\b")) {
+                boundary |= 1L << patterns.size();
+                pattern = pattern.substring(0, pattern.length() - 2);
             }
+            patterns.add(pattern);
         }
-        return false;
+        BOUNDARY_MASK = boundary;
+        DFA = Dfa.compile(patterns, true);
+        JAVA_MASK = (1L << JAVA_PATTERNS.length) - 1;
+        SIMPLE_LANG_MASK = ((1L << SIMPLE_LANG_PATTERNS.length) - 1) << JAVA_PATTERNS.length;
+    }
+
+    public static boolean isJavaCode(String code) {
+        return (scan(code, code.length(), JAVA_MASK) & JAVA_MASK) != 0;
     }
-    
+
     public static boolean isSimpleLangCode(String code) {
-        String[] simpleLangPatterns = {
-            "var\\s+\\w+\\s*:", 
-            "function\\s+\\w+\\s*\\(", 
-            "print\\s*\\(", 
-            ":\\s*int\\b", 
-            ":\\s*float\\b", 
-            ":\\s*string\\b",
-            ":\\s*boolean\\b"
-        };
-        
-        for (String pattern : simpleLangPatterns) {
-            if (code.matches(".*" + pattern + ".*")) {
-                return true;
+        return (scan(code, code.length(), SIMPLE_LANG_MASK) & SIMPLE_LANG_MASK) != 0;
+    }
+
+    // Evalua los dos lenguajes en la misma pasada
+    public static Detection detect(CharSequence code) {
+        return detect(code, code.length());
+    }
+
+    /**
+     * Igual que detect(code) pero solo examina los primeros maxChars caracteres,
+     * para entradas muy grandes donde basta con una muestra del inicio.
+     */
+    public static Detection detect(CharSequence code, int maxChars) {
+        int limit = Math.min(Math.max(maxChars, 0), code.length());
+        long found = scan(code, limit, JAVA_MASK | SIMPLE_LANG_MASK);
+        return new Detection(found, limit < code.length());
+    }
+
+    /**
+     * Recorre code[0, limit) y devuelve la mascara de patrones encontrados. Termina
+     * antes si cada lenguaje pedido en 'wanted' ya tiene al menos un patron.
+     */
+    private static long scan(CharSequence code, int limit, long wanted) {
+        final int[] next = DFA.next;
+        final long[] accept = DFA.accept;
+        final byte[] asciiClass = DFA.asciiClass;
+        final int classCount = DFA.classCount;
+
+        long found = 0;
+        int state = DFA.start;
+        for (int i = 0; i < limit; i++) {
+            char c = code.charAt(i);
+            int cls = c < 128 ? asciiClass[c] : DFA.classOf(c);
+            state = next[state * classCount + cls];
+            long hits = accept[state];
+            if (hits != 0 && (found | hits) != found) {
+                if ((hits & BOUNDARY_MASK & ~found) != 0 && !boundaryAt(code, i + 1)) hits &= ~BOUNDARY_MASK;
+                found |= hits;
+                if (settled(found, wanted)) return found;
             }
         }
-        return false;
+        return found;
+    }
+
+    /**
+     * \b despues de la letra final de un patron, como en java.util.regex: hay limite si
+     * lo que sigue (aunque este mas alla del limite de scan) no es un caracter de palabra.
+     * Se mira el code point completo, y una marca combinante cuenta como parte de la
+     * palabra porque tiene esa letra como base.
+     */
+    private static boolean boundaryAt(CharSequence code, int index) {
+        if (index >= code.length()) return true;
+        int c = Character.codePointAt(code, index);
+        return !(c == '_' || Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK);
+    }
+
+    private static boolean settled(long found, long wanted) {
+        return ((wanted & JAVA_MASK) == 0 || (found & JAVA_MASK) != 0)
+            && ((wanted & SIMPLE_LANG_MASK) == 0 || (found & SIMPLE_LANG_MASK) != 0);
+    }
+
+    // Resultado de detect()
+    public static final class Detection {
+        private final long found;
+        private final boolean sampled;
+
+        private Detection(long found, boolean sampled) {
+            this.found = found;
+            this.sampled = sampled;
+        }
+
+        public boolean isJava() {
+            return (found & JAVA_MASK) != 0;
+        }
+
+        public boolean isSimpleLang() {
+            return (found & SIMPLE_LANG_MASK) != 0;
+        }
+
+        // true si solo se examino un prefijo de la entrada
+        public boolean isSampled() {
+            return sampled;
+        }
+
+        @Override
+        public String toString() {
+            return "Detection[java=" + isJava() + ", simpleLang=" + isSimpleLang()
+                + (sampled ? ", muestra" : "") + "]";
+        }
     }
 }
 
-//CLASE PARA ANALIZAR CODIGO JAVA O SIMPLELANG
\ No newline at end of file
+//CLASE PARA ANALIZAR CODIGO JAVA O SIMPLELANG
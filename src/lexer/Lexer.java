@@ -1,181 +1,247 @@
 package lexer;
 
-import java.util.HashMap;
-import java.util.Map;
+import util.Interner;
 
-public class Lexer {
+public class Lexer implements TokenSource {
     private final String source;
+    private final Interner interner;
+    private final int end;
+    // Solo en modo acelerado: copia del texto para el CharScanner
+    private final char[] chars;
+    private final CharScanner scanner;
     private int start = 0;
     private int current = 0;
     private int line = 1;
     
-    private static final Map<String, TokenType> keywords;
+    // Tablas del automata, compartidas por todos los front-ends del lexer
+    static final LexerTables TABLES;
+    static final TokenType[] TYPES = TokenType.values();
+
+    // Estados del automata que se repiten sobre si mismos y se pueden saltar con un CharScanner
+    private static final byte RUN_NONE = 0;
+    private static final byte RUN_BLANK = 1;
+    private static final byte RUN_WORD = 2;
+    private static final byte RUN_DIGITS = 3;
+    private static final byte RUN_STRING = 4;
+    private static final byte RUN_COMMENT = 5;
+    private static final byte[] RUNS;
 
 
     static {
-        keywords = new HashMap<>();
-        // Palabras reservadas
-        keywords.put("function", TokenType.FUNCTION);
-        keywords.put("var", TokenType.VAR);
-        keywords.put("if", TokenType.IF);
-        keywords.put("else", TokenType.ELSE);
-        keywords.put("while", TokenType.WHILE);
-        keywords.put("return", TokenType.RETURN);
-        //keywords.put("print", TokenType.PRINT);
-        
-        // Tipos de datos (agregados)
-        keywords.put("int", TokenType.INT);
-        keywords.put("float", TokenType.FLOAT);
-        keywords.put("string", TokenType.STRING);
-        keywords.put("boolean", TokenType.BOOLEAN);
-        keywords.put("void", TokenType.VOID);
-        
-        // Valores booleanos
-        keywords.put("true", TokenType.TRUE);
-        keywords.put("false", TokenType.FALSE);
-        
-        // NUEVAS KEYWORDS PARA JAVA
-       // keywords.put("public", TokenType.PUBLIC);
-        //keywords.put("private", TokenType.PRIVATE);
-        //keywords.put("protected", TokenType.PROTECTED);
-        //keywords.put("class", TokenType.CLASS);
-        //keywords.put("import", TokenType.IMPORT);
-        //keywords.put("package", TokenType.PACKAGE);
-        //keywords.put("static", TokenType.STATIC);
-        //keywords.put("final", TokenType.FINAL);
-        //keywords.put("this", TokenType.THIS);
-        //keywords.put("new", TokenType.NEW);
-        //keywords.put("extends", TokenType.EXTENDS);
-        //keywords.put("implements", TokenType.IMPLEMENTS);
-        //keywords.put("abstract", TokenType.ABSTRACT);
-        //keywords.put("interface", TokenType.INTERFACE);
-        //keywords.put("try", TokenType.TRY);
-        //keywords.put("catch", TokenType.CATCH);
-        //keywords.put("finally", TokenType.FINALLY);
-        //keywords.put("throw", TokenType.THROW);
-        //keywords.put("throws", TokenType.THROWS);
+        // Las palabras reservadas van antes que IDENTIFIER para ganarle con el mismo largo
+        LexerSpec spec = new LexerSpec()
+            .skip("[ \\t\\r\\n]+")
+            .skip("//[^\\n]*")
+
+            .keyword("function", TokenType.FUNCTION)
+            .keyword("var", TokenType.VAR)
+            .keyword("if", TokenType.IF)
+            .keyword("else", TokenType.ELSE)
+            .keyword("while", TokenType.WHILE)
+            .keyword("return", TokenType.RETURN)
+
+            // Tipos de datos
+            .keyword("int", TokenType.INT)
+            .keyword("float", TokenType.FLOAT)
+            .keyword("string", TokenType.STRING)
+            .keyword("boolean", TokenType.BOOLEAN)
+            .keyword("void", TokenType.VOID)
+
+            // Valores booleanos
+            .keyword("true", TokenType.TRUE)
+            .keyword("false", TokenType.FALSE)
+
+            .token("[0-9]+(\\.[0-9]+)?", TokenType.NUMBER)
+            .token("\\p{L}[\\p{L}\\p{Nd}]*", TokenType.IDENTIFIER)
+            .token("\"[^\"]*\"", TokenType.STRING_LITERAL)
+
+            .keyword("(", TokenType.LEFT_PAREN)
+            .keyword(")", TokenType.RIGHT_PAREN)
+            .keyword("{", TokenType.LEFT_BRACE)
+            .keyword("}", TokenType.RIGHT_BRACE)
+            .keyword(",", TokenType.COMMA)
+            .keyword(";", TokenType.SEMICOLON)
+            .keyword(":", TokenType.COLON)
+
+            .keyword("+", TokenType.PLUS)
+            .keyword("-", TokenType.MINUS)
+            .keyword("*", TokenType.MULTIPLY)
+            .keyword("/", TokenType.DIVIDE)
+
+            .keyword("==", TokenType.EQUALS)
+            .keyword("=", TokenType.ASSIGN)
+            .keyword("!=", TokenType.NOT_EQUALS)
+            .keyword("!", TokenType.NOT)
+            .keyword("<=", TokenType.LESS_EQUAL)
+            .keyword("<", TokenType.LESS)
+            .keyword(">=", TokenType.GREATER_EQUAL)
+            .keyword(">", TokenType.GREATER)
+
+            .keyword("&&", TokenType.AND)
+            .keyword("||", TokenType.OR)
+            .invalid("&")
+            .invalid("\\|");
+        TABLES = spec.build();
+        RUNS = runStates(TABLES);
     }
 
-    public Lexer(String source) {
-        this.source = source;
+    // Solo se marca un estado si la tabla confirma el bucle para toda la racha que salta el scanner
+    private static byte[] runStates(LexerTables tables) {
+        byte[] runs = new byte[tables.getStateCount()];
+        mark(runs, tables, tables.stateAfter(" "), RUN_BLANK,
+            c -> c == ' ' || c == '\t' || c == '\r' || c == '\n', false);
+        mark(runs, tables, tables.stateAfter("zz"), RUN_WORD,
+            c -> Character.isLetterOrDigit(c), false);
+        mark(runs, tables, tables.stateAfter("0"), RUN_DIGITS,
+            c -> c >= '0' && c <= '9', false);
+        mark(runs, tables, tables.stateAfter("\""), RUN_STRING,
+            c -> c != '"' && c != '\n', true);
+        mark(runs, tables, tables.stateAfter("//"), RUN_COMMENT,
+            c -> c != '\n', true);
+        return runs;
     }
 
-    public Token nextToken() {
-        skipWhitespace();
-        start = current;
-
-        if (isAtEnd()) return makeToken(TokenType.EOF, "");
-
-        char c = advance();
-
-        if (Character.isDigit(c)) return number();
-        if (Character.isLetter(c)) return identifier();
-        if (c == '"') return string();
-
-        switch (c) {
-            case '(': return makeToken(TokenType.LEFT_PAREN, null);
-            case ')': return makeToken(TokenType.RIGHT_PAREN, null);
-            case '{': return makeToken(TokenType.LEFT_BRACE, null);
-            case '}': return makeToken(TokenType.RIGHT_BRACE, null);
-            case ',': return makeToken(TokenType.COMMA, null);
-            case ';': return makeToken(TokenType.SEMICOLON, null);
-            case ':': return makeToken(TokenType.COLON, null);
-            
-            case '+': return makeToken(TokenType.PLUS, null);
-            case '-': return makeToken(TokenType.MINUS, null);
-            case '*': return makeToken(TokenType.MULTIPLY, null);
-            case '/': return makeToken(TokenType.DIVIDE, null);
-            
-            case '=': return match('=') ? makeToken(TokenType.EQUALS, null) : makeToken(TokenType.ASSIGN, null);
-            case '!': return match('=') ? makeToken(TokenType.NOT_EQUALS, null) : makeToken(TokenType.NOT, null);
-            case '<': return match('=') ? makeToken(TokenType.LESS_EQUAL, null) : makeToken(TokenType.LESS, null);
-            case '>': return match('=') ? makeToken(TokenType.GREATER_EQUAL, null) : makeToken(TokenType.GREATER, null);
-            
-            case '&': return match('&') ? makeToken(TokenType.AND, null) : null;
-            case '|': return match('|') ? makeToken(TokenType.OR, null) : null;
-        }
-
-        return makeToken(TokenType.EOF, "");
+    private static void mark(byte[] runs, LexerTables tables, int state, byte kind,
+                             java.util.function.IntPredicate member, boolean nonAscii) {
+        if (tables.loopsOn(state, member, nonAscii)) runs[state] = kind;
     }
 
-    private Token number() {
-        while (Character.isDigit(peek())) advance();
-
-        if (peek() == '.' && Character.isDigit(peekNext())) {
-            advance();
-            while (Character.isDigit(peek())) advance();
-        }
-
-        String numberStr = source.substring(start, current);
-        double value = Double.parseDouble(numberStr);
-        return makeToken(TokenType.NUMBER, value);
+    public Lexer(String source) {
+        this(source, new Interner());
     }
 
-    private Token identifier() {
-        while (Character.isLetterOrDigit(peek())) advance();
-
-        String text = source.substring(start, current);
-        TokenType type = keywords.get(text);
-        if (type == null) type = TokenType.IDENTIFIER;
-
-        return makeToken(type, text);
+    public Lexer(String source, Interner interner) {
+        this(source, interner, 0, source.length(), 1);
     }
 
-    private Token string() {
-        while (peek() != '"' && !isAtEnd()) {
-            if (peek() == '\n') line++;
-            advance();
-        }
-
-        if (isAtEnd()) return makeToken(TokenType.EOF, "");
+    /**
+     * Lexer que salta las rachas largas (espacios, comentarios, identificadores,
+     * numeros y cadenas) con el CharScanner dado, p. ej. CharScanner.best().
+     * Produce exactamente los mismos tokens que el modo normal.
+     */
+    public Lexer(String source, Interner interner, CharScanner scanner) {
+        this.source = source;
+        this.interner = interner;
+        this.end = source.length();
+        this.chars = source.toCharArray();
+        this.scanner = scanner;
+    }
 
-        advance(); // Consume the closing "
-        String value = source.substring(start + 1, current - 1);
-        return makeToken(TokenType.STRING_LITERAL, value);
+    // Lexer restringido a source[from, to) que empieza a contar lineas desde 'line'
+    public Lexer(String source, Interner interner, int from, int to, int line) {
+        this.source = source;
+        this.interner = interner;
+        this.end = to;
+        this.start = from;
+        this.current = from;
+        this.line = line;
+        this.chars = null;
+        this.scanner = null;
     }
 
-    private Token makeToken(TokenType type, Object literal) {
+    @Override
+    public Token nextToken() {
+        TokenType type = scan();
+        if (type == null) return null;
+
         String lexeme = source.substring(start, current);
-        return new Token(type, lexeme, literal, line);
+        int symbolId = type == TokenType.IDENTIFIER ? interner.intern(lexeme) : -1;
+        return new Token(type, lexeme, literal(type, lexeme), line, symbolId, start);
     }
 
-    private char advance() {
-        return source.charAt(current++);
+    @Override
+    public Interner getInterner() {
+        return interner;
     }
 
-    private char peek() {
-        return isAtEnd() ? '\0' : source.charAt(current);
+    /**
+     * Reconoce el siguiente token sin construir el objeto Token: solo deja
+     * sus limites en tokenStart()/tokenEnd(). Devuelve null para '&' o '|' sueltos.
+     * Recorre la tabla del automata quedandose con la aceptacion mas larga.
+     */
+    TokenType scan() {
+        final int[] next = TABLES.next;
+        final int[] actions = TABLES.actions;
+        final byte[] asciiClass = TABLES.asciiClass;
+        final int classCount = TABLES.classCount;
+        final byte[] runs = scanner != null ? RUNS : null;
+
+        while (true) {
+            start = current;
+            if (current >= end) return TokenType.EOF;
+
+            int state = TABLES.start;
+            int pos = current;
+            int newlines = 0;
+            int action = LexerTables.NO_ACCEPT;
+            int accepted = current;
+            int newlinesAtEnd = 0;
+
+            while (pos < end) {
+                char c = source.charAt(pos);
+                int cls = c < 128 ? asciiClass[c] : TABLES.nonAsciiClass(c);
+                state = next[state * classCount + cls];
+                if (state == Dfa.DEAD) break;
+                pos++;
+                if (c == '\n') newlines++;
+                if (runs != null && runs[state] != RUN_NONE && pos < end) {
+                    int stop = skipRun(runs[state], pos);
+                    if (runs[state] == RUN_BLANK) newlines += scanner.countNewlines(chars, pos, stop);
+                    pos = stop;
+                }
+                if (actions[state] != LexerTables.NO_ACCEPT) {
+                    action = actions[state];
+                    accepted = pos;
+                    newlinesAtEnd = newlines;
+                }
+            }
+
+            if (action == LexerTables.NO_ACCEPT) {
+                // Caracter no reconocido o cadena sin cerrar: se consume y se reporta como EOF
+                current = Math.max(pos, current + 1);
+                line += newlines;
+                return TokenType.EOF;
+            }
+
+            current = accepted;
+            line += newlinesAtEnd;
+            if (action == LexerTables.SKIP) continue;
+            if (action == LexerTables.NO_TOKEN) return null;
+            return TYPES[action];
+        }
     }
 
-    private char peekNext() {
-        return current + 1 >= source.length() ? '\0' : source.charAt(current + 1);
+    // Fin de la racha que empieza en 'pos'; el estado del automata no cambia dentro de ella
+    private int skipRun(byte kind, int pos) {
+        switch (kind) {
+            case RUN_BLANK: return scanner.skipWhitespace(chars, pos, end);
+            case RUN_WORD: return scanner.skipIdentifierChars(chars, pos, end);
+            case RUN_DIGITS: return scanner.skipDigits(chars, pos, end);
+            case RUN_STRING: return scanner.findQuoteOrNewline(chars, pos, end);
+            default: return scanner.findNewline(chars, pos, end);
+        }
     }
 
-    private boolean match(char expected) {
-        if (isAtEnd() || source.charAt(current) != expected) return false;
-        current++;
-        return true;
+    int tokenStart() {
+        return start;
     }
 
-    private void skipWhitespace() {
-        while (!isAtEnd()) {
-            char c = peek();
-            switch (c) {
-                case ' ': case '\r': case '\t': advance(); break;
-                case '\n': line++; advance(); break;
-                case '/': 
-                    if (peekNext() == '/') {
-                        while (peek() != '\n' && !isAtEnd()) advance();
-                    } else {
-                        return;
-                    }
-                    break;
-                default: return;
-            }
-        }
+    int tokenEnd() {
+        return current;
     }
 
-    private boolean isAtEnd() {
-        return current >= source.length();
+    // Valor literal asociado a cada tipo de token, igual para todos los front-ends
+    static Object literal(TokenType type, CharSequence lexeme) {
+        switch (type) {
+            case EOF: return "";
+            case NUMBER: return Double.parseDouble(lexeme.toString());
+            case STRING_LITERAL: return lexeme.subSequence(1, lexeme.length() - 1).toString();
+            case IDENTIFIER:
+            case FUNCTION: case VAR: case IF: case ELSE: case WHILE: case RETURN:
+            case INT: case FLOAT: case STRING: case BOOLEAN: case VOID:
+            case TRUE: case FALSE:
+                return lexeme.toString();
+            default: return null;
+        }
     }
 }
\ No newline at end of file
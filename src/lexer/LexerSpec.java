@@ -0,0 +1,57 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definicion de los tokens de un lexer como expresiones regulares. Ante dos reglas
+ * que reconocen el mismo lexema gana la que se definio primero; entre lexemas de
+ * distinto largo siempre gana el mas largo.
+ */
+public class LexerSpec {
+    private final List<String> patterns = new ArrayList<>();
+    private final List<Integer> actions = new ArrayList<>();
+
+    // Reconoce el patron y produce un token del tipo indicado
+    public LexerSpec token(String regex, TokenType type) {
+        return rule(regex, type.ordinal());
+    }
+
+    // Palabra reservada: el texto literal, sin interpretar como expresion regular
+    public LexerSpec keyword(String text, TokenType type) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (!Character.isLetterOrDigit(c)) regex.append('\\');
+            regex.append(c);
+        }
+        return token(regex.toString(), type);
+    }
+
+    // Reconoce el patron y lo descarta (espacios, comentarios)
+    public LexerSpec skip(String regex) {
+        return rule(regex, LexerTables.SKIP);
+    }
+
+    // Reconoce el patron pero no produce token: nextToken() devuelve null
+    public LexerSpec invalid(String regex) {
+        return rule(regex, LexerTables.NO_TOKEN);
+    }
+
+    private LexerSpec rule(String regex, int action) {
+        patterns.add(regex);
+        actions.add(action);
+        return this;
+    }
+
+    public LexerTables build() {
+        Dfa dfa = Dfa.compile(patterns, false);
+        int[] stateActions = new int[dfa.stateCount];
+        for (int state = 0; state < dfa.stateCount; state++) {
+            long accepted = dfa.accept[state];
+            stateActions[state] = accepted == 0
+                ? LexerTables.NO_ACCEPT
+                : actions.get(Long.numberOfTrailingZeros(accepted));
+        }
+        return new LexerTables(dfa, stateActions);
+    }
+}
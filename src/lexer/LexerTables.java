@@ -0,0 +1,73 @@
+package lexer;
+
+/**
+ * Tablas generadas por LexerSpec: mapa de clases para caracteres ASCII, tabla de
+ * transiciones plana (estado * clases + clase) y la accion de cada estado de aceptacion.
+ */
+public final class LexerTables {
+    static final int NO_ACCEPT = -1;
+    static final int SKIP = -2;
+    static final int NO_TOKEN = -3;
+
+    final int start;
+    final int classCount;
+    final int[] next;
+    final int[] actions;
+    final byte[] asciiClass;
+    private final Dfa dfa;
+
+    LexerTables(Dfa dfa, int[] actions) {
+        this.dfa = dfa;
+        this.start = dfa.start;
+        this.classCount = dfa.classCount;
+        this.next = dfa.next;
+        this.actions = actions;
+        this.asciiClass = dfa.asciiClass;
+    }
+
+    // Solo para caracteres fuera de ASCII
+    int nonAsciiClass(char c) {
+        if (Character.isLetter(c)) return dfa.letterClass;
+        if (Character.isDigit(c)) return dfa.digitClass;
+        return dfa.otherClass;
+    }
+
+    // Estado alcanzado desde el inicial leyendo 'prefix' (Dfa.DEAD si no hay camino)
+    int stateAfter(String prefix) {
+        int state = start;
+        for (int i = 0; i < prefix.length() && state != Dfa.DEAD; i++) {
+            char c = prefix.charAt(i);
+            int cls = c < 128 ? asciiClass[c] : nonAsciiClass(c);
+            state = next[state * classCount + cls];
+        }
+        return state;
+    }
+
+    // true si 'state' vuelve a si mismo con cada caracter ASCII que cumple 'member'
+    boolean loopsOn(int state, java.util.function.IntPredicate member, boolean nonAscii) {
+        if (state == Dfa.DEAD) return false;
+        for (int c = 0; c < 128; c++) {
+            if (member.test(c) && next[state * classCount + asciiClass[c]] != state) return false;
+        }
+        if (nonAscii) {
+            int row = state * classCount;
+            return next[row + dfa.letterClass] == state
+                && next[row + dfa.digitClass] == state
+                && next[row + dfa.otherClass] == state;
+        }
+        return true;
+    }
+
+    public int getStateCount() {
+        return dfa.stateCount;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LexerTables[" + dfa.stateCount + " estados, " + classCount + " clases]";
+    }
+}
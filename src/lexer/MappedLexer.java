@@ -0,0 +1,229 @@
+package lexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import util.Interner;
+
+/**
+ * Lexer que recorre directamente los bytes UTF-8 de un archivo mapeado en memoria
+ * con las mismas tablas que Lexer. Los bytes ASCII van directo al mapa de clases; solo
+ * se decodifican los caracteres multibyte y los lexemas de identificadores, numeros y
+ * cadenas (los de palabras reservadas y simbolos se reutilizan). Con UTF-8 valido
+ * produce los mismos tokens que Lexer sobre el texto decodificado, caracter UTF-16
+ * por caracter UTF-16.
+ */
+public class MappedLexer implements TokenSource, Closeable {
+    private final Interner interner;
+    private final FileChannel channel;
+    private final ByteBuffer bytes;
+    private final int length;
+    private int line = 1;
+
+    // Posicion actual: byte donde empieza el caracter y si ya se consumio el surrogate
+    // alto de ese caracter (solo fuera del BMP, donde Lexer ve dos chars)
+    private int current = 0;
+    private boolean half = false;
+    // Posicion en chars UTF-16, la que reporta Token.getOffset()
+    private int offset = 0;
+
+    // Ancho en bytes del ultimo caracter no ASCII decodificado por codePointAt
+    private int lastWidth;
+    // Posicion siguiente a la ultima unidad leida con unitAt
+    private int nextIndex;
+    private boolean nextHalf;
+
+    // Lexema de cada tipo de token que siempre se escribe igual (palabras reservadas y simbolos)
+    private final String[] fixedLexemes = new String[Lexer.TYPES.length];
+
+    public MappedLexer(Path path) throws IOException {
+        this(path, new Interner());
+    }
+
+    public MappedLexer(Path path, Interner interner) throws IOException {
+        this.interner = interner;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Archivo demasiado grande para mapear: " + size + " bytes");
+        }
+        this.bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        this.length = (int) size;
+    }
+
+    public MappedLexer(ByteBuffer utf8) {
+        this(utf8, new Interner());
+    }
+
+    public MappedLexer(ByteBuffer utf8, Interner interner) {
+        this.interner = interner;
+        this.channel = null;
+        this.bytes = utf8.slice();
+        this.length = this.bytes.remaining();
+    }
+
+    @Override
+    public Token nextToken() {
+        final LexerTables tables = Lexer.TABLES;
+        final int[] next = tables.next;
+        final int[] actions = tables.actions;
+        final byte[] asciiClass = tables.asciiClass;
+        final int classCount = tables.classCount;
+        final ByteBuffer bytes = this.bytes;
+
+        while (true) {
+            int start = current;
+            boolean startHalf = half;
+            if (start >= length) return new Token(TokenType.EOF, "", "", line, -1, offset);
+
+            // Igual que Lexer.scan(), una unidad UTF-16 por transicion
+            int state = tables.start;
+            int index = start;
+            boolean inHalf = startHalf;
+            int units = 0;
+            int newlines = 0;
+            int action = LexerTables.NO_ACCEPT;
+            int accepted = start;
+            boolean acceptedHalf = startHalf;
+            int unitsAtEnd = 0;
+            int newlinesAtEnd = 0;
+
+            while (index < length) {
+                byte b = bytes.get(index);
+                if (b >= 0) {
+                    state = next[state * classCount + asciiClass[b]];
+                    if (state == Dfa.DEAD) break;
+                    index++;
+                    if (b == '\n') newlines++;
+                } else {
+                    char c = unitAt(index, inHalf);
+                    state = next[state * classCount + tables.nonAsciiClass(c)];
+                    if (state == Dfa.DEAD) break;
+                    index = nextIndex;
+                    inHalf = nextHalf;
+                }
+                units++;
+                if (actions[state] != LexerTables.NO_ACCEPT) {
+                    action = actions[state];
+                    accepted = index;
+                    acceptedHalf = inHalf;
+                    unitsAtEnd = units;
+                    newlinesAtEnd = newlines;
+                }
+            }
+
+            if (action == LexerTables.NO_ACCEPT) {
+                // Caracter no reconocido o cadena sin cerrar: se consume y se reporta como EOF
+                if (units == 0) {
+                    // Para un byte ASCII unitAt tambien avanza exactamente uno
+                    unitAt(start, startHalf);
+                    current = nextIndex;
+                    half = nextHalf;
+                    units = 1;
+                } else {
+                    current = index;
+                    half = inHalf;
+                }
+                line += newlines;
+            } else {
+                current = accepted;
+                half = acceptedHalf;
+                units = unitsAtEnd;
+                line += newlinesAtEnd;
+            }
+
+            int tokenOffset = offset;
+            offset += units;
+            if (action == LexerTables.SKIP) continue;
+            if (action == LexerTables.NO_TOKEN) return null;
+
+            TokenType type = action == LexerTables.NO_ACCEPT ? TokenType.EOF : Lexer.TYPES[action];
+            String lexeme = lexeme(type, start, startHalf);
+            int symbolId = type == TokenType.IDENTIFIER ? interner.intern(lexeme) : -1;
+            return new Token(type, lexeme, Lexer.literal(type, lexeme), line, symbolId, tokenOffset);
+        }
+    }
+
+    // Lexema desde (from, fromHalf) hasta la posicion actual
+    private String lexeme(TokenType type, int from, boolean fromHalf) {
+        switch (type) {
+            case EOF: case NUMBER: case IDENTIFIER: case STRING_LITERAL:
+                return text(from, fromHalf);
+            default:
+                String fixed = fixedLexemes[type.ordinal()];
+                if (fixed == null) {
+                    fixed = text(from, fromHalf);
+                    fixedLexemes[type.ordinal()] = fixed;
+                }
+                return fixed;
+        }
+    }
+
+    // Los dos extremos pueden caer entre los dos surrogates de un caracter fuera del BMP
+    private String text(int from, boolean fromHalf) {
+        String text = decode(from, current);
+        if (fromHalf) text = text.substring(1);
+        if (half) text += unitAt(current, false);
+        return text;
+    }
+
+    // Decodifica solo el rango del token; ASCII puro se copia sin pasar por el decodificador UTF-8
+    private String decode(int from, int to) {
+        byte[] tmp = new byte[to - from];
+        bytes.get(from, tmp);
+        for (byte b : tmp) {
+            if (b < 0) return new String(tmp, StandardCharsets.UTF_8);
+        }
+        return new String(tmp, StandardCharsets.ISO_8859_1);
+    }
+
+    // Unidad UTF-16 en una posicion no ASCII; deja en nextIndex/nextHalf la posicion siguiente
+    private char unitAt(int index, boolean inHalf) {
+        int cp = codePointAt(index);
+        if (cp <= 0xFFFF || inHalf) {
+            nextIndex = index + lastWidth;
+            nextHalf = false;
+            return cp <= 0xFFFF ? (char) cp : Character.lowSurrogate(cp);
+        }
+        nextIndex = index;
+        nextHalf = true;
+        return Character.highSurrogate(cp);
+    }
+
+    private int codePointAt(int i) {
+        int b0 = bytes.get(i) & 0xFF;
+        int width;
+        int cp;
+        // 0xF8-0xFF no empiezan ninguna secuencia: una unidad mal formada, como en String
+        if (b0 >= 0xF8) { lastWidth = 1; return 0xFFFD; }
+        else if (b0 >= 0xF0) { width = 4; cp = b0 & 0x07; }
+        else if (b0 >= 0xE0) { width = 3; cp = b0 & 0x0F; }
+        else if (b0 >= 0xC0) { width = 2; cp = b0 & 0x1F; }
+        else { lastWidth = 1; return 0xFFFD; }
+
+        if (i + width > length) { lastWidth = 1; return 0xFFFD; }
+        for (int k = 1; k < width; k++) {
+            int bk = bytes.get(i + k) & 0xFF;
+            if ((bk & 0xC0) != 0x80) { lastWidth = 1; return 0xFFFD; }
+            cp = (cp << 6) | (bk & 0x3F);
+        }
+        if (cp > Character.MAX_CODE_POINT) { lastWidth = 1; return 0xFFFD; }
+        lastWidth = width;
+        return cp;
+    }
+
+    @Override
+    public Interner getInterner() {
+        return interner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+}
@@ -0,0 +1,124 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Automata finito no determinista construido con Thompson a partir de expresiones regulares.
+ * El alfabeto son los 128 caracteres ASCII mas tres simbolos que agrupan el resto de
+ * Unicode: letras, digitos y cualquier otro caracter.
+ */
+final class Nfa {
+    static final int UNICODE_LETTER = 128;
+    static final int UNICODE_DIGIT = 129;
+    static final int UNICODE_OTHER = 130;
+    static final int ALPHABET_SIZE = 131;
+
+    static final class State {
+        final List<Integer> epsilon = new ArrayList<>();
+        final List<BitSet> symbols = new ArrayList<>();
+        final List<Integer> targets = new ArrayList<>();
+        int accept = -1;
+    }
+
+    // Fragmento de automata con un unico estado inicial y final
+    static final class Fragment {
+        final int start;
+        final int end;
+
+        Fragment(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    final List<State> states = new ArrayList<>();
+    final int start;
+
+    Nfa() {
+        this.start = newState();
+    }
+
+    static int symbolOf(char c) {
+        if (c < 128) return c;
+        if (Character.isLetter(c)) return UNICODE_LETTER;
+        if (Character.isDigit(c)) return UNICODE_DIGIT;
+        return UNICODE_OTHER;
+    }
+
+    int newState() {
+        states.add(new State());
+        return states.size() - 1;
+    }
+
+    void epsilon(int from, int to) {
+        states.get(from).epsilon.add(to);
+    }
+
+    void transition(int from, BitSet symbols, int to) {
+        State state = states.get(from);
+        state.symbols.add(symbols);
+        state.targets.add(to);
+    }
+
+    // Agrega un patron como alternativa desde el estado inicial; 'rule' identifica el patron al aceptar
+    void addPattern(String regex, int rule) {
+        Fragment fragment = new RegexParser(this, regex).parse();
+        epsilon(start, fragment.start);
+        states.get(fragment.end).accept = rule;
+    }
+
+    Fragment symbols(BitSet set) {
+        int from = newState();
+        int to = newState();
+        transition(from, set, to);
+        return new Fragment(from, to);
+    }
+
+    Fragment empty() {
+        int state = newState();
+        return new Fragment(state, state);
+    }
+
+    Fragment concat(Fragment first, Fragment second) {
+        epsilon(first.end, second.start);
+        return new Fragment(first.start, second.end);
+    }
+
+    Fragment alternate(Fragment first, Fragment second) {
+        int from = newState();
+        int to = newState();
+        epsilon(from, first.start);
+        epsilon(from, second.start);
+        epsilon(first.end, to);
+        epsilon(second.end, to);
+        return new Fragment(from, to);
+    }
+
+    Fragment star(Fragment inner) {
+        int from = newState();
+        int to = newState();
+        epsilon(from, inner.start);
+        epsilon(from, to);
+        epsilon(inner.end, inner.start);
+        epsilon(inner.end, to);
+        return new Fragment(from, to);
+    }
+
+    Fragment plus(Fragment inner) {
+        int to = newState();
+        epsilon(inner.end, inner.start);
+        epsilon(inner.end, to);
+        return new Fragment(inner.start, to);
+    }
+
+    Fragment optional(Fragment inner) {
+        int from = newState();
+        int to = newState();
+        epsilon(from, inner.start);
+        epsilon(from, to);
+        epsilon(inner.end, to);
+        return new Fragment(from, to);
+    }
+}
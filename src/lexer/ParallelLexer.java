@@ -0,0 +1,287 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import util.Interner;
+
+/**
+ * Lexer paralelo para fuentes grandes. El texto se corta en trozos que empiezan
+ * despues de un salto de linea y cada trozo se analiza en un ForkJoinPool.
+ * Un trozo solo puede empezar en medio de un token si hay una cadena abierta
+ * (los comentarios // terminan en el salto de linea), asi que cada trozo se
+ * analiza de forma especulativa en los dos estados posibles y al unir los
+ * resultados se elige el correcto y se reconstruye la cadena partida.
+ * Cada especulacion interna sus identificadores en un Interner propio. Al unir se
+ * pasan al Interner de la compilacion, en orden, solo los nombres de la especulacion
+ * elegida, asi que los ids quedan densos y son los mismos que asigna Lexer; despues
+ * se reemplazan en paralelo los tokens de identificador con los ids definitivos.
+ * El resultado es la misma secuencia de tokens que produce Lexer.
+ */
+public class ParallelLexer implements TokenSource {
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    // Fases de ChunkTask
+    private static final int COUNT_LINES = 0;
+    private static final int LEX = 1;
+    private static final int RENUMBER = 2;
+
+    private final Interner interner;
+    private final List<Token> tokens;
+    private int index = 0;
+
+    public ParallelLexer(String source) {
+        this(source, ForkJoinPool.commonPool(), new Interner());
+    }
+
+    public ParallelLexer(String source, ForkJoinPool pool, Interner interner) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, source.length() / (pool.getParallelism() * 4));
+        this.interner = interner;
+        this.tokens = tokenize(source, interner, pool, chunkSize);
+    }
+
+    @Override
+    public Token nextToken() {
+        Token token = tokens.get(index);
+        if (index < tokens.size() - 1) index++;
+        return token;
+    }
+
+    @Override
+    public Interner getInterner() {
+        return interner;
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    public static List<Token> tokenize(String source, Interner interner, ForkJoinPool pool, int chunkSize) {
+        List<Integer> bounds = split(source, chunkSize);
+        int chunkCount = bounds.size() - 1;
+        Chunk[] chunks = new Chunk[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = new Chunk(source, bounds.get(i), bounds.get(i + 1));
+        }
+
+        // Primera fase: lineas de cada trozo, para conocer la linea inicial del siguiente
+        pool.invoke(new ChunkTask(chunks, 0, chunkCount, COUNT_LINES, null));
+        int line = 1;
+        for (Chunk chunk : chunks) {
+            chunk.firstLine = line;
+            line += chunk.newlines;
+        }
+
+        // Segunda fase: analisis especulativo de cada trozo
+        pool.invoke(new ChunkTask(chunks, 0, chunkCount, LEX, null));
+
+        // Tercera fase: unir las especulaciones elegidas e internar sus identificadores en orden
+        List<Token> result = stitch(source, interner, chunks, line);
+
+        // Cuarta fase: ids definitivos en los identificadores de cada trozo
+        pool.invoke(new ChunkTask(chunks, 0, chunkCount, RENUMBER, result));
+        return result;
+    }
+
+    // Cortes justo despues de un '\n', cerca de multiplos de chunkSize
+    private static List<Integer> split(String source, int chunkSize) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int position = chunkSize;
+        while (position < source.length()) {
+            int newline = source.indexOf('\n', position);
+            if (newline < 0 || newline + 1 >= source.length()) break;
+            bounds.add(newline + 1);
+            position = newline + 1 + chunkSize;
+        }
+        bounds.add(source.length());
+        return bounds;
+    }
+
+    /**
+     * Une las especulaciones elegidas, reconstruye las cadenas partidas y deja a cada
+     * trozo su posicion en el resultado y los ids de la compilacion de sus identificadores.
+     */
+    private static List<Token> stitch(String source, Interner interner, Chunk[] chunks, int lastLine) {
+        List<Token> result = new ArrayList<>();
+        int openString = -1;
+        for (Chunk chunk : chunks) {
+            Speculation taken;
+            if (openString < 0) {
+                taken = chunk.normal;
+            } else {
+                taken = chunk.inString;
+                if (taken.closeQuote < 0) continue; // la cadena atraviesa todo el trozo
+                String lexeme = source.substring(openString, taken.closeQuote + 1);
+                result.add(new Token(TokenType.STRING_LITERAL, lexeme,
+                        lexeme.substring(1, lexeme.length() - 1), taken.closeLine, -1, openString));
+            }
+            chunk.taken = taken;
+            chunk.offset = result.size();
+            chunk.globalIds = intern(taken.interner, interner);
+            result.addAll(taken.tokens);
+            openString = taken.openString;
+        }
+
+        if (openString >= 0) {
+            // Igual que Lexer: una cadena sin cerrar consume el resto y se reporta como EOF
+            result.add(new Token(TokenType.EOF, source.substring(openString), "", lastLine, -1, openString));
+        }
+        result.add(new Token(TokenType.EOF, "", "", lastLine, -1, source.length()));
+        return result;
+    }
+
+    /**
+     * Id en el Interner de la compilacion de cada id de la especulacion. Los ids locales
+     * siguen el orden de aparicion, asi que internarlos en ese orden da los mismos ids
+     * que Lexer. Devuelve null si cada id queda igual.
+     */
+    private static int[] intern(Interner local, Interner interner) {
+        int[] globalIds = new int[local.size()];
+        boolean same = true;
+        for (int id = 0; id < globalIds.length; id++) {
+            globalIds[id] = interner.intern(local.name(id));
+            same &= globalIds[id] == id;
+        }
+        return same ? null : globalIds;
+    }
+
+    private static final class Chunk {
+        final String source;
+        final int from;
+        final int to;
+        int newlines;
+        int firstLine;
+        Speculation normal;
+        Speculation inString;
+        // Elegidos al unir
+        Speculation taken;
+        int offset;
+        int[] globalIds;
+
+        Chunk(String source, int from, int to) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        void countLines() {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (source.charAt(i) == '\n') count++;
+            }
+            newlines = count;
+        }
+
+        void lex() {
+            normal = lexFrom(from, firstLine);
+            if (from == 0) return;
+
+            int quote = source.indexOf('"', from);
+            if (quote < 0 || quote >= to) {
+                inString = new Speculation(new ArrayList<>(), new Interner(), new int[0], 0, -1, -1, 0);
+                return;
+            }
+            int line = firstLine;
+            for (int i = from; i < quote; i++) {
+                if (source.charAt(i) == '\n') line++;
+            }
+            Speculation afterQuote = lexFrom(quote + 1, line);
+            inString = new Speculation(afterQuote.tokens, afterQuote.interner, afterQuote.identifiers,
+                    afterQuote.identifierCount, afterQuote.openString, quote, line);
+        }
+
+        private Speculation lexFrom(int position, int line) {
+            List<Token> tokens = new ArrayList<>();
+            int[] identifiers = new int[64];
+            int identifierCount = 0;
+            Interner interner = new Interner();
+            Lexer lexer = new Lexer(source, interner, position, to, line);
+            int openString = -1;
+            while (true) {
+                Token token = lexer.nextToken();
+                int start = lexer.tokenStart();
+                if (start >= to) break;
+                if (token != null && token.getType() == TokenType.EOF
+                        && lexer.tokenEnd() == to && source.charAt(start) == '"') {
+                    // Cadena que sigue abierta al final del trozo: se decide al unir
+                    openString = start;
+                    break;
+                }
+                if (token != null && token.getSymbolId() >= 0) {
+                    if (identifierCount == identifiers.length) identifiers = Arrays.copyOf(identifiers, identifierCount * 2);
+                    identifiers[identifierCount++] = tokens.size();
+                }
+                tokens.add(token);
+            }
+            return new Speculation(tokens, interner, identifiers, identifierCount, openString, -1, 0);
+        }
+
+        // Cambia en el resultado los identificadores del trozo por tokens con los ids de la compilacion
+        void renumber(List<Token> result) {
+            if (taken == null || globalIds == null) return;
+            for (int k = 0; k < taken.identifierCount; k++) {
+                int i = taken.identifiers[k];
+                Token token = taken.tokens.get(i);
+                result.set(offset + i, new Token(token.getType(), token.getLexeme(), token.getLiteral(),
+                        token.getLine(), globalIds[token.getSymbolId()], token.getOffset()));
+            }
+        }
+    }
+
+    // Resultado de analizar un trozo suponiendo un estado inicial
+    private static final class Speculation {
+        final List<Token> tokens;
+        // Ids de los identificadores de 'tokens', en orden de aparicion
+        final Interner interner;
+        // Posiciones en 'tokens' de los identificadores
+        final int[] identifiers;
+        final int identifierCount;
+        final int openString;
+        final int closeQuote;
+        final int closeLine;
+
+        Speculation(List<Token> tokens, Interner interner, int[] identifiers, int identifierCount,
+                    int openString, int closeQuote, int closeLine) {
+            this.tokens = tokens;
+            this.interner = interner;
+            this.identifiers = identifiers;
+            this.identifierCount = identifierCount;
+            this.openString = openString;
+            this.closeQuote = closeQuote;
+            this.closeLine = closeLine;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveAction {
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+        private final int phase;
+        private final List<Token> result;
+
+        ChunkTask(Chunk[] chunks, int from, int to, int phase, List<Token> result) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.phase = phase;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                if (phase == COUNT_LINES) chunks[from].countLines();
+                else if (phase == LEX) chunks[from].lex();
+                else chunks[from].renumber(result);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(chunks, from, middle, phase, result),
+                      new ChunkTask(chunks, middle, to, phase, result));
+        }
+    }
+}
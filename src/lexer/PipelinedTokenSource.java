@@ -0,0 +1,162 @@
+package lexer;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import util.Interner;
+
+/**
+ * Ejecuta otro TokenSource en un hilo productor y entrega sus tokens al Parser
+ * desde un anillo sin bloqueos de un productor y un consumidor. Los tokens viajan
+ * en lotes para no pagar una sincronizacion por token; el anillo tiene un numero
+ * fijo de lotes, asi que si el Parser se atrasa el productor espera (memoria acotada).
+ * La secuencia de tokens es la misma que la del TokenSource original.
+ */
+public class PipelinedTokenSource implements TokenSource, Closeable {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 20_000;
+
+    private final TokenSource upstream;
+    private final int batchSize;
+    private final Token[][] ring;
+    private final int mask;
+
+    // Lotes escritos por el productor y leidos por el consumidor (indices absolutos)
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private final Thread producer;
+
+    // Estado del consumidor
+    private Token[] batch = new Token[0];
+    private int index = 0;
+    private Token last;
+    private boolean finished;
+
+    public PipelinedTokenSource(TokenSource upstream) {
+        this(upstream, DEFAULT_BATCH_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param batchSize tokens por lote
+     * @param capacity  lotes en el anillo; se redondea a potencia de 2
+     */
+    public PipelinedTokenSource(TokenSource upstream, int batchSize, int capacity) {
+        if (batchSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("El lote y la capacidad deben ser positivos");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.upstream = upstream;
+        this.batchSize = batchSize;
+        this.ring = new Token[size][];
+        this.mask = size - 1;
+        this.producer = new Thread(this::produce, "lexer-pipeline");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    @Override
+    public Token nextToken() {
+        if (index == batch.length) {
+            if (finished) return last;
+            batch = take();
+            index = 0;
+        }
+        Token token = batch[index++];
+        if (isEnd(token)) {
+            finished = true;
+            last = token;
+        }
+        return token;
+    }
+
+    @Override
+    public Interner getInterner() {
+        return upstream.getInterner();
+    }
+
+    // Detiene el productor si el Parser abandona la entrada antes del final. Despues se
+    // pueden leer los lotes ya publicados; pedir mas lanza IllegalStateException
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(producer);
+    }
+
+    // El EOF del final de la entrada tiene lexema vacio; los de caracteres invalidos no
+    private static boolean isEnd(Token token) {
+        return token != null && token.getType() == TokenType.EOF && token.getLexeme().isEmpty();
+    }
+
+    private void produce() {
+        try {
+            long t = tail.get();
+            long cachedHead = head.get();
+            boolean end = false;
+            while (!end && !closed) {
+                Token[] out = new Token[batchSize];
+                int count = 0;
+                while (count < batchSize) {
+                    Token token = upstream.nextToken();
+                    out[count++] = token;
+                    if (isEnd(token)) {
+                        end = true;
+                        break;
+                    }
+                }
+                if (count < batchSize) out = Arrays.copyOf(out, count);
+
+                // Contrapresion: esperar a que el consumidor libere un lote
+                int idle = 0;
+                while (t - cachedHead == ring.length) {
+                    cachedHead = head.get();
+                    if (t - cachedHead < ring.length) break;
+                    if (closed) return;
+                    idle = idle(idle);
+                }
+                ring[(int) t & mask] = out;
+                tail.lazySet(++t);
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+    }
+
+    private Token[] take() {
+        long h = head.get();
+        int idle = 0;
+        while (h == tail.get()) {
+            Throwable error = failure;
+            if (error != null && h == tail.get()) {
+                if (error instanceof RuntimeException) throw (RuntimeException) error;
+                throw (Error) error;
+            }
+            // Cerrado antes del final: el productor ya no va a publicar mas lotes
+            if (closed && h == tail.get()) {
+                throw new IllegalStateException("Flujo de tokens cerrado antes del final de la entrada");
+            }
+            idle = idle(idle);
+        }
+        int slot = (int) h & mask;
+        Token[] result = ring[slot];
+        ring[slot] = null;
+        head.lazySet(h + 1);
+        return result;
+    }
+
+    // Espera breve con giro activo y luego con pausas cortas
+    private static int idle(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+}
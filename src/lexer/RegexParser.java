@@ -0,0 +1,188 @@
+package lexer;
+
+import java.util.BitSet;
+
+/**
+ * Analizador descendente de expresiones regulares que construye fragmentos de Nfa.
+ * Soporta literales, '.', clases [..] y [^..], agrupacion, '|', '*', '+', '?' y los
+ * escapes \s \w \d \n \t \r \f, \p{L} (letras) y \p{Nd} (digitos).
+ */
+final class RegexParser {
+    private final Nfa nfa;
+    private final String pattern;
+    private int pos = 0;
+
+    RegexParser(Nfa nfa, String pattern) {
+        this.nfa = nfa;
+        this.pattern = pattern;
+    }
+
+    Nfa.Fragment parse() {
+        Nfa.Fragment fragment = alternation();
+        if (pos < pattern.length()) {
+            throw error("caracter inesperado '" + pattern.charAt(pos) + "'");
+        }
+        return fragment;
+    }
+
+    private Nfa.Fragment alternation() {
+        Nfa.Fragment fragment = concatenation();
+        while (peek('|')) {
+            pos++;
+            fragment = nfa.alternate(fragment, concatenation());
+        }
+        return fragment;
+    }
+
+    private Nfa.Fragment concatenation() {
+        Nfa.Fragment fragment = null;
+        while (pos < pattern.length() && !peek('|') && !peek(')')) {
+            Nfa.Fragment next = repetition();
+            fragment = fragment == null ? next : nfa.concat(fragment, next);
+        }
+        return fragment == null ? nfa.empty() : fragment;
+    }
+
+    private Nfa.Fragment repetition() {
+        Nfa.Fragment fragment = atom();
+        while (pos < pattern.length()) {
+            char c = pattern.charAt(pos);
+            if (c == '*') fragment = nfa.star(fragment);
+            else if (c == '+') fragment = nfa.plus(fragment);
+            else if (c == '?') fragment = nfa.optional(fragment);
+            else break;
+            pos++;
+        }
+        return fragment;
+    }
+
+    private Nfa.Fragment atom() {
+        char c = pattern.charAt(pos++);
+        switch (c) {
+            case '(': {
+                Nfa.Fragment inner = alternation();
+                if (!peek(')')) throw error("falta ')'");
+                pos++;
+                return inner;
+            }
+            case '[':
+                return nfa.symbols(characterClass());
+            case '.': {
+                BitSet any = all();
+                any.clear('\n');
+                any.clear('\r');
+                return nfa.symbols(any);
+            }
+            case '\\':
+                return nfa.symbols(escape());
+            case '*': case '+': case '?': case ')':
+                throw error("operador '" + c + "' sin operando");
+            default:
+                return nfa.symbols(single(c));
+        }
+    }
+
+    private BitSet characterClass() {
+        boolean negated = peek('^');
+        if (negated) pos++;
+
+        BitSet set = new BitSet(Nfa.ALPHABET_SIZE);
+        boolean first = true;
+        while (pos < pattern.length() && (first || !peek(']'))) {
+            first = false;
+            char c = pattern.charAt(pos++);
+            if (c == '\\') {
+                set.or(escape());
+                continue;
+            }
+            if (peek('-') && pos + 1 < pattern.length() && pattern.charAt(pos + 1) != ']') {
+                char to = pattern.charAt(pos + 1);
+                pos += 2;
+                for (char r = c; r <= to; r++) set.set(Nfa.symbolOf(r));
+            } else {
+                set.set(Nfa.symbolOf(c));
+            }
+        }
+        if (!peek(']')) throw error("falta ']'");
+        pos++;
+
+        if (negated) {
+            BitSet complement = all();
+            complement.andNot(set);
+            return complement;
+        }
+        return set;
+    }
+
+    private BitSet escape() {
+        if (pos >= pattern.length()) throw error("escape incompleto");
+        char c = pattern.charAt(pos++);
+        switch (c) {
+            case 'n': return single('\n');
+            case 't': return single('\t');
+            case 'r': return single('\r');
+            case 'f': return single('\f');
+            case 's': return chars(" \t\n\u000B\f\r");
+            case 'd': return range('0', '9');
+            case 'w': {
+                BitSet set = range('a', 'z');
+                set.or(range('A', 'Z'));
+                set.or(range('0', '9'));
+                set.set('_');
+                return set;
+            }
+            case 'p': {
+                int close = pattern.indexOf('}', pos);
+                if (!peek('{') || close < 0) throw error("se esperaba \\p{...}");
+                String name = pattern.substring(pos + 1, close);
+                pos = close + 1;
+                if (name.equals("L")) {
+                    BitSet set = range('a', 'z');
+                    set.or(range('A', 'Z'));
+                    set.set(Nfa.UNICODE_LETTER);
+                    return set;
+                }
+                if (name.equals("Nd")) {
+                    BitSet set = range('0', '9');
+                    set.set(Nfa.UNICODE_DIGIT);
+                    return set;
+                }
+                throw error("clase desconocida \\p{" + name + "}");
+            }
+            default:
+                return single(c);
+        }
+    }
+
+    private static BitSet single(char c) {
+        BitSet set = new BitSet(Nfa.ALPHABET_SIZE);
+        set.set(Nfa.symbolOf(c));
+        return set;
+    }
+
+    private static BitSet chars(String chars) {
+        BitSet set = new BitSet(Nfa.ALPHABET_SIZE);
+        for (int i = 0; i < chars.length(); i++) set.set(chars.charAt(i));
+        return set;
+    }
+
+    private static BitSet range(char from, char to) {
+        BitSet set = new BitSet(Nfa.ALPHABET_SIZE);
+        set.set(from, to + 1);
+        return set;
+    }
+
+    private static BitSet all() {
+        BitSet set = new BitSet(Nfa.ALPHABET_SIZE);
+        set.set(0, Nfa.ALPHABET_SIZE);
+        return set;
+    }
+
+    private boolean peek(char c) {
+        return pos < pattern.length() && pattern.charAt(pos) == c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Expresión regular inválida '" + pattern + "': " + message);
+    }
+}
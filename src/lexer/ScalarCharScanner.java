@@ -0,0 +1,56 @@
+package lexer;
+
+// Implementacion de CharScanner caracter por caracter, usada cuando no hay Vector API
+public class ScalarCharScanner implements CharScanner {
+    @Override
+    public int skipWhitespace(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = chars[i];
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') break;
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public int skipIdentifierChars(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = chars[i];
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) break;
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public int skipDigits(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to && chars[i] >= '0' && chars[i] <= '9') i++;
+        return i;
+    }
+
+    @Override
+    public int findQuoteOrNewline(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to && chars[i] != '"' && chars[i] != '\n') i++;
+        return i;
+    }
+
+    @Override
+    public int findNewline(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to && chars[i] != '\n') i++;
+        return i;
+    }
+
+    @Override
+    public int countNewlines(char[] chars, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (chars[i] == '\n') count++;
+        }
+        return count;
+    }
+}
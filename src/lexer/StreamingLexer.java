@@ -0,0 +1,183 @@
+package lexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import util.Interner;
+
+/**
+ * Lexer que lee la entrada por partes a traves de una ventana de tamaño fijo,
+ * sin cargar el archivo completo en memoria. Recorre las mismas tablas que Lexer
+ * y produce los mismos tokens. La ventana solo crece si un token (una cadena o un
+ * comentario muy largo) no cabe en ella.
+ */
+public class StreamingLexer implements TokenSource, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final Interner interner;
+    private char[] buffer;
+    // buffer[pos] es el primer caracter del token actual
+    private int pos = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private int line = 1;
+    // Posicion de buffer[pos] en el texto completo
+    private long offset = 0;
+
+    public StreamingLexer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingLexer(Reader reader, int bufferSize) {
+        this(reader, bufferSize, new Interner());
+    }
+
+    public StreamingLexer(Reader reader, int bufferSize, Interner interner) {
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("El buffer debe tener al menos 2 caracteres");
+        }
+        this.reader = reader;
+        this.interner = interner;
+        this.buffer = new char[bufferSize];
+    }
+
+    public StreamingLexer(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingLexer(ReadableByteChannel channel, int bufferSize) {
+        this(channel, bufferSize, new Interner());
+    }
+
+    public StreamingLexer(ReadableByteChannel channel, int bufferSize, Interner interner) {
+        this(Channels.newReader(channel,
+                StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE),
+                bufferSize), bufferSize, interner);
+    }
+
+    @Override
+    public Token nextToken() {
+        final LexerTables tables = Lexer.TABLES;
+        final int[] next = tables.next;
+        final int[] actions = tables.actions;
+        final byte[] asciiClass = tables.asciiClass;
+        final int classCount = tables.classCount;
+
+        while (true) {
+            int start = tokenOffset();
+            if (!ensure(1)) return new Token(TokenType.EOF, "", "", line, -1, start);
+
+            // Igual que Lexer.scan(): se avanza mientras haya transicion y se recuerda la
+            // ultima aceptacion; los caracteres leidos de mas quedan en la ventana
+            int state = tables.start;
+            int read = 0;
+            int newlines = 0;
+            int action = LexerTables.NO_ACCEPT;
+            int accepted = 0;
+            int newlinesAtEnd = 0;
+
+            // Copia local de la ventana; se vuelve a leer solo si ensure() la recargo
+            char[] window = buffer;
+            int from = pos;
+            int available = limit - pos;
+            while (read < available || ensure(read + 1)) {
+                if (read >= available) {
+                    window = buffer;
+                    from = pos;
+                    available = limit - pos;
+                }
+                char c = window[from + read];
+                int cls = c < 128 ? asciiClass[c] : tables.nonAsciiClass(c);
+                state = next[state * classCount + cls];
+                if (state == Dfa.DEAD) break;
+                read++;
+                if (c == '\n') newlines++;
+                if (actions[state] != LexerTables.NO_ACCEPT) {
+                    action = actions[state];
+                    accepted = read;
+                    newlinesAtEnd = newlines;
+                }
+            }
+
+            int length;
+            if (action == LexerTables.NO_ACCEPT) {
+                // Caracter no reconocido o cadena sin cerrar: se consume y se reporta como EOF
+                length = Math.max(read, 1);
+                line += newlines;
+            } else {
+                length = accepted;
+                line += newlinesAtEnd;
+            }
+
+            if (action == LexerTables.SKIP) {
+                consume(length);
+                continue;
+            }
+            String lexeme = new String(buffer, pos, length);
+            consume(length);
+            if (action == LexerTables.NO_TOKEN) return null;
+
+            TokenType type = action == LexerTables.NO_ACCEPT ? TokenType.EOF : Lexer.TYPES[action];
+            int symbolId = type == TokenType.IDENTIFIER ? interner.intern(lexeme) : -1;
+            return new Token(type, lexeme, Lexer.literal(type, lexeme), line, symbolId, start);
+        }
+    }
+
+    private void consume(int length) {
+        pos += length;
+        offset += length;
+    }
+
+    // Token usa posiciones int: en textos de mas de 2^31 caracteres se reporta -1
+    private int tokenOffset() {
+        return offset <= Integer.MAX_VALUE ? (int) offset : -1;
+    }
+
+    // Garantiza 'count' caracteres disponibles desde pos, recargando la ventana si hace falta
+    private boolean ensure(int count) {
+        if (limit - pos >= count) return true;
+        if (eof) return false;
+
+        int remaining = limit - pos;
+        if (count > buffer.length) {
+            buffer = Arrays.copyOfRange(buffer, pos, Math.max(count, buffer.length * 2));
+        } else {
+            System.arraycopy(buffer, pos, buffer, 0, remaining);
+        }
+        pos = 0;
+        limit = remaining;
+
+        try {
+            while (limit < count) {
+                int read = reader.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    eof = true;
+                    break;
+                }
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo la entrada del lexer", e);
+        }
+        return limit - pos >= count;
+    }
+
+    @Override
+    public Interner getInterner() {
+        return interner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
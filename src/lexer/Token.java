@@ -5,18 +5,35 @@ public class Token {
     private final String lexeme;
     private final Object literal;
     private final int line;
+    private final int symbolId;
+    private final int offset;
 
     public Token(TokenType type, String lexeme, Object literal, int line) {
+        this(type, lexeme, literal, line, -1);
+    }
+
+    // symbolId: id del identificador en el Interner de la compilacion (-1 si no es identificador)
+    public Token(TokenType type, String lexeme, Object literal, int line, int symbolId) {
+        this(type, lexeme, literal, line, symbolId, -1);
+    }
+
+    // offset: posicion del primer caracter del token en el texto (-1 si no se conoce)
+    public Token(TokenType type, String lexeme, Object literal, int line, int symbolId, int offset) {
         this.type = type;
         this.lexeme = lexeme;
         this.literal = literal;
         this.line = line;
+        this.symbolId = symbolId;
+        this.offset = offset;
     }
 
     public TokenType getType() { return type; }
     public String getLexeme() { return lexeme; }
     public Object getLiteral() { return literal; }
     public int getLine() { return line; }
+    public int getSymbolId() { return symbolId; }
+    public int getOffset() { return offset; }
+    public int getEndOffset() { return offset < 0 ? -1 : offset + lexeme.length(); }
 
     @Override
     public String toString() {
@@ -0,0 +1,185 @@
+package lexer;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import util.Interner;
+
+/**
+ * Flujo de tokens guardado en arreglos primitivos (tipo, inicio y largo por token)
+ * en lugar de un objeto Token por token. Los lexemas son vistas sobre el codigo
+ * fuente y los numeros de linea se calculan con una tabla de inicios de linea
+ * que solo se construye la primera vez que se pide una linea.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    // Ordinal usado para '&' o '|' sueltos, que Lexer devuelve como null
+    private static final int NULL_TOKEN = -1;
+    // Los tokens se guardan en bloques de tamano fijo: crecer no copia lo ya guardado
+    // y no se reserva espacio de mas segun el largo del codigo
+    private static final int BLOCK_BITS = 10;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final String source;
+    private final Interner interner;
+    private int[][] types = new int[4][];
+    private int[][] starts = new int[4][];
+    private int[][] lengths = new int[4][];
+    private int size;
+    private int[] lineStarts;
+
+    private TokenBuffer(String source, Interner interner) {
+        this.source = source;
+        this.interner = interner;
+    }
+
+    public static TokenBuffer tokenize(String source) {
+        return tokenize(source, new Interner());
+    }
+
+    public static TokenBuffer tokenize(String source, Interner interner) {
+        TokenBuffer buffer = new TokenBuffer(source, interner);
+        Lexer lexer = new Lexer(source, interner);
+        while (true) {
+            TokenType type = lexer.scan();
+            int start = lexer.tokenStart();
+            buffer.add(type == null ? NULL_TOKEN : type.ordinal(), start, lexer.tokenEnd() - start);
+            if (type == TokenType.EOF && start >= source.length()) break;
+        }
+        return buffer;
+    }
+
+    private void add(int type, int start, int length) {
+        int block = size >>> BLOCK_BITS;
+        int slot = size & BLOCK_MASK;
+        if (slot == 0) {
+            if (block == types.length) {
+                types = Arrays.copyOf(types, block * 2);
+                starts = Arrays.copyOf(starts, block * 2);
+                lengths = Arrays.copyOf(lengths, block * 2);
+            }
+            types[block] = new int[BLOCK_SIZE];
+            starts[block] = new int[BLOCK_SIZE];
+            lengths[block] = new int[BLOCK_SIZE];
+        }
+        types[block][slot] = type;
+        starts[block][slot] = start;
+        lengths[block][slot] = length;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public TokenType type(int index) {
+        check(index);
+        int ordinal = types[index >>> BLOCK_BITS][index & BLOCK_MASK];
+        return ordinal == NULL_TOKEN ? null : TYPES[ordinal];
+    }
+
+    public int start(int index) {
+        check(index);
+        return starts[index >>> BLOCK_BITS][index & BLOCK_MASK];
+    }
+
+    public int length(int index) {
+        check(index);
+        return lengths[index >>> BLOCK_BITS][index & BLOCK_MASK];
+    }
+
+    // Vista del lexema sin copiar caracteres
+    public CharSequence lexeme(int index) {
+        int start = start(index);
+        return CharBuffer.wrap(source, start, start + length(index));
+    }
+
+    public Object literal(int index) {
+        TokenType type = type(index);
+        return type == null ? null : Lexer.literal(type, lexeme(index));
+    }
+
+    // Igual que Lexer: la linea de un token es la linea donde termina
+    public int line(int index) {
+        return lineAt(start(index) + length(index));
+    }
+
+    public Token token(int index) {
+        TokenType type = type(index);
+        if (type == null) return null;
+        String lexeme = lexeme(index).toString();
+        int symbolId = type == TokenType.IDENTIFIER ? interner.intern(lexeme) : -1;
+        return new Token(type, lexeme, Lexer.literal(type, lexeme), line(index), symbolId, start(index));
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // Numero de linea (base 1) de la posicion 'offset': lineas completas antes de ella + 1
+    private int lineAt(int offset) {
+        int[] table = lineTable();
+        int low = 0;
+        int high = table.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (table[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    private int[] lineTable() {
+        if (lineStarts == null) {
+            int count = 1;
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') count++;
+            }
+            int[] table = new int[count];
+            int line = 1;
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') table[line++] = i + 1;
+            }
+            lineStarts = table;
+        }
+        return lineStarts;
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " fuera de rango (" + size + ")");
+        }
+        return index;
+    }
+
+    /**
+     * Recorre el buffer en orden entregando tokens al Parser. Una vez agotado
+     * sigue devolviendo el EOF final, igual que Lexer.
+     */
+    public final class Cursor implements TokenSource {
+        private int index = 0;
+
+        @Override
+        public Token nextToken() {
+            Token token = token(index);
+            if (index < size - 1) index++;
+            return token;
+        }
+
+        public int position() {
+            return index;
+        }
+
+        @Override
+        public Interner getInterner() {
+            return interner;
+        }
+    }
+}
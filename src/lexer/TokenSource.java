@@ -0,0 +1,11 @@
+package lexer;
+
+import util.Interner;
+
+// Fuente de tokens que consume el Parser (Lexer sobre String, lexer en streaming, etc.)
+public interface TokenSource {
+    Token nextToken();
+
+    // Tabla donde se internan los identificadores de esta fuente
+    Interner getInterner();
+}
@@ -0,0 +1,396 @@
+package optimizer;
+
+import ast.*;
+import interpreter.Interpreter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import semantic.SemanticAnalyzer;
+import semantic.Tipo;
+
+/**
+ * Simplifica un programa ya analizado antes de ejecutarlo:
+ * - calcula las operaciones entre literales (plegado de constantes),
+ * - reemplaza por su valor las variables que solo se asignan en su declaracion
+ *   con un valor constante (propagacion de constantes),
+ * - quita las ramas de if que nunca se ejecutan, los while con condicion falsa
+ *   y las sentencias que quedan despues de un return.
+ *
+ * El programa original no se modifica (puede estar congelado o guardado en una
+ * AnalysisSession): se devuelve uno nuevo que comparte los subarboles sin cambios.
+ * Las operaciones se calculan con el mismo Interpreter que las ejecuta; si una
+ * lanza un error (division por cero, tipos no numericos) se deja como esta para
+ * que el error ocurra al ejecutar, igual que sin optimizar.
+ */
+public class ASTOptimizer {
+    // Para calcular las operaciones entre literales, que no leen variables
+    private final Interpreter folder = new Interpreter();
+
+    // Cuantas veces se escribe cada variable (declaracion o asignacion), de todo el programa
+    private final Map<Slot, Integer> writes = new HashMap<>();
+    // Variables con valor constante ya vistas, con la funcion donde se declararon
+    private final Map<Slot, Constant> constants = new HashMap<>();
+    // Nodos con marco (programa, funcion, bloque) desde el global hasta el actual
+    private final List<ASTNode> scopes = new ArrayList<>();
+    private FunctionNode currentFunction;
+
+    private int folded;
+    private int propagated;
+    private int removed;
+
+    public ProgramNode optimize(ProgramNode program) {
+        // Las direcciones de las variables las asigna el analisis semantico
+        if (program.getFrameSymbols() == null) {
+            new SemanticAnalyzer().analyze(program);
+        }
+        writes.clear();
+        constants.clear();
+        scopes.clear();
+        currentFunction = null;
+        folded = propagated = removed = 0;
+
+        countWrites(program);
+        ProgramNode optimized = (ProgramNode) rewrite(program);
+        optimized.freeze();
+        return optimized;
+    }
+
+    // Operaciones calculadas en la ultima optimizacion
+    public int getFoldedCount() {
+        return folded;
+    }
+
+    // Lecturas de variables reemplazadas por su valor
+    public int getPropagatedCount() {
+        return propagated;
+    }
+
+    // Sentencias y ramas quitadas por no poder ejecutarse
+    public int getRemovedCount() {
+        return removed;
+    }
+
+    private void countWrites(ASTNode node) {
+        if (node == null) return;
+        boolean scope = opensScope(node);
+        if (scope) enterScope(node);
+        if (node instanceof VariableDeclNode) {
+            VariableDeclNode decl = (VariableDeclNode) node;
+            if (decl.getSlot() >= 0) writes.merge(slot(decl.getDepth(), decl.getSlot()), 1, Integer::sum);
+        } else if (node instanceof AssignmentNode) {
+            AssignmentNode assignment = (AssignmentNode) node;
+            if (assignment.getSlot() >= 0) writes.merge(slot(assignment.getDepth(), assignment.getSlot()), 1, Integer::sum);
+        }
+        for (ASTNode child : children(node)) countWrites(child);
+        if (scope) exitScope(node);
+    }
+
+    /**
+     * Devuelve el nodo que reemplaza a 'node': el mismo si no cambia nada, uno nuevo con
+     * los hijos optimizados, o null si es una sentencia que nunca hace nada.
+     */
+    private ASTNode rewrite(ASTNode node) {
+        if (node instanceof BinaryExpression) return rewrite((BinaryExpression) node);
+        if (node instanceof IdentifierNode) return rewrite((IdentifierNode) node);
+        if (node instanceof CallNode) return rewrite((CallNode) node);
+        if (node instanceof AssignmentNode) return rewrite((AssignmentNode) node);
+        if (node instanceof VariableDeclNode) return rewrite((VariableDeclNode) node);
+        if (node instanceof ExpressionStatementNode) return rewrite((ExpressionStatementNode) node);
+        if (node instanceof PrintNode) return rewrite((PrintNode) node);
+        if (node instanceof ReturnNode) return rewrite((ReturnNode) node);
+        if (node instanceof IfNode) return rewrite((IfNode) node);
+        if (node instanceof WhileNode) return rewrite((WhileNode) node);
+        if (node instanceof BlockNode) return rewrite((BlockNode) node);
+        if (node instanceof FunctionNode) return rewrite((FunctionNode) node);
+        if (node instanceof ProgramNode) return rewrite((ProgramNode) node);
+        // Literales y tipos
+        return node;
+    }
+
+    private ASTNode rewrite(BinaryExpression node) {
+        ASTNode left = rewrite(node.getLeft());
+        ASTNode right = rewrite(node.getRight());
+        BinaryExpression result = node;
+        if (left != node.getLeft() || right != node.getRight()) {
+            result = new BinaryExpression(node.getLineNumber(), left, node.getOperator(), right);
+            result.setStaticType(node.getStaticType());
+            result.setNumeric(node.isNumeric());
+        }
+        if (!(left instanceof LiteralNode) || !(right instanceof LiteralNode)) {
+            return result;
+        }
+        Object value;
+        try {
+            value = folder.evaluate(result);
+        } catch (RuntimeException e) {
+            // Se deja para que el error ocurra al ejecutar
+            return result;
+        }
+        folded++;
+        return literal(node.getLineNumber(), value);
+    }
+
+    private ASTNode rewrite(IdentifierNode node) {
+        if (node.getSlot() < 0) return node;
+        Constant constant = constants.get(slot(node.getDepth(), node.getSlot()));
+        // Desde otra funcion la variable se puede leer antes de que se ejecute su declaracion
+        if (constant == null || constant.function != currentFunction) return node;
+        propagated++;
+        return literal(node.getLineNumber(), constant.value);
+    }
+
+    private ASTNode rewrite(CallNode node) {
+        List<ASTNode> arguments = node.getArguments();
+        List<ASTNode> optimized = rewriteAll(arguments);
+        if (optimized == arguments) return node;
+        CallNode result = new CallNode(node.getLineNumber(), node.getFunctionName(), node.getSymbolId());
+        for (ASTNode argument : optimized) result.addArgument(argument);
+        result.setStaticType(node.getStaticType());
+        return result;
+    }
+
+    private ASTNode rewrite(AssignmentNode node) {
+        ASTNode value = rewrite(node.getValue());
+        if (value == node.getValue()) return node;
+        AssignmentNode result = new AssignmentNode(node.getLineNumber(), node.getVariableName(), value, node.getSymbolId());
+        result.setAddress(node.getDepth(), node.getSlot());
+        return result;
+    }
+
+    private ASTNode rewrite(VariableDeclNode node) {
+        ASTNode value = rewrite(node.getInitialValue());
+        VariableDeclNode result = node;
+        if (value != node.getInitialValue()) {
+            result = new VariableDeclNode(node.getLineNumber(), node.getVariableName(), node.getType(), value, node.getSymbolId());
+            result.setAddress(node.getDepth(), node.getSlot());
+        }
+        if (value instanceof LiteralNode && node.getSlot() >= 0) {
+            Slot slot = slot(node.getDepth(), node.getSlot());
+            if (writes.getOrDefault(slot, 0) == 1) {
+                constants.put(slot, new Constant(((LiteralNode) value).getValue(), currentFunction));
+            }
+        }
+        return result;
+    }
+
+    private ASTNode rewrite(ExpressionStatementNode node) {
+        ASTNode expression = rewrite(node.getExpression());
+        return expression == node.getExpression() ? node : new ExpressionStatementNode(node.getLineNumber(), expression);
+    }
+
+    private ASTNode rewrite(PrintNode node) {
+        ASTNode value = rewrite(node.getValue());
+        return value == node.getValue() ? node : new PrintNode(node.getLineNumber(), value);
+    }
+
+    private ASTNode rewrite(ReturnNode node) {
+        ASTNode value = rewrite(node.getValue());
+        return value == node.getValue() ? node : new ReturnNode(node.getLineNumber(), value);
+    }
+
+    private ASTNode rewrite(IfNode node) {
+        ASTNode condition = rewrite(node.getCondition());
+        if (condition instanceof LiteralNode) {
+            // Solo queda la rama que se ejecuta, que sigue siendo un bloque con su propio marco
+            removed++;
+            BlockNode branch = Interpreter.isTruthy(((LiteralNode) condition).getValue()) ? node.getThenBlock() : node.getElseBlock();
+            return branch != null ? rewrite(branch) : null;
+        }
+        BlockNode thenBlock = (BlockNode) rewrite(node.getThenBlock());
+        BlockNode elseBlock = node.getElseBlock() != null ? (BlockNode) rewrite(node.getElseBlock()) : null;
+        if (condition == node.getCondition() && thenBlock == node.getThenBlock() && elseBlock == node.getElseBlock()) {
+            return node;
+        }
+        IfNode result = new IfNode(node.getLineNumber(), condition, thenBlock);
+        if (elseBlock != null) result.setElseBlock(elseBlock);
+        return result;
+    }
+
+    private ASTNode rewrite(WhileNode node) {
+        ASTNode condition = rewrite(node.getCondition());
+        if (condition instanceof LiteralNode && !Interpreter.isTruthy(((LiteralNode) condition).getValue())) {
+            removed++;
+            return null;
+        }
+        BlockNode body = (BlockNode) rewrite(node.getBody());
+        if (condition == node.getCondition() && body == node.getBody()) return node;
+        return new WhileNode(node.getLineNumber(), condition, body);
+    }
+
+    private ASTNode rewrite(BlockNode node) {
+        enterScope(node);
+        List<ASTNode> statements = node.getStatements();
+        List<ASTNode> optimized = rewriteStatements(statements, false, null);
+        exitScope(node);
+        if (optimized == statements) return node;
+        BlockNode result = new BlockNode(node.getLineNumber());
+        for (ASTNode statement : optimized) result.addStatement(statement);
+        result.setFrameSymbols(node.getFrameSymbols());
+        return result;
+    }
+
+    private ASTNode rewrite(FunctionNode node) {
+        enterScope(node);
+        BlockNode body = node.getBody() != null ? (BlockNode) rewrite(node.getBody()) : null;
+        exitScope(node);
+        if (body == node.getBody()) return node;
+        FunctionNode result = new FunctionNode(node.getLineNumber(), node.getFunctionName(), node.getReturnType(), node.getSymbolId());
+        for (ASTNode parameter : node.getParameters()) result.addParameter(parameter);
+        result.setBody(body);
+        result.setFrameSymbols(node.getFrameSymbols());
+        return result;
+    }
+
+    private ASTNode rewrite(ProgramNode node) {
+        enterScope(node);
+        List<ASTNode> declarations = node.getDeclarations();
+        List<Integer> sources = new ArrayList<>();
+        List<ASTNode> optimized = rewriteStatements(declarations, true, sources);
+        exitScope(node);
+        if (optimized == declarations) return node;
+        ProgramNode result = new ProgramNode(node.getInterner());
+        // Cada declaracion conserva la base de lineas de la original
+        for (int i = 0; i < optimized.size(); i++) {
+            result.addDeclaration(optimized.get(i), node.getLineBase(sources.get(i)));
+        }
+        result.setFrameSymbols(node.getFrameSymbols());
+        return result;
+    }
+
+    /**
+     * Optimiza una lista de sentencias y quita las que siguen a una que siempre hace
+     * return. En el programa las funciones se registran antes de ejecutar, asi que
+     * esas se conservan aunque esten despues. Devuelve la misma lista si nada cambio.
+     * Si 'sources' no es null, anota ahi el indice original de cada sentencia que queda.
+     */
+    private List<ASTNode> rewriteStatements(List<ASTNode> statements, boolean topLevel, List<Integer> sources) {
+        List<ASTNode> optimized = new ArrayList<>(statements.size());
+        boolean changed = false;
+        boolean returned = false;
+        for (int i = 0; i < statements.size(); i++) {
+            ASTNode statement = statements.get(i);
+            if (returned && !(topLevel && statement instanceof FunctionNode)) {
+                removed++;
+                changed = true;
+                continue;
+            }
+            ASTNode result = rewrite(statement);
+            changed |= result != statement;
+            if (result == null) continue;
+            optimized.add(result);
+            if (sources != null) sources.add(i);
+            returned |= alwaysReturns(result);
+        }
+        return changed ? optimized : statements;
+    }
+
+    private List<ASTNode> rewriteAll(List<ASTNode> nodes) {
+        List<ASTNode> optimized = new ArrayList<>(nodes.size());
+        boolean changed = false;
+        for (ASTNode node : nodes) {
+            ASTNode result = rewrite(node);
+            changed |= result != node;
+            optimized.add(result);
+        }
+        return changed ? optimized : nodes;
+    }
+
+    // Si ejecutar 'node' termina siempre en un return
+    private static boolean alwaysReturns(ASTNode node) {
+        if (node instanceof ReturnNode) return true;
+        if (node instanceof BlockNode) {
+            List<ASTNode> statements = ((BlockNode) node).getStatements();
+            return !statements.isEmpty() && alwaysReturns(statements.get(statements.size() - 1));
+        }
+        if (node instanceof IfNode) {
+            IfNode branch = (IfNode) node;
+            return branch.getElseBlock() != null && alwaysReturns(branch.getThenBlock()) && alwaysReturns(branch.getElseBlock());
+        }
+        return false;
+    }
+
+    private static LiteralNode literal(int line, Object value) {
+        LiteralNode node = new LiteralNode(line, value);
+        node.setStaticType(Tipo.deLiteral(value).getAnotacion());
+        return node;
+    }
+
+    private static boolean opensScope(ASTNode node) {
+        return node instanceof ProgramNode || node instanceof FunctionNode || node instanceof BlockNode;
+    }
+
+    // Igual que los marcos del interprete: el de una funcion cuelga del global
+    private void enterScope(ASTNode node) {
+        scopes.add(node);
+        if (node instanceof FunctionNode) currentFunction = (FunctionNode) node;
+    }
+
+    private void exitScope(ASTNode node) {
+        scopes.remove(scopes.size() - 1);
+        if (node instanceof FunctionNode) currentFunction = null;
+    }
+
+    // Variable en la direccion (depth, slot) vista desde el scope actual
+    private Slot slot(int depth, int slot) {
+        return new Slot(scopes.get(scopes.size() - 1 - depth), slot);
+    }
+
+    private static List<ASTNode> children(ASTNode node) {
+        List<ASTNode> children = new ArrayList<>();
+        if (node instanceof ProgramNode) children.addAll(((ProgramNode) node).getDeclarations());
+        else if (node instanceof FunctionNode) children.add(((FunctionNode) node).getBody());
+        else if (node instanceof BlockNode) children.addAll(((BlockNode) node).getStatements());
+        else if (node instanceof IfNode) {
+            IfNode branch = (IfNode) node;
+            children.add(branch.getCondition());
+            children.add(branch.getThenBlock());
+            children.add(branch.getElseBlock());
+        } else if (node instanceof WhileNode) {
+            children.add(((WhileNode) node).getCondition());
+            children.add(((WhileNode) node).getBody());
+        } else if (node instanceof BinaryExpression) {
+            children.add(((BinaryExpression) node).getLeft());
+            children.add(((BinaryExpression) node).getRight());
+        } else if (node instanceof CallNode) children.addAll(((CallNode) node).getArguments());
+        else if (node instanceof AssignmentNode) children.add(((AssignmentNode) node).getValue());
+        else if (node instanceof VariableDeclNode) children.add(((VariableDeclNode) node).getInitialValue());
+        else if (node instanceof ExpressionStatementNode) children.add(((ExpressionStatementNode) node).getExpression());
+        else if (node instanceof PrintNode) children.add(((PrintNode) node).getValue());
+        else if (node instanceof ReturnNode) children.add(((ReturnNode) node).getValue());
+        return children;
+    }
+
+    // Slot de una variable dentro del marco de un nodo (programa, funcion o bloque)
+    private static final class Slot {
+        final ASTNode scope;
+        final int slot;
+
+        Slot(ASTNode scope, int slot) {
+            this.scope = scope;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Slot)) return false;
+            Slot key = (Slot) other;
+            return scope == key.scope && slot == key.slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(scope) + slot;
+        }
+    }
+
+    private static final class Constant {
+        final Object value;
+        final FunctionNode function;
+
+        Constant(Object value, FunctionNode function) {
+            this.value = value;
+            this.function = function;
+        }
+    }
+}
@@ -2,11 +2,22 @@ package parser;
 
 import ast.*;
 import semantic.*;
+import util.CodigoError;
+import util.LimiteErroresException;
 import util.ManejadorErrores;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-public class AnalizadorSemanticoAvanzado implements ASTVisitor {
+/**
+ * Pasada de analisis que declara las funciones en el orden en que aparecen (sin
+ * declararlas antes, a diferencia de SemanticAnalyzer) y reporta funciones
+ * repetidas. Corre dentro de un PassManager, sola (analyze) o junto con otras
+ * pasadas en el mismo recorrido.
+ */
+public class AnalizadorSemanticoAvanzado implements AnalysisPass {
     private ScopeManager scopeManager;
     private ManejadorErrores errors;
     private String currentFunction;
@@ -14,6 +25,11 @@ public class AnalizadorSemanticoAvanzado implements ASTVisitor {
     private int analysisDepth;
     private static final int MAX_ANALYSIS_DEPTH = 1000;
     private Map<String, Boolean> fastTypeCache;
+    // Funcion y tipo de retorno de afuera, para restaurarlos al salir de una funcion
+    private final List<String> outerFunctions = new ArrayList<>();
+    private final List<Tipo> outerReturnTypes = new ArrayList<>();
+    // Del PassManager que corre el analisis: da la linea de cada nodo en el texto
+    private PassManager.Registry lines;
 
     public AnalizadorSemanticoAvanzado() {
         this.scopeManager = new ScopeManager();
@@ -38,19 +54,64 @@ public class AnalizadorSemanticoAvanzado implements ASTVisitor {
         return errors;
     }
 
+    public void analyze(ProgramNode program) {
+        PassManager manager = new PassManager();
+        manager.add(this);
+        manager.run(program);
+    }
+
+    @Override
+    public String getName() {
+        return "semantico-avanzado";
+    }
+
+    // Llegar al maximo de errores solo detiene esta pasada; lo demas se propaga como antes
+    @Override
+    public void failed(RuntimeException error) {
+        if (!(error instanceof LimiteErroresException)) throw error;
+    }
+
+    /**
+     * Cada nodo cuenta un nivel de profundidad al entrar y lo descuenta al salir; los
+     * callbacks que cortan el recorrido (devuelven false) lo descuentan ellos mismos,
+     * porque entonces no hay salida.
+     */
     @Override
-    public void visit(ProgramNode node) {
+    public void register(PassManager.Registry registry) {
+        lines = registry;
+        registry.onEnter(ProgramNode.class, this::enterProgram);
+        registry.onExit(ProgramNode.class, this::exitProgram);
+        registry.onEnter(FunctionNode.class, this::enterFunction);
+        registry.onExit(FunctionNode.class, this::exitFunction);
+        registry.onEnter(BlockNode.class, this::enterBlock);
+        registry.onExit(BlockNode.class, this::exitBlock);
+        registry.onEnter(VariableDeclNode.class, this::enterVariableDecl);
+        registry.onEnter(AssignmentNode.class, this::enterAssignment);
+        registry.onEnter(ReturnNode.class, this::enterReturn);
+        registry.onEnter(CallNode.class, this::enterCall);
+        registry.onEnter(IdentifierNode.class, this::enterIdentifier);
+        for (Class<? extends ASTNode> type : Arrays.asList(BinaryExpression.class, ExpressionStatementNode.class,
+                IfNode.class, LiteralNode.class, TypeNode.class, WhileNode.class, PrintNode.class)) {
+            registry.onEnter(type, node -> {
+                enterAnalysis();
+                return true;
+            });
+        }
+        // Despues de los onExit de cada tipo, que se registraron antes
+        registry.onExit(ASTNode.class, node -> exitAnalysis());
+    }
+
+    private boolean enterProgram(ProgramNode node) {
         enterAnalysis();
         scopeManager.enterScope();
-        for (ASTNode child : node.getDeclarations()) {
-            child.accept(this);
-        }
+        return true;
+    }
+
+    private void exitProgram(ProgramNode node) {
         scopeManager.exitScope();
-        exitAnalysis();
     }
 
-    @Override
-    public void visit(FunctionNode node) {
+    private boolean enterFunction(FunctionNode node) {
         enterAnalysis();
         
         String functionName = node.getFunctionName();
@@ -58,15 +119,15 @@ public class AnalizadorSemanticoAvanzado implements ASTVisitor {
         
         if (fastTypeCache.containsKey(cacheKey)) {
             exitAnalysis();
-            return;
+            return false;
         }
         fastTypeCache.put(cacheKey, true);
 
         if (scopeManager.containsSymbol(functionName)) {
-            errors.agregarError(node.getLineNumber(), 
-                "Función '" + functionName + "' ya declarada", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.FUNCION_YA_DECLARADA, functionName);
             exitAnalysis();
-            return;
+            return false;
         }
 
         Symbol functionSymbol = new Symbol(
@@ -77,39 +138,32 @@ public class AnalizadorSemanticoAvanzado implements ASTVisitor {
         );
         scopeManager.declareSymbol(functionName, functionSymbol);
 
-        String previousFunction = currentFunction;
-        Tipo previousReturnType = currentReturnType;
+        outerFunctions.add(currentFunction);
+        outerReturnTypes.add(currentReturnType);
         
         currentFunction = functionName;
         currentReturnType = Tipo.fromString(node.getReturnType());
         
         scopeManager.enterScope();
-        
-        for (ASTNode param : node.getParameters()) {
-            param.accept(this);
-        }
-        
-        if (node.getBody() != null) {
-            node.getBody().accept(this);
-        }
-        
+        return true;
+    }
+
+    private void exitFunction(FunctionNode node) {
         scopeManager.exitScope();
         
-        currentFunction = previousFunction;
-        currentReturnType = previousReturnType;
-        exitAnalysis();
+        currentFunction = outerFunctions.remove(outerFunctions.size() - 1);
+        currentReturnType = outerReturnTypes.remove(outerReturnTypes.size() - 1);
     }
 
-    @Override
-    public void visit(VariableDeclNode node) {
+    private boolean enterVariableDecl(VariableDeclNode node) {
         enterAnalysis();
         String varName = node.getVariableName();
         
         if (scopeManager.containsSymbol(varName)) {
-            errors.agregarError(node.getLineNumber(), 
-                "Variable '" + varName + "' ya declarada", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.VARIABLE_YA_DECLARADA, varName);
             exitAnalysis();
-            return;
+            return false;
         }
 
         Symbol varSymbol = new Symbol(
@@ -119,158 +173,86 @@ public class AnalizadorSemanticoAvanzado implements ASTVisitor {
             false
         );
         scopeManager.declareSymbol(varName, varSymbol);
-
-        if (node.getInitialValue() != null) {
-            node.getInitialValue().accept(this);
-        }
-        exitAnalysis();
+        return true;
     }
 
-    @Override
-    public void visit(AssignmentNode node) {
+    private boolean enterAssignment(AssignmentNode node) {
         enterAnalysis();
         String varName = node.getVariableName();
         Symbol symbol = scopeManager.resolve(varName);
         
         if (symbol == null) {
-            errors.agregarError(node.getLineNumber(), 
-                "Variable '" + varName + "' no declarada", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.VARIABLE_NO_DECLARADA, varName);
             exitAnalysis();
-            return;
+            return false;
         }
 
         if (symbol.isFunction()) {
-            errors.agregarError(node.getLineNumber(), 
-                "'" + varName + "' es una función, no una variable", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.NO_ES_VARIABLE, varName);
             exitAnalysis();
-            return;
+            return false;
         }
-
-        node.getValue().accept(this);
-        exitAnalysis();
+        return true;
     }
 
-    @Override
-    public void visit(ReturnNode node) {
+    private boolean enterReturn(ReturnNode node) {
         enterAnalysis();
         if ("global".equals(currentFunction)) {
-            errors.agregarError(node.getLineNumber(), 
-                "Return fuera de función", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.RETURN_FUERA_DE_FUNCION);
             exitAnalysis();
-            return;
+            return false;
         }
 
-        if (node.getValue() != null) {
-            node.getValue().accept(this);
-        } else if (currentReturnType != Tipo.VOID) {
-            errors.agregarError(node.getLineNumber(), 
-                "Función debe retornar valor de tipo " + currentReturnType, "Semántico");
+        if (node.getValue() == null && currentReturnType != Tipo.VOID) {
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.FALTA_VALOR_RETORNO_TIPO, currentReturnType);
         }
-        exitAnalysis();
+        return true;
     }
 
-    @Override
-    public void visit(BinaryExpression node) {
+    private boolean enterBlock(BlockNode node) {
         enterAnalysis();
-        node.getLeft().accept(this);
-        node.getRight().accept(this);
-        exitAnalysis();
+        scopeManager.enterScope();
+        return true;
     }
 
-    @Override
-    public void visit(BlockNode node) {
-        enterAnalysis();
-        scopeManager.enterScope();
-            for (ASTNode child : node.getStatements()) {
-            child.accept(this);
-        }
+    private void exitBlock(BlockNode node) {
         scopeManager.exitScope();
-        exitAnalysis();
     }
 
-    @Override
-    public void visit(CallNode node) {
+    private boolean enterCall(CallNode node) {
         enterAnalysis();
         String functionName = node.getFunctionName();
         Symbol symbol = scopeManager.resolve(functionName);
         
         if (symbol == null) {
-            errors.agregarError(node.getLineNumber(), 
-                "Función '" + functionName + "' no declarada", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.FUNCION_NO_DECLARADA, functionName);
             exitAnalysis();
-            return;
+            return false;
         }
 
         if (!symbol.isFunction()) {
-            errors.agregarError(node.getLineNumber(), 
-                "'" + functionName + "' no es una función", "Semántico");
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.NO_ES_FUNCION, functionName);
             exitAnalysis();
-            return;
-        }
-
-        for (ASTNode arg : node.getArguments()) {
-            arg.accept(this);
+            return false;
         }
-        exitAnalysis();
-    }
-
-    @Override
-    public void visit(ExpressionStatementNode node) {
-        enterAnalysis();
-        node.getExpression().accept(this);
-        exitAnalysis();
+        return true;
     }
 
-    @Override
-    public void visit(IdentifierNode node) {
+    private boolean enterIdentifier(IdentifierNode node) {
         enterAnalysis();
         String varName = node.getName();
         Symbol symbol = scopeManager.resolve(varName);
         
         if (symbol == null) {
-            errors.agregarError(node.getLineNumber(), 
-                "Variable '" + varName + "' no declarada", "Semántico");
-        }
-        exitAnalysis();
-    }
-
-    @Override
-    public void visit(IfNode node) {
-        enterAnalysis();
-        node.getCondition().accept(this);
-        node.getThenBlock().accept(this);
-        if (node.getElseBlock() != null) {
-            node.getElseBlock().accept(this);
+            errors.agregarError(lines.lineOf(node), "Semántico",
+                CodigoError.VARIABLE_NO_DECLARADA, varName);
         }
-        exitAnalysis();
-    }
-
-    @Override
-    public void visit(LiteralNode node) {
-        enterAnalysis();
-        // No action needed for literals
-        exitAnalysis();
-    }
-
-    @Override
-    public void visit(TypeNode node) {
-        enterAnalysis();
-        // No action needed for type nodes
-        exitAnalysis();
-    }
-
-    @Override
-    public void visit(WhileNode node) {
-        enterAnalysis();
-        node.getCondition().accept(this);
-        node.getBody().accept(this);
-        exitAnalysis();
-    }
-
-    @Override
-    public void visit(PrintNode node) {
-        enterAnalysis();
-        node.getValue().accept(this);
-        exitAnalysis();
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package parser;
+
+import ast.AstSerializer;
+import ast.ProgramNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import lexer.Lexer;
+import util.Interner;
+
+/**
+ * Cache en disco de programas parseados. La clave es el SHA-256 del fuente, asi
+ * que un archivo sin cambios se carga con AstSerializer sin pasar por Lexer ni
+ * Parser. Solo se guardan los programas que se parsearon sin errores, para que
+ * los mensajes de error se sigan viendo en cada ejecucion.
+ */
+public class AstCache {
+    private final Path directory;
+
+    public AstCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public ProgramNode parse(String source) {
+        return parse(source, new Interner());
+    }
+
+    /**
+     * Devuelve el programa guardado para 'source' o lo parsea y lo guarda. Si el
+     * archivo del cache no se puede leer (corrupto, de otra version) se ignora.
+     */
+    public ProgramNode parse(String source, Interner interner) {
+        Path file = directory.resolve(key(source) + ".ast");
+        if (Files.isRegularFile(file)) {
+            try {
+                return AstSerializer.deserialize(Files.readAllBytes(file), interner);
+            } catch (IOException e) {
+                // Se vuelve a parsear y se reemplaza
+            }
+        }
+
+        Parser parser = new Parser(new Lexer(source, interner));
+        ProgramNode program = parser.parse();
+        if (!parser.hasErrors()) {
+            try {
+                store(file, AstSerializer.serialize(program));
+            } catch (IOException e) {
+                System.err.println("No se pudo guardar el AST en cache: " + e.getMessage());
+            }
+        }
+        return program;
+    }
+
+    // Escribe en un archivo temporal y lo mueve, para no dejar archivos a medias
+    private void store(Path file, byte[] data) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "ast", ".tmp");
+        try {
+            Files.write(temp, data);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // SHA-256 del fuente en hexadecimal, junto con la version del formato
+    private static String key(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.append("-v").append(AstSerializer.VERSION).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
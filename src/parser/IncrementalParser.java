@@ -0,0 +1,220 @@
+package parser;
+
+import ast.ASTNode;
+import ast.ProgramNode;
+import java.util.Arrays;
+import java.util.List;
+import lexer.Lexer;
+import util.Interner;
+
+/**
+ * Parseo incremental por declaraciones de primer nivel. Un Snapshot guarda el
+ * programa junto con los limites de cada declaracion en el texto; al aplicar una
+ * edicion se reutilizan las declaraciones anteriores y posteriores a la zona
+ * afectada y solo se vuelve a analizar el tramo intermedio.
+ *
+ * Las lineas de los nodos de cada declaracion son relativas a su primera linea, que
+ * se guarda como base junto a sus limites (y en el ProgramNode, ver getLineBase).
+ * Mover una declaracion reutilizada solo cambia su base: los nodos no se tocan y el
+ * Snapshot anterior sigue valido.
+ */
+public class IncrementalParser {
+
+    // Programa parseado y limites de sus declaraciones
+    public static final class Snapshot {
+        private final String text;
+        private final ProgramNode program;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] baseLines;
+        private final int[] endLines;
+        private final int[] followEnds;
+        private final int reused;
+
+        private Snapshot(String text, ProgramNode program, Spans spans, int reused) {
+            this.text = text;
+            this.program = program;
+            this.starts = Arrays.copyOf(spans.starts, spans.count);
+            this.ends = Arrays.copyOf(spans.ends, spans.count);
+            this.baseLines = Arrays.copyOf(spans.baseLines, spans.count);
+            this.endLines = Arrays.copyOf(spans.endLines, spans.count);
+            this.followEnds = Arrays.copyOf(spans.followEnds, spans.count);
+            this.reused = reused;
+        }
+
+        public String getText() { return text; }
+        public ProgramNode getProgram() { return program; }
+
+        // Offset del primer caracter y fin (exclusivo) de la declaracion i
+        public int getStart(int declaration) { return starts[declaration]; }
+        public int getEnd(int declaration) { return ends[declaration]; }
+
+        // Linea donde empieza la declaracion i; las de sus nodos se cuentan desde ahi
+        public int getLineBase(int declaration) { return baseLines[declaration]; }
+
+        // Declaraciones tomadas del Snapshot anterior sin volver a parsearlas
+        public int getReusedCount() { return reused; }
+    }
+
+    public static Snapshot parse(String text) {
+        return parse(text, new Interner());
+    }
+
+    public static Snapshot parse(String text, Interner interner) {
+        ProgramNode program = new ProgramNode(interner);
+        Spans spans = new Spans(16);
+        Parser parser = new Parser(new Lexer(text, interner));
+        while (!parser.isAtEnd()) {
+            ASTNode declaration = parser.parseNextDeclaration();
+            if (declaration != null) add(program, spans, parser, declaration);
+        }
+        program.freeze();
+        return new Snapshot(text, program, spans, 0);
+    }
+
+    /**
+     * Aplica la edicion "reemplazar removedLength caracteres desde offset por inserted"
+     * y devuelve el nuevo Snapshot. El resultado es el mismo que parsear el texto nuevo
+     * desde cero con parse(), salvo que los errores de las declaraciones reutilizadas no
+     * se reportan otra vez. 'previous' no cambia.
+     */
+    public static Snapshot reparse(Snapshot previous, int offset, int removedLength, String inserted) {
+        String old = previous.text;
+        if (offset < 0 || removedLength < 0 || offset + removedLength > old.length()) {
+            throw new IllegalArgumentException("Edición fuera del texto: " + offset + "+" + removedLength);
+        }
+        String text = old.substring(0, offset) + inserted + old.substring(offset + removedLength);
+        int delta = inserted.length() - removedLength;
+        int lineDelta = countNewlines(inserted, 0, inserted.length()) - countNewlines(old, offset, offset + removedLength);
+        int editEnd = offset + inserted.length();
+        int oldEditEnd = offset + removedLength;
+
+        ProgramNode oldProgram = previous.program;
+        List<ASTNode> oldDeclarations = oldProgram.getDeclarations();
+        int count = previous.ends.length;
+        Interner interner = oldProgram.getInterner();
+        ProgramNode program = new ProgramNode(interner);
+        Spans spans = new Spans(count + 4);
+
+        // Prefijo: declaraciones cuyo texto y token siguiente terminan antes de la edicion
+        int prefix = 0;
+        while (prefix < count && previous.followEnds[prefix] < offset) {
+            program.addDeclaration(oldDeclarations.get(prefix), previous.baseLines[prefix]);
+            spans.add(previous.starts[prefix], previous.ends[prefix], previous.baseLines[prefix],
+                previous.endLines[prefix], previous.followEnds[prefix]);
+            prefix++;
+        }
+        int reused = prefix;
+
+        int restart = prefix == 0 ? 0 : previous.ends[prefix - 1];
+        int line = prefix == 0 ? 1 : previous.endLines[prefix - 1];
+        Parser parser = new Parser(new Lexer(text, interner, restart, text.length(), line));
+        int position = restart;
+        while (true) {
+            // Si el parser quedo entre dos declaraciones en el texto sin cambios y el
+            // parseo anterior tambien paso por ese punto, el resto se puede reutilizar
+            int resume = position >= editEnd ? resumeIndex(previous, position - delta, oldEditEnd) : -1;
+            if (resume >= 0) {
+                for (int i = resume; i < count; i++) {
+                    program.addDeclaration(oldDeclarations.get(i), previous.baseLines[i] + lineDelta);
+                    spans.add(previous.starts[i] + delta, previous.ends[i] + delta, previous.baseLines[i] + lineDelta,
+                        previous.endLines[i] + lineDelta, previous.followEnds[i] + delta);
+                }
+                reused += count - resume;
+                break;
+            }
+            if (parser.isAtEnd()) break;
+
+            ASTNode declaration = parser.parseNextDeclaration();
+            if (declaration != null) {
+                add(program, spans, parser, declaration);
+                position = parser.declarationEnd();
+            }
+        }
+
+        program.freeze();
+        return new Snapshot(text, program, spans, reused);
+    }
+
+    /**
+     * Igual que reparse(previous, offset, removed, inserted) calculando la edicion como
+     * el tramo que cambia entre el texto anterior y el nuevo (prefijo y sufijo comunes).
+     */
+    public static Snapshot reparse(Snapshot previous, String newText) {
+        String old = previous.text;
+        int limit = Math.min(old.length(), newText.length());
+        int prefix = 0;
+        while (prefix < limit && old.charAt(prefix) == newText.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < limit - prefix
+                && old.charAt(old.length() - 1 - suffix) == newText.charAt(newText.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return reparse(previous, prefix, old.length() - prefix - suffix,
+            newText.substring(prefix, newText.length() - suffix));
+    }
+
+    // Una declaracion recien leida: sus lineas pasan a contarse desde su primera linea
+    private static void add(ProgramNode program, Spans spans, Parser parser, ASTNode declaration) {
+        int base = parser.declarationStartLine();
+        declaration.shiftLineNumbers(-base);
+        program.addDeclaration(declaration, base);
+        spans.add(parser.declarationStart(), parser.declarationEnd(), base,
+            parser.declarationEndLine(), parser.followEnd());
+    }
+
+    /**
+     * Indice de la primera declaracion anterior que empieza despues de 'oldPosition',
+     * si el parseo anterior paso por ese punto entre dos declaraciones y el punto esta
+     * despues de la edicion; si no, -1.
+     */
+    private static int resumeIndex(Snapshot previous, int oldPosition, int oldEditEnd) {
+        if (oldPosition < oldEditEnd) return -1;
+        if (oldPosition == 0) return 0;
+        int found = Arrays.binarySearch(previous.ends, oldPosition);
+        return found >= 0 ? found + 1 : -1;
+    }
+
+    private static int countNewlines(String text, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    // Limites de las declaraciones en arreglos paralelos
+    private static final class Spans {
+        int[] starts;
+        int[] ends;
+        int[] baseLines;
+        int[] endLines;
+        int[] followEnds;
+        int count = 0;
+
+        Spans(int capacity) {
+            starts = new int[capacity];
+            ends = new int[capacity];
+            baseLines = new int[capacity];
+            endLines = new int[capacity];
+            followEnds = new int[capacity];
+        }
+
+        void add(int start, int end, int baseLine, int endLine, int followEnd) {
+            if (count == starts.length) {
+                int capacity = Math.max(16, count * 2);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                baseLines = Arrays.copyOf(baseLines, capacity);
+                endLines = Arrays.copyOf(endLines, capacity);
+                followEnds = Arrays.copyOf(followEnds, capacity);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            baseLines[count] = baseLine;
+            endLines[count] = endLine;
+            followEnds[count] = followEnd;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package parser;
+
+import ast.ASTNode;
+import ast.ProgramNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import lexer.ParallelLexer;
+import lexer.Token;
+import lexer.TokenSource;
+import lexer.TokenType;
+import util.Interner;
+
+/**
+ * Parser paralelo para fuentes grandes. Primero se recorren los tokens contando
+ * llaves para encontrar donde termina cada declaracion de primer nivel (un ';' o
+ * una '}' que cierra en profundidad 0 y no va seguida de else); luego se agrupan
+ * declaraciones en tramos, cada tramo se parsea en un ForkJoinPool y el
+ * ProgramNode se arma en el orden del fuente.
+ *
+ * Si algun tramo tiene errores se vuelve a parsear todo en secuencia, asi que los
+ * mensajes de error (y su recuperacion) son exactamente los de Parser.parse().
+ */
+public class ParallelParser {
+    // Por debajo de este numero de tokens no vale la pena repartir el trabajo
+    private static final int MIN_PARALLEL_TOKENS = 8 * 1024;
+    private static final int MIN_SLICE_TOKENS = 2 * 1024;
+
+    public static ProgramNode parse(String source) {
+        return parse(source, ForkJoinPool.commonPool(), new Interner());
+    }
+
+    public static ProgramNode parse(String source, ForkJoinPool pool, Interner interner) {
+        List<Token> tokens = untilEnd(new ParallelLexer(source, pool, interner).getTokens());
+        if (tokens != null && tokens.size() >= MIN_PARALLEL_TOKENS) {
+            int sliceSize = Math.max(MIN_SLICE_TOKENS, tokens.size() / (pool.getParallelism() * 4));
+            List<Integer> bounds = split(tokens, sliceSize);
+            if (bounds != null) {
+                ProgramNode program = parseSlices(tokens, bounds, pool, interner);
+                if (program != null) return program;
+            }
+        }
+        return new Parser(new ParallelLexer(source, pool, interner)).parse();
+    }
+
+    // Tokens hasta el primer EOF (el Parser se detiene ahi), o null si hay un token nulo
+    private static List<Token> untilEnd(List<Token> tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token == null) return null;
+            if (token.getType() == TokenType.EOF) return tokens.subList(0, i + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Indices de inicio de cada tramo mas el indice del EOF final. Los cortes caen
+     * siempre entre dos declaraciones; devuelve null si las llaves no cuadran.
+     */
+    private static List<Integer> split(List<Token> tokens, int sliceSize) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int end = tokens.size() - 1;
+        int depth = 0;
+        int sliceStart = 0;
+        for (int i = 0; i < end; i++) {
+            TokenType type = tokens.get(i).getType();
+            boolean declarationEnd = false;
+            if (type == TokenType.LEFT_BRACE) {
+                depth++;
+            } else if (type == TokenType.RIGHT_BRACE) {
+                if (depth == 0) return null;
+                depth--;
+                declarationEnd = depth == 0 && tokens.get(i + 1).getType() != TokenType.ELSE;
+            } else if (type == TokenType.SEMICOLON) {
+                declarationEnd = depth == 0;
+            }
+            if (declarationEnd && i + 1 - sliceStart >= sliceSize && i + 1 < end) {
+                sliceStart = i + 1;
+                bounds.add(sliceStart);
+            }
+        }
+        if (depth != 0) return null;
+        bounds.add(end);
+        return bounds;
+    }
+
+    // Parsea cada tramo; null si alguno tuvo errores o no termino en un limite de declaracion
+    private static ProgramNode parseSlices(List<Token> tokens, List<Integer> bounds,
+                                           ForkJoinPool pool, Interner interner) {
+        int sliceCount = bounds.size() - 1;
+        Slice[] slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice(tokens, bounds.get(i), bounds.get(i + 1), interner);
+        }
+        pool.invoke(new SliceTask(slices, 0, sliceCount));
+
+        ProgramNode program = new ProgramNode(interner);
+        for (Slice slice : slices) {
+            if (slice.declarations == null) return null;
+            for (ASTNode declaration : slice.declarations) {
+                program.addDeclaration(declaration);
+            }
+        }
+        program.freeze();
+        return program;
+    }
+
+    // Tokens [from, to) de la entrada; declarations queda en null si hubo errores
+    private static final class Slice {
+        final List<Token> tokens;
+        final int from;
+        final int to;
+        final Interner interner;
+        List<ASTNode> declarations;
+
+        Slice(List<Token> tokens, int from, int to, Interner interner) {
+            this.tokens = tokens;
+            this.from = from;
+            this.to = to;
+            this.interner = interner;
+        }
+
+        void parse() {
+            Parser parser = new Parser(new SliceSource(this));
+            parser.setPrintErrors(false);
+            List<ASTNode> result = new ArrayList<>();
+            while (!parser.isAtEnd()) {
+                ASTNode declaration = parser.parseNextDeclaration();
+                if (declaration == null || parser.hasErrors()) return;
+                result.add(declaration);
+            }
+            declarations = result;
+        }
+    }
+
+    /**
+     * Entrega los tokens de un tramo y despues un EOF con la linea del primer token
+     * del tramo siguiente, que es la que veria el Parser secuencial en ese punto.
+     */
+    private static final class SliceSource implements TokenSource {
+        private final Slice slice;
+        private final Token end;
+        private int index;
+
+        SliceSource(Slice slice) {
+            this.slice = slice;
+            Token follow = slice.tokens.get(slice.to);
+            this.end = follow.getType() == TokenType.EOF ? follow
+                : new Token(TokenType.EOF, "", null, follow.getLine(), -1, follow.getOffset());
+            this.index = slice.from;
+        }
+
+        @Override
+        public Token nextToken() {
+            if (index == slice.to) return end;
+            return slice.tokens.get(index++);
+        }
+
+        @Override
+        public Interner getInterner() {
+            return slice.interner;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SliceTask extends RecursiveAction {
+        private final Slice[] slices;
+        private final int from;
+        private final int to;
+
+        SliceTask(Slice[] slices, int from, int to) {
+            this.slices = slices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                slices[from].parse();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SliceTask(slices, from, middle),
+                      new SliceTask(slices, middle, to));
+        }
+    }
+}
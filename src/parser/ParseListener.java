@@ -0,0 +1,23 @@
+package parser;
+
+import lexer.Token;
+
+/**
+ * Eventos del Parser para instrumentarlo sin modificarlo. Se conecta con
+ * Parser.setParseListener; sin listener el Parser no genera ningun evento.
+ *
+ * Cada enterRule tiene su exitRule, tambien cuando la regla termina por un error
+ * (en ese caso exitRule llega antes que errorRecovered).
+ */
+public interface ParseListener {
+
+    // 'token' es el token actual al entrar o salir de la regla
+    default void enterRule(ParseRule rule, Token token) {}
+
+    default void exitRule(ParseRule rule, Token token) {}
+
+    default void tokenConsumed(Token token) {}
+
+    // Una declaracion fallo con 'message' y el parser se sincronizo hasta 'resumeAt'
+    default void errorRecovered(String message, Token resumeAt) {}
+}
@@ -0,0 +1,103 @@
+package parser;
+
+import java.util.Arrays;
+import lexer.Token;
+
+/**
+ * ParseListener que cuenta, por regla, cuantas veces se invoco, cuantos tokens
+ * consumio y cuanto tiempo tomo (total incluyendo subreglas y propio).
+ *
+ *   ParseProfiler profiler = new ParseProfiler();
+ *   parser.setParseListener(profiler);
+ *   parser.parse();
+ *   System.out.println(profiler.report());
+ */
+public class ParseProfiler implements ParseListener {
+    private static final ParseRule[] RULES = ParseRule.values();
+
+    private final long[] invocations = new long[RULES.length];
+    private final long[] tokens = new long[RULES.length];
+    private final long[] totalNanos = new long[RULES.length];
+    private final long[] selfNanos = new long[RULES.length];
+    private long tokensConsumed = 0;
+    private long errorsRecovered = 0;
+
+    // Reglas abiertas: regla, instante de entrada y tiempo pasado en subreglas
+    private int[] stackRules = new int[64];
+    private long[] stackStart = new long[64];
+    private long[] stackChildren = new long[64];
+    private int depth = 0;
+
+    @Override
+    public void enterRule(ParseRule rule, Token token) {
+        if (depth == stackRules.length) {
+            int capacity = depth * 2;
+            stackRules = Arrays.copyOf(stackRules, capacity);
+            stackStart = Arrays.copyOf(stackStart, capacity);
+            stackChildren = Arrays.copyOf(stackChildren, capacity);
+        }
+        invocations[rule.ordinal()]++;
+        stackRules[depth] = rule.ordinal();
+        stackChildren[depth] = 0;
+        stackStart[depth] = System.nanoTime();
+        depth++;
+    }
+
+    @Override
+    public void exitRule(ParseRule rule, Token token) {
+        long now = System.nanoTime();
+        depth--;
+        int r = stackRules[depth];
+        long elapsed = now - stackStart[depth];
+        totalNanos[r] += elapsed;
+        selfNanos[r] += elapsed - stackChildren[depth];
+        if (depth > 0) stackChildren[depth - 1] += elapsed;
+    }
+
+    // El token se atribuye a la regla mas interna que este abierta
+    @Override
+    public void tokenConsumed(Token token) {
+        tokensConsumed++;
+        if (depth > 0) tokens[stackRules[depth - 1]]++;
+    }
+
+    @Override
+    public void errorRecovered(String message, Token resumeAt) {
+        errorsRecovered++;
+    }
+
+    public long getInvocations(ParseRule rule) { return invocations[rule.ordinal()]; }
+    public long getTokens(ParseRule rule) { return tokens[rule.ordinal()]; }
+    public long getTotalNanos(ParseRule rule) { return totalNanos[rule.ordinal()]; }
+    public long getSelfNanos(ParseRule rule) { return selfNanos[rule.ordinal()]; }
+    public long getTokensConsumed() { return tokensConsumed; }
+    public long getErrorsRecovered() { return errorsRecovered; }
+
+    public void reset() {
+        Arrays.fill(invocations, 0);
+        Arrays.fill(tokens, 0);
+        Arrays.fill(totalNanos, 0);
+        Arrays.fill(selfNanos, 0);
+        tokensConsumed = 0;
+        errorsRecovered = 0;
+        depth = 0;
+    }
+
+    // Tabla con una fila por regla invocada, ordenada por tiempo propio
+    public String report() {
+        Integer[] order = new Integer[RULES.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(selfNanos[b], selfNanos[a]));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %12s %12s %14s %14s%n", "Regla", "Llamadas", "Tokens", "Total (ns)", "Propio (ns)"));
+        for (int i : order) {
+            if (invocations[i] == 0) continue;
+            sb.append(String.format("%-22s %12d %12d %14d %14d%n",
+                RULES[i], invocations[i], tokens[i], totalNanos[i], selfNanos[i]));
+        }
+        sb.append("Tokens consumidos: ").append(tokensConsumed)
+          .append(", errores recuperados: ").append(errorsRecovered).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package parser;
+
+// Reglas de la gramatica que el Parser reporta a un ParseListener
+public enum ParseRule {
+    DECLARATION,
+    FUNCTION,
+    VARIABLE_DECL,
+    BLOCK,
+    STATEMENT,
+    IF,
+    WHILE,
+    RETURN,
+    ASSIGNMENT,
+    EXPRESSION_STATEMENT,
+    EXPRESSION,
+    OPERAND
+}
@@ -4,34 +4,140 @@ import lexer.*;
 import ast.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class Parser {
-    private final Lexer lexer;
+    private final TokenSource lexer;
     private Token currentToken;
     private Token peekToken;
+    private Token previousToken;
 
-    public Parser(Lexer lexer) {
+    // Limites de la ultima declaracion leida por parseNextDeclaration (offsets en el texto)
+    private int declarationStart;
+    private int declarationEnd;
+    private int declarationStartLine;
+    private int declarationEndLine;
+    private int followEnd;
+
+    // Mensajes de los errores de parsing, en orden
+    private final List<String> errors = new ArrayList<>();
+    private boolean printErrors = true;
+
+    // Instrumentacion opcional; null si nadie escucha
+    private ParseListener listener;
+    // Expresiones compartidas; null si no se usa hash-consing
+    private HashConsTable sharing;
+
+    public Parser(TokenSource lexer) {
         this.lexer = lexer;
         nextToken();
         nextToken();
     }
 
+    public void setParseListener(ParseListener listener) {
+        this.listener = listener;
+    }
+
+    // Con una tabla, las expresiones sin efectos iguales se comparten entre todos sus usos
+    public void setHashConsing(HashConsTable sharing) {
+        this.sharing = sharing;
+    }
+
     public ProgramNode parse() {
-        ProgramNode program = new ProgramNode();
-        
-        while (currentToken.getType() != TokenType.EOF) {
-            try {
-                ASTNode declaration = parseDeclaration();
-                if (declaration != null) {
-                    program.addDeclaration(declaration);
-                }
-            } catch (Exception e) {
-                System.err.println("Error de parsing: " + e.getMessage());
-                synchronize();
+        ProgramNode program = new ProgramNode(lexer.getInterner());
+        parseDeclarations(program::addDeclaration);
+        program.freeze();
+        return program;
+    }
+
+    /**
+     * Igual que parse() pero codifica cada declaracion en una AstArena en cuanto se
+     * termina de leer, asi que los objetos ASTNode de una declaracion se liberan enseguida.
+     */
+    public AstArena parseArena() {
+        AstArena arena = new AstArena(lexer.getInterner());
+        parseDeclarations(arena::appendDeclaration);
+        arena.appendProgram(0);
+        return arena;
+    }
+
+    private void parseDeclarations(Consumer<ASTNode> sink) {
+        while (!isAtEnd()) {
+            ASTNode declaration = parseNextDeclaration();
+            if (declaration != null) {
+                sink.accept(declaration);
             }
         }
-        
-        return program;
+    }
+
+    boolean isAtEnd() {
+        return currentToken.getType() == TokenType.EOF;
+    }
+
+    /**
+     * Lee una declaracion de primer nivel con la misma recuperacion de errores que parse().
+     * Si se leyo bien deja sus limites en declarationStart()/declarationEnd(); si hubo un
+     * error lo reporta, sincroniza y devuelve null.
+     */
+    ASTNode parseNextDeclaration() {
+        int start = currentToken.getOffset();
+        int startLine = currentToken.getLine();
+        enter(ParseRule.DECLARATION);
+        try {
+            ASTNode declaration = parseDeclaration();
+            if (declaration != null) {
+                declarationStart = start;
+                declarationStartLine = startLine;
+                declarationEnd = previousToken.getEndOffset();
+                declarationEndLine = previousToken.getLine();
+                followEnd = currentToken.getEndOffset();
+            }
+            exit(ParseRule.DECLARATION);
+            return declaration;
+        } catch (Exception e) {
+            String message = "Error de parsing: " + e.getMessage();
+            errors.add(message);
+            if (printErrors) System.err.println(message);
+            synchronize();
+            exit(ParseRule.DECLARATION);
+            if (listener != null) listener.errorRecovered(message, currentToken);
+            return null;
+        }
+    }
+
+    public List<String> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    // Solo guarda los errores en getErrors() sin imprimirlos
+    void setPrintErrors(boolean printErrors) {
+        this.printErrors = printErrors;
+    }
+
+    int declarationStart() {
+        return declarationStart;
+    }
+
+    int declarationEnd() {
+        return declarationEnd;
+    }
+
+    // Lineas donde empieza y termina la declaracion
+    int declarationStartLine() {
+        return declarationStartLine;
+    }
+
+    int declarationEndLine() {
+        return declarationEndLine;
+    }
+
+    // Fin del token siguiente a la declaracion: algunos nodos toman su linea de ese token
+    int followEnd() {
+        return followEnd;
     }
 
     
@@ -52,195 +158,308 @@ public class Parser {
     }
 
     private FunctionNode parseFunctionDeclaration() {
-        expect(TokenType.FUNCTION);
-        String functionName = expect(TokenType.IDENTIFIER).getLexeme();
-        expect(TokenType.LEFT_PAREN);
-        
-        FunctionNode function = new FunctionNode(currentToken.getLine(), functionName, "void");
-        expect(TokenType.RIGHT_PAREN);
-        expect(TokenType.LEFT_BRACE);
-        
-        BlockNode body = parseBlock();
-        function.setBody(body);
-        
-        return function;
+        enter(ParseRule.FUNCTION);
+        try {
+            expect(TokenType.FUNCTION);
+            Token name = expect(TokenType.IDENTIFIER);
+            expect(TokenType.LEFT_PAREN);
+
+            int line = currentToken.getLine();
+            expect(TokenType.RIGHT_PAREN);
+            // Tipo de retorno opcional: function f(): int { ... }; sin el, void
+            String returnType = "void";
+            if (match(TokenType.COLON)) {
+                Token typeToken = currentToken;
+                if (!isTypeToken(typeToken.getType())) {
+                    throw new RuntimeException("Se esperaba tipo de dato, se encontró: " + typeToken.getType());
+                }
+                nextToken();
+                returnType = typeToken.getLexeme();
+            }
+            FunctionNode function = new FunctionNode(line, name.getLexeme(), returnType, name.getSymbolId());
+            expect(TokenType.LEFT_BRACE);
+
+            BlockNode body = parseBlock();
+            function.setBody(body);
+
+            return function;
+        } finally {
+            exit(ParseRule.FUNCTION);
+        }
     }
 
     private VariableDeclNode parseVariableDeclaration() {
-        expect(TokenType.VAR);
-        
-        // Obtener nombre de la variable
-        String varName = expect(TokenType.IDENTIFIER).getLexeme();
-        
-        // Esperar dos puntos
-        expect(TokenType.COLON);
-        
-        // Obtener tipo (ahora es palabra reservada)
-        Token typeToken = currentToken;
-        if (isTypeToken(typeToken.getType())) {
-            nextToken();
-            String typeName = typeToken.getLexeme();
-            
-            ASTNode initialValue = null;
-            if (match(TokenType.ASSIGN)) {
-                initialValue = parseExpression();
+        enter(ParseRule.VARIABLE_DECL);
+        try {
+            expect(TokenType.VAR);
+
+            // Obtener nombre de la variable
+            Token varName = expect(TokenType.IDENTIFIER);
+
+            // Esperar dos puntos
+            expect(TokenType.COLON);
+
+            // Obtener tipo (ahora es palabra reservada)
+            Token typeToken = currentToken;
+            if (isTypeToken(typeToken.getType())) {
+                nextToken();
+                String typeName = typeToken.getLexeme();
+
+                ASTNode initialValue = null;
+                if (match(TokenType.ASSIGN)) {
+                    initialValue = parseExpression();
+                }
+
+                expect(TokenType.SEMICOLON);
+                return new VariableDeclNode(typeToken.getLine(), varName.getLexeme(), typeName, initialValue,
+                    varName.getSymbolId());
+            } else {
+                throw new RuntimeException("Se esperaba tipo de dato, se encontró: " + typeToken.getType());
             }
-            
-            expect(TokenType.SEMICOLON);
-            return new VariableDeclNode(typeToken.getLine(), varName, typeName, initialValue);
-        } else {
-            throw new RuntimeException("Se esperaba tipo de dato, se encontró: " + typeToken.getType());
+        } finally {
+            exit(ParseRule.VARIABLE_DECL);
         }
     }
 
     private BlockNode parseBlock() {
-        BlockNode block = new BlockNode(currentToken.getLine());
-        
-        while (!check(TokenType.RIGHT_BRACE) && !check(TokenType.EOF)) {
-            ASTNode stmt = parseStatement();
-            if (stmt != null) {
-                block.addStatement(stmt);
+        enter(ParseRule.BLOCK);
+        try {
+            BlockNode block = new BlockNode(currentToken.getLine());
+
+            while (!check(TokenType.RIGHT_BRACE) && !check(TokenType.EOF)) {
+                ASTNode stmt = parseStatement();
+                if (stmt != null) {
+                    block.addStatement(stmt);
+                }
             }
+
+            expect(TokenType.RIGHT_BRACE);
+            return block;
+        } finally {
+            exit(ParseRule.BLOCK);
         }
-        
-        expect(TokenType.RIGHT_BRACE);
-        return block;
     }
 
     private ASTNode parseStatement() {
-        if (check(TokenType.IF)) return parseIfStatement();
-        if (check(TokenType.WHILE)) return parseWhileStatement();
-        if (check(TokenType.RETURN)) return parseReturnStatement();
-        if (check(TokenType.LEFT_BRACE)) return parseBlock();
-        if (check(TokenType.IDENTIFIER) && peekToken.getType() == TokenType.ASSIGN) {
-            return parseAssignment();
+        enter(ParseRule.STATEMENT);
+        try {
+            if (check(TokenType.IF)) return parseIfStatement();
+            if (check(TokenType.WHILE)) return parseWhileStatement();
+            if (check(TokenType.RETURN)) return parseReturnStatement();
+            if (check(TokenType.VAR)) return parseVariableDeclaration();
+            if (match(TokenType.LEFT_BRACE)) return parseBlock();
+            if (check(TokenType.IDENTIFIER) && peekToken.getType() == TokenType.ASSIGN) {
+                return parseAssignment();
+            }
+            return parseExpressionStatement();
+        } finally {
+            exit(ParseRule.STATEMENT);
         }
-        return parseExpressionStatement();
     }
 
     private ASTNode parseIfStatement() {
-        expect(TokenType.IF);
-        expect(TokenType.LEFT_PAREN);
-        ASTNode condition = parseExpression();
-        expect(TokenType.RIGHT_PAREN);
-        
-        BlockNode thenBlock = parseBlock();
-        IfNode ifNode = new IfNode(currentToken.getLine(), condition, thenBlock);
-        
-        if (match(TokenType.ELSE)) {
-            ifNode.setElseBlock(parseBlock());
+        enter(ParseRule.IF);
+        try {
+            expect(TokenType.IF);
+            expect(TokenType.LEFT_PAREN);
+            ASTNode condition = parseExpression();
+            expect(TokenType.RIGHT_PAREN);
+
+            expect(TokenType.LEFT_BRACE);
+            BlockNode thenBlock = parseBlock();
+            IfNode ifNode = new IfNode(currentToken.getLine(), condition, thenBlock);
+
+            if (match(TokenType.ELSE)) {
+                expect(TokenType.LEFT_BRACE);
+                ifNode.setElseBlock(parseBlock());
+            }
+
+            return ifNode;
+        } finally {
+            exit(ParseRule.IF);
         }
-        
-        return ifNode;
     }
 
     private ASTNode parseWhileStatement() {
-        expect(TokenType.WHILE);
-        expect(TokenType.LEFT_PAREN);
-        ASTNode condition = parseExpression();
-        expect(TokenType.RIGHT_PAREN);
-        
-        BlockNode body = parseBlock();
-        return new WhileNode(currentToken.getLine(), condition, body);
+        enter(ParseRule.WHILE);
+        try {
+            expect(TokenType.WHILE);
+            expect(TokenType.LEFT_PAREN);
+            ASTNode condition = parseExpression();
+            expect(TokenType.RIGHT_PAREN);
+
+            expect(TokenType.LEFT_BRACE);
+            BlockNode body = parseBlock();
+            return new WhileNode(currentToken.getLine(), condition, body);
+        } finally {
+            exit(ParseRule.WHILE);
+        }
     }
 
     private ASTNode parseReturnStatement() {
-        expect(TokenType.RETURN);
-        ASTNode value = null;
-        if (!check(TokenType.SEMICOLON)) {
-            value = parseExpression();
+        enter(ParseRule.RETURN);
+        try {
+            expect(TokenType.RETURN);
+            ASTNode value = null;
+            if (!check(TokenType.SEMICOLON)) {
+                value = parseExpression();
+            }
+            expect(TokenType.SEMICOLON);
+            return new ReturnNode(currentToken.getLine(), value);
+        } finally {
+            exit(ParseRule.RETURN);
         }
-        expect(TokenType.SEMICOLON);
-        return new ReturnNode(currentToken.getLine(), value);
     }
 
     private ASTNode parseAssignment() {
-        String varName = expect(TokenType.IDENTIFIER).getLexeme();
-        expect(TokenType.ASSIGN);
-        ASTNode value = parseExpression();
-        expect(TokenType.SEMICOLON);
-        return new AssignmentNode(currentToken.getLine(), varName, value);
+        enter(ParseRule.ASSIGNMENT);
+        try {
+            Token varName = expect(TokenType.IDENTIFIER);
+            expect(TokenType.ASSIGN);
+            ASTNode value = parseExpression();
+            expect(TokenType.SEMICOLON);
+            return new AssignmentNode(currentToken.getLine(), varName.getLexeme(), value, varName.getSymbolId());
+        } finally {
+            exit(ParseRule.ASSIGNMENT);
+        }
     }
 
     private ASTNode parseExpressionStatement() {
-        ASTNode expr = parseExpression();
-        expect(TokenType.SEMICOLON);
-        return new ExpressionStatementNode(currentToken.getLine(), expr);
+        enter(ParseRule.EXPRESSION_STATEMENT);
+        try {
+            ASTNode expr = parseExpression();
+            expect(TokenType.SEMICOLON);
+            return new ExpressionStatementNode(currentToken.getLine(), expr);
+        } finally {
+            exit(ParseRule.EXPRESSION_STATEMENT);
+        }
     }
 
+    /**
+     * Analiza una expresion sin recursion: los operandos, los operadores y los grupos
+     * abiertos (parentesis y argumentos de llamadas) van en pilas explicitas, asi que
+     * el anidamiento no esta limitado por la pila de Java. Construye los mismos arboles
+     * que el analisis por precedencia recursivo (operadores asociativos a la izquierda).
+     */
     private ASTNode parseExpression() {
+        enter(ParseRule.EXPRESSION);
         try {
-            return parseBinaryExpression(0);
-        } catch (Exception e) {
-            // Recuperación de errores: sincronizar hasta el siguiente statement
-            synchronize();
-            throw new RuntimeException("Expresión inválida: " + e.getMessage());
-        }
-}
-    private ASTNode parseBinaryExpression(int precedence) {
-        ASTNode left = parsePrimary();
-        
-        while (true) {
-            Token op = currentToken;
-            int opPrecedence = getPrecedence(op.getType());
-            if (opPrecedence <= precedence) break;
-            
-            nextToken();
-            ASTNode right = parseBinaryExpression(opPrecedence);
-            left = new BinaryExpression(op.getLine(), left, op.getLexeme(), right);
+            List<ASTNode> operands = new ArrayList<>();
+            // Operadores pendientes; un null marca el inicio de un grupo
+            List<Token> operators = new ArrayList<>();
+            // Grupos abiertos: la llamada cuyos argumentos se estan leyendo, o null para '('
+            List<CallNode> groups = new ArrayList<>();
+
+            try {
+                while (true) {
+                    // Se espera un operando
+                    ASTNode operand = parseOperand(groups, operators);
+                    if (operand == null) continue;
+                    operands.add(operand);
+
+                    // Despues de un operando: operador binario o fin del grupo actual
+                    while (true) {
+                        Token op = currentToken;
+                        int opPrecedence = getPrecedence(op.getType());
+                        if (opPrecedence > 0) {
+                            reduce(operands, operators, opPrecedence);
+                            operators.add(op);
+                            nextToken();
+                            break;
+                        }
+
+                        reduce(operands, operators, 1);
+                        if (groups.isEmpty()) {
+                            return operands.remove(operands.size() - 1);
+                        }
+                        operators.remove(operators.size() - 1);
+                        CallNode call = groups.get(groups.size() - 1);
+                        if (call != null) {
+                            call.addArgument(operands.remove(operands.size() - 1));
+                            if (match(TokenType.COMMA)) {
+                                operators.add(null);
+                                break;
+                            }
+                            groups.remove(groups.size() - 1);
+                            expect(TokenType.RIGHT_PAREN);
+                            operands.add(call);
+                        } else {
+                            groups.remove(groups.size() - 1);
+                            expect(TokenType.RIGHT_PAREN);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Recuperación de errores: sincronizar hasta el siguiente statement, una vez
+                // por cada expresion abierta (la externa y las de cada grupo)
+                RuntimeException error = e;
+                for (int i = 0; i <= groups.size(); i++) {
+                    try {
+                        synchronize();
+                        error = new RuntimeException("Expresión inválida: " + error.getMessage());
+                    } catch (RuntimeException inner) {
+                        error = inner;
+                    }
+                }
+                throw error;
+            }
+        } finally {
+            exit(ParseRule.EXPRESSION);
         }
-        
-        return left;
     }
 
-    private ASTNode parsePrimary() {
-        System.out.println("Token actual: " + currentToken.getType() + " - " + currentToken.getLexeme());
-        if (check(TokenType.NUMBER)) {
-            Object value = currentToken.getLiteral();
-            int line = currentToken.getLine();
-            nextToken();
-            return new LiteralNode(line, value);
-            
-        }
-        System.out.println("Token actual: " + currentToken.getType() + " - " + currentToken.getLexeme());
-        if (check(TokenType.STRING_LITERAL)) {
-            Object value = currentToken.getLiteral();
-            int line = currentToken.getLine();
-            nextToken();
-            return new LiteralNode(line, value);
-        }
-        System.out.println("Token actual: " + currentToken.getType() + " - " + currentToken.getLexeme());
-        if (check(TokenType.IDENTIFIER)) {
-            String name = currentToken.getLexeme();
-            int line = currentToken.getLine();
-            nextToken();
-            System.out.println("Token actual: " + currentToken.getType() + " - " + currentToken.getLexeme());
-            if (check(TokenType.LEFT_PAREN)) {
-                return parseFunctionCall(name);
+    /**
+     * Lee un operando primario. Si en su lugar se abre un grupo ('(' o los argumentos
+     * de una llamada) lo registra y devuelve null para seguir leyendo dentro de el.
+     */
+    private ASTNode parseOperand(List<CallNode> groups, List<Token> operators) {
+        enter(ParseRule.OPERAND);
+        try {
+            if (check(TokenType.NUMBER) || check(TokenType.STRING_LITERAL)) {
+                Object value = currentToken.getLiteral();
+                int line = currentToken.getLine();
+                nextToken();
+                return sharing == null ? new LiteralNode(line, value) : sharing.literal(line, value);
             }
-            return new IdentifierNode(line, name);
-        }
-        System.out.println("Token actual: " + currentToken.getType() + " - " + currentToken.getLexeme());
-        if (match(TokenType.LEFT_PAREN)) {
-            ASTNode expr = parseExpression();
-            expect(TokenType.RIGHT_PAREN);
-            return expr;
+            if (check(TokenType.IDENTIFIER)) {
+                Token name = nextToken();
+                if (!check(TokenType.LEFT_PAREN)) {
+                    return sharing == null
+                        ? new IdentifierNode(name.getLine(), name.getLexeme(), name.getSymbolId())
+                        : sharing.identifier(name.getLine(), name.getLexeme(), name.getSymbolId());
+                }
+                CallNode call = new CallNode(currentToken.getLine(), name.getLexeme(), name.getSymbolId());
+                expect(TokenType.LEFT_PAREN);
+                if (match(TokenType.RIGHT_PAREN)) {
+                    return call;
+                }
+                groups.add(call);
+                operators.add(null);
+                return null;
+            }
+            if (match(TokenType.LEFT_PAREN)) {
+                groups.add(null);
+                operators.add(null);
+                return null;
+            }
+            throw new RuntimeException("Expresión inválida");
+        } finally {
+            exit(ParseRule.OPERAND);
         }
-        throw new RuntimeException("Expresión inválida");
     }
 
-    private ASTNode parseFunctionCall(String functionName) {
-        CallNode call = new CallNode(currentToken.getLine(), functionName);
-        expect(TokenType.LEFT_PAREN);
-        
-        if (!check(TokenType.RIGHT_PAREN)) {
-            do {
-                call.addArgument(parseExpression());
-            } while (match(TokenType.COMMA));
+    // Aplica los operadores del grupo actual con precedencia >= minPrecedence
+    private void reduce(List<ASTNode> operands, List<Token> operators, int minPrecedence) {
+        while (!operators.isEmpty()) {
+            Token op = operators.get(operators.size() - 1);
+            if (op == null || getPrecedence(op.getType()) < minPrecedence) return;
+            operators.remove(operators.size() - 1);
+            ASTNode right = operands.remove(operands.size() - 1);
+            ASTNode left = operands.remove(operands.size() - 1);
+            operands.add(sharing == null
+                ? new BinaryExpression(op.getLine(), left, op.getLexeme(), right)
+                : sharing.binary(op.getLine(), left, op.getLexeme(), right));
         }
-        
-        expect(TokenType.RIGHT_PAREN);
-        return call;
     }
 
     private int getPrecedence(TokenType type) {
@@ -276,11 +495,21 @@ public class Parser {
 
     private Token nextToken() {
         Token prev = currentToken;
+        previousToken = prev;
         currentToken = peekToken;
         peekToken = lexer.nextToken();
+        if (listener != null) listener.tokenConsumed(prev);
         return prev;
     }
 
+    private void enter(ParseRule rule) {
+        if (listener != null) listener.enterRule(rule, currentToken);
+    }
+
+    private void exit(ParseRule rule) {
+        if (listener != null) listener.exitRule(rule, currentToken);
+    }
+
     private void synchronize() {
         while (currentToken.getType() != TokenType.EOF) {
             if (currentToken.getType() == TokenType.SEMICOLON) {
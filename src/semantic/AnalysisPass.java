@@ -0,0 +1,30 @@
+package semantic;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Una pasada de analisis que corre dentro de un PassManager. En lugar de recorrer
+ * el arbol por su cuenta registra callbacks por tipo de nodo, y el PassManager
+ * recorre el arbol una sola vez para todas las pasadas.
+ */
+public interface AnalysisPass {
+
+    // Nombre con el que se reportan los tiempos y se indican las dependencias
+    String getName();
+
+    void register(PassManager.Registry registry);
+
+    /**
+     * Pasadas que deben terminar su recorrido antes de que empiece esta (por ejemplo
+     * porque lee anotaciones que dejan en nodos que aparecen mas adelante).
+     */
+    default List<String> getRequires() {
+        return Collections.emptyList();
+    }
+
+    // Un callback lanzo 'error'; la pasada ya no recibio mas eventos en ese recorrido
+    default void failed(RuntimeException error) {
+        throw error;
+    }
+}
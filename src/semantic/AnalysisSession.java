@@ -0,0 +1,328 @@
+package semantic;
+
+import ast.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import util.CodigoError;
+import util.Interner;
+import util.LimiteErroresException;
+import util.ManejadorErrores;
+
+/**
+ * Analisis semantico que se conserva entre ejecuciones (un clic de "Analizar" tras
+ * otro). De cada funcion guarda sus errores y los nombres globales que consulto
+ * (llamadas, variables, asignaciones) junto con lo que encontro: esas son las
+ * aristas del grafo de dependencias entre declaraciones de primer nivel.
+ *
+ * En la siguiente ejecucion una funcion se reutiliza si es el mismo nodo (el
+ * IncrementalParser conserva los nodos de las declaraciones sin cambios) y cada
+ * nombre que consulto sigue resolviendo igual; si no, se vuelve a analizar. Asi se
+ * reanaliza lo que cambio y lo que depende de una declaracion que cambio, agregada
+ * o quitada. Las declaraciones que no son funciones se analizan siempre.
+ *
+ * Los errores salen en el mismo orden y con las mismas lineas que con
+ * SemanticAnalyzer.analyze. Con setMaxErrores el analisis se corta igual que alli.
+ */
+public class AnalysisSession {
+    private static final long MISSING = -1;
+
+    private Interner interner;
+    private Map<FunctionNode, Entry> cache = new IdentityHashMap<>();
+    // Declaraciones de primer nivel que tienen anotaciones de una ejecucion anterior
+    private Set<ASTNode> annotated = Collections.newSetFromMap(new IdentityHashMap<>());
+    private ManejadorErrores manejadorErrores = new ManejadorErrores();
+    private int maxErrores = Integer.MAX_VALUE;
+    private int reanalyzed;
+    private int reused;
+
+    public ManejadorErrores analyze(ProgramNode program) {
+        if (program.getInterner() != interner) {
+            // Los ids guardados son de otro Interner
+            cache.clear();
+            annotated.clear();
+            interner = program.getInterner();
+        }
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        manejadorErrores = analyzer.getManejadorErrores();
+        manejadorErrores.setMaxErrores(maxErrores);
+        Recorder recorder = new Recorder();
+        Map<FunctionNode, Entry> next = new IdentityHashMap<>();
+        Set<ASTNode> nextAnnotated = Collections.newSetFromMap(new IdentityHashMap<>());
+        reanalyzed = 0;
+        reused = 0;
+
+        try {
+            analyzer.beginSession(program, recorder);
+            List<ASTNode> declarations = program.getDeclarations();
+            for (int i = 0; i < declarations.size(); i++) {
+                ASTNode declaration = declarations.get(i);
+                int lineBase = program.getLineBase(i);
+                if (!(declaration instanceof FunctionNode)) {
+                    // Si esta vez se saltea un subarbol (una variable repetida, por ejemplo) no
+                    // deben quedar las direcciones de la ejecucion anterior
+                    if (annotated.contains(declaration)) declaration.accept(new AddressReset());
+                    nextAnnotated.add(declaration);
+                    if (!analyzer.analyzeNode(declaration, lineBase)) break;
+                    continue;
+                }
+                FunctionNode function = (FunctionNode) declaration;
+                if (analyzer.isAnalyzed(function)) {
+                    // Una funcion repetida no se analiza: se quitan las direcciones de un analisis anterior
+                    if (annotated.contains(function)) function.accept(new AddressReset());
+                    continue;
+                }
+
+                Entry entry = cache.get(function);
+                if (entry != null && entry.matches(analyzer)) {
+                    analyzer.markAnalyzed(function);
+                    reused++;
+                    next.put(function, entry);
+                    entry.replay(manejadorErrores, lineBase);
+                    continue;
+                } else {
+                    if (annotated.contains(function)) function.accept(new AddressReset());
+                    nextAnnotated.add(function);
+                    recorder.clear();
+                    if (!analyzer.analyzeNode(function, lineBase)) break;
+                    entry = recorder.toEntry(analyzer);
+                    reanalyzed++;
+                }
+                next.put(function, entry);
+            }
+        } catch (LimiteErroresException e) {
+            // Se llego al maximo de errores al repetir los de una funcion guardada
+        } catch (Exception e) {
+            manejadorErrores.agregarError(0, "Semántico", CodigoError.ERROR_INTERNO, e.getMessage());
+        }
+        analyzer.endSession(program);
+        // Las que no se alcanzaron a analizar conservan las anotaciones viejas
+        for (ASTNode declaration : program.getDeclarations()) {
+            if (annotated.contains(declaration)) nextAnnotated.add(declaration);
+        }
+        cache = next;
+        annotated = nextAnnotated;
+        return manejadorErrores;
+    }
+
+    public ManejadorErrores getManejadorErrores() {
+        return manejadorErrores;
+    }
+
+    // Maximo de errores para las siguientes ejecuciones
+    public void setMaxErrores(int maxErrores) {
+        if (maxErrores < 1) throw new IllegalArgumentException("El máximo de errores debe ser positivo");
+        this.maxErrores = maxErrores;
+    }
+
+    // Funciones analizadas y reutilizadas en la ultima ejecucion
+    public int getReanalyzedCount() {
+        return reanalyzed;
+    }
+
+    public int getReusedCount() {
+        return reused;
+    }
+
+    // Lo que importa de un simbolo global para quien lo consulta
+    private static long signature(Symbol symbol) {
+        if (symbol == null) return MISSING;
+        long tipo = symbol.getTipo() != null ? symbol.getTipo().ordinal() + 1 : 0;
+        return ((long) (symbol.getSlot() + 1) << 16) | (tipo << 1) | (symbol.isFunction() ? 1 : 0);
+    }
+
+    // Resultado guardado de una funcion
+    private static final class Entry {
+        final int[] names;
+        final long[] signatures;
+        final ASTNode[] errorNodes;
+        final CodigoError[] errorCodes;
+        final Object[][] errorArguments;
+
+        Entry(int[] names, long[] signatures, ASTNode[] errorNodes, CodigoError[] errorCodes, Object[][] errorArguments) {
+            this.names = names;
+            this.signatures = signatures;
+            this.errorNodes = errorNodes;
+            this.errorCodes = errorCodes;
+            this.errorArguments = errorArguments;
+        }
+
+        // Se llama entre declaraciones, cuando el scope actual es el global
+        boolean matches(SemanticAnalyzer analyzer) {
+            for (int i = 0; i < names.length; i++) {
+                if (signature(analyzer.resolveGlobal(names[i])) != signatures[i]) return false;
+            }
+            return true;
+        }
+
+        // Si el IncrementalParser movio la funcion, cambio la base y no las lineas de sus nodos
+        void replay(ManejadorErrores errores, int lineBase) {
+            for (int i = 0; i < errorNodes.length; i++) {
+                errores.agregarError(lineBase + errorNodes[i].getLineNumber(), "Semántico", errorCodes[i],
+                    errorArguments[i]);
+            }
+        }
+    }
+
+    /**
+     * Lo que registra SemanticAnalyzer mientras analiza una funcion: cada nombre que
+     * resuelve (con el simbolo encontrado) y cada error con el nodo que lo causo.
+     */
+    static final class Recorder {
+        private int[] ids = new int[16];
+        private Symbol[] symbols = new Symbol[16];
+        private int size = 0;
+        private final List<ASTNode> errorNodes = new ArrayList<>();
+        private final List<CodigoError> errorCodes = new ArrayList<>();
+        private final List<Object[]> errorArguments = new ArrayList<>();
+
+        void reference(int id, Symbol symbol) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                symbols = Arrays.copyOf(symbols, size * 2);
+            }
+            ids[size] = id;
+            symbols[size++] = symbol;
+        }
+
+        void error(ASTNode node, CodigoError code, Object[] arguments) {
+            errorNodes.add(node);
+            errorCodes.add(code);
+            errorArguments.add(arguments);
+        }
+
+        void clear() {
+            Arrays.fill(symbols, 0, size, null);
+            size = 0;
+            errorNodes.clear();
+            errorCodes.clear();
+            errorArguments.clear();
+        }
+
+        /**
+         * Se queda con las consultas que llegaron al scope global (o no encontraron
+         * nada); las que resolvio una variable local no dependen de otras declaraciones.
+         */
+        Entry toEntry(SemanticAnalyzer analyzer) {
+            Map<Integer, Long> globals = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                Symbol global = analyzer.resolveGlobal(ids[i]);
+                if (symbols[i] == null || symbols[i] == global) {
+                    globals.putIfAbsent(ids[i], signature(symbols[i]));
+                }
+            }
+            int[] names = new int[globals.size()];
+            long[] signatures = new long[globals.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Long> global : globals.entrySet()) {
+                names[i] = global.getKey();
+                signatures[i++] = global.getValue();
+            }
+            return new Entry(names, signatures,
+                errorNodes.toArray(new ASTNode[0]), errorCodes.toArray(new CodigoError[0]),
+                errorArguments.toArray(new Object[0][]));
+        }
+    }
+
+    // Deja los nodos como si nunca se hubieran analizado; los compartidos no se tocan
+    private static final class AddressReset implements ASTVisitor {
+        private void visitAll(List<ASTNode> nodes) {
+            for (ASTNode node : nodes) visitChild(node);
+        }
+
+        private void visitChild(ASTNode node) {
+            if (node != null && !node.isShared()) node.accept(this);
+        }
+
+        @Override
+        public void visit(AssignmentNode node) {
+            node.setAddress(0, ASTNode.NO_SLOT);
+            visitChild(node.getValue());
+        }
+
+        @Override
+        public void visit(BinaryExpression node) {
+            node.setStaticType(ASTNode.NO_TYPE);
+            node.setNumeric(false);
+            visitChild(node.getLeft());
+            visitChild(node.getRight());
+        }
+
+        @Override
+        public void visit(BlockNode node) {
+            node.setFrameSymbols(null);
+            visitAll(node.getStatements());
+        }
+
+        @Override
+        public void visit(CallNode node) {
+            node.setStaticType(ASTNode.NO_TYPE);
+            visitAll(node.getArguments());
+        }
+
+        @Override
+        public void visit(ExpressionStatementNode node) {
+            visitChild(node.getExpression());
+        }
+
+        @Override
+        public void visit(FunctionNode node) {
+            node.setFrameSymbols(null);
+            visitAll(node.getParameters());
+            visitChild(node.getBody());
+        }
+
+        @Override
+        public void visit(IdentifierNode node) {
+            node.setAddress(0, ASTNode.NO_SLOT);
+            node.setStaticType(ASTNode.NO_TYPE);
+        }
+
+        @Override
+        public void visit(IfNode node) {
+            visitChild(node.getCondition());
+            visitChild(node.getThenBlock());
+            visitChild(node.getElseBlock());
+        }
+
+        @Override
+        public void visit(LiteralNode node) {
+        }
+
+        @Override
+        public void visit(PrintNode node) {
+            visitChild(node.getValue());
+        }
+
+        @Override
+        public void visit(ProgramNode node) {
+            visitAll(node.getDeclarations());
+        }
+
+        @Override
+        public void visit(ReturnNode node) {
+            visitChild(node.getValue());
+        }
+
+        @Override
+        public void visit(TypeNode node) {
+        }
+
+        @Override
+        public void visit(VariableDeclNode node) {
+            node.setAddress(0, ASTNode.NO_SLOT);
+            visitChild(node.getInitialValue());
+        }
+
+        @Override
+        public void visit(WhileNode node) {
+            visitChild(node.getCondition());
+            visitChild(node.getBody());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package semantic;
+
+/**
+ * Copia inmutable del scope global que se comparte entre los hilos del analisis
+ * paralelo. Guarda en que orden se declaro cada simbolo para que una funcion vea
+ * solo los globales declarados antes que ella, igual que en el analisis en secuencia.
+ */
+final class FrozenScope {
+    private final Symbol[] symbols;
+    private final int[] order;
+    private final int[] slotSymbols;
+
+    FrozenScope(Symbol[] symbols, int[] order, int[] slotSymbols) {
+        this.symbols = symbols;
+        this.order = order;
+        this.slotSymbols = slotSymbols;
+    }
+
+    // Simbolo global 'id' si esta entre las primeras 'visible' declaraciones
+    Symbol resolve(int id, int visible) {
+        if (id < 0 || id >= symbols.length || symbols[id] == null) return null;
+        return order[id] < visible ? symbols[id] : null;
+    }
+
+    int[] getSlotSymbols() {
+        return slotSymbols.clone();
+    }
+}
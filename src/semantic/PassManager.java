@@ -0,0 +1,431 @@
+package semantic;
+
+import ast.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Corre varias AnalysisPass recorriendo el AST una sola vez. Cada pasada registra
+ * callbacks de entrada y salida por tipo de nodo; al recorrer, cada nodo llama a
+ * los callbacks de todas las pasadas en el orden en que se agregaron. Los hijos se
+ * visitan en el mismo orden que usaban los visitors.
+ *
+ * Un callback de entrada que devuelve false saca a su pasada de los hijos de ese
+ * nodo (y de su salida), como un return temprano en un visitor; las demas pasadas
+ * siguen. Las pasadas que dependen de otra (getRequires) van en un recorrido
+ * posterior, asi que solo se agrega un recorrido por cada nivel de dependencia.
+ *
+ * Las pasadas toman la linea de un nodo con Registry.lineOf, que le suma la base de
+ * su declaracion de primer nivel (ProgramNode.getLineBase).
+ */
+public class PassManager implements ASTVisitor {
+    // Indice de cada tipo de nodo en las tablas de callbacks
+    private static final List<Class<? extends ASTNode>> NODE_TYPES = Arrays.asList(
+        AssignmentNode.class, BinaryExpression.class, BlockNode.class, CallNode.class,
+        ExpressionStatementNode.class, FunctionNode.class, IdentifierNode.class, IfNode.class,
+        LiteralNode.class, PrintNode.class, ProgramNode.class, ReturnNode.class,
+        TypeNode.class, VariableDeclNode.class, WhileNode.class);
+    private static final int ASSIGNMENT = 0, BINARY = 1, BLOCK = 2, CALL = 3,
+        EXPRESSION_STATEMENT = 4, FUNCTION = 5, IDENTIFIER = 6, IF = 7, LITERAL = 8,
+        PRINT = 9, PROGRAM = 10, RETURN = 11, TYPE = 12, VARIABLE_DECL = 13, WHILE = 14;
+    private static final Hook[] NO_HOOKS = new Hook[0];
+
+    private final List<AnalysisPass> passes = new ArrayList<>();
+    private final List<List<Hook>> hooksByPass = new ArrayList<>();
+    private boolean timing = false;
+    private long[] nanos = new long[0];
+    private long traversalNanos = 0;
+
+    // Estado del recorrido en curso
+    private Hook[][] enterHooks;
+    private Hook[][] exitHooks;
+    private int[] stagePasses;
+    private int[] skipFrom;
+    private RuntimeException[] failures;
+    private int active;
+    private int skipping;
+    private int depth;
+    // Base de las lineas de la declaracion de primer nivel que se esta recorriendo
+    private int lineBase;
+
+    public void add(AnalysisPass pass) {
+        for (AnalysisPass existing : passes) {
+            if (existing.getName().equals(pass.getName())) {
+                throw new IllegalArgumentException("Pasada repetida: " + pass.getName());
+            }
+        }
+        List<Hook> hooks = new ArrayList<>();
+        pass.register(new Registry(this, passes.size(), hooks));
+        passes.add(pass);
+        hooksByPass.add(hooks);
+        nanos = Arrays.copyOf(nanos, passes.size());
+    }
+
+    // Mide el tiempo de cada pasada; cuesta dos llamadas a nanoTime por callback
+    public void setTiming(boolean timing) {
+        this.timing = timing;
+    }
+
+    /**
+     * Corre todas las pasadas sobre 'root' (normalmente un ProgramNode, pero puede
+     * ser cualquier subarbol). Al final se llama a failed() de las pasadas que lanzaron
+     * una excepcion, en el orden en que se agregaron.
+     */
+    public void run(ASTNode root) {
+        run(root, 0);
+    }
+
+    // Para un subarbol de una declaracion de primer nivel cuyas lineas se cuentan desde 'lineBase'
+    public void run(ASTNode root, int lineBase) {
+        int count = passes.size();
+        int[] stage = stages();
+        int stageCount = 0;
+        for (int s : stage) stageCount = Math.max(stageCount, s + 1);
+
+        failures = new RuntimeException[count];
+        skipFrom = new int[count];
+        long start = System.nanoTime();
+        for (int s = 0; s < stageCount; s++) {
+            buildStage(stage, s);
+            Arrays.fill(skipFrom, -1);
+            active = stagePasses.length;
+            skipping = 0;
+            depth = 0;
+            this.lineBase = lineBase;
+            root.accept(this);
+        }
+        traversalNanos += System.nanoTime() - start;
+        enterHooks = exitHooks = null;
+
+        RuntimeException[] failed = failures;
+        failures = null;
+        for (int p = 0; p < count; p++) {
+            if (failed[p] != null) passes.get(p).failed(failed[p]);
+        }
+    }
+
+    // Recorrido en el que corre cada pasada: uno mas que la ultima de la que depende
+    private int[] stages() {
+        int[] stage = new int[passes.size()];
+        for (int p = 0; p < passes.size(); p++) {
+            for (String required : passes.get(p).getRequires()) {
+                int q = indexOf(required);
+                if (q < 0 || q >= p) {
+                    throw new IllegalStateException("La pasada " + passes.get(p).getName()
+                        + " requiere " + required + ", que debe agregarse antes");
+                }
+                stage[p] = Math.max(stage[p], stage[q] + 1);
+            }
+        }
+        return stage;
+    }
+
+    private int indexOf(String name) {
+        for (int p = 0; p < passes.size(); p++) {
+            if (passes.get(p).getName().equals(name)) return p;
+        }
+        return -1;
+    }
+
+    private void buildStage(int[] stage, int s) {
+        List<List<Hook>> enter = new ArrayList<>();
+        List<List<Hook>> exit = new ArrayList<>();
+        for (int t = 0; t < NODE_TYPES.size(); t++) {
+            enter.add(new ArrayList<>());
+            exit.add(new ArrayList<>());
+        }
+        int members = 0;
+        for (int p = 0; p < passes.size(); p++) {
+            if (stage[p] != s) continue;
+            members++;
+            for (Hook hook : hooksByPass.get(p)) {
+                (hook.enter != null ? enter : exit).get(hook.type).add(hook);
+            }
+        }
+        stagePasses = new int[members];
+        members = 0;
+        for (int p = 0; p < passes.size(); p++) {
+            if (stage[p] == s) stagePasses[members++] = p;
+        }
+        enterHooks = new Hook[NODE_TYPES.size()][];
+        exitHooks = new Hook[NODE_TYPES.size()][];
+        for (int t = 0; t < NODE_TYPES.size(); t++) {
+            enterHooks[t] = enter.get(t).toArray(NO_HOOKS);
+            exitHooks[t] = exit.get(t).toArray(NO_HOOKS);
+        }
+    }
+
+    // Devuelve si queda alguna pasada que quiera ver los hijos del nodo
+    private boolean enter(int type, ASTNode node) {
+        for (Hook hook : enterHooks[type]) {
+            int p = hook.pass;
+            if (skipFrom[p] >= 0 || failures[p] != null) continue;
+            boolean descend;
+            long start = timing ? System.nanoTime() : 0;
+            try {
+                descend = hook.enter.test(node);
+            } catch (RuntimeException e) {
+                failures[p] = e;
+                active--;
+                continue;
+            } finally {
+                if (timing) nanos[p] += System.nanoTime() - start;
+            }
+            if (!descend) {
+                skipFrom[p] = depth;
+                active--;
+                skipping++;
+            }
+        }
+        if (active > 0) {
+            depth++;
+            return true;
+        }
+        return false;
+    }
+
+    private void exit(int type, ASTNode node, boolean entered) {
+        if (entered) depth--;
+        for (Hook hook : exitHooks[type]) {
+            int p = hook.pass;
+            if (skipFrom[p] >= 0 || failures[p] != null) continue;
+            long start = timing ? System.nanoTime() : 0;
+            try {
+                hook.exit.accept(node);
+            } catch (RuntimeException e) {
+                failures[p] = e;
+                active--;
+            } finally {
+                if (timing) nanos[p] += System.nanoTime() - start;
+            }
+        }
+        if (skipping > 0) {
+            for (int p : stagePasses) {
+                if (skipFrom[p] == depth) {
+                    skipFrom[p] = -1;
+                    skipping--;
+                    if (failures[p] == null) active++;
+                }
+            }
+        }
+    }
+
+    private void visitChild(ASTNode node) {
+        if (node != null) node.accept(this);
+    }
+
+    private void visitAll(List<ASTNode> nodes) {
+        for (ASTNode node : nodes) visitChild(node);
+    }
+
+    @Override
+    public void visit(AssignmentNode node) {
+        boolean entered = enter(ASSIGNMENT, node);
+        if (entered) visitChild(node.getValue());
+        exit(ASSIGNMENT, node, entered);
+    }
+
+    @Override
+    public void visit(BinaryExpression node) {
+        boolean entered = enter(BINARY, node);
+        if (entered) {
+            visitChild(node.getLeft());
+            visitChild(node.getRight());
+        }
+        exit(BINARY, node, entered);
+    }
+
+    @Override
+    public void visit(BlockNode node) {
+        boolean entered = enter(BLOCK, node);
+        if (entered) visitAll(node.getStatements());
+        exit(BLOCK, node, entered);
+    }
+
+    @Override
+    public void visit(CallNode node) {
+        boolean entered = enter(CALL, node);
+        if (entered) visitAll(node.getArguments());
+        exit(CALL, node, entered);
+    }
+
+    @Override
+    public void visit(ExpressionStatementNode node) {
+        boolean entered = enter(EXPRESSION_STATEMENT, node);
+        if (entered) visitChild(node.getExpression());
+        exit(EXPRESSION_STATEMENT, node, entered);
+    }
+
+    @Override
+    public void visit(FunctionNode node) {
+        boolean entered = enter(FUNCTION, node);
+        if (entered) {
+            visitAll(node.getParameters());
+            visitChild(node.getBody());
+        }
+        exit(FUNCTION, node, entered);
+    }
+
+    @Override
+    public void visit(IdentifierNode node) {
+        exit(IDENTIFIER, node, enter(IDENTIFIER, node));
+    }
+
+    @Override
+    public void visit(IfNode node) {
+        boolean entered = enter(IF, node);
+        if (entered) {
+            visitChild(node.getCondition());
+            visitChild(node.getThenBlock());
+            visitChild(node.getElseBlock());
+        }
+        exit(IF, node, entered);
+    }
+
+    @Override
+    public void visit(LiteralNode node) {
+        exit(LITERAL, node, enter(LITERAL, node));
+    }
+
+    @Override
+    public void visit(PrintNode node) {
+        boolean entered = enter(PRINT, node);
+        if (entered) visitChild(node.getValue());
+        exit(PRINT, node, entered);
+    }
+
+    @Override
+    public void visit(ProgramNode node) {
+        boolean entered = enter(PROGRAM, node);
+        if (entered) {
+            List<ASTNode> declarations = node.getDeclarations();
+            for (int i = 0; i < declarations.size(); i++) {
+                lineBase = node.getLineBase(i);
+                visitChild(declarations.get(i));
+            }
+            lineBase = 0;
+        }
+        exit(PROGRAM, node, entered);
+    }
+
+    @Override
+    public void visit(ReturnNode node) {
+        boolean entered = enter(RETURN, node);
+        if (entered) visitChild(node.getValue());
+        exit(RETURN, node, entered);
+    }
+
+    @Override
+    public void visit(TypeNode node) {
+        exit(TYPE, node, enter(TYPE, node));
+    }
+
+    @Override
+    public void visit(VariableDeclNode node) {
+        boolean entered = enter(VARIABLE_DECL, node);
+        if (entered) visitChild(node.getInitialValue());
+        exit(VARIABLE_DECL, node, entered);
+    }
+
+    @Override
+    public void visit(WhileNode node) {
+        boolean entered = enter(WHILE, node);
+        if (entered) {
+            visitChild(node.getCondition());
+            visitChild(node.getBody());
+        }
+        exit(WHILE, node, entered);
+    }
+
+    // Tiempo acumulado en los callbacks de una pasada (solo con setTiming(true))
+    public long getNanos(String pass) {
+        int p = indexOf(pass);
+        return p >= 0 ? nanos[p] : 0;
+    }
+
+    // Tiempo total de los recorridos, callbacks incluidos
+    public long getTraversalNanos() {
+        return traversalNanos;
+    }
+
+    public void reset() {
+        Arrays.fill(nanos, 0);
+        traversalNanos = 0;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %10s%n", "pasada", "ms"));
+        long inPasses = 0;
+        for (int p = 0; p < passes.size(); p++) {
+            sb.append(String.format("%-24s %10.3f%n", passes.get(p).getName(), nanos[p] / 1e6));
+            inPasses += nanos[p];
+        }
+        sb.append(String.format("%-24s %10.3f%n", "(recorrido)", (traversalNanos - inPasses) / 1e6));
+        return sb.toString();
+    }
+
+    /**
+     * Donde una pasada registra sus callbacks. Registrar para ASTNode.class equivale
+     * a registrar para todos los tipos de nodo.
+     */
+    public static final class Registry {
+        private final PassManager manager;
+        private final int pass;
+        private final List<Hook> hooks;
+
+        private Registry(PassManager manager, int pass, List<Hook> hooks) {
+            this.manager = manager;
+            this.pass = pass;
+            this.hooks = hooks;
+        }
+
+        // Linea en el texto de un nodo del recorrido en curso, para reportar errores
+        public int lineOf(ASTNode node) {
+            return manager.lineBase + node.getLineNumber();
+        }
+
+        // 'callback' devuelve false si la pasada no quiere visitar los hijos del nodo
+        @SuppressWarnings("unchecked")
+        public <T extends ASTNode> void onEnter(Class<T> type, Predicate<? super T> callback) {
+            for (int t : typesOf(type)) {
+                hooks.add(new Hook(pass, t, (Predicate<ASTNode>) callback, null));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T extends ASTNode> void onExit(Class<T> type, Consumer<? super T> callback) {
+            for (int t : typesOf(type)) {
+                hooks.add(new Hook(pass, t, null, (Consumer<ASTNode>) callback));
+            }
+        }
+
+        private static int[] typesOf(Class<? extends ASTNode> type) {
+            if (type == ASTNode.class) {
+                int[] all = new int[NODE_TYPES.size()];
+                for (int t = 0; t < all.length; t++) all[t] = t;
+                return all;
+            }
+            int t = NODE_TYPES.indexOf(type);
+            if (t < 0) throw new IllegalArgumentException("Tipo de nodo desconocido: " + type.getSimpleName());
+            return new int[] { t };
+        }
+    }
+
+    private static final class Hook {
+        final int pass;
+        final int type;
+        final Predicate<ASTNode> enter;
+        final Consumer<ASTNode> exit;
+
+        Hook(int pass, int type, Predicate<ASTNode> enter, Consumer<ASTNode> exit) {
+            this.pass = pass;
+            this.type = type;
+            this.enter = enter;
+            this.exit = exit;
+        }
+    }
+}
@@ -1,45 +1,72 @@
 package semantic;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import util.IntHashMap;
 
 public class Scope {
-    private Map<String, Symbol> symbols;
+    private IntHashMap<Symbol> symbols;
     private Scope parent;
+    // Id de la variable de cada slot, en orden de declaracion
+    private int[] slotSymbols = new int[4];
+    private int slotCount = 0;
 
     public Scope(Scope parent) {
-        this.symbols = new HashMap<>();
+        this.symbols = new IntHashMap<>();
         this.parent = parent;
     }
 
-    public boolean declareSymbol(String name, Symbol symbol) {
-        if (symbols.containsKey(name)) {
+    // Los simbolos se indexan por el id del identificador en el Interner; las variables reciben el siguiente slot
+    public boolean declareSymbol(int id, Symbol symbol) {
+        if (symbols.containsKey(id)) {
             return false;
         }
-        symbols.put(name, symbol);
+        symbols.put(id, symbol);
+        if (!symbol.isFunction()) {
+            if (slotCount == slotSymbols.length) slotSymbols = Arrays.copyOf(slotSymbols, slotCount * 2);
+            symbol.setSlot(slotCount);
+            slotSymbols[slotCount++] = id;
+        }
         return true;
     }
 
-    public Symbol resolve(String name) {
-        Symbol symbol = symbols.get(name);
-        if (symbol != null) {
-            return symbol;
-        }
-        if (parent != null) {
-            return parent.resolve(name);
+    public Symbol resolve(int id) {
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            Symbol symbol = scope.symbols.get(id);
+            if (symbol != null) {
+                return symbol;
+            }
         }
         return null;
     }
 
-    public boolean containsSymbol(String name) {
-        return symbols.containsKey(name);
+    // Cuantos scopes hay que subir desde este hasta el que declara 'id', o -1
+    public int depthOf(int id) {
+        int depth = 0;
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            if (scope.symbols.containsKey(id)) return depth;
+            depth++;
+        }
+        return -1;
+    }
+
+    // Ids de las variables del scope por slot; el interprete crea un marco de este tamaño
+    public int[] getSlotSymbols() {
+        return Arrays.copyOf(slotSymbols, slotCount);
+    }
+
+    public boolean containsSymbol(int id) {
+        return symbols.containsKey(id);
     }
 
     public Map<String, Symbol> getSymbols() {
-        return new HashMap<>(symbols);
+        Map<String, Symbol> copy = new HashMap<>();
+        symbols.forEach((id, symbol) -> copy.put(symbol.getName(), symbol));
+        return copy;
     }
 
     public Scope getParent() {
         return parent;
     }
-}
\ No newline at end of file
+}
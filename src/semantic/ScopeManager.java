@@ -1,11 +1,18 @@
 package semantic;
 
 import java.util.Stack;
+import util.Interner;
 
-public class ScopeManager {
+public class ScopeManager implements SymbolTable {
     private Stack<Scope> scopes;
+    private final Interner interner;
 
     public ScopeManager() {
+        this(new Interner());
+    }
+
+    public ScopeManager(Interner interner) {
+        this.interner = interner;
         this.scopes = new Stack<>();
         enterScope(); // Scope global
     }
@@ -26,19 +33,35 @@ public class ScopeManager {
         return scopes.peek();
     }
 
-    public boolean declareSymbol(String name, Symbol symbol) {
-        return scopes.peek().declareSymbol(name, symbol);
+    public Interner getInterner() {
+        return interner;
+    }
+
+    public boolean declareSymbol(int id, Symbol symbol) {
+        return scopes.peek().declareSymbol(id, symbol);
+    }
+
+    public Symbol resolve(int id) {
+        return scopes.peek().resolve(id);
+    }
+
+    public boolean containsSymbol(int id) {
+        return scopes.peek().containsSymbol(id);
+    }
+
+    public int depthOf(int id) {
+        return scopes.peek().depthOf(id);
     }
 
-    public Symbol resolve(String name) {
-        return scopes.peek().resolve(name);
+    public int[] getSlotSymbols() {
+        return scopes.peek().getSlotSymbols();
     }
 
-    public boolean containsSymbol(String name) {
-        return scopes.peek().containsSymbol(name);
+    public int[] getGlobalSlotSymbols() {
+        return scopes.firstElement().getSlotSymbols();
     }
 
     public Scope getGlobalScope() {
         return scopes.firstElement();
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,46 @@
 package semantic;
 
 import ast.*;
+import util.CodigoError;
+import util.ErrorSemantico;
+import util.Interner;
+import util.LimiteErroresException;
 import util.ManejadorErrores;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-public class SemanticAnalyzer implements ASTVisitor {
-    private ScopeManager scopeManager;
+public class SemanticAnalyzer implements AnalysisPass {
+    private SymbolTable scopeManager;
     private ManejadorErrores manejadorErrores;
     private String currentFunction;
     private Tipo currentReturnType;
     private int recursionDepth;
     private static final int MAX_RECURSION_DEPTH = 500;
+    // Con menos funciones que esto el analisis paralelo las analiza en el hilo actual
+    private static final int MIN_PARALLEL_FUNCTIONS = 16;
     private Map<String, Boolean> analyzedFunctions;
+    private Interner interner;
+    private int printId;
+    // Solo en una AnalysisSession: anota los nombres que se consultan y los errores con su nodo
+    private AnalysisSession.Recorder recorder;
+    // Funcion y tipo de retorno de afuera, para restaurarlos al salir de una funcion
+    private final List<String> outerFunctions = new ArrayList<>();
+    private final List<Tipo> outerReturnTypes = new ArrayList<>();
+    private ProgramNode program;
+    private PassManager passes;
+    // Del PassManager que corre el analisis: da la linea de cada nodo en el texto
+    private PassManager.Registry lines;
+    private boolean failed = false;
+    // Variable cuyo valor inicial se esta analizando: al ejecutarse todavia no existe
+    private Symbol initializing;
 
     public SemanticAnalyzer() {
-        this.scopeManager = new ScopeManager();
+        useInterner(new Interner());
         this.manejadorErrores = new ManejadorErrores();
         this.currentFunction = "global";
         this.currentReturnType = Tipo.VOID;
@@ -23,30 +48,165 @@ public class SemanticAnalyzer implements ASTVisitor {
         this.analyzedFunctions = new HashMap<>();
     }
 
+    // Analizador de un hilo del analisis paralelo: usa la tabla dada y guarda los errores sin imprimirlos
+    private SemanticAnalyzer(Interner interner, SymbolTable table, ManejadorErrores errores) {
+        this.interner = interner;
+        this.scopeManager = table;
+        this.printId = interner.intern("print");
+        this.manejadorErrores = errores;
+        this.currentFunction = "global";
+        this.currentReturnType = Tipo.VOID;
+        this.recursionDepth = 0;
+        this.analyzedFunctions = new HashMap<>();
+    }
+
+    // Los simbolos se indexan por los ids del Interner con el que se parseo el programa
+    private void useInterner(Interner programInterner) {
+        if (programInterner == null || programInterner == interner) return;
+        this.interner = programInterner;
+        this.scopeManager = new UndoLogScopeManager(programInterner);
+        this.printId = programInterner.intern("print");
+    }
+
+    private int idOf(int symbolId, String name) {
+        return symbolId >= 0 ? symbolId : interner.intern(name);
+    }
+
     public void analyze(ProgramNode program) {
-        try {
-            // Primera pasada: declarar todas las funciones
-            for (ASTNode declaration : program.getDeclarations()) {
-                if (declaration instanceof FunctionNode) {
-                    FunctionNode func = (FunctionNode) declaration;
-                    Symbol funcSymbol = new Symbol(
-                        func.getFunctionName(),
-                        Tipo.fromString(func.getReturnType()),
-                        null,
-                        true
-                    );
-                    scopeManager.declareSymbol(func.getFunctionName(), funcSymbol);
+        analyzeNode(program);
+    }
+
+    /**
+     * Analiza 'node' con este analizador como unica pasada. Para correrlo junto con
+     * otras pasadas en un solo recorrido se agrega a un PassManager. Devuelve false
+     * si el analisis se detuvo por una excepcion.
+     */
+    boolean analyzeNode(ASTNode node) {
+        return analyzeNode(node, 0);
+    }
+
+    // Para una declaracion de primer nivel (o parte de una) cuyas lineas se cuentan desde 'lineBase'
+    boolean analyzeNode(ASTNode node, int lineBase) {
+        if (passes == null) {
+            passes = new PassManager();
+            passes.add(this);
+        }
+        passes.run(node, lineBase);
+        return !failed;
+    }
+
+    boolean hasFailed() {
+        return failed;
+    }
+
+    private void declareFunctions(ProgramNode program) {
+        for (ASTNode declaration : program.getDeclarations()) {
+            if (declaration instanceof FunctionNode) {
+                FunctionNode func = (FunctionNode) declaration;
+                Symbol funcSymbol = new Symbol(
+                    func.getFunctionName(),
+                    Tipo.fromString(func.getReturnType()),
+                    null,
+                    true
+                );
+                scopeManager.declareSymbol(idOf(func.getSymbolId(), func.getFunctionName()), funcSymbol);
+            }
+        }
+    }
+
+    public void analyzeParallel(ProgramNode program) {
+        analyzeParallel(program, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Igual que analyze, pero los cuerpos de las funciones se analizan en paralelo.
+     * Las demas declaraciones de primer nivel se analizan antes, en secuencia; luego
+     * el scope global se congela y cada funcion se analiza en un hilo con su propia
+     * tabla sobre esa copia, viendo solo los globales declarados antes que ella.
+     *
+     * Los errores se reportan al final ordenados por linea; los de una misma linea
+     * quedan en el orden del fuente, asi que el resultado no depende de los hilos.
+     * Con un maximo de errores cada hilo se corta al llegar a el, y al reportar se
+     * conservan los primeros por linea.
+     */
+    public void analyzeParallel(ProgramNode program, ForkJoinPool pool) {
+        useInterner(program.getInterner());
+        UndoLogScopeManager globals = new UndoLogScopeManager(interner);
+        scopeManager = globals;
+        ManejadorErrores reporter = manejadorErrores;
+        manejadorErrores = reporter.sinImpresion();
+
+        List<FunctionJob> jobs = new ArrayList<>();
+        declareFunctions(program);
+        List<ASTNode> declarations = program.getDeclarations();
+        for (int i = 0; i < declarations.size(); i++) {
+            ASTNode declaration = declarations.get(i);
+            if (declaration instanceof FunctionNode) {
+                FunctionNode func = (FunctionNode) declaration;
+                // Como en enterFunction, una funcion repetida no se vuelve a analizar
+                if (analyzedFunctions.put(func.getFunctionName(), true) == null) {
+                    jobs.add(new FunctionJob(func, program.getLineBase(i), globals.globalCount(), reporter));
                 }
+            } else if (!analyzeNode(declaration, program.getLineBase(i))) {
+                break;
             }
-            
-            // Segunda pasada: analizar cuerpos
-            for (ASTNode declaration : program.getDeclarations()) {
-                declaration.accept(this);
+        }
+
+        globals.exitToGlobal();
+        FrozenScope frozen = globals.freezeGlobals();
+        FunctionJob[] work = jobs.toArray(new FunctionJob[0]);
+        if (work.length < MIN_PARALLEL_FUNCTIONS || pool.getParallelism() < 2) {
+            for (FunctionJob job : work) job.analyze(interner, frozen);
+        } else if (work.length > 0) {
+            int grain = Math.max(1, work.length / (pool.getParallelism() * 8));
+            pool.invoke(new FunctionTask(work, 0, work.length, grain, interner, frozen));
+        }
+
+        List<ErrorSemantico> errors = new ArrayList<>(manejadorErrores.getErrores());
+        for (FunctionJob job : work) errors.addAll(job.errors.getErrores());
+        errors.sort(Comparator.comparingInt(ErrorSemantico::getLinea));
+        manejadorErrores = reporter;
+        try {
+            for (ErrorSemantico error : errors) {
+                reporter.agregarError(error);
             }
-            
-        } catch (Exception e) {
-            manejadorErrores.agregarError(0, "Error durante análisis semántico: " + e.getMessage(), "Semántico");
+        } catch (LimiteErroresException e) {
+            failed = true;
         }
+        program.setFrameSymbols(globals.getGlobalSlotSymbols());
+    }
+
+    private void error(ASTNode node, CodigoError codigo, Object... argumentos) {
+        manejadorErrores.agregarError(lines.lineOf(node), "Semántico", codigo, argumentos);
+        if (recorder != null) recorder.error(node, codigo, argumentos);
+    }
+
+    private void reference(int id, Symbol symbol) {
+        if (recorder != null) recorder.reference(id, symbol);
+    }
+
+    // Para AnalysisSession: prepara el analisis de 'program' y declara sus funciones
+    void beginSession(ProgramNode program, AnalysisSession.Recorder recorder) {
+        useInterner(program.getInterner());
+        this.recorder = recorder;
+        declareFunctions(program);
+    }
+
+    void endSession(ProgramNode program) {
+        program.setFrameSymbols(scopeManager.getGlobalSlotSymbols());
+    }
+
+    // Simbolo de 'id' en el scope actual; entre declaraciones de primer nivel es el global
+    Symbol resolveGlobal(int id) {
+        return scopeManager.resolve(id);
+    }
+
+    boolean isAnalyzed(FunctionNode node) {
+        return analyzedFunctions.containsKey(node.getFunctionName());
+    }
+
+    void markAnalyzed(FunctionNode node) {
+        analyzedFunctions.put(node.getFunctionName(), true);
     }
 
     private void checkRecursionDepth() {
@@ -56,60 +216,99 @@ public class SemanticAnalyzer implements ASTVisitor {
     }
 
     @Override
-    public void visit(ProgramNode node) {
-        scopeManager.enterScope();
-        for (ASTNode child : node.getDeclarations()) {
-            child.accept(this);
-        }
-        scopeManager.exitScope();
+    public String getName() {
+        return "semantico";
+    }
+
+    @Override
+    public void register(PassManager.Registry registry) {
+        lines = registry;
+        registry.onEnter(ProgramNode.class, this::enterProgram);
+        registry.onExit(ProgramNode.class, this::exitProgram);
+        registry.onEnter(FunctionNode.class, this::enterFunction);
+        registry.onExit(FunctionNode.class, this::exitFunction);
+        registry.onEnter(BlockNode.class, this::enterBlock);
+        registry.onExit(BlockNode.class, this::exitBlock);
+        registry.onEnter(VariableDeclNode.class, this::enterVariableDecl);
+        registry.onEnter(AssignmentNode.class, this::enterAssignment);
+        registry.onEnter(ReturnNode.class, this::enterReturn);
+        registry.onEnter(CallNode.class, this::enterCall);
+        registry.onEnter(IdentifierNode.class, this::enterIdentifier);
+        // Tipos de las expresiones: cada nodo toma el de sus hijos al salir
+        registry.onEnter(LiteralNode.class, this::enterLiteral);
+        registry.onExit(BinaryExpression.class, this::exitBinary);
+        registry.onExit(CallNode.class, this::exitCall);
+        registry.onExit(VariableDeclNode.class, this::exitVariableDecl);
+        registry.onExit(AssignmentNode.class, this::exitAssignment);
+        registry.onExit(ReturnNode.class, this::exitReturn);
     }
 
+    // Como el catch de la version con visitor: se reporta y el analisis se detiene.
+    // Si se llego al maximo de errores no hay nada mas que reportar.
     @Override
-    public void visit(FunctionNode node) {
+    public void failed(RuntimeException error) {
+        failed = true;
+        if (!(error instanceof LimiteErroresException)) {
+            manejadorErrores.agregarError(0, "Semántico", CodigoError.ERROR_INTERNO, error.getMessage());
+        }
+        if (program != null) {
+            program.setFrameSymbols(scopeManager.getGlobalSlotSymbols());
+        }
+    }
+
+    private boolean enterProgram(ProgramNode node) {
+        useInterner(node.getInterner());
+        program = node;
+        // Primera pasada: declarar todas las funciones; los cuerpos se analizan al recorrer
+        declareFunctions(node);
+        return true;
+    }
+
+    private void exitProgram(ProgramNode node) {
+        node.setFrameSymbols(scopeManager.getGlobalSlotSymbols());
+    }
+
+    private boolean enterFunction(FunctionNode node) {
         String functionName = node.getFunctionName();
         
         // Evitar re-analizar funciones ya procesadas
         if (analyzedFunctions.containsKey(functionName)) {
-            return;
+            return false;
         }
         analyzedFunctions.put(functionName, true);
 
         recursionDepth++;
         checkRecursionDepth();
 
-        String previousFunction = currentFunction;
-        Tipo previousReturnType = currentReturnType;
+        outerFunctions.add(currentFunction);
+        outerReturnTypes.add(currentReturnType);
         
         currentFunction = functionName;
         currentReturnType = Tipo.fromString(node.getReturnType());
         
+        // Los parámetros y el cuerpo se analizan en este scope
         scopeManager.enterScope();
-        
-        // Analizar parámetros
-        for (ASTNode param : node.getParameters()) {
-            param.accept(this);
-        }
-        
-        // Analizar cuerpo
-        if (node.getBody() != null) {
-            node.getBody().accept(this);
-        }
-        
+        return true;
+    }
+
+    private void exitFunction(FunctionNode node) {
+        node.setFrameSymbols(scopeManager.getSlotSymbols());
         scopeManager.exitScope();
         
-        currentFunction = previousFunction;
-        currentReturnType = previousReturnType;
+        currentFunction = outerFunctions.remove(outerFunctions.size() - 1);
+        currentReturnType = outerReturnTypes.remove(outerReturnTypes.size() - 1);
         recursionDepth--;
     }
 
-    @Override
-    public void visit(VariableDeclNode node) {
+    private boolean enterVariableDecl(VariableDeclNode node) {
         String varName = node.getVariableName();
+        int varId = idOf(node.getSymbolId(), varName);
         
-        if (scopeManager.containsSymbol(varName)) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "Variable '" + varName + "' ya declarada", "Semántico");
-            return;
+        if (scopeManager.containsSymbol(varId)) {
+            error(node, CodigoError.VARIABLE_YA_DECLARADA, varName);
+            // Al ejecutarse reemplaza el valor de la variable ya declarada
+            node.setAddress(0, scopeManager.resolve(varId).getSlot());
+            return false;
         }
 
         Symbol varSymbol = new Symbol(
@@ -119,152 +318,270 @@ public class SemanticAnalyzer implements ASTVisitor {
             false
         );
         
-        scopeManager.declareSymbol(varName, varSymbol);
+        scopeManager.declareSymbol(varId, varSymbol);
+        node.setAddress(0, varSymbol.getSlot());
 
-        if (node.getInitialValue() != null) {
-            node.getInitialValue().accept(this);
-        }
+        // Luego se analiza el valor inicial
+        initializing = varSymbol;
+        return true;
     }
 
-    @Override
-    public void visit(AssignmentNode node) {
+    private boolean enterAssignment(AssignmentNode node) {
         String varName = node.getVariableName();
+        int varId = idOf(node.getSymbolId(), varName);
+        node.setAddress(0, ASTNode.NO_SLOT);
         
         // Verificar que la variable existe
-        Symbol symbol = scopeManager.resolve(varName);
+        Symbol symbol = scopeManager.resolve(varId);
+        reference(varId, symbol);
         if (symbol == null) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "Variable '" + varName + "' no declarada", "Semántico");
-            return;
+            error(node, CodigoError.VARIABLE_NO_DECLARADA, varName);
+            return false;
         }
 
         // Verificar que no sea una función
         if (symbol.isFunction()) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "'" + varName + "' es una función, no una variable", "Semántico");
-            return;
+            error(node, CodigoError.NO_ES_VARIABLE, varName);
+            return false;
         }
 
-        // Verificar el valor asignado
-        node.getValue().accept(this);
+        // La asignacion modifica la variable del scope que la declara
+        node.setAddress(scopeManager.depthOf(varId), symbol.getSlot());
+
+        // Luego se verifica el valor asignado
+        return true;
     }
 
-    @Override
-    public void visit(ReturnNode node) {
+    private boolean enterReturn(ReturnNode node) {
         // Verificar que estamos dentro de una función
         if ("global".equals(currentFunction)) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "Return fuera de función", "Semántico");
-            return;
+            error(node, CodigoError.RETURN_FUERA_DE_FUNCION);
+            return false;
         }
 
         // Verificar tipo de retorno
-        if (node.getValue() != null) {
-            node.getValue().accept(this);
-        } else if (currentReturnType != Tipo.VOID) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "Función debe retornar un valor", "Semántico");
+        if (node.getValue() == null && currentReturnType != Tipo.VOID) {
+            error(node, CodigoError.FALTA_VALOR_RETORNO);
         }
+        return true;
     }
 
-    @Override
-    public void visit(BinaryExpression node) {
-        node.getLeft().accept(this);
-        node.getRight().accept(this);
+    private boolean enterBlock(BlockNode node) {
+        scopeManager.enterScope();
+        return true;
     }
 
-    @Override
-    public void visit(BlockNode node) {
-        scopeManager.enterScope();
-        for (ASTNode statement : node.getStatements()) {
-            statement.accept(this);
-        }
+    private void exitBlock(BlockNode node) {
+        node.setFrameSymbols(scopeManager.getSlotSymbols());
         scopeManager.exitScope();
     }
 
-    @Override
-    public void visit(CallNode node) {
+    private boolean enterCall(CallNode node) {
+        setType(node, Tipo.UNKNOWN);
         String functionName = node.getFunctionName();
-            if (functionName.equals("print")) {
-            return;
+        int functionId = idOf(node.getSymbolId(), functionName);
+        if (functionId == printId) {
+            // print es predefinida: solo se analizan (y resuelven) sus argumentos
+            return true;
         }
         
         // Verificar que la función existe
-        Symbol symbol = scopeManager.resolve(functionName);
+        Symbol symbol = scopeManager.resolve(functionId);
+        reference(functionId, symbol);
         if (symbol == null) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "Función '" + functionName + "' no declarada", "Semántico");
-            return;
+            error(node, CodigoError.FUNCION_NO_DECLARADA, functionName);
+            return false;
         }
 
         // Verificar que sea una función
         if (!symbol.isFunction()) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "'" + functionName + "' no es una función", "Semántico");
-            return;
+            error(node, CodigoError.NO_ES_FUNCION, functionName);
+            return false;
         }
 
-        // Verificar argumentos
-        for (ASTNode arg : node.getArguments()) {
-            arg.accept(this);
+        // Luego se verifican los argumentos
+        return true;
+    }
+
+    private boolean enterIdentifier(IdentifierNode node) {
+        String varName = node.getName();
+
+        // Verificar que la variable existe
+        int varId = idOf(node.getSymbolId(), varName);
+        Symbol symbol = scopeManager.resolve(varId);
+        reference(varId, symbol);
+        if (symbol == null) {
+            error(node, CodigoError.VARIABLE_NO_DECLARADA, varName);
+        }
+
+        // Un nodo compartido aparece en varios scopes, y en su propio valor inicial una
+        // variable nombra a la de afuera (todavia no se declaro): el interprete lo busca por id
+        if (node.isShared() || (symbol != null && symbol == initializing)) {
+            node.setAddress(0, IdentifierNode.DYNAMIC_SLOT);
+        } else if (symbol != null) {
+            node.setAddress(scopeManager.depthOf(varId), symbol.getSlot());
+        } else {
+            node.setAddress(0, ASTNode.NO_SLOT);
+        }
+        // El tipo de un nodo compartido depende de donde aparece, asi que no se anota
+        if (!node.isShared()) {
+            setType(node, symbol != null && !symbol.isFunction() ? symbol.getTipo() : Tipo.UNKNOWN);
         }
+        return true;
     }
 
-    @Override
-    public void visit(ExpressionStatementNode node) {
-        node.getExpression().accept(this);
+    private boolean enterLiteral(LiteralNode node) {
+        setType(node, Tipo.deLiteral(node.getValue()));
+        return true;
     }
 
-    @Override
-    public void visit(IdentifierNode node) {
-        String varName = node.getName();
+    private void exitBinary(BinaryExpression node) {
+        String operator = node.getOperator();
+        Tipo left = operandType(node.getLeft());
+        Tipo right = operandType(node.getRight());
+        boolean numericOperator = Tipo.esOperadorNumerico(operator);
+        if (numericOperator) {
+            // El interprete rechaza cualquier operando que no sea un numero
+            if (left != Tipo.UNKNOWN && !left.esNumerico()) {
+                error(node, CodigoError.OPERANDO_NO_NUMERICO, operator, left.getNombre());
+            } else if (right != Tipo.UNKNOWN && !right.esNumerico()) {
+                error(node, CodigoError.OPERANDO_NO_NUMERICO, operator, right.getNombre());
+            }
+        }
+        // Un nodo compartido solo se anota con lo que no depende del scope
+        setType(node, node.isShared()
+            ? Tipo.deOperacion(operator, typeOf(node.getLeft()), typeOf(node.getRight()))
+            : Tipo.deOperacion(operator, left, right));
+        node.setNumeric(numericOperator && isNumericOperand(node.getLeft()) && isNumericOperand(node.getRight()));
+    }
+
+    // Un numero que se calcula sin llamadas: literal, variable u operacion aritmetica ya marcada
+    private static boolean isNumericOperand(ASTNode node) {
+        if (!typeOf(node).esNumerico()) return false;
+        if (node instanceof LiteralNode || node instanceof IdentifierNode) return true;
+        return node instanceof BinaryExpression && ((BinaryExpression) node).isNumeric();
+    }
 
-        // Ignorar operadores y delimitadores
-        if (varName.equals("+") || varName.equals(";") || varName.equals("-") || varName.equals("*") || varName.equals("/") ) {
-            return;
+    private void exitCall(CallNode node) {
+        Tipo tipo = Tipo.UNKNOWN;
+        if (idOf(node.getSymbolId(), node.getFunctionName()) == printId) {
+            // print devuelve lo que imprime
+            List<ASTNode> arguments = node.getArguments();
+            if (!arguments.isEmpty()) tipo = operandType(arguments.get(0));
+        } else {
+            // Una funcion void igual puede devolver un valor con return
+            Symbol symbol = scopeManager.resolve(idOf(node.getSymbolId(), node.getFunctionName()));
+            if (symbol != null && symbol.getTipo() != Tipo.VOID) tipo = symbol.getTipo();
         }
+        setType(node, tipo);
+    }
 
-        // Verificar que la variable existe
-        Symbol symbol = scopeManager.resolve(varName);
-        if (symbol == null) {
-            manejadorErrores.agregarError(node.getLineNumber(), 
-                "Variable '" + varName + "' no declarada", "Semántico");
+    private void exitVariableDecl(VariableDeclNode node) {
+        initializing = null;
+        if (node.getInitialValue() != null) {
+            checkAssignable(node, node.getInitialValue(), node.getVariableName(), Tipo.fromString(node.getType()));
         }
     }
 
-    @Override
-    public void visit(IfNode node) {
-        node.getCondition().accept(this);
-        node.getThenBlock().accept(this);
-        if (node.getElseBlock() != null) {
-            node.getElseBlock().accept(this);
+    private void exitAssignment(AssignmentNode node) {
+        Symbol symbol = scopeManager.resolve(idOf(node.getSymbolId(), node.getVariableName()));
+        checkAssignable(node, node.getValue(), node.getVariableName(), symbol.getTipo());
+    }
+
+    private void exitReturn(ReturnNode node) {
+        if (node.getValue() == null || currentReturnType == Tipo.VOID) return;
+        Tipo tipo = operandType(node.getValue());
+        if (!Tipo.esAsignable(currentReturnType, tipo)) {
+            error(node, CodigoError.RETORNO_INCOMPATIBLE, currentReturnType.getNombre(), tipo.getNombre());
         }
     }
 
-    @Override
-    public void visit(LiteralNode node) {
-        // No requiere verificación semántica
+    private void checkAssignable(ASTNode node, ASTNode value, String varName, Tipo varType) {
+        Tipo tipo = operandType(value);
+        if (!Tipo.esAsignable(varType, tipo)) {
+            error(node, CodigoError.TIPO_INCOMPATIBLE, tipo.getNombre(), varName, varType.getNombre());
+        }
     }
 
-    @Override
-    public void visit(TypeNode node) {
-        // No requiere verificación semántica
+    /**
+     * Tipo de un valor en el scope actual, para los chequeos. Los nodos compartidos
+     * (HashConsTable) no llevan anotado lo que depende del scope, asi que sus
+     * identificadores se resuelven aca; da lo mismo que typeOf en un arbol sin compartir.
+     */
+    private Tipo operandType(ASTNode node) {
+        if (node == null || !node.isShared()) return typeOf(node);
+        if (node instanceof IdentifierNode) {
+            IdentifierNode identifier = (IdentifierNode) node;
+            Symbol symbol = scopeManager.resolve(idOf(identifier.getSymbolId(), identifier.getName()));
+            return symbol != null && !symbol.isFunction() ? symbol.getTipo() : Tipo.UNKNOWN;
+        }
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            return Tipo.deOperacion(binary.getOperator(), operandType(binary.getLeft()), operandType(binary.getRight()));
+        }
+        return typeOf(node);
     }
 
-    @Override
-    public void visit(WhileNode node) {
-        node.getCondition().accept(this);
-        node.getBody().accept(this);
+    private static Tipo typeOf(ASTNode node) {
+        return node != null ? Tipo.deAnotacion(node.getStaticType()) : Tipo.UNKNOWN;
     }
 
-    @Override
-    public void visit(PrintNode node) {
-        // Verificar que el valor a imprimir existe
-        node.getValue().accept(this);
+    private static void setType(ASTNode node, Tipo tipo) {
+        node.setStaticType(tipo.getAnotacion());
     }
-    
 
     public ManejadorErrores getManejadorErrores() {
         return manejadorErrores;
     }
-}
\ No newline at end of file
+
+    // Una funcion a analizar y cuantas declaraciones globales habia antes de ella
+    private static final class FunctionJob {
+        final FunctionNode function;
+        final int lineBase;
+        final int visibleGlobals;
+        final ManejadorErrores errors;
+
+        FunctionJob(FunctionNode function, int lineBase, int visibleGlobals, ManejadorErrores reporter) {
+            this.function = function;
+            this.lineBase = lineBase;
+            this.visibleGlobals = visibleGlobals;
+            this.errors = reporter.sinImpresion();
+        }
+
+        void analyze(Interner interner, FrozenScope globals) {
+            SemanticAnalyzer worker = new SemanticAnalyzer(interner,
+                new UndoLogScopeManager(interner, globals, visibleGlobals), errors);
+            worker.analyzeNode(function, lineBase);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class FunctionTask extends RecursiveAction {
+        private final FunctionJob[] jobs;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Interner interner;
+        private final FrozenScope globals;
+
+        FunctionTask(FunctionJob[] jobs, int from, int to, int grain, Interner interner, FrozenScope globals) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.interner = interner;
+            this.globals = globals;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) jobs[i].analyze(interner, globals);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new FunctionTask(jobs, from, middle, grain, interner, globals),
+                      new FunctionTask(jobs, middle, to, grain, interner, globals));
+        }
+    }
+}
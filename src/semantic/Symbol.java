@@ -5,6 +5,8 @@ public class Symbol {
     private Tipo tipo;
     private Object value;
     private boolean isFunction;
+    // Posicion de la variable en el marco de su scope (-1 para funciones)
+    private int slot = -1;
 
     public Symbol(String name, Tipo tipo, Object value, boolean isFunction) {
         this.name = name;
@@ -17,7 +19,9 @@ public class Symbol {
     public Tipo getTipo() { return tipo; }
     public Object getValue() { return value; }
     public boolean isFunction() { return isFunction; }
+    public int getSlot() { return slot; }
 
     public void setValue(Object value) { this.value = value; }
     public void setTipo(Tipo tipo) { this.tipo = tipo; }
+    void setSlot(int slot) { this.slot = slot; }
 }
\ No newline at end of file
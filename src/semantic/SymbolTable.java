@@ -0,0 +1,47 @@
+package semantic;
+
+import util.Interner;
+
+/**
+ * Operaciones de tabla de simbolos que usa el analisis semantico. ScopeManager
+ * encadena un Scope por bloque; UndoLogScopeManager usa una sola tabla con un
+ * registro de deshacer, y resuelve en O(1) sin importar la profundidad.
+ */
+public interface SymbolTable {
+
+    void enterScope();
+
+    // Lanza IllegalStateException si se intenta salir del scope global
+    void exitScope();
+
+    Interner getInterner();
+
+    boolean declareSymbol(int id, Symbol symbol);
+
+    Symbol resolve(int id);
+
+    // Solo mira el scope actual
+    boolean containsSymbol(int id);
+
+    // Cuantos scopes hay que subir desde el actual hasta el que declara 'id', o -1
+    int depthOf(int id);
+
+    // Ids de las variables por slot del scope actual y del global
+    int[] getSlotSymbols();
+
+    int[] getGlobalSlotSymbols();
+
+    default boolean declareSymbol(String name, Symbol symbol) {
+        return declareSymbol(getInterner().intern(name), symbol);
+    }
+
+    default Symbol resolve(String name) {
+        int id = getInterner().lookup(name);
+        return id < 0 ? null : resolve(id);
+    }
+
+    default boolean containsSymbol(String name) {
+        int id = getInterner().lookup(name);
+        return id >= 0 && containsSymbol(id);
+    }
+}
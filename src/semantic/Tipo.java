@@ -1,5 +1,7 @@
 package semantic;
 
+import ast.ASTNode;
+
 public enum Tipo {
     INT,
     FLOAT,
@@ -8,6 +10,11 @@ public enum Tipo {
     VOID,
     UNKNOWN;
 
+    private static final Tipo[] TIPOS = values();
+
+    // Se calcula una sola vez
+    private final String nombre = name().toLowerCase();
+
     public static boolean esCompatible(Tipo tipo1, Tipo tipo2) {
         if (tipo1 == UNKNOWN || tipo2 == UNKNOWN) {
             return true;
@@ -15,6 +22,59 @@ public enum Tipo {
         return tipo1 == tipo2;
     }
 
+    public boolean esNumerico() {
+        return this == INT || this == FLOAT;
+    }
+
+    // En ejecucion int y float son el mismo numero, asi que se pueden asignar entre si
+    public static boolean esAsignable(Tipo destino, Tipo valor) {
+        return esCompatible(destino, valor) || destino.esNumerico() && valor.esNumerico();
+    }
+
+    // Tipo de un valor literal; los numeros enteros se toman como int
+    public static Tipo deLiteral(Object valor) {
+        if (valor instanceof Double) {
+            double numero = (Double) valor;
+            return numero == Math.rint(numero) && !Double.isInfinite(numero) ? INT : FLOAT;
+        }
+        if (valor instanceof String) return STRING;
+        if (valor instanceof Boolean) return BOOLEAN;
+        return UNKNOWN;
+    }
+
+    // Tipo del resultado de 'izquierda operador derecha', con operandos ya verificados
+    public static Tipo deOperacion(String operador, Tipo izquierda, Tipo derecha) {
+        switch (operador) {
+            case "+": case "-": case "*":
+                return izquierda == INT && derecha == INT ? INT : FLOAT;
+            case "/":
+                return FLOAT;
+            case "<": case ">": case "<=": case ">=": case "==": case "!=":
+                return BOOLEAN;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    // Operadores que el interprete aplica solo a numeros
+    public static boolean esOperadorNumerico(String operador) {
+        return deOperacion(operador, INT, INT) != UNKNOWN;
+    }
+
+    // Nombre como se escribe en el codigo ("int", "float", ...); null para UNKNOWN
+    public String getNombre() {
+        return this == UNKNOWN ? null : nombre;
+    }
+
+    // Como se anota en ASTNode.setStaticType: el ordinal, o NO_TYPE para UNKNOWN
+    public byte getAnotacion() {
+        return this == UNKNOWN ? ASTNode.NO_TYPE : (byte) ordinal();
+    }
+
+    public static Tipo deAnotacion(byte anotacion) {
+        return anotacion == ASTNode.NO_TYPE ? UNKNOWN : TIPOS[anotacion];
+    }
+
     public static Tipo fromString(String typeStr) {
         switch (typeStr.toLowerCase()) {
             case "int": return INT;
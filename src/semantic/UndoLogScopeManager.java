@@ -0,0 +1,178 @@
+package semantic;
+
+import java.util.Arrays;
+import util.Interner;
+
+/**
+ * Tabla de simbolos con una sola tabla para todos los scopes. Cada id del Interner
+ * apunta a una pila de enlaces (el mas reciente tapa a los de scopes exteriores) y
+ * cada declaracion se anota en un registro; exitScope deshace las anotaciones del
+ * scope que se cierra. Entrar, salir (por simbolo declarado) y resolver son O(1),
+ * sin recorrer la cadena de scopes como ScopeManager.
+ *
+ * Los ids del Interner son densos, asi que la tabla es un arreglo indexado por id.
+ *
+ * Para el analisis paralelo, freezeGlobals copia el scope global y cada hilo crea
+ * su propia tabla sobre esa copia, donde solo declara los scopes de una funcion.
+ */
+public class UndoLogScopeManager implements SymbolTable {
+    private final Interner interner;
+
+    // Enlace vigente de cada id, o null
+    private Binding[] bindings = new Binding[64];
+    // Ids declarados, en orden; marks[n] es el tamaño del registro al entrar al nivel n
+    private int[] undoLog = new int[64];
+    private int undoSize = 0;
+    private int[] marks = new int[16];
+    // Ids de las variables por slot de cada nivel abierto
+    private int[][] levelSlots = new int[16][];
+    private int[] levelSlotCount = new int[16];
+    private int level = -1;
+    // Scope global compartido (solo en las tablas de los hilos) y cuantas de sus declaraciones se ven
+    private final FrozenScope globals;
+    private final int visibleGlobals;
+
+    public UndoLogScopeManager() {
+        this(new Interner());
+    }
+
+    public UndoLogScopeManager(Interner interner) {
+        this(interner, null, 0);
+    }
+
+    UndoLogScopeManager(Interner interner, FrozenScope globals, int visibleGlobals) {
+        this.interner = interner;
+        this.globals = globals;
+        this.visibleGlobals = visibleGlobals;
+        enterScope(); // Scope global
+    }
+
+    public void enterScope() {
+        level++;
+        if (level == marks.length) {
+            marks = Arrays.copyOf(marks, level * 2);
+            levelSlots = Arrays.copyOf(levelSlots, level * 2);
+            levelSlotCount = Arrays.copyOf(levelSlotCount, level * 2);
+        }
+        marks[level] = undoSize;
+        levelSlotCount[level] = 0;
+    }
+
+    public void exitScope() {
+        if (level == 0) {
+            throw new IllegalStateException("No se puede salir del scope global");
+        }
+        int mark = marks[level];
+        while (undoSize > mark) {
+            int id = undoLog[--undoSize];
+            bindings[id] = bindings[id].shadowed;
+        }
+        level--;
+    }
+
+    // Cierra los scopes que quedaron abiertos si el analisis se corto adentro de un bloque
+    void exitToGlobal() {
+        while (level > 0) exitScope();
+    }
+
+    public Interner getInterner() {
+        return interner;
+    }
+
+    public boolean declareSymbol(int id, Symbol symbol) {
+        if (id >= bindings.length) {
+            bindings = Arrays.copyOf(bindings, Math.max(bindings.length * 2, id + 1));
+        }
+        Binding current = bindings[id];
+        if (current != null && current.level == level) {
+            return false;
+        }
+        bindings[id] = new Binding(symbol, level, current);
+        if (undoSize == undoLog.length) undoLog = Arrays.copyOf(undoLog, undoSize * 2);
+        undoLog[undoSize++] = id;
+
+        if (!symbol.isFunction()) {
+            int[] slots = levelSlots[level];
+            int count = levelSlotCount[level];
+            if (slots == null) {
+                slots = levelSlots[level] = new int[4];
+            } else if (count == slots.length) {
+                slots = levelSlots[level] = Arrays.copyOf(slots, count * 2);
+            }
+            symbol.setSlot(count);
+            slots[count] = id;
+            levelSlotCount[level] = count + 1;
+        }
+        return true;
+    }
+
+    public Symbol resolve(int id) {
+        Binding binding = binding(id);
+        if (binding != null) return binding.symbol;
+        return globals != null ? globals.resolve(id, visibleGlobals) : null;
+    }
+
+    public boolean containsSymbol(int id) {
+        Binding binding = binding(id);
+        if (binding != null) return binding.level == level;
+        return level == 0 && globals != null && globals.resolve(id, visibleGlobals) != null;
+    }
+
+    public int depthOf(int id) {
+        Binding binding = binding(id);
+        if (binding != null) return level - binding.level;
+        return globals != null && globals.resolve(id, visibleGlobals) != null ? level : -1;
+    }
+
+    public int[] getSlotSymbols() {
+        return slotsOf(level);
+    }
+
+    public int[] getGlobalSlotSymbols() {
+        return globals != null ? globals.getSlotSymbols() : slotsOf(0);
+    }
+
+    // Declaraciones hechas hasta ahora en el scope global
+    int globalCount() {
+        return level == 0 ? undoSize : marks[1];
+    }
+
+    /**
+     * Copia el scope global para compartirla entre hilos. Solo puede llamarse desde
+     * el scope global; las declaraciones posteriores no aparecen en la copia.
+     */
+    FrozenScope freezeGlobals() {
+        if (level != 0) {
+            throw new IllegalStateException("Solo se puede congelar el scope global");
+        }
+        Symbol[] symbols = new Symbol[bindings.length];
+        int[] order = new int[bindings.length];
+        for (int i = 0; i < undoSize; i++) {
+            int id = undoLog[i];
+            symbols[id] = bindings[id].symbol;
+            order[id] = i;
+        }
+        return new FrozenScope(symbols, order, slotsOf(0));
+    }
+
+    private int[] slotsOf(int n) {
+        int[] slots = levelSlots[n];
+        return slots != null ? Arrays.copyOf(slots, levelSlotCount[n]) : new int[0];
+    }
+
+    private Binding binding(int id) {
+        return id >= 0 && id < bindings.length ? bindings[id] : null;
+    }
+
+    private static final class Binding {
+        final Symbol symbol;
+        final int level;
+        final Binding shadowed;
+
+        Binding(Symbol symbol, int level, Binding shadowed) {
+            this.symbol = symbol;
+            this.level = level;
+            this.shadowed = shadowed;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package util;
+
+/**
+ * Codigos de los errores que reportan los analizadores. Cada uno tiene una plantilla
+ * con %s por argumento; el mensaje se arma recien cuando alguien lo pide.
+ */
+public enum CodigoError {
+    VARIABLE_NO_DECLARADA("Variable '%s' no declarada"),
+    VARIABLE_YA_DECLARADA("Variable '%s' ya declarada"),
+    NO_ES_VARIABLE("'%s' es una función, no una variable"),
+    FUNCION_NO_DECLARADA("Función '%s' no declarada"),
+    FUNCION_YA_DECLARADA("Función '%s' ya declarada"),
+    NO_ES_FUNCION("'%s' no es una función"),
+    RETURN_FUERA_DE_FUNCION("Return fuera de función"),
+    FALTA_VALOR_RETORNO("Función debe retornar un valor"),
+    FALTA_VALOR_RETORNO_TIPO("Función debe retornar valor de tipo %s"),
+    OPERANDO_NO_NUMERICO("Operador '%s' requiere números, se encontró %s"),
+    TIPO_INCOMPATIBLE("No se puede asignar %s a '%s' de tipo %s"),
+    RETORNO_INCOMPATIBLE("Función debe retornar %s, se encontró %s"),
+    ERROR_INTERNO("Error durante análisis semántico: %s"),
+    // Mensaje ya armado, para agregarError(linea, mensaje, tipo)
+    MENSAJE("%s");
+
+    private final String plantilla;
+
+    CodigoError(String plantilla) {
+        this.plantilla = plantilla;
+    }
+
+    public String getPlantilla() {
+        return plantilla;
+    }
+
+    // Reemplaza cada %s por el argumento que le toca
+    String formatear(Object[] argumentos) {
+        StringBuilder sb = new StringBuilder(plantilla.length() + 16);
+        int desde = 0;
+        int usado = 0;
+        int i;
+        while ((i = plantilla.indexOf("%s", desde)) >= 0) {
+            sb.append(plantilla, desde, i);
+            sb.append(usado < argumentos.length ? String.valueOf(argumentos[usado++]) : "");
+            desde = i + 2;
+        }
+        return sb.append(plantilla, desde, plantilla.length()).toString();
+    }
+}
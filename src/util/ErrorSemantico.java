@@ -1,22 +1,65 @@
 package util;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 public class ErrorSemantico {
+    private static final Object[] SIN_ARGUMENTOS = new Object[0];
+
     private int linea;
-    private String mensaje;
     private String tipo;
+    private final CodigoError codigo;
+    private final Object[] argumentos;
+    // Se arma con la plantilla la primera vez que se pide
+    private String mensaje;
 
     public ErrorSemantico(int linea, String mensaje, String tipo) {
-        this.linea = linea;
+        this(linea, tipo, CodigoError.MENSAJE, mensaje);
         this.mensaje = mensaje;
+    }
+
+    public ErrorSemantico(int linea, String tipo, CodigoError codigo, Object... argumentos) {
+        this.linea = linea;
         this.tipo = tipo;
+        this.codigo = codigo;
+        this.argumentos = argumentos != null ? argumentos : SIN_ARGUMENTOS;
     }
 
     public int getLinea() { return linea; }
-    public String getMensaje() { return mensaje; }
     public String getTipo() { return tipo; }
+    public CodigoError getCodigo() { return codigo; }
+
+    public String getMensaje() {
+        String m = mensaje;
+        if (m == null) {
+            m = codigo.formatear(argumentos);
+            mensaje = m;
+        }
+        return m;
+    }
+
+    // Dos errores son iguales si tienen la misma linea, tipo, codigo y argumentos
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ErrorSemantico)) return false;
+        ErrorSemantico error = (ErrorSemantico) other;
+        if (linea != error.linea || codigo != error.codigo || !Objects.equals(tipo, error.tipo)) return false;
+        if (codigo == CodigoError.MENSAJE || error.codigo == CodigoError.MENSAJE) {
+            return getMensaje().equals(error.getMensaje());
+        }
+        return Arrays.equals(argumentos, error.argumentos);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * linea + codigo.hashCode();
+        hash = 31 * hash + Objects.hashCode(tipo);
+        return 31 * hash + (codigo == CodigoError.MENSAJE ? getMensaje().hashCode() : Arrays.hashCode(argumentos));
+    }
 
     @Override
     public String toString() {
-        return "Línea " + linea + ": " + mensaje + " (" + tipo + ")";
+        return "Línea " + linea + ": " + getMensaje() + " (" + tipo + ")";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package util;
+
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hilo que imprime los errores en lotes, fuera del hilo que analiza. Cada error
+ * recuerda el PrintStream que era System.err cuando se reporto, asi que la salida
+ * llega al mismo lugar que con la impresion directa. Los mensajes se arman aca.
+ *
+ * Encolar no toma locks. El hilo se despierta cuando hay un lote completo o, si
+ * llegan pocos errores, cada ESPERA_NANOS; al terminar el programa se imprime lo
+ * que haya quedado pendiente.
+ */
+final class EscritorErrores implements Runnable {
+    private static final int LOTE = 1024;
+    private static final long ESPERA_NANOS = 10_000_000L;
+    private static EscritorErrores instancia;
+
+    private final ConcurrentLinkedQueue<Pendiente> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicLong encolados = new AtomicLong();
+    private volatile long escritos = 0;
+    private volatile boolean durmiendo = false;
+    private Thread hilo;
+
+    static synchronized EscritorErrores get() {
+        if (instancia == null) {
+            EscritorErrores escritor = new EscritorErrores();
+            escritor.hilo = new Thread(escritor, "escritor-errores");
+            escritor.hilo.setDaemon(true);
+            escritor.hilo.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(escritor::esperarSinInterrupcion));
+            instancia = escritor;
+        }
+        return instancia;
+    }
+
+    void escribir(PrintStream destino, ErrorSemantico error) {
+        long total = encolados.incrementAndGet();
+        pendientes.add(new Pendiente(destino, error));
+        if (durmiendo && total - escritos >= LOTE) {
+            durmiendo = false;
+            LockSupport.unpark(hilo);
+        }
+    }
+
+    // Espera a que se impriman todos los errores encolados hasta ahora
+    synchronized void esperar() throws InterruptedException {
+        long objetivo = encolados.get();
+        if (escritos < objetivo) LockSupport.unpark(hilo);
+        while (escritos < objetivo) {
+            wait();
+        }
+    }
+
+    private void esperarSinInterrupcion() {
+        try {
+            esperar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            Pendiente pendiente = pendientes.poll();
+            if (pendiente == null) {
+                durmiendo = true;
+                LockSupport.parkNanos(this, ESPERA_NANOS);
+                durmiendo = false;
+                continue;
+            }
+
+            // Un print por destino y por lote, en el orden en que llegaron
+            PrintStream destino = pendiente.destino;
+            int cantidad = 0;
+            do {
+                if (pendiente.destino != destino) {
+                    imprimir(destino, sb);
+                    destino = pendiente.destino;
+                }
+                ErrorSemantico error = pendiente.error;
+                sb.append("ERROR [").append(error.getTipo()).append("] Línea ")
+                  .append(error.getLinea()).append(": ").append(error.getMensaje())
+                  .append(System.lineSeparator());
+                cantidad++;
+            } while (cantidad < LOTE && (pendiente = pendientes.poll()) != null);
+            imprimir(destino, sb);
+
+            synchronized (this) {
+                escritos += cantidad;
+                notifyAll();
+            }
+        }
+    }
+
+    private static void imprimir(PrintStream destino, StringBuilder sb) {
+        destino.print(sb);
+        destino.flush();
+        sb.setLength(0);
+    }
+
+    private static final class Pendiente {
+        final PrintStream destino;
+        final ErrorSemantico error;
+
+        Pendiente(PrintStream destino, ErrorSemantico error) {
+            this.destino = destino;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de claves int no negativas (ids de Interner) con direccionamiento abierto
+ * y sondeo lineal, sin boxing de claves. Admite valores null.
+ */
+public final class IntHashMap<V> {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntHashMap() {
+        this(8);
+    }
+
+    public IntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new Object[capacity];
+    }
+
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int h = key * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (keys[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    public boolean containsKey(int key) {
+        return keys[slot(key)] == key;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = slot(key);
+        return keys[i] == key ? (V) values[i] : null;
+    }
+
+    public void put(int key, V value) {
+        if (key < 0) throw new IllegalArgumentException("Clave inválida: " + key);
+        int i = slot(key);
+        if (keys[i] != key) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                i = slot(key);
+            }
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Recorre las entradas en orden de tabla (no de insercion)
+    @SuppressWarnings("unchecked")
+    public void forEach(Entry<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        values = new Object[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    public interface Entry<V> {
+        void accept(int key, V value);
+    }
+}
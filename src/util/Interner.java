@@ -0,0 +1,50 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla de internado de identificadores compartida por una compilacion. Asigna a
+ * cada nombre distinto un id entero denso (0, 1, 2, ...) para que las tablas de
+ * simbolos y los entornos de ejecucion trabajen con enteros en vez de Strings.
+ * Es segura para usarse desde varios hilos (lexer y parser paralelos).
+ */
+public final class Interner {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size = 0;
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        return add(name);
+    }
+
+    private synchronized int add(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) return existing;
+
+        String[] table = names;
+        if (size == table.length) {
+            table = Arrays.copyOf(table, size * 2);
+        }
+        table[size] = name;
+        names = table;
+        ids.put(name, size);
+        return size++;
+    }
+
+    // Id de un nombre ya internado, o -1 si nunca se vio
+    public int lookup(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,20 @@
+package util;
+
+/**
+ * La lanza ManejadorErrores cuando se intenta agregar un error despues de llegar al
+ * maximo configurado, para que el analisis se detenga en lugar de seguir juntando
+ * errores que nadie va a leer.
+ */
+@SuppressWarnings("serial")
+public class LimiteErroresException extends RuntimeException {
+    private final int maximo;
+
+    public LimiteErroresException(int maximo) {
+        super("Se alcanzó el máximo de " + maximo + " errores");
+        this.maximo = maximo;
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+}
@@ -1,40 +1,128 @@
 package util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Junta los errores de un analisis. Se puede usar desde varios hilos a la vez sin
+ * bloqueos. Guarda todos los errores que recibe, como antes; con setDeduplicar(true)
+ * descarta los repetidos (misma linea, tipo, codigo y argumentos), por ejemplo el
+ * segundo "Variable 'zz' no declarada" de print(zz + zz). No tiene limite; con
+ * setMaxErrores, el primer error que pase del maximo lanza LimiteErroresException
+ * para cortar el analisis.
+ *
+ * Los errores se imprimen en System.err desde un hilo aparte, en lotes, asi que
+ * pueden quedar pendientes cuando el analisis termina y mezclarse con lo que se
+ * escriba despues; quien necesite la salida completa antes de seguir (la interfaz,
+ * una herramienta de linea de comandos) llama a esperarEscritura().
+ */
 public class ManejadorErrores {
-    private List<ErrorSemantico> errores;
+    private final ConcurrentLinkedQueue<ErrorSemantico> errores = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger cantidad = new AtomicInteger();
+    private final Set<ErrorSemantico> vistos = ConcurrentHashMap.newKeySet();
+    // Si es false los errores solo se guardan (por ejemplo en los hilos del analisis paralelo)
+    private final boolean imprimir;
+    private volatile boolean deduplicar = false;
+    private volatile int maxErrores = Integer.MAX_VALUE;
+    private volatile boolean limiteAlcanzado = false;
+    // Ultima copia entregada por getErrores, mientras no lleguen errores nuevos
+    private volatile List<ErrorSemantico> copia;
 
     public ManejadorErrores() {
-        this.errores = new ArrayList<>();
+        this(true);
+    }
+
+    public ManejadorErrores(boolean imprimir) {
+        this.imprimir = imprimir;
     }
 
     public void agregarError(int linea, String mensaje, String tipo) {
-        ErrorSemantico error = new ErrorSemantico(linea, mensaje, tipo);
-        errores.add(error);
-        System.err.println("ERROR [" + tipo + "] Línea " + linea + ": " + mensaje);
+        agregarError(new ErrorSemantico(linea, mensaje, tipo));
+    }
+
+    public void agregarError(int linea, String tipo, CodigoError codigo, Object... argumentos) {
+        agregarError(new ErrorSemantico(linea, tipo, codigo, argumentos));
     }
 
     public void agregarError(ErrorSemantico error) {
+        if (deduplicar && !vistos.add(error)) {
+            return;
+        }
+        if (cantidad.incrementAndGet() > maxErrores) {
+            cantidad.decrementAndGet();
+            if (deduplicar) vistos.remove(error);
+            limiteAlcanzado = true;
+            throw new LimiteErroresException(maxErrores);
+        }
         errores.add(error);
-        System.err.println("ERROR [" + error.getTipo() + "] Línea " + 
-                          error.getLinea() + ": " + error.getMensaje());
+        if (imprimir) {
+            EscritorErrores.get().escribir(System.err, error);
+        }
+    }
+
+    // Manejador vacio con el mismo maximo y la misma deduplicacion, pero que no imprime
+    public ManejadorErrores sinImpresion() {
+        ManejadorErrores otro = new ManejadorErrores(false);
+        otro.maxErrores = maxErrores;
+        otro.deduplicar = deduplicar;
+        return otro;
+    }
+
+    public void setMaxErrores(int maxErrores) {
+        if (maxErrores < 1) throw new IllegalArgumentException("El máximo de errores debe ser positivo");
+        this.maxErrores = maxErrores;
+    }
+
+    public int getMaxErrores() {
+        return maxErrores;
+    }
+
+    public void setDeduplicar(boolean deduplicar) {
+        this.deduplicar = deduplicar;
+    }
+
+    // true si se descarto algun error por pasar del maximo
+    public boolean isLimiteAlcanzado() {
+        return limiteAlcanzado;
     }
 
     public boolean hayErrores() {
-        return !errores.isEmpty();
+        return cantidad.get() > 0;
     }
 
+    // Copia inmutable; se reutiliza mientras no se agreguen errores
     public List<ErrorSemantico> getErrores() {
-        return new ArrayList<>(errores);
+        List<ErrorSemantico> actual = copia;
+        if (actual == null || actual.size() != cantidad.get()) {
+            actual = Collections.unmodifiableList(new ArrayList<>(errores));
+            copia = actual;
+        }
+        return actual;
     }
 
     public void limpiar() {
         errores.clear();
+        vistos.clear();
+        cantidad.set(0);
+        limiteAlcanzado = false;
+        copia = null;
     }
 
     public int getCantidadErrores() {
-        return errores.size();
+        return cantidad.get();
+    }
+
+    // Espera a que el hilo de impresion escriba todos los errores reportados hasta ahora
+    public static void esperarEscritura() {
+        try {
+            EscritorErrores.get().esperar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
-}
\ No newline at end of file
+}
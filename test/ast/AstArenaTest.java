@@ -0,0 +1,117 @@
+package ast;
+
+import harness.AstDump;
+import harness.Check;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * Parser.parseArena() codifica el mismo arbol que Parser.parse(): decodificado con el
+ * adaptador (toProgram) da los mismos nodos, lineas, nombres, ids de simbolo y literales,
+ * y el recorrido con Cursor visita los mismos tipos de nodo en el mismo orden. Tambien
+ * con programas con errores de sintaxis, donde las declaraciones descartadas no deben
+ * dejar nodos en la arena.
+ */
+public class AstArenaTest {
+    private static final Map<Class<?>, NodeKind> KINDS = Map.ofEntries(
+        Map.entry(ProgramNode.class, NodeKind.PROGRAM),
+        Map.entry(FunctionNode.class, NodeKind.FUNCTION),
+        Map.entry(VariableDeclNode.class, NodeKind.VARIABLE_DECL),
+        Map.entry(BlockNode.class, NodeKind.BLOCK),
+        Map.entry(IfNode.class, NodeKind.IF),
+        Map.entry(WhileNode.class, NodeKind.WHILE),
+        Map.entry(ReturnNode.class, NodeKind.RETURN),
+        Map.entry(AssignmentNode.class, NodeKind.ASSIGNMENT),
+        Map.entry(ExpressionStatementNode.class, NodeKind.EXPRESSION_STATEMENT),
+        Map.entry(PrintNode.class, NodeKind.PRINT),
+        Map.entry(BinaryExpression.class, NodeKind.BINARY),
+        Map.entry(CallNode.class, NodeKind.CALL),
+        Map.entry(IdentifierNode.class, NodeKind.IDENTIFIER),
+        Map.entry(LiteralNode.class, NodeKind.LITERAL));
+
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(11);
+            for (int i = 0; i < 2000; i++) {
+                check(i % 4 == 3 ? Programs.withErrors(random) : Programs.generate(random));
+            }
+        } finally {
+            System.setErr(err);
+        }
+
+        // Codificar, recorrer y decodificar no usan recursion
+        int depth = 1_000_000;
+        AstArena deep = new Parser(new Lexer("z = " + "(1 + ".repeat(depth) + "1" + ")".repeat(depth) + ";")).parseArena();
+        Check.equal(2 * depth + 3, count(deep), "nodos visitados por Cursor");
+        Check.isTrue(deep.toProgram().isFrozen(), "arbol profundo decodificado");
+    }
+
+    // Nodos que visita el Cursor, incluidos los ausentes y los TYPE
+    private static int count(AstArena arena) {
+        int visited = 1;
+        AstArena.Cursor cursor = arena.cursor(arena.root());
+        while (true) {
+            if (cursor.gotoFirstChild()) {
+                visited++;
+                continue;
+            }
+            while (!cursor.gotoNextSibling()) {
+                if (!cursor.gotoParent()) return visited;
+            }
+            visited++;
+        }
+    }
+
+    private static void check(String source) {
+        Parser objects = new Parser(new Lexer(source));
+        ProgramNode program = objects.parse();
+        Parser flat = new Parser(new Lexer(source));
+        AstArena arena = flat.parseArena();
+        Check.equal(objects.getErrors(), flat.getErrors(), "errores de " + source);
+
+        String expected = AstDump.of(program);
+        Check.equal(expected, AstDump.of(arena.toProgram()), "adaptador de parseArena: " + source);
+        Check.equal(expected, AstDump.of(AstArena.of(program).toProgram()), "AstArena.of: " + source);
+        Check.equal(preorder(program), preorder(arena), "recorrido con Cursor: " + source);
+    }
+
+    // Tipos en preorden del arbol de objetos
+    private static List<NodeKind> preorder(ASTNode root) {
+        List<NodeKind> kinds = new ArrayList<>();
+        List<ASTNode> pending = new ArrayList<>();
+        List<ASTNode> children = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            ASTNode node = pending.remove(pending.size() - 1);
+            if (node == null) continue;
+            kinds.add(KINDS.get(node.getClass()));
+            children.clear();
+            node.addChildren(children);
+            for (int i = children.size() - 1; i >= 0; i--) pending.add(children.get(i));
+        }
+        return kinds;
+    }
+
+    // Tipos en preorden de la arena, sin los hijos ausentes ni los nodos TYPE
+    private static List<NodeKind> preorder(AstArena arena) {
+        List<NodeKind> kinds = new ArrayList<>();
+        AstArena.Cursor cursor = arena.cursor(arena.root());
+        while (true) {
+            NodeKind kind = cursor.kind();
+            if (kind != NodeKind.NONE && kind != NodeKind.TYPE) kinds.add(kind);
+            if (cursor.gotoFirstChild()) continue;
+            while (!cursor.gotoNextSibling()) {
+                if (!cursor.gotoParent()) return kinds;
+            }
+        }
+    }
+}
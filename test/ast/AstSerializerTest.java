@@ -0,0 +1,102 @@
+package ast;
+
+import harness.AstDump;
+import harness.Check;
+import harness.Programs;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import lexer.Lexer;
+import parser.AstCache;
+import parser.Parser;
+import util.Interner;
+
+/**
+ * AstSerializer conserva el arbol completo: un programa con todos los tipos de nodo y
+ * de literal, y programas al azar, se leen de vuelta con los mismos nodos, lineas,
+ * nombres y literales (los ids de simbolo se vuelven a internar, asi que se comparan
+ * por nombre). Un archivo truncado da IOException, y AstCache devuelve el mismo arbol
+ * desde el disco que parseando.
+ */
+public class AstSerializerTest {
+    public static void main(String[] args) throws Exception {
+        Interner interner = new Interner();
+        ProgramNode all = new ProgramNode(interner);
+        FunctionNode function = new FunctionNode(3, "f", "int", interner.intern("f"));
+        function.addParameter(new IdentifierNode(3, "p", interner.intern("p")));
+        BlockNode body = new BlockNode(4);
+        body.addStatement(new PrintNode(5, new LiteralNode(5, true)));
+        body.addStatement(new ReturnNode(6, null));
+        body.addStatement(new ReturnNode(7, new LiteralNode(7, -42)));
+        body.addStatement(new WhileNode(8, new LiteralNode(8, false), new BlockNode(8)));
+        IfNode withElse = new IfNode(9, new BinaryExpression(9, new LiteralNode(9, null), "==",
+            new LiteralNode(9, "sé 🙂")), new BlockNode(9));
+        withElse.setElseBlock(new BlockNode(10));
+        body.addStatement(withElse);
+        body.addStatement(new IfNode(11, new CallNode(11, "g", interner.intern("g")), new BlockNode(11)));
+        body.addStatement(new AssignmentNode(12, "x", new LiteralNode(12, 1e300), interner.intern("x")));
+        body.addStatement(new ExpressionStatementNode(13, new TypeNode(13, "float")));
+        function.setBody(body);
+        all.addDeclaration(function);
+        all.addDeclaration(new VariableDeclNode(100, "v", "string", null, interner.intern("v")));
+        all.addDeclaration(new VariableDeclNode(1, "w", "int", new LiteralNode(1, -0.0), interner.intern("w")));
+        all.freeze();
+        roundTrip(all, interner, "todos los tipos de nodo");
+
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(16);
+            for (int i = 0; i < 1000; i++) {
+                String source = i % 4 == 3 ? Programs.withErrors(random) : Programs.generate(random);
+                Interner names = new Interner();
+                roundTrip(new Parser(new Lexer(source, names)).parse(), names, source);
+            }
+        } finally {
+            System.setErr(err);
+        }
+
+        byte[] data = AstSerializer.serialize(all);
+        for (int n = 0; n < data.length; n++) {
+            byte[] truncated = Arrays.copyOf(data, n);
+            Check.fails(UncheckedIOException.class, () -> deserialize(truncated), "truncado a " + n + " bytes");
+        }
+
+        Path directory = Files.createTempDirectory("ast-cache");
+        try {
+            AstCache cache = new AstCache(directory);
+            String source = Programs.generate(new Random(160));
+            Interner parsed = new Interner();
+            String expected = AstDump.withNames(cache.parse(source, parsed), parsed);
+            Check.equal(1L, Files.list(directory).count(), "archivo guardado en el cache");
+            Interner loaded = new Interner();
+            Check.equal(expected, AstDump.withNames(cache.parse(source, loaded), loaded), "programa leido del cache");
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void roundTrip(ProgramNode program, Interner names, String context) throws IOException {
+        Interner target = new Interner();
+        ProgramNode back = AstSerializer.deserialize(AstSerializer.serialize(program), target);
+        Check.isTrue(back.isFrozen(), "arbol leido congelado: " + context);
+        Check.equal(AstDump.withNames(program, names), AstDump.withNames(back, target), context);
+    }
+
+    // Para Check.fails: la IOException sale envuelta
+    private static void deserialize(byte[] data) {
+        try {
+            AstSerializer.deserialize(data, new Interner());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
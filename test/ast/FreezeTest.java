@@ -0,0 +1,28 @@
+package ast;
+
+import harness.Check;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * Parser.parse() devuelve el arbol congelado: los getters devuelven siempre la misma
+ * vista sin copiar y cualquier modificacion falla.
+ */
+public class FreezeTest {
+    public static void main(String[] args) {
+        ProgramNode program = new Parser(new Lexer(
+            "var i: int = 0; while (i < 10) { a = 1; c = f(1, 2); }")).parse();
+        Check.isTrue(program.isFrozen(), "programa congelado");
+
+        BlockNode body = ((WhileNode) program.getDeclarations().get(1)).getBody();
+        CallNode call = (CallNode) ((AssignmentNode) body.getStatements().get(1)).getValue();
+        Check.isTrue(body.isFrozen() && call.isFrozen(), "descendientes congelados");
+        Check.isTrue(body.getStatements() == body.getStatements(), "la vista no se copia");
+        Check.isTrue(call.getArguments() == call.getArguments(), "argumentos sin copia");
+
+        Check.fails(IllegalStateException.class, () -> body.addStatement(null), "addStatement");
+        Check.fails(IllegalStateException.class, () -> call.addArgument(null), "addArgument");
+        Check.fails(UnsupportedOperationException.class, () -> body.getStatements().add(null), "vista inmutable");
+        Check.fails(UnsupportedOperationException.class, () -> program.getDeclarations().remove(0), "declaraciones");
+    }
+}
@@ -0,0 +1,72 @@
+package ast;
+
+import harness.AstDump;
+import harness.Check;
+import harness.Execution;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * Con hash-consing el Parser arma el mismo arbol que sin el, salvo por las lineas de
+ * los nodos compartidos (conservan las de su primera aparicion): el mismo hash
+ * estructural, y el programa produce los mismos errores semanticos y la misma salida
+ * (con errores de sintaxis solo se compara el arbol).
+ * Un error sobre un nodo compartido lleva la linea de la primera aparicion, asi que los
+ * errores se comparan sin el numero de linea. El hash estructural no depende de las
+ * lineas pero si de literales, orden y ramas.
+ */
+public class HashConsingTest {
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(17);
+            for (int i = 0; i < 1500; i++) {
+                boolean broken = i % 4 == 3;
+                String source = broken ? Programs.withErrors(random) : Programs.generate(random);
+                ProgramNode plain = new Parser(new Lexer(source)).parse();
+                Parser consing = new Parser(new Lexer(source));
+                consing.setHashConsing(new HashConsTable());
+                ProgramNode shared = consing.parse();
+
+                Check.equal(AstDump.of(plain, "getLineNumber", "isShared"),
+                    AstDump.of(shared, "getLineNumber", "isShared"), source);
+                Check.equal(plain.structuralHash(), shared.structuralHash(), "hash de " + source);
+                if (broken) continue;
+                Check.equal(withoutLines(Execution.run(plain)), withoutLines(Execution.run(shared)),
+                    "ejecucion de " + source);
+            }
+        } finally {
+            System.setErr(err);
+        }
+
+        HashConsTable table = new HashConsTable();
+        Parser parser = new Parser(new Lexer("x = a + 1;\ny = a + 1;\nz = f(a) + 1;"));
+        parser.setHashConsing(table);
+        ProgramNode program = parser.parse();
+        ASTNode first = ((AssignmentNode) program.getDeclarations().get(0)).getValue();
+        ASTNode second = ((AssignmentNode) program.getDeclarations().get(1)).getValue();
+        BinaryExpression withCall = (BinaryExpression) ((AssignmentNode) program.getDeclarations().get(2)).getValue();
+        Check.isTrue(first == second && first.isShared(), "a + 1 se comparte");
+        Check.isTrue(!withCall.isShared(), "una llamada no se comparte");
+        Check.equal(1, first.getLineNumber(), "linea de la primera aparicion");
+        Check.isTrue(table.getReused() > 0, "la tabla reutilizo nodos");
+
+        Check.equal(hash("x = 1 + 2;"), hash("\n\n  x = 1 +\n 2;"), "las lineas no cuentan");
+        Check.isTrue(hash("x = 1 + 2;") != hash("x = 1 + 3;"), "literal distinto");
+        Check.isTrue(hash("x = 1 + 2;") != hash("x = 2 + 1;"), "orden distinto");
+        Check.isTrue(hash("if (a) { }") != hash("if (a) { } else { }"), "else vacio");
+    }
+
+    private static String withoutLines(String output) {
+        return output.replaceAll("Línea \\d+: ", "");
+    }
+
+    private static long hash(String source) {
+        return new Parser(new Lexer(source)).parse().structuralHash();
+    }
+}
@@ -0,0 +1,85 @@
+package harness;
+
+import ast.ASTNode;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import util.Interner;
+
+/**
+ * Texto con todo lo que los getters publicos de un AST devuelven, nodo por nodo, para
+ * comparar dos arboles construidos por caminos distintos. Se leen por reflexion, asi que
+ * un getter nuevo queda cubierto sin tocar las pruebas. 'ignored' lista los getters
+ * que se sabe que difieren (por ejemplo "getLineNumber" en nodos compartidos).
+ * withNames() escribe cada id de simbolo como el nombre internado, para comparar arboles
+ * cuyos ids dependen del orden en que se internaron los nombres.
+ */
+public final class AstDump {
+    private static final Set<String> ALWAYS_IGNORED = Set.of("getClass", "getInterner");
+
+    private AstDump() {
+    }
+
+    public static String of(Object node, String... ignored) {
+        StringBuilder out = new StringBuilder();
+        write(node, out, Set.of(ignored), null);
+        return out.toString();
+    }
+
+    public static String withNames(Object node, Interner interner, String... ignored) {
+        StringBuilder out = new StringBuilder();
+        write(node, out, Set.of(ignored), interner);
+        return out.toString();
+    }
+
+    private static void write(Object value, StringBuilder out, Set<String> ignored, Interner interner) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof List) {
+            out.append('[');
+            for (Object item : (List<?>) value) {
+                write(item, out, ignored, interner);
+                out.append(", ");
+            }
+            out.append(']');
+        } else if (value instanceof int[]) {
+            out.append(Arrays.toString((int[]) value));
+        } else if (value instanceof String) {
+            out.append('"').append(value).append('"');
+        } else if (!(value instanceof ASTNode)) {
+            out.append(value).append(':').append(value.getClass().getSimpleName());
+        } else {
+            out.append(value.getClass().getSimpleName()).append('(');
+            for (Method getter : getters(value.getClass())) {
+                if (ignored.contains(getter.getName())) continue;
+                out.append(getter.getName()).append('=');
+                try {
+                    Object result = getter.invoke(value);
+                    if (interner != null && getter.getName().equals("getSymbolId")) {
+                        int id = (Integer) result;
+                        result = id < 0 ? "-" : interner.name(id);
+                    }
+                    write(result, out, ignored, interner);
+                } catch (ReflectiveOperationException e) {
+                    out.append('!').append(e.getCause());
+                }
+                out.append(' ');
+            }
+            out.append(')');
+        }
+    }
+
+    private static List<Method> getters(Class<?> type) {
+        List<Method> getters = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            if (method.getParameterCount() != 0 || ALWAYS_IGNORED.contains(name)) continue;
+            if (name.startsWith("get") || name.startsWith("is")) getters.add(method);
+        }
+        getters.sort(Comparator.comparing(Method::getName));
+        return getters;
+    }
+}
@@ -0,0 +1,33 @@
+package harness;
+
+import java.util.Objects;
+
+/**
+ * Comprobaciones minimas para las pruebas de test/. Cada prueba es una clase con main
+ * que falla con AssertionError ante la primera diferencia; RunAll las ejecuta todas.
+ */
+public final class Check {
+    private Check() {
+    }
+
+    public static void equal(Object expected, Object actual, String context) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(context + "\n  esperado: " + expected + "\n  obtenido: " + actual);
+        }
+    }
+
+    public static void isTrue(boolean condition, String context) {
+        if (!condition) throw new AssertionError(context);
+    }
+
+    // Falla si 'action' termina sin lanzar una excepcion del tipo indicado
+    public static void fails(Class<? extends Throwable> type, Runnable action, String context) {
+        try {
+            action.run();
+        } catch (Throwable t) {
+            if (type.isInstance(t)) return;
+            throw new AssertionError(context + ": se esperaba " + type.getSimpleName() + " y se obtuvo " + t, t);
+        }
+        throw new AssertionError(context + ": se esperaba " + type.getSimpleName());
+    }
+}
@@ -0,0 +1,57 @@
+package harness;
+
+import ast.ProgramNode;
+import interpreter.Interpreter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import semantic.SemanticAnalyzer;
+import util.ErrorSemantico;
+import util.ManejadorErrores;
+
+/**
+ * Analiza y ejecuta un programa ya parseado y devuelve en un texto todo lo observable:
+ * los errores semanticos, lo que el programa imprime y como termina. Las pruebas
+ * diferenciales comparan ese texto entre dos caminos (arbol original y optimizado,
+ * compartido, incremental, etc.).
+ */
+public final class Execution {
+    private Execution() {
+    }
+
+    public static String run(ProgramNode program) {
+        PrintStream err = System.err;
+        // Los errores quedan en el ManejadorErrores; la copia impresa no interesa
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        StringBuilder result = new StringBuilder();
+        try {
+            SemanticAnalyzer analyzer = new SemanticAnalyzer();
+            analyzer.analyze(program);
+            for (ErrorSemantico error : analyzer.getManejadorErrores().getErrores()) {
+                result.append("error: ").append(error).append('\n');
+            }
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+        }
+        return result.append(interpret(program)).toString();
+    }
+
+    // Solo la ejecucion, para un programa que ya paso por el analisis semantico
+    public static String interpret(ProgramNode program) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        String end;
+        try {
+            new Interpreter().interpret(program);
+            end = "termina bien\n";
+        } catch (RuntimeException e) {
+            end = "falla: " + e.getClass().getSimpleName() + " " + e.getMessage() + "\n";
+        } finally {
+            System.setOut(out);
+        }
+        return end + printed.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,176 @@
+package harness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Programas SimpleLang al azar para las pruebas diferenciales: funciones sin
+ * parametros, declaraciones, asignaciones, if/else, while acotados por un contador,
+ * bloques anidados (con variables que ocultan a las de afuera), llamadas y print.
+ * Los programas siempre terminan. Tienen errores de tipos, pero ninguno de los que
+ * hacen que el analisis semantico saltee un subarbol: no hay return fuera de una
+ * funcion, variables declaradas dos veces en el mismo scope ni nombres sin declarar.
+ */
+public final class Programs {
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "<", ">", "<=", ">=", "==", "!=", "&&", "||"};
+    private static final String[] TYPES = {"int", "float", "string", "boolean"};
+
+    private final Random random;
+    private final int functions;
+    private List<String> variables = new ArrayList<>();
+    // Nombres ya declarados en el scope actual
+    private List<String> declaredHere = new ArrayList<>();
+    private boolean inFunction = false;
+    private int counters = 0;
+    // Funciones que se pueden llamar desde aqui: solo las anteriores, asi no hay recursion
+    private int callable;
+
+    private Programs(Random random, int functions) {
+        this.random = random;
+        this.functions = functions;
+    }
+
+    public static String generate(Random random) {
+        return generate(random, 1 + random.nextInt(3));
+    }
+
+    // Con 'functions' funciones, para las pruebas que reparten el trabajo por funcion
+    public static String generate(Random random, int functions) {
+        return new Programs(random, functions).program();
+    }
+
+    /**
+     * Como generate() pero borra o duplica algunos tokens al azar, para ejercitar la
+     * recuperacion de errores del parser.
+     */
+    public static String withErrors(Random random) {
+        return withErrors(random, 1 + random.nextInt(3));
+    }
+
+    public static String withErrors(Random random, int functions) {
+        String[] tokens = generate(random, functions).split(" ", -1);
+        StringBuilder out = new StringBuilder();
+        for (String token : tokens) {
+            int roll = random.nextInt(40);
+            if (roll == 0) continue;
+            out.append(token).append(' ');
+            if (roll == 1) out.append(token).append(' ');
+        }
+        return out.toString();
+    }
+
+    private String program() {
+        StringBuilder out = new StringBuilder();
+        for (int f = 0; f < functions; f++) {
+            out.append("function h").append(f).append(" ( ) {\n");
+            callable = f;
+            inFunction = true;
+            block(out, "", 0);
+            inFunction = false;
+            out.append("}\n");
+        }
+        callable = functions;
+        statements(out, 3 + random.nextInt(10), "", 0);
+        return out.toString();
+    }
+
+    @SuppressWarnings("fallthrough")
+    private void statements(StringBuilder out, int count, String indent, int depth) {
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(depth > 2 ? 5 : 8)) {
+                case 0: case 1: {
+                    String name = "v" + random.nextInt(6);
+                    if (declaredHere.contains(name)) {
+                        out.append(indent).append("print ( ").append(name).append(" ) ;\n");
+                        break;
+                    }
+                    out.append(indent).append("var ").append(name).append(" : ")
+                        .append(TYPES[random.nextInt(TYPES.length)]);
+                    if (random.nextInt(4) != 0) out.append(" = ").append(expression(2));
+                    out.append(" ;\n");
+                    variables.add(name);
+                    declaredHere.add(name);
+                    break;
+                }
+                case 2:
+                    if (!variables.isEmpty()) {
+                        out.append(indent).append(pick()).append(" = ").append(expression(2)).append(" ;\n");
+                        break;
+                    }
+                    // sin variables, un print
+                case 3:
+                    out.append(indent).append("print ( ").append(expression(3)).append(" ) ;\n");
+                    break;
+                case 4:
+                    out.append(indent).append(inFunction ? "return " + expression(2) : expression(2)).append(" ;\n");
+                    break;
+                case 5: {
+                    out.append(indent).append("if ( ").append(expression(2)).append(" ) {\n");
+                    block(out, indent, depth);
+                    if (random.nextBoolean()) {
+                        out.append(indent).append("} else {\n");
+                        block(out, indent, depth);
+                    }
+                    out.append(indent).append("}\n");
+                    break;
+                }
+                case 6: {
+                    String counter = "c" + counters++;
+                    out.append(indent).append("var ").append(counter).append(" : int = 0 ;\n");
+                    declaredHere.add(counter);
+                    out.append(indent).append("while ( ").append(counter).append(" < ").append(random.nextInt(6))
+                        .append(" ) {\n");
+                    out.append(indent).append("  ").append(counter).append(" = ").append(counter).append(" + 1 ;\n");
+                    block(out, indent, depth);
+                    out.append(indent).append("}\n");
+                    break;
+                }
+                default:
+                    out.append(indent).append("{\n");
+                    block(out, indent, depth);
+                    out.append(indent).append("}\n");
+            }
+        }
+    }
+
+    // Las variables declaradas dentro de un bloque no se usan fuera de el
+    private void block(StringBuilder out, String indent, int depth) {
+        List<String> outer = variables;
+        List<String> outerDeclared = declaredHere;
+        variables = new ArrayList<>(outer);
+        declaredHere = new ArrayList<>();
+        statements(out, 1 + random.nextInt(depth == 0 ? 4 : 3), indent + "  ", depth + 1);
+        variables = outer;
+        declaredHere = outerDeclared;
+    }
+
+    @SuppressWarnings("fallthrough")
+    private String expression(int depth) {
+        switch (random.nextInt(depth <= 0 ? 2 : 7)) {
+            case 0: return leaf();
+            case 1: return leaf();
+            case 2: return "( " + expression(depth - 1) + " )";
+            case 3: return "print ( " + expression(depth - 1) + " )";
+            case 4:
+                if (callable > 0 && random.nextInt(3) == 0) return "h" + random.nextInt(callable) + " ( )";
+                // si no, un operador
+            default:
+                return expression(depth - 1) + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " "
+                    + expression(depth - 1);
+        }
+    }
+
+    private String leaf() {
+        switch (random.nextInt(6)) {
+            case 0: return String.valueOf(random.nextInt(5));
+            case 1: return "\"s" + random.nextInt(3) + "\"";
+            case 2: return random.nextInt(5) + ".5";
+            default: return variables.isEmpty() ? "1" : pick();
+        }
+    }
+
+    private String pick() {
+        return variables.get(random.nextInt(variables.size()));
+    }
+}
@@ -0,0 +1,64 @@
+package harness;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Ejecuta todas las pruebas de test/. Se compila junto con src/ usando solo javac:
+ *
+ *   javac -encoding UTF-8 -d out $(find src test -name '*.java')
+ *   java -cp out harness.RunAll
+ *
+ * VectorCharScanner (src-vector/) necesita el modulo incubadora jdk.incubator.vector,
+ * asi que se compila despues y aparte; para que CharScanner.best() lo use, y
+ * CharScannerTest lo compare con el escalar, se corre con el mismo modulo:
+ *
+ *   javac -encoding UTF-8 --add-modules jdk.incubator.vector -cp out -d out src-vector/lexer/VectorCharScanner.java
+ *   java --add-modules jdk.incubator.vector -cp out harness.RunAll
+ *
+ * Termina con codigo 1 si alguna prueba falla.
+ */
+public final class RunAll {
+    private static final String[] TESTS = {
+        "lexer.StreamingLexerTest",
+        "lexer.MappedLexerTest",
+        "lexer.TokenBufferTest",
+        "lexer.ParallelLexerTest",
+        "lexer.PipelinedTokenSourceTest",
+        "lexer.CharScannerTest",
+        "lexer.LanguageDetectorTest",
+        "parser.ExpressionParserTest",
+        "parser.StatementParserTest",
+        "parser.ParseProfilerTest",
+        "ast.FreezeTest",
+        "ast.AstArenaTest",
+        "parser.ParallelParserTest",
+        "parser.IncrementalParserTest",
+        "ast.AstSerializerTest",
+        "ast.HashConsingTest",
+        "interpreter.LexicalAddressingTest",
+        "semantic.SymbolTableTest",
+        "semantic.PassManagerTest",
+        "semantic.ParallelAnalysisTest",
+        "semantic.AnalysisSessionTest",
+        "semantic.TypeInferenceTest",
+        "optimizer.ASTOptimizerTest",
+        "util.ManejadorErroresTest",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int failed = 0;
+        for (String name : TESTS) {
+            long start = System.nanoTime();
+            try {
+                Class.forName(name).getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+                System.out.printf("ok    %s (%d ms)%n", name, (System.nanoTime() - start) / 1_000_000);
+            } catch (InvocationTargetException e) {
+                failed++;
+                System.out.println("FALLO " + name);
+                e.getCause().printStackTrace(System.out);
+            }
+        }
+        System.out.println(failed == 0 ? "Todas las pruebas pasaron" : failed + " prueba(s) fallaron");
+        if (failed > 0) System.exit(1);
+    }
+}
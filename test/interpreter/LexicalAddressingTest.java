@@ -0,0 +1,207 @@
+package interpreter;
+
+import ast.*;
+import harness.Check;
+import harness.Execution;
+import harness.Programs;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import lexer.Lexer;
+import parser.Parser;
+
+/**
+ * El Interpreter lee y escribe las variables por la direccion (profundidad, slot) que
+ * anoto el analisis semantico. Se compara contra Reference, que busca cada nombre en
+ * una pila de mapas como lo hacia el interprete original, salvo que una asignacion
+ * modifica la variable del scope que la declaro en vez de crear una en el actual.
+ */
+public class LexicalAddressingTest {
+    public static void main(String[] args) {
+        check("var x : int = 1 ; { x = 2 ; } print ( x ) ;", "2.0\n");
+        check("var x : int = 1 ; { var x : int = 5 ; x = 6 ; print ( x ) ; } print ( x ) ;", "6.0\n1.0\n");
+        check("var x : int = 1 ; var c : int = 0 ; while ( c < 3 ) { c = c + 1 ; x = x * 2 ; } print ( x ) ;",
+            "8.0\n");
+        // En su propio valor inicial la variable todavia no existe: se lee la de afuera
+        check("var x : int = 1 ; { var x : int = x + 10 ; print ( x ) ; } print ( x ) ;", "11.0\n1.0\n");
+        // El cuerpo de una funcion ve las globales, no las locales de quien la llama
+        check("var x : int = 1 ; function f ( ) { print ( x ) ; x = x + 1 ; }"
+            + " { var x : int = 100 ; f ( ) ; } f ( ) ; print ( x ) ;", "1.0\n2.0\n3.0\n");
+        check("function f ( ) { var y : int = 4 ; return y ; } print ( f ( ) + f ( ) ) ;", "8.0\n");
+
+        Random random = new Random(18);
+        for (int i = 0; i < 1500; i++) {
+            String source = Programs.generate(random);
+            String expected = Reference.run(new Parser(new Lexer(source)).parse());
+            Check.equal(expected, runtimeOnly(Execution.run(new Parser(new Lexer(source)).parse())), source);
+        }
+    }
+
+    private static void check(String source, String printed) {
+        String result = runtimeOnly(Execution.run(new Parser(new Lexer(source)).parse()));
+        Check.equal("termina bien\n" + printed, result, source);
+        Check.equal(Reference.run(new Parser(new Lexer(source)).parse()), result, "referencia de " + source);
+    }
+
+    // Sin los errores semanticos: solo como termina y lo que imprime
+    private static String runtimeOnly(String execution) {
+        return execution.replaceAll("(?m)^error: .*\n", "");
+    }
+
+    /** Interprete por nombres, sin analisis semantico; mismos mensajes que Interpreter. */
+    private static final class Reference {
+        private final Map<String, FunctionNode> functions = new HashMap<>();
+        private final StringBuilder printed = new StringBuilder();
+        private List<Map<String, Object>> scopes = new ArrayList<>();
+        private int executionDepth = 0;
+
+        static String run(ProgramNode program) {
+            Reference reference = new Reference();
+            String end;
+            try {
+                reference.interpret(program);
+                end = "termina bien\n";
+            } catch (RuntimeException e) {
+                if (e instanceof Return) throw e;
+                end = "falla: " + e.getClass().getSimpleName() + " " + e.getMessage() + "\n";
+            }
+            return end + reference.printed;
+        }
+
+        private void interpret(ProgramNode program) {
+            scopes.add(new HashMap<>());
+            for (ASTNode node : program.getDeclarations()) {
+                if (node instanceof FunctionNode) {
+                    functions.put(((FunctionNode) node).getFunctionName(), (FunctionNode) node);
+                }
+            }
+            for (ASTNode node : program.getDeclarations()) {
+                if (!(node instanceof FunctionNode)) evaluate(node);
+            }
+        }
+
+        private Map<String, Object> owner(String name) {
+            for (int i = scopes.size() - 1; i >= 0; i--) {
+                if (scopes.get(i).containsKey(name)) return scopes.get(i);
+            }
+            throw new RuntimeException("Variable no definida: " + name);
+        }
+
+        private Object evaluate(ASTNode node) {
+            if (node instanceof AssignmentNode) {
+                AssignmentNode assignment = (AssignmentNode) node;
+                Object value = evaluate(assignment.getValue());
+                owner(assignment.getVariableName()).put(assignment.getVariableName(), value);
+                return value;
+            }
+            if (node instanceof VariableDeclNode) {
+                VariableDeclNode declaration = (VariableDeclNode) node;
+                Object value = declaration.getInitialValue() != null ? evaluate(declaration.getInitialValue()) : null;
+                scopes.get(scopes.size() - 1).put(declaration.getVariableName(), value);
+                return value;
+            }
+            if (node instanceof IdentifierNode) {
+                String name = ((IdentifierNode) node).getName();
+                return owner(name).get(name);
+            }
+            if (node instanceof LiteralNode) return ((LiteralNode) node).getValue();
+            if (node instanceof BinaryExpression) return binary((BinaryExpression) node);
+            if (node instanceof BlockNode) {
+                scopes.add(new HashMap<>());
+                try {
+                    Object result = null;
+                    for (ASTNode statement : ((BlockNode) node).getStatements()) result = evaluate(statement);
+                    return result;
+                } finally {
+                    scopes.remove(scopes.size() - 1);
+                }
+            }
+            if (node instanceof ExpressionStatementNode) return evaluate(((ExpressionStatementNode) node).getExpression());
+            if (node instanceof PrintNode) return print(evaluate(((PrintNode) node).getValue()));
+            if (node instanceof CallNode) return call((CallNode) node);
+            if (node instanceof IfNode) {
+                IfNode branch = (IfNode) node;
+                if (Interpreter.isTruthy(evaluate(branch.getCondition()))) return evaluate(branch.getThenBlock());
+                return branch.getElseBlock() != null ? evaluate(branch.getElseBlock()) : null;
+            }
+            if (node instanceof WhileNode) {
+                WhileNode loop = (WhileNode) node;
+                Object result = null;
+                while (Interpreter.isTruthy(evaluate(loop.getCondition()))) {
+                    result = evaluate(loop.getBody());
+                    if (executionDepth++ > 1000) throw new RuntimeException("Profundidad de ejecución excedida");
+                }
+                return result;
+            }
+            if (node instanceof ReturnNode) {
+                ReturnNode ret = (ReturnNode) node;
+                throw new Return(ret.getValue() != null ? evaluate(ret.getValue()) : null);
+            }
+            return null;
+        }
+
+        private Object print(Object value) {
+            printed.append(value).append('\n');
+            return value;
+        }
+
+        private Object call(CallNode node) {
+            if (node.getFunctionName().equals("print")) {
+                return node.getArguments().isEmpty() ? null : print(evaluate(node.getArguments().get(0)));
+            }
+            FunctionNode function = functions.get(node.getFunctionName());
+            if (function == null) throw new RuntimeException("Función no encontrada: " + node.getFunctionName());
+            List<Map<String, Object>> caller = scopes;
+            scopes = new ArrayList<>();
+            scopes.add(caller.get(0));
+            scopes.add(new HashMap<>());
+            try {
+                return function.getBody() != null ? evaluate(function.getBody()) : null;
+            } catch (Return e) {
+                return e.value;
+            } finally {
+                scopes = caller;
+            }
+        }
+
+        private Object binary(BinaryExpression node) {
+            Object left = evaluate(node.getLeft());
+            Object right = evaluate(node.getRight());
+            if (!(left instanceof Number) || !(right instanceof Number)) {
+                throw new RuntimeException("Operación numérica inválida con tipos no numéricos");
+            }
+            double l = ((Number) left).doubleValue();
+            double r = ((Number) right).doubleValue();
+            switch (node.getOperator()) {
+                case "+": return l + r;
+                case "-": return l - r;
+                case "*": return l * r;
+                case "/":
+                    if (r == 0) throw new RuntimeException("División por cero");
+                    return l / r;
+                case "<": return l < r;
+                case ">": return l > r;
+                case "<=": return l <= r;
+                case ">=": return l >= r;
+                case "==": return left.equals(right);
+                case "!=": return !left.equals(right);
+                default: throw new RuntimeException("Operador no soportado: " + node.getOperator());
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Return extends RuntimeException {
+        final Object value;
+
+        Return(Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+}
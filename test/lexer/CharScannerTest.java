@@ -0,0 +1,87 @@
+package lexer;
+
+import harness.Check;
+import java.util.Random;
+import util.Interner;
+
+/**
+ * Lexer con CharScanner produce los mismos tokens que el constructor normal, con
+ * ScalarCharScanner y con CharScanner.best() (VectorCharScanner si se compilo
+ * src-vector y se corre con --add-modules jdk.incubator.vector). Las entradas tienen
+ * rachas largas de espacios, identificadores, digitos, comentarios y cadenas para
+ * que el scanner vectorial recorra varios vectores completos y el resto final.
+ * Si best() no es el escalar, cada metodo se compara tambien con el escalar.
+ */
+public class CharScannerTest {
+    private static final String[] RUNS = {" ", "\t", "\n", "\r\n", "a", "Z", "7", "x9", "_", "ñ"};
+
+    public static void main(String[] args) {
+        CharScanner[] scanners = {new ScalarCharScanner(), CharScanner.best()};
+        Random random = new Random(7);
+        for (int i = 0; i < 6000; i++) {
+            String text;
+            switch (i % 3) {
+                case 0: text = LexerInputs.random(random, random.nextInt(200)); break;
+                case 1: text = LexerInputs.nonAscii(random, random.nextInt(200)); break;
+                default: text = withRuns(random); break;
+            }
+            String expected = LexerInputs.tokens(new Lexer(text)).toString();
+            for (CharScanner scanner : scanners) {
+                Check.equal(expected, LexerInputs.tokens(new Lexer(text, new Interner(), scanner)).toString(),
+                    scanner.getClass().getSimpleName() + ": " + text);
+            }
+        }
+
+        if (scanners[1].getClass() != ScalarCharScanner.class) {
+            sameAsScalar(scanners[0], scanners[1], random);
+        }
+    }
+
+    // Rachas de 0 a 300 caracteres iguales o alternados, separadas por trozos de SimpleLang
+    private static String withRuns(Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(6); i >= 0; i--) {
+            text.append(LexerInputs.random(random, random.nextInt(4)));
+            int length = random.nextInt(300);
+            switch (random.nextInt(4)) {
+                case 0:
+                    for (int k = 0; k < length; k++) text.append(RUNS[random.nextInt(4)]);
+                    break;
+                case 1:
+                    text.append('v');
+                    for (int k = 0; k < length; k++) text.append(RUNS[4 + random.nextInt(RUNS.length - 4)]);
+                    break;
+                case 2:
+                    text.append(random.nextBoolean() ? "//" : "\"");
+                    for (int k = 0; k < length; k++) text.append((char) ('!' + random.nextInt(90)));
+                    text.append(random.nextBoolean() ? "\n" : "\"");
+                    break;
+                default:
+                    for (int k = 0; k < length; k++) text.append((char) ('0' + random.nextInt(10)));
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    // Cada metodo da lo mismo que el escalar en rangos al azar de arreglos al azar
+    private static void sameAsScalar(CharScanner scalar, CharScanner scanner, Random random) {
+        String alphabet = " \t\r\n\"azAZ09_@`[{/éŁ耀￿";
+        for (int i = 0; i < 20_000; i++) {
+            char[] chars = new char[random.nextInt(200)];
+            char run = alphabet.charAt(random.nextInt(alphabet.length()));
+            for (int k = 0; k < chars.length; k++) {
+                chars[k] = random.nextInt(8) == 0 ? alphabet.charAt(random.nextInt(alphabet.length())) : run;
+            }
+            int from = chars.length == 0 ? 0 : random.nextInt(chars.length + 1);
+            int to = from + random.nextInt(chars.length - from + 1);
+            String context = new String(chars) + " [" + from + ", " + to + ")";
+            Check.equal(scalar.skipWhitespace(chars, from, to), scanner.skipWhitespace(chars, from, to), context);
+            Check.equal(scalar.skipIdentifierChars(chars, from, to), scanner.skipIdentifierChars(chars, from, to), context);
+            Check.equal(scalar.skipDigits(chars, from, to), scanner.skipDigits(chars, from, to), context);
+            Check.equal(scalar.findQuoteOrNewline(chars, from, to), scanner.findQuoteOrNewline(chars, from, to), context);
+            Check.equal(scalar.findNewline(chars, from, to), scanner.findNewline(chars, from, to), context);
+            Check.equal(scalar.countNewlines(chars, from, to), scanner.countNewlines(chars, from, to), context);
+        }
+    }
+}
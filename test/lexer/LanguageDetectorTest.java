@@ -0,0 +1,109 @@
+package lexer;
+
+import harness.Check;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LanguageDetector responde lo mismo que buscar cada patron con Pattern.find()
+ * precompilado: en entradas al azar de varias lineas, con \b seguido de letras,
+ * digitos, '_', marcas combinantes, caracteres fuera del BMP o el fin del texto, y
+ * con detect(code, maxChars) cortando en cualquier punto (el \b del corte mira el
+ * caracter siguiente, como una region con limites transparentes). En las entradas
+ * de una sola linea tambien coincide con el matches(".*p.*") anterior.
+ */
+public class LanguageDetectorTest {
+    // Los patrones de LanguageDetector, como referencia
+    private static final String[] JAVA = {
+        "public\\s+class", "private\\s+", "protected\\s+", "import\\s+java", "System\\.out\\.print",
+        "void\\s+main", "new\\s+\\w+\\(", "package\\s+", "class\\s+\\w+\\s*\\{", "this\\.",
+        "extends\\s+", "implements\\s+"
+    };
+    private static final String[] SIMPLE_LANG = {
+        "var\\s+\\w+\\s*:", "function\\s+\\w+\\s*\\(", "print\\s*\\(", ":\\s*int\\b", ":\\s*float\\b",
+        ":\\s*string\\b", ":\\s*boolean\\b"
+    };
+
+    private static final String[] PIECES = {
+        "public", "private", "protected", "class", "import", "java", "System.out.print", "void", "main",
+        "new", "package", "this.", "extends", "implements", "var", "function", "print", "int", "float",
+        "string", "boolean", "Foo", "x", "x1", ":", "(", "{", ".", ";", " ", " ", "\t", "\n", "\r\n",
+        "_", "9", "\u00e9", "\u03a9", "\u0663", "\u0301", "\ud83d\ude42", "\ud835\udc65", "\u2028", "\u0085",
+        "\u20ac", "\u00a0"
+    };
+
+    private static final Pattern[] JAVA_FIND = compile(JAVA);
+    private static final Pattern[] SIMPLE_LANG_FIND = compile(SIMPLE_LANG);
+
+    public static void main(String[] args) {
+        Random random = new Random(9);
+        int java = 0;
+        int simpleLang = 0;
+        for (int i = 0; i < 50_000; i++) {
+            String code = random(random);
+            boolean expectedJava = find(JAVA_FIND, code, code.length());
+            boolean expectedSimpleLang = find(SIMPLE_LANG_FIND, code, code.length());
+            if (expectedJava) java++;
+            if (expectedSimpleLang) simpleLang++;
+            Check.equal(expectedJava, LanguageDetector.isJavaCode(code), "java: " + code);
+            Check.equal(expectedSimpleLang, LanguageDetector.isSimpleLangCode(code), "simpleLang: " + code);
+
+            LanguageDetector.Detection detection = LanguageDetector.detect(code);
+            Check.equal(expectedJava, detection.isJava(), "detect java: " + code);
+            Check.equal(expectedSimpleLang, detection.isSimpleLang(), "detect simpleLang: " + code);
+            Check.isTrue(!detection.isSampled(), "sin muestra: " + code);
+
+            int maxChars = random.nextInt(code.length() + 2) - 1;
+            int limit = Math.max(0, Math.min(maxChars, code.length()));
+            LanguageDetector.Detection prefix = LanguageDetector.detect(code, maxChars);
+            String context = "primeros " + maxChars + " de: " + code;
+            Check.equal(find(JAVA_FIND, code, limit), prefix.isJava(), "java, " + context);
+            Check.equal(find(SIMPLE_LANG_FIND, code, limit), prefix.isSimpleLang(), "simpleLang, " + context);
+            Check.equal(limit < code.length(), prefix.isSampled(), context);
+
+            if (singleLine(code)) {
+                Check.equal(matches(JAVA, code), expectedJava, "matches java: " + code);
+                Check.equal(matches(SIMPLE_LANG, code), expectedSimpleLang, "matches simpleLang: " + code);
+            }
+        }
+        Check.isTrue(java > 1000 && simpleLang > 1000, "entradas con coincidencias: " + java + " " + simpleLang);
+    }
+
+    private static String random(Random random) {
+        StringBuilder code = new StringBuilder();
+        for (int i = random.nextInt(30); i > 0; i--) code.append(PIECES[random.nextInt(PIECES.length)]);
+        return code.toString();
+    }
+
+    private static Pattern[] compile(String[] patterns) {
+        Pattern[] compiled = new Pattern[patterns.length];
+        for (int i = 0; i < patterns.length; i++) compiled[i] = Pattern.compile(patterns[i]);
+        return compiled;
+    }
+
+    // find() en code[0, limit) viendo los caracteres de afuera para \b
+    private static boolean find(Pattern[] patterns, String code, int limit) {
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(code).region(0, limit).useTransparentBounds(true);
+            if (matcher.find()) return true;
+        }
+        return false;
+    }
+
+    // La implementacion anterior
+    private static boolean matches(String[] patterns, String code) {
+        for (String pattern : patterns) {
+            if (code.matches(".*" + pattern + ".*")) return true;
+        }
+        return false;
+    }
+
+    private static boolean singleLine(String code) {
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return false;
+        }
+        return true;
+    }
+}
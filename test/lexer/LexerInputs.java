@@ -0,0 +1,61 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Entradas aleatorias para comparar los front-ends del lexer: trozos de SimpleLang
+ * pegados sin orden, con comentarios, cadenas sin cerrar y caracteres sueltos.
+ */
+final class LexerInputs {
+    private static final String[] PIECES = {
+        "var ", "x1", " : ", "int", "float", " = ", "12.5", "3", "7.", ";", "\n", "\t", "\r\n",
+        "function ", "f", "(", ")", "{", "}", "if", "else", "while", "return", "true", "false",
+        "\"hola\nmundo\"", "\"\"", "// comentario\n", "//", "==", "!=", "<=", ">=", "<", ">", "!",
+        "&&", "||", "&", "|", "+", "-", "*", "/", ",", "ñandú", "print", " ", "#", "@", "_"
+    };
+
+    // Letras, digitos y simbolos fuera de ASCII: acentos, CJK, marcas combinantes, digitos
+    // arabigo-indicos (solo validos dentro de un identificador) y caracteres fuera del BMP
+    private static final String[] NON_ASCII = {
+        "é", "ñ", "Ω", "漢字", "\u0301", "€", "\u00a0", "\u2028", "🙂", "𝑥", "\"🙂\"", "// 🙂\n", "x🙂", "ÿ",
+        "٣", "x٣", "3٣", "١٢.٥"
+    };
+
+    private LexerInputs() {
+    }
+
+    static String random(Random random, int pieces) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieces; i++) text.append(PIECES[random.nextInt(PIECES.length)]);
+        if (random.nextInt(10) == 0) text.append("\"abierto");
+        return text.toString();
+    }
+
+    // Como random(), pero mezclando trozos fuera de ASCII
+    static String nonAscii(Random random, int pieces) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            String[] from = random.nextInt(3) == 0 ? NON_ASCII : PIECES;
+            text.append(from[random.nextInt(from.length)]);
+        }
+        return text.toString();
+    }
+
+    // Todos los tokens hasta el EOF final (lexema vacio); null se guarda como "null"
+    static List<String> tokens(TokenSource source) {
+        List<String> tokens = new ArrayList<>();
+        while (true) {
+            Token token = source.nextToken();
+            tokens.add(describe(token));
+            if (token != null && token.getType() == TokenType.EOF && token.getLexeme().isEmpty()) return tokens;
+        }
+    }
+
+    static String describe(Token token) {
+        if (token == null) return "null";
+        return token.getType() + "|" + token.getLexeme() + "|" + token.getLiteral()
+            + "|" + token.getLine() + "|" + token.getOffset() + "|" + token.getSymbolId();
+    }
+}
@@ -0,0 +1,60 @@
+package lexer;
+
+import harness.Check;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * MappedLexer produce los mismos tokens que Lexer sobre el texto decodificado, con
+ * entradas ASCII y con letras, simbolos y caracteres fuera del BMP.
+ */
+public class MappedLexerTest {
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(2);
+        for (int i = 0; i < 4000; i++) {
+            String text = i % 2 == 0
+                ? LexerInputs.random(random, random.nextInt(200))
+                : LexerInputs.nonAscii(random, random.nextInt(200));
+            check(text);
+        }
+
+        // Caracter fuera del BMP: Lexer ve dos surrogates y reporta un EOF por cada uno
+        check("a 🙂 b");
+        check("🙂🙂");
+
+        // Bytes 0xF8-0xFF: cada uno es un caracter mal formado, igual que al decodificar con String
+        for (int lead = 0xF8; lead <= 0xFF; lead++) {
+            checkBytes(new byte[] {'a', ' ', (byte) lead, ' ', 'b'});
+            checkBytes(new byte[] {(byte) lead, (byte) 0x80, (byte) 0x80, 'x', '1'});
+            checkBytes(new byte[] {'"', (byte) lead, (byte) 0xBF, '"', ';'});
+        }
+
+        // Tambien sobre un archivo mapeado de verdad
+        Path file = Files.createTempFile("mapped", ".sl");
+        try {
+            String text = LexerInputs.nonAscii(new Random(3), 5000);
+            Files.writeString(file, text);
+            try (MappedLexer mapped = new MappedLexer(file)) {
+                Check.equal(LexerInputs.tokens(new Lexer(text)), LexerInputs.tokens(mapped), "archivo mapeado");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void check(String text) {
+        List<String> expected = LexerInputs.tokens(new Lexer(text));
+        ByteBuffer utf8 = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        Check.equal(expected, LexerInputs.tokens(new MappedLexer(utf8)), text);
+    }
+
+    private static void checkBytes(byte[] bytes) {
+        List<String> expected = LexerInputs.tokens(new Lexer(new String(bytes, StandardCharsets.UTF_8)));
+        Check.equal(expected, LexerInputs.tokens(new MappedLexer(ByteBuffer.wrap(bytes))), Arrays.toString(bytes));
+    }
+}
@@ -0,0 +1,44 @@
+package lexer;
+
+import harness.Check;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import util.Interner;
+
+/**
+ * ParallelLexer produce la misma secuencia de tokens que Lexer, tambien cuando los
+ * trozos son tan chicos que muchos empiezan dentro de una cadena o de un comentario.
+ * Los ids de simbolo tambien son los mismos: densos y en orden de aparicion, sin
+ * importar que especulaciones se descartaron ni el orden de los hilos.
+ */
+public class ParallelLexerTest {
+    public static void main(String[] args) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(5);
+            for (int i = 0; i < 2000; i++) {
+                String text = i % 2 == 0
+                    ? LexerInputs.random(random, random.nextInt(400))
+                    : LexerInputs.nonAscii(random, random.nextInt(400));
+                Interner sequential = new Interner();
+                List<String> expected = LexerInputs.tokens(new Lexer(text, sequential));
+
+                Interner parallel = new Interner();
+                int chunkSize = 1 + random.nextInt(64);
+                List<Token> tokens = ParallelLexer.tokenize(text, parallel, pool, chunkSize);
+                Check.equal(expected, describe(tokens), "trozos de " + chunkSize + ": " + text);
+                Check.equal(sequential.size(), parallel.size(), "nombres internados: " + text);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        List<String> result = new ArrayList<>();
+        for (Token token : tokens) result.add(LexerInputs.describe(token));
+        return result;
+    }
+}
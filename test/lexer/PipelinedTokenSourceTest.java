@@ -0,0 +1,55 @@
+package lexer;
+
+import harness.Check;
+import java.util.List;
+import java.util.Random;
+import util.Interner;
+
+/**
+ * PipelinedTokenSource entrega la misma secuencia que el TokenSource que envuelve con
+ * cualquier tamaño de lote y de anillo, y despues de close() no se queda esperando.
+ */
+public class PipelinedTokenSourceTest {
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(8);
+        for (int i = 0; i < 1500; i++) {
+            String text = i % 2 == 0
+                ? LexerInputs.random(random, random.nextInt(300))
+                : LexerInputs.nonAscii(random, random.nextInt(300));
+            List<String> expected = LexerInputs.tokens(new Lexer(text));
+            int batch = 1 + random.nextInt(8);
+            int capacity = 1 + random.nextInt(4);
+            try (PipelinedTokenSource pipelined = new PipelinedTokenSource(new Lexer(text), batch, capacity)) {
+                Check.equal(expected, LexerInputs.tokens(pipelined), "lote " + batch + ", anillo " + capacity + ": " + text);
+            }
+        }
+
+        // Entrada sin fin: el productor queda frenado por la contrapresion
+        PipelinedTokenSource endless = new PipelinedTokenSource(new Endless(), 4, 2);
+        Check.isTrue(endless.nextToken() != null, "primer token");
+        endless.close();
+        Thread consumer = new Thread(() -> Check.fails(IllegalStateException.class, () -> {
+            while (true) endless.nextToken();
+        }, "nextToken despues de close"));
+        Throwable[] error = new Throwable[1];
+        consumer.setUncaughtExceptionHandler((thread, e) -> error[0] = e);
+        consumer.start();
+        consumer.join(10_000);
+        Check.isTrue(!consumer.isAlive(), "nextToken despues de close no termina");
+        if (error[0] != null) throw new AssertionError(error[0]);
+    }
+
+    private static final class Endless implements TokenSource {
+        private final Interner interner = new Interner();
+
+        @Override
+        public Token nextToken() {
+            return new Token(TokenType.IDENTIFIER, "x", "x", 1, interner.intern("x"));
+        }
+
+        @Override
+        public Interner getInterner() {
+            return interner;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package lexer;
+
+import harness.Check;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * StreamingLexer produce los mismos tokens que Lexer con cualquier tamaño de ventana,
+ * tanto desde un Reader como desde un canal de bytes UTF-8, con entradas ASCII y no ASCII.
+ */
+public class StreamingLexerTest {
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(1);
+        for (int i = 0; i < 3000; i++) {
+            String text = i % 2 == 0
+                ? LexerInputs.random(random, random.nextInt(200))
+                : LexerInputs.nonAscii(random, random.nextInt(200));
+            List<String> expected = LexerInputs.tokens(new Lexer(text));
+            int window = 2 + random.nextInt(16);
+
+            try (StreamingLexer reader = new StreamingLexer(new StringReader(text), window)) {
+                Check.equal(expected, LexerInputs.tokens(reader), "Reader, ventana " + window + ": " + text);
+            }
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            try (StreamingLexer channel = new StreamingLexer(Channels.newChannel(new ByteArrayInputStream(utf8)), window)) {
+                Check.equal(expected, LexerInputs.tokens(channel), "canal, ventana " + window + ": " + text);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package lexer;
+
+import harness.Check;
+import java.util.Random;
+
+/**
+ * El Cursor de TokenBuffer entrega los mismos tokens que Lexer (tipo, lexema,
+ * literal, linea, posicion e id de simbolo), y los accesos por indice coinciden,
+ * tambien en entradas con mas tokens de los que entran en un bloque.
+ */
+public class TokenBufferTest {
+    public static void main(String[] args) {
+        Random random = new Random(4);
+        for (int i = 0; i < 3000; i++) {
+            // Cada tanto una entrada larga, con varios bloques de tokens
+            int length = i % 100 == 0 ? 20_000 : random.nextInt(200);
+            String text = i % 2 == 0
+                ? LexerInputs.random(random, length)
+                : LexerInputs.nonAscii(random, length);
+            Lexer lexer = new Lexer(text);
+            TokenBuffer buffer = TokenBuffer.tokenize(text);
+            TokenBuffer.Cursor cursor = buffer.cursor();
+
+            for (int index = 0; index < buffer.size(); index++) {
+                Token expected = lexer.nextToken();
+                Token actual = cursor.nextToken();
+                String context = "token " + index + " de: " + text;
+                Check.equal(LexerInputs.describe(expected), LexerInputs.describe(actual), context);
+                if (expected == null) {
+                    Check.equal(null, buffer.type(index), context);
+                    continue;
+                }
+                Check.equal(expected.getOffset(), actual.getOffset(), context);
+                Check.equal(expected.getSymbolId(), actual.getSymbolId(), context);
+                Check.equal(expected.getLexeme(), buffer.lexeme(index).toString(), context);
+                Check.equal(expected.getLine(), buffer.line(index), context);
+            }
+            Check.equal(LexerInputs.describe(lexer.nextToken()), LexerInputs.describe(cursor.nextToken()),
+                "EOF repetido al final de: " + text);
+        }
+    }
+}
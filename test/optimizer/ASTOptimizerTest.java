@@ -0,0 +1,70 @@
+package optimizer;
+
+import ast.*;
+import harness.AstDump;
+import harness.Check;
+import harness.Execution;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import lexer.Lexer;
+import parser.Parser;
+import semantic.SemanticAnalyzer;
+import util.ManejadorErrores;
+
+/**
+ * El programa optimizado se ejecuta igual que el original (misma salida y mismo error,
+ * incluida la division por cero) y el original queda sin tocar. Ademas se comprueba
+ * que cada transformacion ocurre: plegado, propagacion, ramas y codigo muerto.
+ */
+public class ASTOptimizerTest {
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            ASTOptimizer optimizer = same("print ( 2 * 3 + 1 ) ;");
+            Check.equal(2, optimizer.getFoldedCount(), "plegado");
+            optimizer = same("var k : int = 4 ; print ( k * 2 ) ;");
+            Check.equal(1, optimizer.getPropagatedCount(), "propagacion");
+            Check.equal(1, optimizer.getFoldedCount(), "plegado despues de propagar");
+            optimizer = same("var k : int = 4 ; k = 5 ; print ( k * 2 ) ;");
+            Check.equal(0, optimizer.getPropagatedCount(), "variable asignada dos veces");
+            optimizer = same("if ( 1 < 0 ) { print ( 1 ) ; } else { print ( 2 ) ; } while ( 0 ) { print ( 3 ) ; }");
+            Check.equal(2, optimizer.getRemovedCount(), "rama y while muertos");
+            optimizer = same("function f ( ) { return 1 ; print ( 2 ) ; } print ( f ( ) ) ;");
+            Check.equal(1, optimizer.getRemovedCount(), "despues de return");
+            // Los errores siguen ocurriendo al ejecutar
+            same("print ( 1 ) ; print ( 1 / 0 ) ;");
+            same("var s : string = \"a\" ; print ( s + 1 ) ;");
+
+            Random random = new Random(25);
+            int folded = 0;
+            int propagated = 0;
+            int removed = 0;
+            for (int i = 0; i < 2000; i++) {
+                String source = i % 4 == 3 ? Programs.withErrors(random) : Programs.generate(random);
+                optimizer = same(source);
+                folded += optimizer.getFoldedCount();
+                propagated += optimizer.getPropagatedCount();
+                removed += optimizer.getRemovedCount();
+            }
+            Check.isTrue(folded > 0 && propagated > 0 && removed > 0,
+                "transformaciones: " + folded + " " + propagated + " " + removed);
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+        }
+    }
+
+    private static ASTOptimizer same(String source) {
+        ProgramNode original = new Parser(new Lexer(source)).parse();
+        new SemanticAnalyzer().analyze(original);
+        String before = AstDump.of(original);
+        ASTOptimizer optimizer = new ASTOptimizer();
+        ProgramNode optimized = optimizer.optimize(original);
+        Check.equal(before, AstDump.of(original), "el original no cambia en " + source);
+        Check.equal(Execution.interpret(original), Execution.interpret(optimized), source);
+        return optimizer;
+    }
+}
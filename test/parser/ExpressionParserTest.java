@@ -0,0 +1,174 @@
+package parser;
+
+import ast.ASTNode;
+import ast.AssignmentNode;
+import ast.BinaryExpression;
+import ast.CallNode;
+import ast.IdentifierNode;
+import ast.LiteralNode;
+import ast.ProgramNode;
+import harness.Check;
+import java.util.Random;
+import lexer.Lexer;
+
+/**
+ * El analisis iterativo de expresiones construye los arboles que dicta la tabla de
+ * precedencia (todos los operadores asociativos a la izquierda). Se generan arboles
+ * al azar, se escriben solo con los parentesis necesarios (y algunos de mas) y el
+ * Parser debe reconstruir exactamente el mismo arbol. Ademas, un anidamiento de un
+ * millon de niveles no agota la pila.
+ */
+public class ExpressionParserTest {
+    private static final String[] OPERATORS = {"||", "&&", "==", "!=", "<", ">", "<=", ">=", "+", "-", "*", "/"};
+
+    public static void main(String[] args) {
+        Random random = new Random(10);
+        for (int i = 0; i < 20000; i++) {
+            Node tree = tree(random, 1 + random.nextInt(6));
+            StringBuilder source = new StringBuilder("z = ");
+            write(tree, source, random);
+            source.append(";");
+            Check.equal(tree.toString(), render(parseValue(source.toString())), source.toString());
+        }
+
+        Check.equal("(- (- a b) c)", render(parseValue("z = a - b - c;")), "asociatividad izquierda");
+        Check.equal("(|| a (&& b (== c (< d (+ e (* f g))))))",
+            render(parseValue("z = a || b && c == d < e + f * g;")), "escalera de precedencias");
+
+        int depth = 1_000_000;
+        Check.equal(depth, depth(parseValue("z = " + "(1 + ".repeat(depth) + "1" + ")".repeat(depth) + ";")),
+            "un millon de parentesis");
+        Check.equal(depth, depth(parseValue("z = " + "f(".repeat(depth) + "1" + ")".repeat(depth) + ";")),
+            "un millon de llamadas anidadas");
+    }
+
+    // Arbol esperado, con la misma forma que imprime render()
+    private static final class Node {
+        final String text;
+        final String operator;
+        final Node left;
+        final Node right;
+        final Node[] arguments;
+
+        Node(String text, String operator, Node left, Node right, Node[] arguments) {
+            this.text = text;
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public String toString() {
+            if (operator != null) return "(" + operator + " " + left + " " + right + ")";
+            if (arguments == null) return text;
+            StringBuilder call = new StringBuilder(text).append('[');
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) call.append(", ");
+                call.append(arguments[i]);
+            }
+            return call.append(']').toString();
+        }
+    }
+
+    private static Node tree(Random random, int depth) {
+        int kind = random.nextInt(depth <= 0 ? 3 : 6);
+        switch (kind) {
+            case 0: return new Node(random.nextInt(10) + ".0", null, null, null, null);
+            case 1: return new Node("v" + random.nextInt(5), null, null, null, null);
+            case 2: return new Node("\"s" + random.nextInt(3) + "\"", null, null, null, null);
+            case 3: {
+                Node[] arguments = new Node[random.nextInt(4)];
+                for (int i = 0; i < arguments.length; i++) arguments[i] = tree(random, depth - 1);
+                return new Node("f" + random.nextInt(3), null, null, null, arguments);
+            }
+            default: {
+                String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+                return new Node(null, operator, tree(random, depth - 1), tree(random, depth - 1), null);
+            }
+        }
+    }
+
+    // Parentesis solo donde la precedencia o la asociatividad los exigen, y a veces de mas
+    private static void write(Node node, StringBuilder out, Random random) {
+        if (node.operator != null) {
+            int precedence = precedence(node.operator);
+            writeChild(node.left, precedence(node.left) < precedence, out, random);
+            out.append(' ').append(node.operator).append(' ');
+            writeChild(node.right, precedence(node.right) <= precedence, out, random);
+        } else if (node.arguments != null) {
+            out.append(node.text).append('(');
+            for (int i = 0; i < node.arguments.length; i++) {
+                if (i > 0) out.append(", ");
+                write(node.arguments[i], out, random);
+            }
+            out.append(')');
+        } else {
+            out.append(node.text.endsWith(".0") ? node.text.substring(0, node.text.length() - 2) : node.text);
+        }
+    }
+
+    private static void writeChild(Node child, boolean needed, StringBuilder out, Random random) {
+        boolean parens = needed || random.nextInt(8) == 0;
+        if (parens) out.append('(');
+        write(child, out, random);
+        if (parens) out.append(')');
+    }
+
+    private static int precedence(Node node) {
+        return node.operator == null ? Integer.MAX_VALUE : precedence(node.operator);
+    }
+
+    private static int precedence(String operator) {
+        switch (operator) {
+            case "||": return 1;
+            case "&&": return 2;
+            case "==": case "!=": return 3;
+            case "<": case ">": case "<=": case ">=": return 4;
+            case "+": case "-": return 5;
+            default: return 6;
+        }
+    }
+
+    private static ASTNode parseValue(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        ProgramNode program = parser.parse();
+        Check.equal("[]", parser.getErrors().toString(), "errores de " + source);
+        return ((AssignmentNode) program.getDeclarations().get(0)).getValue();
+    }
+
+    private static String render(ASTNode node) {
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            return "(" + binary.getOperator() + " " + render(binary.getLeft()) + " " + render(binary.getRight()) + ")";
+        }
+        if (node instanceof CallNode) {
+            StringBuilder call = new StringBuilder(((CallNode) node).getFunctionName()).append('[');
+            boolean first = true;
+            for (ASTNode argument : ((CallNode) node).getArguments()) {
+                if (!first) call.append(", ");
+                call.append(render(argument));
+                first = false;
+            }
+            return call.append(']').toString();
+        }
+        if (node instanceof IdentifierNode) return ((IdentifierNode) node).getName();
+        Object value = ((LiteralNode) node).getValue();
+        return value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+    }
+
+    // Profundidad siguiendo el lado derecho o el unico argumento, sin recursion
+    private static int depth(ASTNode node) {
+        int depth = 0;
+        while (true) {
+            if (node instanceof BinaryExpression) {
+                node = ((BinaryExpression) node).getRight();
+            } else if (node instanceof CallNode) {
+                node = ((CallNode) node).getArguments().get(0);
+            } else {
+                return depth;
+            }
+            depth++;
+        }
+    }
+}
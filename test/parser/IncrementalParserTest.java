@@ -0,0 +1,118 @@
+package parser;
+
+import ast.ASTNode;
+import ast.ProgramNode;
+import harness.AstDump;
+import harness.Check;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lexer.Lexer;
+import semantic.AnalysisPass;
+import semantic.PassManager;
+import util.ManejadorErrores;
+
+/**
+ * Una cadena de ediciones al azar (caracteres sueltos, saltos de linea, tramos borrados
+ * o pegados, tambien dentro de comentarios y strings) aplicadas con reparse da despues
+ * de cada una el mismo arbol que parsear el texto desde cero: la misma estructura, las
+ * mismas lineas en el texto (base de la declaracion mas la del nodo) y los mismos
+ * limites y bases en el Snapshot. El Snapshot anterior no cambia.
+ */
+public class IncrementalParserTest {
+    private static final String[] PIECES = {
+        "\n", "\n\n", " ", "x", "1", ";", "{", "}", "(", ")", "\"", "// nota\n", "/* a\nb */",
+        "var z : int = 3 ;\n", "function g ( ) {\n print ( 1 ) ;\n}\n", "if ( x ) { ", " } else { ",
+    };
+
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(13);
+            int reused = 0;
+            for (int i = 0; i < 120; i++) {
+                String text = Programs.generate(random, 2 + random.nextInt(6));
+                IncrementalParser.Snapshot snapshot = IncrementalParser.parse(text);
+                compare(snapshot, text);
+                for (int edit = 0; edit < 25; edit++) {
+                    String next = edit(text, random);
+                    List<Integer> before = lines(snapshot.getProgram());
+                    String beforeDump = dump(snapshot.getProgram());
+                    IncrementalParser.Snapshot reparsed = IncrementalParser.reparse(snapshot, next);
+                    Check.equal(before, lines(snapshot.getProgram()), "lineas del Snapshot anterior");
+                    Check.equal(beforeDump, dump(snapshot.getProgram()), "Snapshot anterior");
+                    compare(reparsed, next);
+                    reused += reparsed.getReusedCount();
+                    text = next;
+                    snapshot = reparsed;
+                }
+            }
+            Check.isTrue(reused > 0, "se reutilizaron declaraciones");
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+        }
+    }
+
+    private static void compare(IncrementalParser.Snapshot snapshot, String text) {
+        ProgramNode full = new Parser(new Lexer(text)).parse();
+        ProgramNode program = snapshot.getProgram();
+        Check.equal(dump(full), dump(program), "arbol de\n" + text);
+        Check.equal(lines(full), lines(program), "lineas de\n" + text);
+
+        IncrementalParser.Snapshot fresh = IncrementalParser.parse(text);
+        int count = fresh.getProgram().getDeclarations().size();
+        Check.equal(count, program.getDeclarations().size(), "declaraciones de\n" + text);
+        for (int d = 0; d < count; d++) {
+            String context = "declaracion " + d + " de\n" + text;
+            Check.equal(fresh.getStart(d), snapshot.getStart(d), "inicio de la " + context);
+            Check.equal(fresh.getEnd(d), snapshot.getEnd(d), "fin de la " + context);
+            Check.equal(fresh.getLineBase(d), snapshot.getLineBase(d), "base de la " + context);
+            Check.equal(snapshot.getLineBase(d), program.getLineBase(d), "base en el programa de la " + context);
+        }
+    }
+
+    // Las lineas se comparan aparte: en el Snapshot se cuentan desde la base de cada declaracion
+    private static String dump(ProgramNode program) {
+        return AstDump.withNames(program, program.getInterner(), "getLineNumber");
+    }
+
+    // Linea en el texto de cada nodo, en el orden en que el PassManager los visita
+    private static List<Integer> lines(ProgramNode program) {
+        List<Integer> lines = new ArrayList<>();
+        PassManager manager = new PassManager();
+        manager.add(new AnalysisPass() {
+            @Override
+            public String getName() {
+                return "lineas";
+            }
+
+            @Override
+            public void register(PassManager.Registry registry) {
+                registry.onEnter(ASTNode.class, node -> lines.add(registry.lineOf(node)));
+            }
+        });
+        manager.run(program);
+        return lines;
+    }
+
+    /**
+     * Escribe, borra o reemplaza un tramo corto en un lugar al azar. Evita dejar un '&'
+     * o '|' suelto: el Lexer devuelve null para esos y tampoco el parseo completo los acepta.
+     */
+    private static String edit(String text, Random random) {
+        while (true) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(3) == 0 ? 0 : Math.min(text.length() - offset, random.nextInt(12));
+            String inserted = random.nextInt(4) == 0 ? "" : PIECES[random.nextInt(PIECES.length)];
+            if (removed == 0 && inserted.isEmpty()) inserted = "\n";
+            String edited = text.substring(0, offset) + inserted + text.substring(offset + removed);
+            String operators = edited.replace("&&", "").replace("||", "");
+            if (operators.indexOf('&') < 0 && operators.indexOf('|') < 0) return edited;
+        }
+    }
+}
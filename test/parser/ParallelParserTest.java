@@ -0,0 +1,68 @@
+package parser;
+
+import ast.ProgramNode;
+import harness.AstDump;
+import harness.Check;
+import harness.Programs;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import lexer.Lexer;
+import util.Interner;
+
+/**
+ * ParallelParser da el mismo arbol y los mismos diagnosticos que Parser.parse(), con
+ * fuentes lo bastante grandes para repartirse en tramos. Con errores de sintaxis en
+ * algun tramo vuelve al parseo secuencial, asi que los mensajes deben coincidir
+ * exactamente. Los ids de simbolo dependen del orden de internado: se comparan los nombres.
+ */
+public class ParallelParserTest {
+    public static void main(String[] args) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(14);
+            for (int i = 0; i < 60; i++) {
+                StringBuilder source = new StringBuilder();
+                int programs = 40 + random.nextInt(120);
+                int broken = i % 3 == 2 ? random.nextInt(programs) : -1;
+                for (int p = 0; p < programs; p++) {
+                    source.append(p == broken ? Programs.withErrors(random) : Programs.generate(random));
+                }
+                check(source.toString(), pool);
+            }
+            check("", pool);
+            check("var x: int = 1;", pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void check(String source, ForkJoinPool pool) {
+        Interner sequential = new Interner();
+        StringBuilder expectedErrors = new StringBuilder();
+        ProgramNode expected = capture(() -> new Parser(new Lexer(source, sequential)).parse(), expectedErrors);
+
+        Interner parallel = new Interner();
+        StringBuilder actualErrors = new StringBuilder();
+        ProgramNode actual = capture(() -> ParallelParser.parse(source, pool, parallel), actualErrors);
+
+        Check.equal(expectedErrors.toString(), actualErrors.toString(), "diagnosticos");
+        Check.equal(AstDump.withNames(expected, sequential), AstDump.withNames(actual, parallel), "arbol");
+    }
+
+    // Ejecuta 'parse' guardando en 'errors' lo que escribe en System.err
+    private static ProgramNode capture(Supplier<ProgramNode> parse, StringBuilder errors) {
+        PrintStream err = System.err;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            return parse.get();
+        } finally {
+            System.setErr(err);
+            errors.append(bytes.toString(StandardCharsets.UTF_8));
+        }
+    }
+}
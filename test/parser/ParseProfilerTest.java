@@ -0,0 +1,118 @@
+package parser;
+
+import harness.Check;
+import harness.Programs;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import lexer.Lexer;
+import lexer.Token;
+
+/**
+ * Eventos del Parser y conteos de ParseProfiler con errores de sintaxis: cada
+ * enterRule tiene su exitRule tambien cuando la regla falla, errorRecovered llega
+ * despues de cerrar la declaracion, cada token se atribuye a la regla abierta mas
+ * interna y los conteos del profiler coinciden con los de un listener que lleva su
+ * propia pila de reglas.
+ */
+public class ParseProfilerTest {
+    public static void main(String[] args) {
+        // Sin errores: var, x, :, int, = y ; van a la declaracion de variable; el 1, al operando
+        Recorder ok = parse("var x : int = 1 ;");
+        Check.equal(0L, ok.profiler.getErrorsRecovered(), "sin errores");
+        Check.equal(7L, ok.profiler.getTokensConsumed(), "tokens");
+        Check.equal(6L, ok.profiler.getTokens(ParseRule.VARIABLE_DECL), "tokens de VARIABLE_DECL");
+        Check.equal(1L, ok.profiler.getTokens(ParseRule.OPERAND), "tokens de OPERAND");
+        Check.equal(1L, ok.profiler.getInvocations(ParseRule.EXPRESSION), "EXPRESSION");
+
+        // Falta el tipo: la regla falla despues de var, y, : y la sincronizacion (=, 2, ;)
+        // consume dentro de DECLARATION, que sigue abierta hasta despues de sincronizar
+        Recorder error = parse("var y : = 2 ; print ( y ) ;");
+        Check.equal(1L, error.profiler.getErrorsRecovered(), "un error");
+        Check.equal(3L, error.profiler.getTokens(ParseRule.VARIABLE_DECL), "tokens antes del error");
+        Check.equal(3L, error.profiler.getTokens(ParseRule.DECLARATION), "tokens de la sincronizacion");
+        Check.equal(2L, error.profiler.getInvocations(ParseRule.DECLARATION), "la declaracion siguiente se lee");
+        Check.equal(1L, error.profiler.getInvocations(ParseRule.EXPRESSION_STATEMENT), "print");
+        Check.equal(List.of("IDENTIFIER print"), error.resumedAt, "se retoma en print");
+
+        // Error dentro de un grupo abierto de una expresion: todas las reglas anidadas se cierran
+        Recorder nested = parse("x = ( 1 + f ( 2 , ; y = 3 ; function g ( ) { z = ( ; } print ( 1 ) ;");
+        Check.isTrue(nested.profiler.getErrorsRecovered() >= 2, "errores: " + nested.profiler.getErrorsRecovered());
+
+        Random random = new Random(15);
+        long recovered = 0;
+        for (int i = 0; i < 2000; i++) {
+            String source = i % 2 == 0 ? Programs.withErrors(random) : Programs.generate(random);
+            recovered += parse(source).profiler.getErrorsRecovered();
+        }
+        Check.isTrue(recovered > 500, "errores recuperados: " + recovered);
+    }
+
+    private static Recorder parse(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        parser.setPrintErrors(false);
+        Recorder recorder = new Recorder();
+        parser.setParseListener(recorder);
+        parser.parse();
+
+        ParseProfiler profiler = recorder.profiler;
+        Check.equal(0, recorder.open.size(), "reglas sin cerrar en: " + source);
+        Check.equal(parser.getErrors(), recorder.messages, "errores de: " + source);
+        Check.equal((long) parser.getErrors().size(), profiler.getErrorsRecovered(), source);
+        Check.equal(recorder.consumed, profiler.getTokensConsumed(), source);
+        long attributed = 0;
+        for (ParseRule rule : ParseRule.values()) {
+            String context = rule + " en: " + source;
+            Check.equal(recorder.invocations[rule.ordinal()], profiler.getInvocations(rule), context);
+            Check.equal(recorder.tokens[rule.ordinal()], profiler.getTokens(rule), context);
+            Check.isTrue(profiler.getTotalNanos(rule) >= profiler.getSelfNanos(rule)
+                && profiler.getSelfNanos(rule) >= 0, "tiempos de " + context);
+            attributed += profiler.getTokens(rule);
+        }
+        // Todo token se consume dentro de alguna regla (al menos DECLARATION)
+        Check.equal(profiler.getTokensConsumed(), attributed, "tokens atribuidos en: " + source);
+        return recorder;
+    }
+
+    // Lleva su propia pila de reglas y pasa cada evento a un ParseProfiler
+    private static final class Recorder implements ParseListener {
+        final ParseProfiler profiler = new ParseProfiler();
+        final Deque<ParseRule> open = new ArrayDeque<>();
+        final long[] invocations = new long[ParseRule.values().length];
+        final long[] tokens = new long[ParseRule.values().length];
+        final List<String> messages = new ArrayList<>();
+        final List<String> resumedAt = new ArrayList<>();
+        long consumed;
+
+        @Override
+        public void enterRule(ParseRule rule, Token token) {
+            open.push(rule);
+            invocations[rule.ordinal()]++;
+            profiler.enterRule(rule, token);
+        }
+
+        @Override
+        public void exitRule(ParseRule rule, Token token) {
+            Check.isTrue(!open.isEmpty(), "exitRule sin enterRule: " + rule);
+            Check.equal(open.pop(), rule, "exitRule de la regla mas interna");
+            profiler.exitRule(rule, token);
+        }
+
+        @Override
+        public void tokenConsumed(Token token) {
+            consumed++;
+            if (!open.isEmpty()) tokens[open.peek().ordinal()]++;
+            profiler.tokenConsumed(token);
+        }
+
+        @Override
+        public void errorRecovered(String message, Token resumeAt) {
+            Check.equal(0, open.size(), "errorRecovered despues de cerrar la declaracion");
+            messages.add(message);
+            resumedAt.add(resumeAt.getType() + " " + resumeAt.getLexeme());
+            profiler.errorRecovered(message, resumeAt);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package parser;
+
+import ast.BlockNode;
+import ast.FunctionNode;
+import ast.IfNode;
+import ast.ProgramNode;
+import ast.VariableDeclNode;
+import ast.WhileNode;
+import harness.Check;
+import lexer.Lexer;
+
+/**
+ * Reglas de sentencias: los cuerpos de if/else/while consumen su '{', un bloque
+ * puede ir anidado como sentencia, las declaraciones var se aceptan dentro de bloques
+ * y una funcion puede declarar su tipo de retorno.
+ */
+public class StatementParserTest {
+    public static void main(String[] args) {
+        ProgramNode program = parse(
+            "function f() {\n"
+            + "  var i: int = 0;\n"
+            + "  while (i < 3) {\n"
+            + "    if (i == 1) { print(i); } else { var j: int = i; print(j); }\n"
+            + "    { i = i + 1; }\n"
+            + "  }\n"
+            + "}\n");
+        BlockNode body = ((FunctionNode) program.getDeclarations().get(0)).getBody();
+        Check.equal(2, body.getStatements().size(), "sentencias de f");
+        Check.isTrue(body.getStatements().get(0) instanceof VariableDeclNode, "var dentro de la funcion");
+
+        BlockNode loop = ((WhileNode) body.getStatements().get(1)).getBody();
+        Check.equal(2, loop.getStatements().size(), "sentencias del while");
+        IfNode ifNode = (IfNode) loop.getStatements().get(0);
+        Check.equal(1, ifNode.getThenBlock().getStatements().size(), "rama then");
+        Check.equal(2, ifNode.getElseBlock().getStatements().size(), "rama else");
+        Check.isTrue(ifNode.getElseBlock().getStatements().get(0) instanceof VariableDeclNode, "var dentro del else");
+        Check.isTrue(loop.getStatements().get(1) instanceof BlockNode, "bloque anidado");
+
+        // Un cuerpo sin llaves es un error, no una recursion sin fin
+        Parser parser = new Parser(new Lexer("function g() { while (1) print(1); }"));
+        parser.setPrintErrors(false);
+        parser.parse();
+        Check.isTrue(!parser.getErrors().isEmpty(), "while sin llaves reporta error");
+
+        // Tipo de retorno opcional despues de los parentesis
+        FunctionNode typed = (FunctionNode) parse("function h(): float {\n  return 1;\n}").getDeclarations().get(0);
+        Check.equal("float", typed.getReturnType(), "tipo de retorno");
+        Check.equal(1, typed.getLineNumber(), "linea de la funcion");
+        Check.equal("void", ((FunctionNode) program.getDeclarations().get(0)).getReturnType(), "sin tipo es void");
+        parser = new Parser(new Lexer("function k(): x { }"));
+        parser.setPrintErrors(false);
+        parser.parse();
+        Check.isTrue(!parser.getErrors().isEmpty(), "tipo de retorno invalido reporta error");
+    }
+
+    private static ProgramNode parse(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        ProgramNode program = parser.parse();
+        Check.equal("[]", parser.getErrors().toString(), "errores de parsing");
+        return program;
+    }
+}
@@ -0,0 +1,95 @@
+package semantic;
+
+import ast.ProgramNode;
+import harness.Check;
+import harness.Execution;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import lexer.Lexer;
+import parser.IncrementalParser;
+import parser.Parser;
+import util.ErrorSemantico;
+import util.ManejadorErrores;
+
+/**
+ * Una AnalysisSession que sigue una serie de ediciones (con IncrementalParser, como la
+ * GUI) da despues de cada una los mismos errores que un SemanticAnalyzer nuevo sobre el
+ * texto parseado desde cero, y el programa anotado por la sesion se ejecuta igual.
+ * Las ediciones borran, duplican o intercambian lineas, asi que aparecen variables y
+ * funciones repetidas en declaraciones reutilizadas de la ejecucion anterior.
+ */
+public class AnalysisSessionTest {
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            // La declaracion reutilizada pasa a ser una variable repetida: su valor inicial ya
+            // no se analiza y no debe quedar con la direccion de 'a' de la vez anterior
+            check("var a : int = 1 ;\nvar b : int = a + 1 ;\nprint ( b ) ;",
+                  "var b : int = 5 ;\nvar a : int = 1 ;\nvar b : int = a + 1 ;\nprint ( b ) ;");
+            check("function f ( ) { var x : int = 2 ; print ( x ) ; }\nf ( ) ;",
+                  "function f ( ) { print ( 0 ) ; }\nfunction f ( ) { var x : int = 2 ; print ( x ) ; }\nf ( ) ;");
+
+            Random random = new Random(21);
+            for (int i = 0; i < 300; i++) {
+                String text = Programs.generate(random, 1 + random.nextInt(6));
+                AnalysisSession session = new AnalysisSession();
+                IncrementalParser.Snapshot snapshot = IncrementalParser.parse(text);
+                compare(session, snapshot, text);
+                for (int edit = 0; edit < 6; edit++) {
+                    text = edit(text, random);
+                    snapshot = IncrementalParser.reparse(snapshot, text);
+                    compare(session, snapshot, text);
+                }
+            }
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+        }
+    }
+
+    private static void check(String before, String after) {
+        AnalysisSession session = new AnalysisSession();
+        IncrementalParser.Snapshot snapshot = IncrementalParser.parse(before);
+        compare(session, snapshot, before);
+        compare(session, IncrementalParser.reparse(snapshot, after), after);
+    }
+
+    private static void compare(AnalysisSession session, IncrementalParser.Snapshot snapshot, String text) {
+        List<String> incremental = texts(session.analyze(snapshot.getProgram()).getErrores());
+        ProgramNode full = new Parser(new Lexer(text)).parse();
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        analyzer.analyze(full);
+        Check.equal(texts(analyzer.getManejadorErrores().getErrores()), incremental, "errores de\n" + text);
+        Check.equal(Execution.interpret(full), Execution.interpret(snapshot.getProgram()), "ejecucion de\n" + text);
+    }
+
+    // Borra, duplica o intercambia con la siguiente una linea al azar
+    private static String edit(String text, Random random) {
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\n", -1)));
+        int line = random.nextInt(lines.size());
+        switch (random.nextInt(3)) {
+            case 0:
+                lines.remove(line);
+                break;
+            case 1:
+                lines.add(line, lines.get(line));
+                break;
+            default:
+                if (line + 1 < lines.size()) lines.add(line + 1, lines.remove(line));
+                break;
+        }
+        return String.join("\n", lines);
+    }
+
+    private static List<String> texts(List<ErrorSemantico> errors) {
+        List<String> texts = new ArrayList<>();
+        for (ErrorSemantico error : errors) texts.add(error.toString());
+        return texts;
+    }
+}
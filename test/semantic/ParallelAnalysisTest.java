@@ -0,0 +1,79 @@
+package semantic;
+
+import ast.ProgramNode;
+import harness.Check;
+import harness.Execution;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import lexer.Lexer;
+import parser.Parser;
+import util.ErrorSemantico;
+import util.ManejadorErrores;
+
+/**
+ * analyzeParallel da los mismos errores que analyze, ordenados por linea (los de una
+ * misma linea en el orden del fuente), deja el programa anotado igual para el
+ * Interpreter y con un maximo de errores conserva los primeros por linea. Los
+ * programas tienen al menos MIN_PARALLEL_FUNCTIONS funciones para que se repartan.
+ */
+public class ParallelAnalysisTest {
+    public static void main(String[] args) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(20);
+            for (int i = 0; i < 300; i++) {
+                boolean broken = i % 4 == 3;
+                int functions = 16 + random.nextInt(40);
+                String source = broken ? Programs.withErrors(random, functions) : Programs.generate(random, functions);
+
+                ProgramNode sequential = parse(source);
+                SemanticAnalyzer analyzer = new SemanticAnalyzer();
+                analyzer.analyze(sequential);
+                List<String> expected = byLine(analyzer.getManejadorErrores().getErrores());
+
+                ProgramNode parallel = parse(source);
+                SemanticAnalyzer parallelAnalyzer = new SemanticAnalyzer();
+                parallelAnalyzer.analyzeParallel(parallel, pool);
+                Check.equal(expected, texts(parallelAnalyzer.getManejadorErrores().getErrores()), source);
+
+                SemanticAnalyzer limited = new SemanticAnalyzer();
+                limited.getManejadorErrores().setMaxErrores(5);
+                limited.analyzeParallel(parse(source), pool);
+                Check.equal(expected.subList(0, Math.min(5, expected.size())),
+                    texts(limited.getManejadorErrores().getErrores()), "maximo 5 en " + source);
+
+                if (broken) continue;
+                Check.equal(Execution.interpret(sequential), Execution.interpret(parallel), "ejecucion de " + source);
+            }
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+            pool.shutdown();
+        }
+    }
+
+    private static ProgramNode parse(String source) {
+        return new Parser(new Lexer(source)).parse();
+    }
+
+    // El sort es estable: los de una misma linea quedan en el orden en que se reportaron
+    private static List<String> byLine(List<ErrorSemantico> errors) {
+        List<ErrorSemantico> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingInt(ErrorSemantico::getLinea));
+        return texts(sorted);
+    }
+
+    private static List<String> texts(List<ErrorSemantico> errors) {
+        List<String> texts = new ArrayList<>();
+        for (ErrorSemantico error : errors) texts.add(error.toString());
+        return texts;
+    }
+}
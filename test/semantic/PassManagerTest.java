@@ -0,0 +1,285 @@
+package semantic;
+
+import ast.*;
+import harness.AstDump;
+import harness.Check;
+import harness.Programs;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import lexer.Lexer;
+import parser.AnalizadorSemanticoAvanzado;
+import parser.Parser;
+import util.ManejadorErrores;
+
+/**
+ * SemanticAnalyzer y AnalizadorSemanticoAvanzado en un solo PassManager dan los mismos
+ * errores y anotaciones que cada uno por separado. Con pasadas que anotan cada evento se
+ * comparan los recorridos contra un recorrido de referencia: una pasada que devuelve
+ * false no ve los hijos ni la salida de ese nodo y las demas siguen (tambien cuando
+ * todas cortan el mismo nodo, o cortes anidados), una que lanza una excepcion no recibe
+ * mas eventos y su failed() se llama despues del recorrido, y las que dependen de otra
+ * (getRequires) corren en un recorrido posterior, uno por nivel de dependencia.
+ */
+public class PassManagerTest {
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(22);
+            for (int i = 0; i < 300; i++) {
+                String source = i % 3 == 2 ? Programs.withErrors(random) : Programs.generate(random);
+                fusedAnalyzers(source);
+                traces(parse(source), random, source);
+            }
+            requires();
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+        }
+    }
+
+    private static void fusedAnalyzers(String source) {
+        ProgramNode separate = parse(source);
+        SemanticAnalyzer semantic = new SemanticAnalyzer();
+        semantic.analyze(separate);
+        AnalizadorSemanticoAvanzado advanced = new AnalizadorSemanticoAvanzado();
+        advanced.analyze(separate);
+
+        ProgramNode fused = parse(source);
+        SemanticAnalyzer fusedSemantic = new SemanticAnalyzer();
+        AnalizadorSemanticoAvanzado fusedAdvanced = new AnalizadorSemanticoAvanzado();
+        PassManager manager = new PassManager();
+        manager.add(fusedSemantic);
+        manager.add(fusedAdvanced);
+        manager.run(fused);
+
+        Check.equal(semantic.getManejadorErrores().getErrores(), fusedSemantic.getManejadorErrores().getErrores(),
+            "errores de semantico en " + source);
+        Check.equal(advanced.getErrors().getErrores(), fusedAdvanced.getErrors().getErrores(),
+            "errores de semantico-avanzado en " + source);
+        Check.equal(AstDump.of(separate), AstDump.of(fused), "anotaciones de " + source);
+    }
+
+    private static void traces(ProgramNode program, Random random, String source) {
+        int events = reference(program, node -> false, -1).size();
+        List<Tracer> tracers = Arrays.asList(
+            new Tracer("todo", node -> false, -1),
+            new Tracer("sin-if", node -> node instanceof IfNode, -1),
+            // Corta funciones y, dentro de las que no corta, bloques: cortes anidados
+            new Tracer("anidado", node -> node instanceof BlockNode
+                || node instanceof FunctionNode && node.getLineNumber() % 2 == 0, -1),
+            new Tracer("lanza", node -> node.getLineNumber() % 3 == 0, random.nextInt(events + 1)));
+        run(tracers, program, source);
+        // Aqui todas las pasadas cortan los while (o ya lanzaron), asi que nadie baja a sus hijos
+        run(Arrays.asList(
+            new Tracer("while", node -> node instanceof WhileNode, random.nextInt(events + 1)),
+            new Tracer("while-if", node -> node instanceof WhileNode || node instanceof IfNode, -1)), program, source);
+
+        // Con el failed() por defecto la excepcion sale de run(), pero recien despues
+        // de que las demas pasadas terminaron el recorrido
+        Tracer all = new Tracer("todo", node -> false, -1);
+        Tracer thrower = new Tracer("lanza", node -> false, random.nextInt(events));
+        thrower.rethrow = true;
+        PassManager rethrowing = new PassManager();
+        rethrowing.add(thrower);
+        rethrowing.add(all);
+        Check.fails(IllegalStateException.class, () -> rethrowing.run(program), "failed() por defecto en " + source);
+        Check.equal(reference(program, node -> false, -1), all.events, "recorrido junto a la que lanza en " + source);
+    }
+
+    private static void run(List<Tracer> tracers, ProgramNode program, String source) {
+        PassManager manager = new PassManager();
+        for (Tracer tracer : tracers) manager.add(tracer);
+        manager.run(program);
+        for (Tracer tracer : tracers) tracer.check(program, source);
+    }
+
+    private static void requires() {
+        ProgramNode program = parse("var x: int = 1; function f() { var y: int = x + 2; print(y); }");
+        int nodes = reference(program, node -> false, -1).size() / 2;
+        List<String> log = new ArrayList<>();
+        List<ASTNode> marked = new ArrayList<>();
+        PassManager manager = new PassManager();
+        manager.add(new Logging("marca", log, Collections.emptyList()) {
+            @Override
+            public void register(PassManager.Registry registry) {
+                super.register(registry);
+                registry.onExit(ASTNode.class, marked::add);
+            }
+        });
+        manager.add(new Logging("usa", log, Collections.singletonList("marca")) {
+            @Override
+            public void register(PassManager.Registry registry) {
+                super.register(registry);
+                // Ve las marcas de todo el arbol desde el primer nodo
+                registry.onEnter(ProgramNode.class, node -> {
+                    Check.equal(nodes, marked.size(), "marcas antes de 'usa'");
+                    return true;
+                });
+            }
+        });
+        manager.add(new Logging("tambien", log, Collections.singletonList("marca")));
+        manager.add(new Logging("ultima", log, Arrays.asList("usa", "marca")));
+        manager.run(program);
+
+        // "usa" y "tambien" comparten el segundo recorrido; "ultima" va en un tercero
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) expected.add("marca");
+        for (int i = 0; i < nodes; i++) {
+            expected.add("usa");
+            expected.add("tambien");
+        }
+        for (int i = 0; i < nodes; i++) expected.add("ultima");
+        Check.equal(expected, log, "orden de los recorridos");
+
+        PassManager missing = new PassManager();
+        missing.add(new Logging("usa", log, Collections.singletonList("marca")));
+        Check.fails(IllegalStateException.class, () -> missing.run(program), "requiere una que no esta");
+        PassManager late = new PassManager();
+        late.add(new Logging("usa", log, Collections.singletonList("marca")));
+        late.add(new Logging("marca", log, Collections.emptyList()));
+        Check.fails(IllegalStateException.class, () -> late.run(program), "requiere una agregada despues");
+        PassManager repeated = new PassManager();
+        repeated.add(new Logging("marca", log, Collections.emptyList()));
+        Check.fails(IllegalArgumentException.class, () -> repeated.add(new Logging("marca", log, Collections.emptyList())),
+            "nombre repetido");
+    }
+
+    private static ProgramNode parse(String source) {
+        return new Parser(new Lexer(source)).parse();
+    }
+
+    /**
+     * Los eventos que ve una pasada que corta en 'skip' y lanza al llegar a su evento
+     * numero 'throwAt' (-1 si no lanza), recorriendo los hijos en el orden de los visitors.
+     */
+    private static List<String> reference(ASTNode root, Predicate<ASTNode> skip, int throwAt) {
+        List<String> events = new ArrayList<>();
+        walk(root, skip, events);
+        return throwAt >= 0 && throwAt < events.size() ? events.subList(0, throwAt) : events;
+    }
+
+    private static void walk(ASTNode node, Predicate<ASTNode> skip, List<String> events) {
+        if (node == null) return;
+        events.add("> " + label(node));
+        if (skip.test(node)) return;
+        for (ASTNode child : children(node)) walk(child, skip, events);
+        events.add("< " + label(node));
+    }
+
+    private static List<ASTNode> children(ASTNode node) {
+        if (node instanceof AssignmentNode) return Arrays.asList(((AssignmentNode) node).getValue());
+        if (node instanceof BinaryExpression) {
+            return Arrays.asList(((BinaryExpression) node).getLeft(), ((BinaryExpression) node).getRight());
+        }
+        if (node instanceof BlockNode) return ((BlockNode) node).getStatements();
+        if (node instanceof CallNode) return ((CallNode) node).getArguments();
+        if (node instanceof ExpressionStatementNode) return Arrays.asList(((ExpressionStatementNode) node).getExpression());
+        if (node instanceof FunctionNode) {
+            List<ASTNode> children = new ArrayList<>(((FunctionNode) node).getParameters());
+            children.add(((FunctionNode) node).getBody());
+            return children;
+        }
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            return Arrays.asList(ifNode.getCondition(), ifNode.getThenBlock(), ifNode.getElseBlock());
+        }
+        if (node instanceof PrintNode) return Arrays.asList(((PrintNode) node).getValue());
+        if (node instanceof ProgramNode) return ((ProgramNode) node).getDeclarations();
+        if (node instanceof ReturnNode) return Arrays.asList(((ReturnNode) node).getValue());
+        if (node instanceof VariableDeclNode) return Arrays.asList(((VariableDeclNode) node).getInitialValue());
+        if (node instanceof WhileNode) {
+            return Arrays.asList(((WhileNode) node).getCondition(), ((WhileNode) node).getBody());
+        }
+        return Collections.emptyList();
+    }
+
+    private static String label(ASTNode node) {
+        return node.getClass().getSimpleName() + "@" + node.getLineNumber();
+    }
+
+    // Anota cada entrada y salida; corta en 'skip' y lanza en el evento numero 'throwAt'
+    private static final class Tracer implements AnalysisPass {
+        private final String name;
+        private final Predicate<ASTNode> skip;
+        private final int throwAt;
+        final List<String> events = new ArrayList<>();
+        RuntimeException failure;
+        int failedCalls;
+        boolean rethrow;
+
+        Tracer(String name, Predicate<ASTNode> skip, int throwAt) {
+            this.name = name;
+            this.skip = skip;
+            this.throwAt = throwAt;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void register(PassManager.Registry registry) {
+            registry.onEnter(ASTNode.class, node -> {
+                event("> " + label(node));
+                return !skip.test(node);
+            });
+            registry.onExit(ASTNode.class, node -> event("< " + label(node)));
+        }
+
+        private void event(String event) {
+            if (events.size() == throwAt) throw new IllegalStateException(name + " falla en " + event);
+            events.add(event);
+        }
+
+        @Override
+        public void failed(RuntimeException error) {
+            if (rethrow) AnalysisPass.super.failed(error);
+            failure = error;
+            failedCalls++;
+        }
+
+        void check(ProgramNode program, String source) {
+            List<String> full = reference(program, skip, -1);
+            Check.equal(reference(program, skip, throwAt), events, "eventos de " + name + " en " + source);
+            boolean threw = throwAt >= 0 && throwAt < full.size();
+            Check.equal(threw ? 1 : 0, failedCalls, "llamadas a failed() de " + name + " en " + source);
+            if (threw) Check.isTrue(failure.getMessage().startsWith(name + " falla"), "excepcion de " + name);
+        }
+    }
+
+    // Anota su nombre en 'log' al entrar a cada nodo
+    private static class Logging implements AnalysisPass {
+        private final String name;
+        private final List<String> log;
+        private final List<String> requires;
+
+        Logging(String name, List<String> log, List<String> requires) {
+            this.name = name;
+            this.log = log;
+            this.requires = requires;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<String> getRequires() {
+            return requires;
+        }
+
+        @Override
+        public void register(PassManager.Registry registry) {
+            registry.onEnter(ASTNode.class, node -> log.add(name));
+        }
+    }
+}
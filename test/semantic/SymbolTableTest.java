@@ -0,0 +1,96 @@
+package semantic;
+
+import harness.Check;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import util.Interner;
+
+/**
+ * UndoLogScopeManager se comporta igual que ScopeManager: secuencias al azar de
+ * declareSymbol, enterScope, exitScope y consultas sobre pocos nombres (para que
+ * haya sombreado y redeclaraciones) dan los mismos resultados en resolve,
+ * containsSymbol, depthOf, los slots de cada simbolo y los ids por slot del scope
+ * actual y del global. Salir del scope global falla en las dos.
+ */
+public class SymbolTableTest {
+    public static void main(String[] args) {
+        // Sombreado: la declaracion interna tapa a la externa hasta salir del bloque
+        UndoLogScopeManager table = new UndoLogScopeManager();
+        Symbol outer = new Symbol("x", Tipo.INT, null, false);
+        Symbol inner = new Symbol("x", Tipo.STRING, null, false);
+        Check.isTrue(table.declareSymbol("x", outer), "declarar x");
+        Check.isTrue(!table.declareSymbol("x", new Symbol("x", Tipo.INT, null, false)), "x repetida");
+        table.enterScope();
+        Check.isTrue(!table.containsSymbol("x") && table.depthOf(table.getInterner().lookup("x")) == 1, "x de afuera");
+        Check.isTrue(table.declareSymbol("x", inner), "sombrear x");
+        Check.isTrue(table.resolve("x") == inner && table.containsSymbol("x"), "x de adentro");
+        Check.equal(0, inner.getSlot(), "slot en el bloque");
+        table.exitScope();
+        Check.isTrue(table.resolve("x") == outer, "x de afuera otra vez");
+        Check.fails(IllegalStateException.class, table::exitScope, "salir del global");
+
+        Random random = new Random(19);
+        for (int i = 0; i < 3000; i++) compare(random, 1 + random.nextInt(200));
+    }
+
+    private static void compare(Random random, int steps) {
+        Interner interner = new Interner();
+        String[] names = new String[1 + random.nextInt(8)];
+        for (int k = 0; k < names.length; k++) names[k] = "n" + k;
+        ScopeManager chain = new ScopeManager(interner);
+        UndoLogScopeManager undoLog = new UndoLogScopeManager(interner);
+        // Simbolo de ScopeManager -> simbolo equivalente de UndoLogScopeManager
+        Map<Symbol, Symbol> twins = new IdentityHashMap<>();
+        int level = 0;
+        StringBuilder trace = new StringBuilder();
+
+        for (int step = 0; step < steps; step++) {
+            String name = names[random.nextInt(names.length)];
+            int op = random.nextInt(10);
+            trace.append(op).append(name).append(' ');
+            String context = trace.toString();
+            if (op < 4) {
+                boolean function = random.nextInt(4) == 0;
+                Symbol a = new Symbol(name, Tipo.INT, null, function);
+                Symbol b = new Symbol(name, Tipo.INT, null, function);
+                twins.put(a, b);
+                Check.equal(chain.declareSymbol(name, a), undoLog.declareSymbol(name, b), "declarar " + context);
+                Check.equal(a.getSlot(), b.getSlot(), "slot " + context);
+            } else if (op < 6) {
+                chain.enterScope();
+                undoLog.enterScope();
+                level++;
+            } else if (op < 8) {
+                if (level == 0) {
+                    Check.fails(IllegalStateException.class, chain::exitScope, context);
+                    Check.fails(IllegalStateException.class, undoLog::exitScope, context);
+                } else {
+                    chain.exitScope();
+                    undoLog.exitScope();
+                    level--;
+                }
+            } else {
+                // Tambien nombres que nunca se declararon ni se internaron
+                String asked = op == 9 ? "otro" + random.nextInt(3) : name;
+                Symbol a = chain.resolve(asked);
+                Check.isTrue(a == null ? undoLog.resolve(asked) == null : twins.get(a) == undoLog.resolve(asked),
+                    "resolve " + asked + ": " + context);
+                Check.equal(chain.containsSymbol(asked), undoLog.containsSymbol(asked), "contains " + context);
+            }
+            for (String each : names) {
+                int id = interner.lookup(each);
+                if (id < 0) continue;
+                Check.isTrue(twins.get(chain.resolve(id)) == undoLog.resolve(id),
+                    "resolve " + each + ": " + context);
+                Check.equal(chain.containsSymbol(id), undoLog.containsSymbol(id), "contains " + each + ": " + context);
+                Check.equal(chain.depthOf(id), undoLog.depthOf(id), "depthOf " + each + ": " + context);
+            }
+            Check.equal(Arrays.toString(chain.getSlotSymbols()), Arrays.toString(undoLog.getSlotSymbols()),
+                "slots " + context);
+            Check.equal(Arrays.toString(chain.getGlobalSlotSymbols()), Arrays.toString(undoLog.getGlobalSlotSymbols()),
+                "slots globales " + context);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package semantic;
+
+import ast.*;
+import harness.Check;
+import harness.Execution;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lexer.Lexer;
+import parser.Parser;
+import util.CodigoError;
+import util.ErrorSemantico;
+import util.ManejadorErrores;
+
+/**
+ * Los tipos que infiere el analisis semantico: errores de asignacion, de operadores y
+ * de retorno (con el tipo de retorno opcional de las funciones), y el camino rapido
+ * numerico del Interpreter, que tiene que dar lo mismo que el camino normal en
+ * programas al azar con variables sin valor, division por cero y comparaciones.
+ */
+public class TypeInferenceTest {
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            errors("var x : int = 1 + 2 * 3 ;");
+            errors("var x : float = 1 / 2 ; var y : int = x ;");
+            errors("var s : string = 1 + 2 ;", CodigoError.TIPO_INCOMPATIBLE);
+            errors("var b : boolean = 1 < 2 ; var n : int = b + 1 ;", CodigoError.OPERANDO_NO_NUMERICO);
+            errors("function f ( ) : int { return 1 ; } var s : string = f ( ) ;", CodigoError.TIPO_INCOMPATIBLE);
+            errors("function f ( ) : int { return \"s\" ; }", CodigoError.RETORNO_INCOMPATIBLE);
+            errors("function f ( ) : float { return 1 ; } var x : float = f ( ) + 1 ;");
+            errors("function f ( ) : int { return ; }", CodigoError.FALTA_VALOR_RETORNO);
+            // Sin tipo de retorno la funcion es void y puede devolver cualquier cosa
+            errors("function f ( ) { return \"s\" ; } var s : string = f ( ) ; var n : int = f ( ) ;");
+
+            Random random = new Random(24);
+            int numeric = 0;
+            for (int i = 0; i < 2000; i++) {
+                String source = program(random);
+                ProgramNode fast = parse(source);
+                new SemanticAnalyzer().analyze(fast);
+                ProgramNode slow = parse(source);
+                new SemanticAnalyzer().analyze(slow);
+                numeric += withoutFastPath(slow);
+                Check.equal(Execution.interpret(fast), Execution.interpret(slow), source);
+            }
+            Check.isTrue(numeric > 10_000, "operaciones con camino rapido: " + numeric);
+        } finally {
+            ManejadorErrores.esperarEscritura();
+            System.setErr(err);
+        }
+    }
+
+    private static ProgramNode parse(String source) {
+        return new Parser(new Lexer(source)).parse();
+    }
+
+    private static void errors(String source, CodigoError... expected) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        analyzer.analyze(parse(source));
+        List<CodigoError> codes = new ArrayList<>();
+        for (ErrorSemantico error : analyzer.getManejadorErrores().getErrores()) codes.add(error.getCodigo());
+        Check.equal(List.of(expected), codes, source);
+    }
+
+    // Solo numeros: declaraciones (algunas sin valor), asignaciones, if y print
+    private static String program(Random random) {
+        StringBuilder out = new StringBuilder();
+        int variables = 0;
+        for (int i = 0; i < 8; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    out.append("var n").append(variables++).append(random.nextBoolean() ? " : int" : " : float");
+                    if (random.nextInt(5) != 0) out.append(" = ").append(expression(random, variables - 1, 3));
+                    out.append(" ;\n");
+                    break;
+                case 1:
+                    if (variables > 0) {
+                        out.append("n").append(random.nextInt(variables)).append(" = ")
+                            .append(expression(random, variables, 3)).append(" ;\n");
+                    }
+                    break;
+                case 2:
+                    out.append("if ( ").append(expression(random, variables, 2)).append(" ) { print ( ")
+                        .append(expression(random, variables, 3)).append(" ) ; }\n");
+                    break;
+                default:
+                    out.append("print ( ").append(expression(random, variables, 3)).append(" ) ;\n");
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "<", ">", "<=", ">=", "==", "!="};
+
+    private static String expression(Random random, int variables, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            if (variables > 0 && random.nextBoolean()) return "n" + random.nextInt(variables);
+            return random.nextInt(4) == 0 ? random.nextInt(3) + ".5" : String.valueOf(random.nextInt(3));
+        }
+        // Las comparaciones solo arriba, para que sus operandos sean numeros
+        String operator = OPERATORS[random.nextInt(depth == 3 ? OPERATORS.length : 4)];
+        return "( " + expression(random, variables, depth - 1) + " " + operator + " "
+            + expression(random, variables, depth - 1) + " )";
+    }
+
+    // Apaga el camino rapido en todo el arbol; devuelve cuantas operaciones lo tenian
+    private static int withoutFastPath(ASTNode node) {
+        if (node == null) return 0;
+        int count = 0;
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            if (binary.isNumeric()) count++;
+            binary.setNumeric(false);
+            return count + withoutFastPath(binary.getLeft()) + withoutFastPath(binary.getRight());
+        }
+        List<ASTNode> children = new ArrayList<>();
+        if (node instanceof ProgramNode) children.addAll(((ProgramNode) node).getDeclarations());
+        if (node instanceof BlockNode) children.addAll(((BlockNode) node).getStatements());
+        if (node instanceof VariableDeclNode) children.add(((VariableDeclNode) node).getInitialValue());
+        if (node instanceof AssignmentNode) children.add(((AssignmentNode) node).getValue());
+        if (node instanceof ExpressionStatementNode) children.add(((ExpressionStatementNode) node).getExpression());
+        if (node instanceof CallNode) children.addAll(((CallNode) node).getArguments());
+        if (node instanceof IfNode) {
+            children.add(((IfNode) node).getCondition());
+            children.add(((IfNode) node).getThenBlock());
+        }
+        for (ASTNode child : children) count += withoutFastPath(child);
+        return count;
+    }
+}
@@ -0,0 +1,57 @@
+package util;
+
+import harness.Check;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import lexer.Lexer;
+import parser.Parser;
+import semantic.SemanticAnalyzer;
+
+/**
+ * ManejadorErrores guarda cada error que recibe salvo que se pida deduplicar, corta
+ * con LimiteErroresException al pasar el maximo, y despues de esperarEscritura()
+ * toda la copia en System.err ya esta escrita y en orden.
+ */
+public class ManejadorErroresTest {
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            // Por defecto cada uso de una variable sin declarar es un error, como antes
+            SemanticAnalyzer analyzer = new SemanticAnalyzer();
+            analyzer.analyze(new Parser(new Lexer("print(zz + zz);")).parse());
+            Check.equal(2, analyzer.getManejadorErrores().getCantidadErrores(), "print(zz + zz) sin deduplicar");
+
+            ManejadorErrores unicos = new ManejadorErrores(false);
+            unicos.setDeduplicar(true);
+            unicos.agregarError(1, "Semántico", CodigoError.VARIABLE_NO_DECLARADA, "zz");
+            unicos.agregarError(1, "Semántico", CodigoError.VARIABLE_NO_DECLARADA, "zz");
+            unicos.agregarError(2, "Semántico", CodigoError.VARIABLE_NO_DECLARADA, "zz");
+            Check.equal(2, unicos.getCantidadErrores(), "con deduplicar solo cae el repetido exacto");
+
+            ManejadorErrores limitado = new ManejadorErrores(false);
+            limitado.setMaxErrores(3);
+            for (int i = 0; i < 3; i++) limitado.agregarError(i, "Semántico", CodigoError.RETURN_FUERA_DE_FUNCION);
+            Check.fails(LimiteErroresException.class,
+                () -> limitado.agregarError(9, "Semántico", CodigoError.RETURN_FUERA_DE_FUNCION), "maximo");
+            Check.equal(3, limitado.getCantidadErrores(), "el error de mas no se guarda");
+            Check.isTrue(limitado.isLimiteAlcanzado(), "limite alcanzado");
+
+            // Lo pendiente de arriba tambien va a 'printed'
+            ManejadorErrores.esperarEscritura();
+            printed.reset();
+            ManejadorErrores impreso = new ManejadorErrores();
+            for (int i = 1; i <= 5000; i++) impreso.agregarError(i, "Semántico", CodigoError.VARIABLE_NO_DECLARADA, "v" + i);
+            ManejadorErrores.esperarEscritura();
+            String[] lines = printed.toString(StandardCharsets.UTF_8).split("\n");
+            Check.equal(5000, lines.length, "lineas escritas despues de esperarEscritura");
+            for (int i = 0; i < lines.length; i++) {
+                Check.isTrue(lines[i].contains("'v" + (i + 1) + "'"), "orden de la linea " + (i + 1) + ": " + lines[i]);
+            }
+        } finally {
+            System.setErr(err);
+        }
+    }
+}